@@ -1,6 +1,8 @@
 package cloud.xcan.angus.cache;
 
 import cloud.xcan.angus.cache.entity.CacheEntry;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -10,8 +12,41 @@ public interface CachePersistence {
 
   Optional<CacheEntry> findByKey(String key);
 
+  /**
+   * Finds the entries for the given keys; keys without a row are absent from the result.
+   *
+   * <p>The default implementation looks keys up one at a time. Implementations backed by a
+   * database should override it with a single {@code IN} query.
+   */
+  default List<CacheEntry> findByKeys(Collection<String> keys) {
+    List<CacheEntry> entries = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      findByKey(key).ifPresent(entries::add);
+    }
+    return entries;
+  }
+
   CacheEntry save(CacheEntry entry);
 
+  /**
+   * Inserts or updates the given entries, matching existing rows by key. Existing rows keep their
+   * id and creation time; all other state is taken from the given entry.
+   *
+   * <p>The default implementation upserts one entry at a time. Implementations backed by a
+   * database should override it to look up existing rows and write the batch in one transaction.
+   */
+  default void upsertAll(Collection<CacheEntry> entries) {
+    for (CacheEntry entry : entries) {
+      CacheEntry existing = findByKey(entry.getKey()).orElse(null);
+      if (existing == null) {
+        save(entry);
+      } else {
+        existing.mergeFrom(entry);
+        save(existing);
+      }
+    }
+  }
+
   /**
    * Deletes the entity with the given key.
    *
@@ -19,6 +54,21 @@ public interface CachePersistence {
    */
   boolean deleteByKey(String key);
 
+  /**
+   * Deletes the entries with the given keys.
+   *
+   * @return the number of entries removed
+   */
+  default int deleteByKeys(Collection<String> keys) {
+    int deleted = 0;
+    for (String key : keys) {
+      if (deleteByKey(key)) {
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
   void deleteAll();
 
   long count();
@@ -6,7 +6,9 @@ import com.github.benmanes.caffeine.cache.Expiry;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
@@ -21,12 +23,28 @@ public class CaffeineMemoryCache {
 
   private static class CacheItem {
 
+    /**
+     * {@code null} marks a negative entry: the key is known to be absent.
+     */
     final String value;
     final LocalDateTime expireAt;
+    /**
+     * Whether a negative entry records a {@code null} loader result rather than a persistence miss.
+     */
+    final boolean loaded;
 
     CacheItem(String value, LocalDateTime expireAt) {
+      this(value, expireAt, false);
+    }
+
+    CacheItem(String value, LocalDateTime expireAt, boolean loaded) {
       this.value = value;
       this.expireAt = expireAt;
+      this.loaded = loaded;
+    }
+
+    boolean isNegative() {
+      return value == null;
     }
 
     boolean isExpired() {
@@ -80,9 +98,47 @@ public class CaffeineMemoryCache {
     cache.put(key, new CacheItem(value, expireAt));
   }
 
+  /**
+   * Remember that a key is absent until {@code expireAt}. A later {@link #put} replaces the
+   * negative entry, while a value stored concurrently since the miss is kept: only an absent,
+   * negative or expired entry is replaced.
+   */
+  public void putNegative(String key, LocalDateTime expireAt) {
+    putNegative(key, expireAt, false);
+  }
+
+  /**
+   * Like {@link #putNegative(String, LocalDateTime)}, recording whether the key was found absent by
+   * a loader ({@code loaded}) or by a persistence lookup. A persistence miss does not replace a
+   * negative entry of a loader.
+   */
+  public void putNegative(String key, LocalDateTime expireAt, boolean loaded) {
+    cache.asMap().compute(key, (k, current) ->
+        current == null || current.isExpired()
+            || current.isNegative() && (loaded || !current.loaded)
+            ? new CacheItem(null, expireAt, loaded) : current);
+  }
+
+  /**
+   * Whether the key currently holds a non-expired negative entry.
+   */
+  public boolean isNegative(String key) {
+    CacheItem item = cache.getIfPresent(key);
+    return item != null && item.isNegative() && !item.isExpired();
+  }
+
+  /**
+   * Whether the key currently holds a non-expired negative entry written for a {@code null} loader
+   * result.
+   */
+  public boolean isLoadedNegative(String key) {
+    CacheItem item = cache.getIfPresent(key);
+    return item != null && item.isNegative() && item.loaded && !item.isExpired();
+  }
+
   public Optional<String> get(String key) {
     CacheItem item = cache.getIfPresent(key);
-    if (item == null) {
+    if (item == null || item.isNegative()) {
       return Optional.empty();
     }
     // Defensive check: Caffeine also enforces TTL, but guard against clock skew
@@ -93,9 +149,36 @@ public class CaffeineMemoryCache {
     return Optional.of(item.value);
   }
 
+  /**
+   * Look up several keys in one pass.
+   *
+   * @return values of the keys present and not expired
+   */
+  public Map<String, String> getAll(Collection<String> keys) {
+    Map<String, CacheItem> items = cache.getAllPresent(keys);
+    Map<String, String> values = new LinkedHashMap<>(items.size());
+    for (Map.Entry<String, CacheItem> e : items.entrySet()) {
+      if (e.getValue().isExpired()) {
+        cache.invalidate(e.getKey());
+      } else if (!e.getValue().isNegative()) {
+        values.put(e.getKey(), e.getValue().value);
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Store several values sharing the same expiration time.
+   */
+  public void putAll(Map<String, String> values, LocalDateTime expireAt) {
+    Map<String, CacheItem> items = new HashMap<>(values.size() * 2);
+    values.forEach((key, value) -> items.put(key, new CacheItem(value, expireAt)));
+    cache.putAll(items);
+  }
+
   public boolean containsKey(String key) {
     CacheItem item = cache.getIfPresent(key);
-    if (item == null) {
+    if (item == null || item.isNegative()) {
       return false;
     }
     if (item.isExpired()) {
@@ -109,6 +192,10 @@ public class CaffeineMemoryCache {
     cache.invalidate(key);
   }
 
+  public void removeAll(Collection<String> keys) {
+    cache.invalidateAll(keys);
+  }
+
   public void clear() {
     cache.invalidateAll();
   }
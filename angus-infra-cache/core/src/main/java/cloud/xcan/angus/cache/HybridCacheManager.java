@@ -2,32 +2,85 @@ package cloud.xcan.angus.cache;
 
 import cloud.xcan.angus.cache.config.CacheProperties;
 import cloud.xcan.angus.cache.entity.CacheEntry;
+import cloud.xcan.angus.cache.invalidation.CacheInvalidationBus;
+import cloud.xcan.angus.cache.invalidation.CacheInvalidationMessage;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
 
 /**
  * Hybrid Cache Manager Combines in-memory cache with database persistence
+ * <p>
+ * When write-behind is enabled ({@code angus.cache.write-behind.enabled=true}), {@link #set}
+ * only updates memory and buffers the entry; a {@link WriteBehindCacheWriter} persists buffered
+ * entries in batches. Reads that fall through to persistence consult the buffer first, so a
+ * node always observes its own unflushed writes.
+ * <p>
+ * When a {@link CacheInvalidationBus} is supplied, every mutation is broadcast so other nodes drop
+ * the key from their memory tier and re-read it from persistence. In write-behind mode a set is
+ * broadcast only after its batch has been flushed. Inside a Spring transaction a mutation is
+ * broadcast only once the transaction commits.
  */
 @Slf4j
-public class HybridCacheManager implements IDistributedCache {
+public class HybridCacheManager implements IDistributedCache, AutoCloseable {
 
   private final CaffeineMemoryCache memoryCache;
   private final CachePersistence cachePersistence;
+  private final WriteBehindCacheWriter writeBehind;
+  private final CacheInvalidationBus invalidationBus;
+  private final long negativeTtlSeconds;
+
+  /**
+   * In-flight loads per key, so that concurrent misses wait for one leader instead of each
+   * querying persistence (or invoking the loader).
+   */
+  private final ConcurrentHashMap<String, CompletableFuture<Optional<String>>> persistenceLoads =
+      new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, CompletableFuture<Optional<String>>> valueLoads =
+      new ConcurrentHashMap<>();
 
   public HybridCacheManager(CachePersistence cachePersistence, CacheProperties cacheProperties) {
+    this(cachePersistence, cacheProperties, null);
+  }
+
+  /**
+   * @param invalidationBus bus used to invalidate the memory tier of other nodes; {@code null}
+   *                        disables cross-node invalidation
+   */
+  public HybridCacheManager(CachePersistence cachePersistence, CacheProperties cacheProperties,
+      CacheInvalidationBus invalidationBus) {
     this.cachePersistence = cachePersistence;
+    this.invalidationBus = invalidationBus;
+    this.negativeTtlSeconds = cacheProperties.getMemory().getNegativeTtlSeconds();
     // Initialize memory cache with configured values using Caffeine
     this.memoryCache = new CaffeineMemoryCache(
         cacheProperties.getMemory().getMaxSize(),
         cacheProperties.getMemory().getCleanupIntervalSeconds()
     );
+    this.writeBehind = cacheProperties.getWriteBehind().isEnabled()
+        ? new WriteBehindCacheWriter(cachePersistence, cacheProperties.getWriteBehind(),
+        this::publishInvalidation)
+        : null;
+    if (invalidationBus != null) {
+      invalidationBus.subscribe(this::applyInvalidation);
+    }
   }
 
   /**
@@ -59,6 +112,17 @@ public class HybridCacheManager implements IDistributedCache {
     // Always save to memory cache first (fast path)
     memoryCache.put(key, value, expireAt);
 
+    if (writeBehind != null) {
+      try {
+        writeBehind.write(newEntry(key, value, ttlSeconds, expireAt));
+        log.debug("Cache set: key={}, ttl={}, persisted=deferred", key, ttlSeconds);
+      } catch (Exception e) {
+        log.error("[CACHE-DEGRADATION] Failed to buffer cache write, falling back to "
+            + "memory-only mode. key={}, error={}", key, e.getMessage(), e);
+      }
+      return;
+    }
+
     // Try to persist to database (best effort, with degradation strategy)
     try {
       CacheEntry entry = cachePersistence.findByKey(key).orElse(null);
@@ -80,6 +144,7 @@ public class HybridCacheManager implements IDistributedCache {
         entry.setIsExpired(false);
       }
       cachePersistence.save(entry);
+      publishInvalidation(key);
       log.debug("Cache set: key={}, ttl={}, persisted=true", key, ttlSeconds);
     } catch (Exception e) {
       // Degradation: DB persistence failed but memory cache still works
@@ -101,7 +166,7 @@ public class HybridCacheManager implements IDistributedCache {
   }
 
   /**
-   * Get cache value
+   * Get cache value. Concurrent memory misses for the same key share one persistence lookup.
    */
   @Override
   public Optional<String> get(String key) {
@@ -111,34 +176,165 @@ public class HybridCacheManager implements IDistributedCache {
       log.debug("Cache hit (memory): key={}", key);
       return memoryValue;
     }
+    if (isKnownAbsent(key)) {
+      return Optional.empty();
+    }
 
-    // Fall back to database
-    Optional<CacheEntry> dbEntry = cachePersistence.findByKey(key);
-    if (dbEntry.isPresent()) {
-      CacheEntry entry = dbEntry.get();
+    // Fall back to database (unflushed write-behind entries take precedence)
+    return singleFlight(persistenceLoads, key, () -> loadFromPersistence(key, true));
+  }
 
-      if (entry.hasExpired()) {
-        // Do NOT call delete() here: that would require a write inside a potentially
-        // read-only transaction context. The periodic cleanupExpiredEntries() will purge it.
-        log.debug("Cache expired (db): key={}", key);
+  /**
+   * Get cache value, invoking {@code loader} at most once per key across concurrent callers on a
+   * miss. A {@code null} loader result is remembered as a negative entry for
+   * {@code memory.negative-ttl-seconds}. Loader exceptions propagate to every waiting caller and
+   * are not cached. Keys found absent by {@link #get(String)} are still loaded: only a negative
+   * entry of a loader skips the load.
+   */
+  @Override
+  public Optional<String> getOrLoad(String key, Function<String, String> loader,
+      Long ttlSeconds) {
+    Optional<String> memoryValue = memoryCache.get(key);
+    if (memoryValue.isPresent()) {
+      log.debug("Cache hit (memory): key={}", key);
+      return memoryValue;
+    }
+    if (negativeTtlSeconds > 0 && memoryCache.isLoadedNegative(key)) {
+      log.debug("Cache hit (negative load): key={}", key);
+      return Optional.empty();
+    }
+
+    return singleFlight(valueLoads, key, () -> {
+      // A miss is not remembered here: only the loader decides that the key is absent
+      Optional<String> stored = loadFromPersistence(key, false);
+      if (stored.isPresent()) {
+        return stored;
+      }
+      String loaded = loader.apply(key);
+      if (loaded == null) {
+        if (negativeTtlSeconds > 0) {
+          memoryCache.putNegative(key, LocalDateTime.now().plusSeconds(negativeTtlSeconds), true);
+        }
+        log.debug("Cache load returned nothing: key={}", key);
         return Optional.empty();
       }
+      set(key, loaded, ttlSeconds);
+      log.debug("Cache loaded: key={}, ttl={}", key, ttlSeconds);
+      return Optional.of(loaded);
+    });
+  }
 
-      // Warm the memory cache from DB
-      memoryCache.put(key, entry.getValue(), entry.getExpireAt());
-      log.debug("Cache hit (database): key={}", key);
-      return Optional.of(entry.getValue());
+  /**
+   * Get several values: memory hits are resolved first, then all misses are fetched from
+   * persistence with one {@link CachePersistence#findByKeys(Collection)} call and warmed into the
+   * memory cache.
+   */
+  @Override
+  public Map<String, String> getAll(Collection<String> keys) {
+    Map<String, String> found = memoryCache.getAll(keys);
+    List<String> misses = new ArrayList<>(keys.size() - found.size());
+    for (String key : keys) {
+      if (!found.containsKey(key) && !isKnownAbsent(key)) {
+        misses.add(key);
+      }
     }
+    if (!misses.isEmpty()) {
+      for (CacheEntry entry : findEntries(misses)) {
+        if (entry.hasExpired()) {
+          continue;
+        }
+        memoryCache.put(entry.getKey(), entry.getValue(), entry.getExpireAt());
+        found.put(entry.getKey(), entry.getValue());
+      }
+      for (String key : misses) {
+        if (!found.containsKey(key)) {
+          putNegative(key);
+        }
+      }
+    }
+    log.debug("Cache getAll: keys={}, memoryHits={}, found={}", keys.size(),
+        keys.size() - misses.size(), found.size());
 
-    log.debug("Cache miss: key={}", key);
-    return Optional.empty();
+    // Preserve the caller's key order
+    Map<String, String> values = new LinkedHashMap<>(found.size() * 2);
+    for (String key : keys) {
+      String value = found.get(key);
+      if (value != null) {
+        values.put(key, value);
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Set several values with the same TTL: one memory write and one batched
+   * {@link CachePersistence#upsertAll(Collection)} (or one buffer write per key in write-behind
+   * mode).
+   */
+  @Override
+  public void setAll(Map<String, String> entries, Long ttlSeconds) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    LocalDateTime expireAt = ttlSeconds != null
+        ? LocalDateTime.now().plusSeconds(ttlSeconds)
+        : null;
+    memoryCache.putAll(entries, expireAt);
+
+    List<CacheEntry> batch = new ArrayList<>(entries.size());
+    entries.forEach((key, value) -> batch.add(newEntry(key, value, ttlSeconds, expireAt)));
+    try {
+      if (writeBehind != null) {
+        batch.forEach(writeBehind::write);
+        log.debug("Cache setAll: size={}, ttl={}, persisted=deferred", batch.size(), ttlSeconds);
+        return;
+      }
+      cachePersistence.upsertAll(batch);
+      publishInvalidation(entries.keySet());
+      log.debug("Cache setAll: size={}, ttl={}, persisted=true", batch.size(), ttlSeconds);
+    } catch (Exception e) {
+      log.error("[CACHE-DEGRADATION] Failed to persist cache batch to DB, falling back to "
+          + "memory-only mode. size={}, error={}", batch.size(), e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Delete several keys with one memory invalidation and one
+   * {@link CachePersistence#deleteByKeys(Collection)} call.
+   */
+  @Override
+  public int deleteAll(Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return 0;
+    }
+    memoryCache.removeAll(keys);
+    int discarded = 0;
+    if (writeBehind != null) {
+      for (String key : keys) {
+        if (writeBehind.discard(key)) {
+          discarded++;
+        }
+      }
+    }
+    try {
+      int deleted = Math.max(cachePersistence.deleteByKeys(keys), discarded);
+      publishInvalidation(keys);
+      log.debug("Cache deleteAll: keys={}, deleted={}", keys.size(), deleted);
+      return deleted;
+    } catch (Exception e) {
+      log.error("[CACHE-DEGRADATION] Failed to delete cache batch from DB, memory already "
+          + "cleared. size={}, error={}", keys.size(), e.getMessage(), e);
+      return keys.size(); // memory was cleared — treat as deleted
+    }
   }
 
   @Override
   public boolean delete(String key) {
     memoryCache.remove(key);
+    boolean discarded = writeBehind != null && writeBehind.discard(key);
     try {
-      boolean deleted = cachePersistence.deleteByKey(key);
+      boolean deleted = cachePersistence.deleteByKey(key) || discarded;
+      publishInvalidation(key);
       log.debug("Cache deleted: key={}, found={}", key, deleted);
       return deleted;
     } catch (Exception e) {
@@ -156,8 +352,11 @@ public class HybridCacheManager implements IDistributedCache {
     if (memoryCache.containsKey(key)) {
       return true;
     }
+    if (isKnownAbsent(key)) {
+      return false;
+    }
 
-    Optional<CacheEntry> entry = cachePersistence.findByKey(key);
+    Optional<CacheEntry> entry = findEntry(key);
     return entry.filter(cacheEntry -> !cacheEntry.hasExpired()).isPresent();
   }
 
@@ -166,7 +365,7 @@ public class HybridCacheManager implements IDistributedCache {
    */
   @Override
   public long getTTL(String key) {
-    Optional<CacheEntry> entry = cachePersistence.findByKey(key);
+    Optional<CacheEntry> entry = findEntry(key);
     if (entry.isEmpty()) {
       return -2; // Key not found
     }
@@ -186,6 +385,17 @@ public class HybridCacheManager implements IDistributedCache {
 
   @Override
   public boolean expire(String key, long ttlSeconds) {
+    if (writeBehind != null && writeBehind.update(key, pendingEntry -> {
+      pendingEntry.setExpireAt(LocalDateTime.now().plusSeconds(ttlSeconds));
+      pendingEntry.setTtlSeconds(ttlSeconds);
+      pendingEntry.setUpdatedAt(LocalDateTime.now());
+      return pendingEntry;
+    })) {
+      memoryCache.remove(key);
+      publishInvalidation(key);
+      log.debug("Cache expiration set (pending write): key={}, ttl={}", key, ttlSeconds);
+      return true;
+    }
     Optional<CacheEntry> entry = cachePersistence.findByKey(key);
     if (entry.isEmpty()) {
       return false;
@@ -198,6 +408,7 @@ public class HybridCacheManager implements IDistributedCache {
       cacheEntry.setIsExpired(false);
       cachePersistence.save(cacheEntry);
       memoryCache.remove(key); // invalidate memory entity; refreshed on next get()
+      publishInvalidation(key);
       log.debug("Cache expiration set: key={}, ttl={}", key, ttlSeconds);
       return true;
     } catch (Exception e) {
@@ -210,8 +421,14 @@ public class HybridCacheManager implements IDistributedCache {
   @Override
   public void clear() {
     memoryCache.clear();
+    if (writeBehind != null) {
+      writeBehind.discardAll();
+    }
     try {
       cachePersistence.deleteAll();
+      if (invalidationBus != null) {
+        AfterCommit.run(invalidationBus::publishClear);
+      }
       log.info("All cache cleared");
     } catch (Exception e) {
       log.error("[CACHE-DEGRADATION] Failed to clear DB cache, memory cleared. error={}",
@@ -305,4 +522,181 @@ public class HybridCacheManager implements IDistributedCache {
       return Page.empty();
     }
   }
+
+  /**
+   * Flush pending write-behind entries and stop the background flusher. No-op when write-behind
+   * is disabled.
+   */
+  @Override
+  public void close() {
+    if (writeBehind != null) {
+      writeBehind.close();
+    }
+  }
+
+  private void publishInvalidation(String key) {
+    publishInvalidation(List.of(key));
+  }
+
+  private void publishInvalidation(Collection<String> keys) {
+    if (invalidationBus != null) {
+      List<String> published = List.copyOf(keys);
+      AfterCommit.run(() -> published.forEach(invalidationBus::publish));
+    }
+  }
+
+  private void applyInvalidation(CacheInvalidationMessage message) {
+    if (message.isClear()) {
+      memoryCache.clear();
+      log.debug("Cache cleared by remote invalidation");
+      return;
+    }
+    for (String key : message.getKeys()) {
+      memoryCache.remove(key);
+    }
+    log.debug("Cache invalidated by remote node: keys={}", message.getKeys().size());
+  }
+
+  /**
+   * @param rememberMiss whether an absent or expired entry is remembered as a negative entry
+   */
+  private Optional<String> loadFromPersistence(String key, boolean rememberMiss) {
+    Optional<CacheEntry> dbEntry = findEntry(key);
+    if (dbEntry.isPresent()) {
+      CacheEntry entry = dbEntry.get();
+
+      if (entry.hasExpired()) {
+        // Do NOT call delete() here: that would require a write inside a potentially
+        // read-only transaction context. The periodic cleanupExpiredEntries() will purge it.
+        log.debug("Cache expired (db): key={}", key);
+        if (rememberMiss) {
+          putNegative(key);
+        }
+        return Optional.empty();
+      }
+
+      // Warm the memory cache from DB
+      memoryCache.put(key, entry.getValue(), entry.getExpireAt());
+      log.debug("Cache hit (database): key={}", key);
+      return Optional.of(entry.getValue());
+    }
+
+    log.debug("Cache miss: key={}", key);
+    if (rememberMiss) {
+      putNegative(key);
+    }
+    return Optional.empty();
+  }
+
+  private boolean isKnownAbsent(String key) {
+    if (negativeTtlSeconds > 0 && memoryCache.isNegative(key)) {
+      log.debug("Cache hit (negative): key={}", key);
+      return true;
+    }
+    return false;
+  }
+
+  private void putNegative(String key) {
+    if (negativeTtlSeconds > 0) {
+      memoryCache.putNegative(key, LocalDateTime.now().plusSeconds(negativeTtlSeconds));
+    }
+  }
+
+  private static Optional<String> singleFlight(
+      ConcurrentHashMap<String, CompletableFuture<Optional<String>>> flights, String key,
+      Supplier<Optional<String>> load) {
+    CompletableFuture<Optional<String>> flight = new CompletableFuture<>();
+    CompletableFuture<Optional<String>> leader = flights.putIfAbsent(key, flight);
+    if (leader != null) {
+      log.debug("Cache load coalesced: key={}", key);
+      try {
+        return leader.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+          throw cause;
+        }
+        throw e;
+      }
+    }
+    try {
+      Optional<String> value = load.get();
+      flight.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      flights.remove(key, flight);
+    }
+  }
+
+  private static CacheEntry newEntry(String key, String value, Long ttlSeconds,
+      LocalDateTime expireAt) {
+    LocalDateTime now = LocalDateTime.now();
+    return CacheEntry.builder()
+        .key(key)
+        .value(value)
+        .createdAt(now)
+        .updatedAt(now)
+        .expireAt(expireAt)
+        .ttlSeconds(ttlSeconds)
+        .isExpired(false)
+        .build();
+  }
+
+  private List<CacheEntry> findEntries(List<String> keys) {
+    if (writeBehind == null) {
+      return cachePersistence.findByKeys(keys);
+    }
+    List<CacheEntry> entries = new ArrayList<>(keys.size());
+    List<String> unbuffered = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      Optional<CacheEntry> pending = writeBehind.peek(key);
+      if (pending.isPresent()) {
+        entries.add(pending.get());
+      } else {
+        unbuffered.add(key);
+      }
+    }
+    if (!unbuffered.isEmpty()) {
+      entries.addAll(cachePersistence.findByKeys(unbuffered));
+    }
+    return entries;
+  }
+
+  /**
+   * Defers invalidations to the commit of the caller's transaction. Otherwise other nodes could
+   * evict the key and re-read the row before the commit, caching the old value for its whole TTL,
+   * and a rolled back write would still be broadcast. Without spring-tx on the classpath or an
+   * active transaction synchronization, invalidations are published right away.
+   */
+  private static final class AfterCommit {
+
+    private static final boolean TX_PRESENT = ClassUtils.isPresent(
+        "org.springframework.transaction.support.TransactionSynchronizationManager",
+        HybridCacheManager.class.getClassLoader());
+
+    static void run(Runnable publish) {
+      if (TX_PRESENT && TransactionSynchronizationManager.isSynchronizationActive()) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            publish.run();
+          }
+        });
+      } else {
+        publish.run();
+      }
+    }
+  }
+
+  private Optional<CacheEntry> findEntry(String key) {
+    if (writeBehind != null) {
+      Optional<CacheEntry> pending = writeBehind.peek(key);
+      if (pending.isPresent()) {
+        return pending;
+      }
+    }
+    return cachePersistence.findByKey(key);
+  }
 }
@@ -1,7 +1,11 @@
 package cloud.xcan.angus.cache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import org.springframework.data.domain.Page;
 
 /**
@@ -34,6 +38,75 @@ public interface IDistributedCache {
    */
   Optional<String> get(String key);
 
+  /**
+   * Get a cache value, computing and caching it on a miss.
+   * <p>
+   * The default implementation is not coalesced: concurrent misses each invoke the loader.
+   * Implementations should override it so that one loader invocation per key serves all
+   * concurrent callers.
+   *
+   * @param key        Cache key
+   * @param loader     Computes the value on a miss; may return {@code null} when the value does
+   *                   not exist, in which case nothing is stored
+   * @param ttlSeconds TTL of the loaded value in seconds, null means no expiration
+   * @return Optional containing the cached or loaded value
+   */
+  default Optional<String> getOrLoad(String key, Function<String, String> loader,
+      Long ttlSeconds) {
+    Optional<String> cached = get(key);
+    if (cached.isPresent()) {
+      return cached;
+    }
+    String loaded = loader.apply(key);
+    if (loaded != null) {
+      set(key, loaded, ttlSeconds);
+    }
+    return Optional.ofNullable(loaded);
+  }
+
+  /**
+   * Get several cache values at once. The default implementation calls {@link #get(String)} per
+   * key; implementations should override it to batch lookups.
+   *
+   * @param keys Cache keys
+   * @return values of the keys that exist and are not expired, in iteration order of {@code keys}
+   */
+  default Map<String, String> getAll(Collection<String> keys) {
+    Map<String, String> values = new LinkedHashMap<>();
+    for (String key : keys) {
+      get(key).ifPresent(value -> values.put(key, value));
+    }
+    return values;
+  }
+
+  /**
+   * Set several cache values with the same TTL. The default implementation calls
+   * {@link #set(String, String, Long)} per entry.
+   *
+   * @param entries    Cache keys and values
+   * @param ttlSeconds TTL in seconds, null means no expiration
+   */
+  default void setAll(Map<String, String> entries, Long ttlSeconds) {
+    entries.forEach((key, value) -> set(key, value, ttlSeconds));
+  }
+
+  /**
+   * Delete several cache entries. The default implementation calls {@link #delete(String)} per
+   * key.
+   *
+   * @param keys Cache keys
+   * @return number of keys that were found and deleted
+   */
+  default int deleteAll(Collection<String> keys) {
+    int deleted = 0;
+    for (String key : keys) {
+      if (delete(key)) {
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
   /**
    * Delete a cache entity
    *
@@ -0,0 +1,256 @@
+package cloud.xcan.angus.cache;
+
+import cloud.xcan.angus.cache.config.CacheProperties.WriteBehindProperties;
+import cloud.xcan.angus.cache.entity.CacheEntry;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind buffer in front of {@link CachePersistence}.
+ *
+ * <p>Pending writes are coalesced per key (the latest write wins) and flushed by a background
+ * thread through {@link CachePersistence#upsertAll(java.util.Collection)} in batches of at most
+ * {@code flushBatchSize} entries. The buffer holds at most {@code bufferCapacity} distinct keys;
+ * when it is full the writing thread performs the flush itself, which bounds memory and slows
+ * producers down to the speed of the database. An entry that expires while buffered is deleted
+ * from the store instead of written, so an older row of the key cannot outlive the newer write.
+ *
+ * <p>Flushes and {@link #discard(String)} / {@link #discardAll()} are serialized by one lock so a
+ * delete can never be overwritten by an in-flight flush of an older value.
+ */
+@Slf4j
+public class WriteBehindCacheWriter implements AutoCloseable {
+
+  private static final String FLUSHER_NAME = "angus-cache-write-behind";
+
+  private final CachePersistence persistence;
+  private final Consumer<Collection<String>> flushedKeysListener;
+  private final int flushBatchSize;
+  private final int bufferCapacity;
+
+  private final ConcurrentHashMap<String, CacheEntry> pending = new ConcurrentHashMap<>();
+  private final ReentrantLock flushLock = new ReentrantLock();
+  private final AtomicBoolean earlyFlushScheduled = new AtomicBoolean(false);
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+  private final ScheduledExecutorService flusher;
+
+  public WriteBehindCacheWriter(CachePersistence persistence, WriteBehindProperties properties) {
+    this(persistence, properties, keys -> {
+    });
+  }
+
+  /**
+   * @param flushedKeysListener notified with the keys of every batch once it has been persisted
+   */
+  public WriteBehindCacheWriter(CachePersistence persistence, WriteBehindProperties properties,
+      Consumer<Collection<String>> flushedKeysListener) {
+    this.persistence = persistence;
+    this.flushedKeysListener = flushedKeysListener;
+    this.flushBatchSize = Math.max(1, properties.getFlushBatchSize());
+    this.bufferCapacity = Math.max(this.flushBatchSize, properties.getBufferCapacity());
+    this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, FLUSHER_NAME);
+      t.setDaemon(true);
+      return t;
+    });
+    long interval = Math.max(1, properties.getFlushIntervalMillis());
+    this.flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval,
+        TimeUnit.MILLISECONDS);
+    log.info("WriteBehindCacheWriter initialized with flushIntervalMillis={}, flushBatchSize={}, "
+        + "bufferCapacity={}", interval, flushBatchSize, bufferCapacity);
+  }
+
+  /**
+   * Buffer an entry for asynchronous persistence, replacing any pending write for the same key.
+   */
+  public void write(CacheEntry entry) {
+    if (closed.get()) {
+      // Flusher is gone: persist on the caller thread rather than dropping the write
+      persistence.upsertAll(List.of(entry));
+      flushedKeysListener.accept(List.of(entry.getKey()));
+      return;
+    }
+    CacheEntry previous = pending.put(entry.getKey(), entry);
+    if (previous != null) {
+      return; // coalesced, buffer did not grow
+    }
+    int size = pending.size();
+    if (size >= bufferCapacity) {
+      log.debug("Write-behind buffer full (size={}), flushing on caller thread", size);
+      flush();
+    } else if (size >= flushBatchSize && earlyFlushScheduled.compareAndSet(false, true)) {
+      flusher.execute(() -> {
+        earlyFlushScheduled.set(false);
+        flushQuietly();
+      });
+    }
+  }
+
+  /**
+   * Return the pending (not yet flushed) entry for a key, if any.
+   */
+  public Optional<CacheEntry> peek(String key) {
+    return Optional.ofNullable(pending.get(key));
+  }
+
+  /**
+   * Atomically modify the pending entry for a key.
+   *
+   * @return {@code true} if a pending entry existed and was updated
+   */
+  public boolean update(String key, UnaryOperator<CacheEntry> updater) {
+    return pending.computeIfPresent(key, (k, e) -> updater.apply(e)) != null;
+  }
+
+  /**
+   * Drop the pending write for a key. Returns only after any in-flight flush has completed, so a
+   * subsequent delete in the persistence layer cannot be overwritten by the flusher.
+   *
+   * @return {@code true} if a pending write was dropped
+   */
+  public boolean discard(String key) {
+    flushLock.lock();
+    try {
+      return pending.remove(key) != null;
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * Drop all pending writes, waiting for any in-flight flush to complete.
+   */
+  public void discardAll() {
+    flushLock.lock();
+    try {
+      pending.clear();
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * Number of distinct keys waiting to be flushed.
+   */
+  public int pendingCount() {
+    return pending.size();
+  }
+
+  /**
+   * Flush all pending writes in batches. Failed batches are put back into the buffer unless a
+   * newer write for the same key arrived in the meantime.
+   */
+  public void flush() {
+    flushLock.lock();
+    try {
+      while (!pending.isEmpty()) {
+        List<CacheEntry> batch = new ArrayList<>(Math.min(flushBatchSize, pending.size()));
+        List<CacheEntry> expired = new ArrayList<>();
+        drainBatch(batch, expired);
+        if (batch.isEmpty() && expired.isEmpty()) {
+          return;
+        }
+        try {
+          if (!expired.isEmpty()) {
+            persistence.deleteByKeys(expired.stream().map(CacheEntry::getKey).toList());
+          }
+          if (!batch.isEmpty()) {
+            persistence.upsertAll(batch);
+          }
+          log.debug("Write-behind flushed {} cache entries, deleted {} expired", batch.size(),
+              expired.size());
+        } catch (Exception e) {
+          requeue(expired);
+          requeue(batch);
+          log.error("[CACHE-DEGRADATION] Failed to flush write-behind batch to DB, "
+              + "entries kept in buffer. size={}, error={}", batch.size() + expired.size(),
+              e.getMessage(), e);
+          return;
+        }
+        List<String> keys = new ArrayList<>(batch.size() + expired.size());
+        batch.forEach(entry -> keys.add(entry.getKey()));
+        expired.forEach(entry -> keys.add(entry.getKey()));
+        flushedKeysListener.accept(keys);
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * Stop the background flusher and drain every pending write.
+   */
+  @Override
+  public void close() {
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+    flusher.shutdown();
+    try {
+      if (!flusher.awaitTermination(5, TimeUnit.SECONDS)) {
+        flusher.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      flusher.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    flush();
+    if (!pending.isEmpty()) {
+      log.error("[CACHE-DEGRADATION] {} write-behind cache entries could not be persisted on "
+          + "shutdown", pending.size());
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (Exception e) {
+      log.error("Write-behind flush failed. error={}", e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Move up to {@code flushBatchSize} pending entries into {@code batch}, or into
+   * {@code expired} when they expired while buffered.
+   */
+  private void drainBatch(List<CacheEntry> batch, List<CacheEntry> expired) {
+    Iterator<String> keys = pending.keySet().iterator();
+    LocalDateTime now = LocalDateTime.now();
+    while (keys.hasNext() && batch.size() + expired.size() < flushBatchSize) {
+      CacheEntry entry = pending.remove(keys.next());
+      if (entry == null) {
+        continue;
+      }
+      // An expired entry is not worth a DB write, but the row it replaces must not survive it
+      if (entry.getExpireAt() != null && now.isAfter(entry.getExpireAt())) {
+        expired.add(entry);
+      } else {
+        batch.add(entry);
+      }
+    }
+  }
+
+  private void requeue(List<CacheEntry> batch) {
+    for (CacheEntry entry : batch) {
+      if (pending.size() >= bufferCapacity) {
+        log.error("[CACHE-DEGRADATION] Write-behind buffer full, dropping cache entry. key={}",
+            entry.getKey());
+        continue;
+      }
+      pending.putIfAbsent(entry.getKey(), entry);
+    }
+  }
+}
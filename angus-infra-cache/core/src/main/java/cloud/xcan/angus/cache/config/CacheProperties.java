@@ -20,6 +20,16 @@ public class CacheProperties {
    */
   private ManagementProperties management = new ManagementProperties();
 
+  /**
+   * Write-behind persistence configuration.
+   */
+  private WriteBehindProperties writeBehind = new WriteBehindProperties();
+
+  /**
+   * Cross-node memory-tier invalidation configuration.
+   */
+  private InvalidationProperties invalidation = new InvalidationProperties();
+
   @Data
   public static class MemoryCacheProperties {
 
@@ -33,6 +43,14 @@ public class CacheProperties {
      * TTL derived from each entity's expireAt timestamp.
      */
     private long cleanupIntervalSeconds = 300;
+
+    /**
+     * How long a key known to be absent is remembered in memory, in seconds. Applies to
+     * persistence misses in {@code get()} and to {@code getOrLoad()} loaders returning
+     * {@code null}. {@code 0} (default) disables negative caching. Keep it short: without
+     * cross-node invalidation another node's write becomes visible only after it expires.
+     */
+    private long negativeTtlSeconds = 0;
   }
 
   @Data
@@ -45,4 +63,90 @@ public class CacheProperties {
      */
     private boolean enabled = false;
   }
+
+  @Data
+  public static class WriteBehindProperties {
+
+    /**
+     * Whether {@code set()} persists asynchronously. When enabled, writes are coalesced per key in
+     * a bounded buffer and flushed to the persistence layer in batches by a background thread.
+     * Disabled by default — entries not yet flushed are lost if the process is killed.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Interval between two background flushes, in milliseconds.
+     */
+    private long flushIntervalMillis = 500;
+
+    /**
+     * Maximum number of entries written by one batched upsert. Reaching this many pending keys
+     * also triggers an early flush.
+     */
+    private int flushBatchSize = 500;
+
+    /**
+     * Maximum number of distinct pending keys. When the buffer is full the writing thread flushes
+     * synchronously (caller-runs back-pressure) instead of growing the buffer.
+     */
+    private int bufferCapacity = 10000;
+  }
+
+  @Data
+  public static class InvalidationProperties {
+
+    /**
+     * Whether set/delete/expire/clear invalidate the memory tier of other nodes. Enable when
+     * several instances share the same persistence, otherwise nodes serve stale values until the
+     * local TTL evicts them.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Transport used to broadcast invalidations.
+     */
+    private InvalidationType type = InvalidationType.POLLING;
+
+    /**
+     * Identifier of this node. Defaults to a random UUID generated at startup.
+     */
+    private String nodeId;
+
+    /**
+     * Window in which outgoing invalidations are deduplicated and sent as one message, in
+     * milliseconds.
+     */
+    private long batchIntervalMillis = 100;
+
+    /**
+     * Interval between two reads of the change-log table ({@code POLLING} only), in milliseconds.
+     */
+    private long pollIntervalMillis = 1000;
+
+    /**
+     * Maximum number of change-log rows read per query ({@code POLLING} only).
+     */
+    private int pollBatchSize = 1000;
+
+    /**
+     * How long change-log rows are kept before being purged ({@code POLLING} only), in seconds.
+     */
+    private long retentionSeconds = 3600;
+
+    /**
+     * Pub/sub channel ({@code REDIS} only).
+     */
+    private String redisChannel = "angus:cache:invalidation";
+  }
+
+  public enum InvalidationType {
+    /**
+     * Poll the {@code angus_cache_invalidations} change-log table.
+     */
+    POLLING,
+    /**
+     * Redis pub/sub; requires spring-data-redis and a {@code RedisConnectionFactory} bean.
+     */
+    REDIS
+  }
 }
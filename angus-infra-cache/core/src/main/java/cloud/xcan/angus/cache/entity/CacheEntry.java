@@ -72,4 +72,16 @@ public class CacheEntry {
     this.ttlSeconds = seconds;
     this.expireAt = LocalDateTime.now().plusSeconds(seconds);
   }
+
+  /**
+   * Copy the mutable state of another entry for the same key, keeping this entry's identity and
+   * creation time. Used when upserting a detached entry onto an existing persistent row.
+   */
+  public void mergeFrom(CacheEntry source) {
+    this.value = source.getValue();
+    this.updatedAt = source.getUpdatedAt();
+    this.expireAt = source.getExpireAt();
+    this.ttlSeconds = source.getTtlSeconds();
+    this.isExpired = source.getIsExpired();
+  }
 }
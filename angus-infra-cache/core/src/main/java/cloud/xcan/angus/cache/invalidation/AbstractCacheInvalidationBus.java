@@ -0,0 +1,167 @@
+package cloud.xcan.angus.cache.invalidation;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Batching and dispatch shared by {@link CacheInvalidationBus} implementations.
+ * <p>
+ * Outgoing keys are collected in a set (deduplicated) and handed to {@link #send} once per
+ * {@code batchIntervalMillis}; subclasses only implement the transport. Incoming messages are passed
+ * to {@link #dispatch}, which drops messages from the local node.
+ */
+@Slf4j
+public abstract class AbstractCacheInvalidationBus implements CacheInvalidationBus {
+
+  private final String nodeId;
+  private final long batchIntervalMillis;
+
+  private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean pendingClear = new AtomicBoolean(false);
+  private final List<CacheInvalidationListener> listeners = new CopyOnWriteArrayList<>();
+  private final AtomicBoolean started = new AtomicBoolean(false);
+
+  protected final ScheduledExecutorService scheduler;
+
+  protected AbstractCacheInvalidationBus(String nodeId, long batchIntervalMillis) {
+    this.nodeId = nodeId;
+    this.batchIntervalMillis = Math.max(1, batchIntervalMillis);
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "angus-cache-invalidation");
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  @Override
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  @Override
+  public void publish(String key) {
+    if (!pendingClear.get()) {
+      pendingKeys.add(key);
+    }
+  }
+
+  @Override
+  public void publishClear() {
+    pendingClear.set(true);
+    pendingKeys.clear();
+  }
+
+  @Override
+  public void subscribe(CacheInvalidationListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void start() {
+    if (!started.compareAndSet(false, true)) {
+      return;
+    }
+    scheduler.scheduleWithFixedDelay(this::flushQuietly, batchIntervalMillis,
+        batchIntervalMillis, TimeUnit.MILLISECONDS);
+    doStart();
+  }
+
+  @Override
+  public void close() {
+    if (!started.compareAndSet(true, false)) {
+      return;
+    }
+    scheduler.shutdown();
+    try {
+      if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+        scheduler.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      scheduler.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    flushQuietly();
+    doClose();
+  }
+
+  /**
+   * Send pending invalidations as one message.
+   */
+  public void flush() {
+    CacheInvalidationMessage message;
+    if (pendingClear.getAndSet(false)) {
+      pendingKeys.clear();
+      message = CacheInvalidationMessage.ofClear(nodeId);
+    } else {
+      List<String> keys = new ArrayList<>();
+      Iterator<String> it = pendingKeys.iterator();
+      while (it.hasNext()) {
+        keys.add(it.next());
+        it.remove();
+      }
+      message = CacheInvalidationMessage.ofKeys(nodeId, keys);
+    }
+    if (message.isEmpty()) {
+      return;
+    }
+    try {
+      send(message);
+      log.debug("Published cache invalidation: clear={}, keys={}", message.isClear(),
+          message.getKeys().size());
+    } catch (Exception e) {
+      log.error("[CACHE-DEGRADATION] Failed to publish cache invalidation, remote nodes rely on "
+          + "memory TTL. clear={}, keys={}, error={}", message.isClear(), message.getKeys().size(),
+          e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Deliver a received message to local listeners, ignoring self-originated messages.
+   */
+  protected void dispatch(CacheInvalidationMessage message) {
+    if (message.isEmpty() || nodeId.equals(message.getNodeId())) {
+      return;
+    }
+    for (CacheInvalidationListener listener : listeners) {
+      try {
+        listener.onInvalidation(message);
+      } catch (Exception e) {
+        log.error("Cache invalidation listener failed. error={}", e.getMessage(), e);
+      }
+    }
+  }
+
+  /**
+   * Transport a batched message to the other nodes.
+   */
+  protected abstract void send(CacheInvalidationMessage message) throws Exception;
+
+  /**
+   * Hook for starting the receiving side.
+   */
+  protected void doStart() {
+  }
+
+  /**
+   * Hook for releasing transport resources.
+   */
+  protected void doClose() {
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (Exception e) {
+      log.error("Cache invalidation flush failed. error={}", e.getMessage(), e);
+    }
+  }
+}
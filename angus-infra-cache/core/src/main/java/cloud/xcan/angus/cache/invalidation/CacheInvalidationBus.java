@@ -0,0 +1,42 @@
+package cloud.xcan.angus.cache.invalidation;
+
+/**
+ * Broadcasts memory-tier invalidations between cache nodes.
+ * <p>
+ * Published invalidations are buffered, deduplicated and sent in one message per batch interval;
+ * a {@code clear} supersedes all keys of the same batch. Delivery is best-effort: the memory tier
+ * TTL remains the upper bound on staleness if a message is lost.
+ */
+public interface CacheInvalidationBus extends AutoCloseable {
+
+  /**
+   * Identifier of the local node; messages carrying this id are not delivered locally.
+   */
+  String getNodeId();
+
+  /**
+   * Queue a key-level invalidation for broadcast.
+   */
+  void publish(String key);
+
+  /**
+   * Queue an invalidation of every key for broadcast.
+   */
+  void publishClear();
+
+  /**
+   * Register a listener for invalidations from other nodes.
+   */
+  void subscribe(CacheInvalidationListener listener);
+
+  /**
+   * Start background publishing (and polling, for pull-based implementations).
+   */
+  void start();
+
+  /**
+   * Send any pending invalidations and release resources.
+   */
+  @Override
+  void close();
+}
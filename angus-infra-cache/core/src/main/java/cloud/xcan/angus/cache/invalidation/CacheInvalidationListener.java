@@ -0,0 +1,14 @@
+package cloud.xcan.angus.cache.invalidation;
+
+/**
+ * Receives invalidations published by other nodes through a {@link CacheInvalidationBus}.
+ */
+@FunctionalInterface
+public interface CacheInvalidationListener {
+
+  /**
+   * Drop the local copies named by the message. Messages originating from the local node are
+   * never delivered.
+   */
+  void onInvalidation(CacheInvalidationMessage message);
+}
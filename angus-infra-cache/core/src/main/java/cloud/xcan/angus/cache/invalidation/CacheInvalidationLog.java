@@ -0,0 +1,47 @@
+package cloud.xcan.angus.cache.invalidation;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Change-log storage used by {@link PollingCacheInvalidationBus}. Each row is one key-level
+ * invalidation, or a clear-all invalidation when the key is {@code null}. Rows are read in
+ * ascending id order.
+ */
+public interface CacheInvalidationLog {
+
+  /**
+   * Append invalidations written by a node.
+   *
+   * @param clear when {@code true} a single clear-all row is appended and {@code keys} is ignored
+   */
+  void append(String nodeId, Collection<String> keys, boolean clear);
+
+  /**
+   * Rows with an id greater than {@code lastId}, in ascending id order.
+   */
+  List<Record> findAfter(long lastId, int limit);
+
+  /**
+   * Rows with the given ids that exist, in ascending id order.
+   */
+  List<Record> findByIds(Collection<Long> ids);
+
+  /**
+   * Highest id in the log, or {@code 0} if the log is empty.
+   */
+  long maxId();
+
+  /**
+   * Delete rows created before the given time.
+   */
+  int deleteBefore(LocalDateTime time);
+
+  /**
+   * One change-log row; {@code key} is {@code null} for a clear-all invalidation.
+   */
+  record Record(long id, String nodeId, String key) {
+
+  }
+}
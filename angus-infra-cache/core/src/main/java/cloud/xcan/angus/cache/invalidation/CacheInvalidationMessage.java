@@ -0,0 +1,85 @@
+package cloud.xcan.angus.cache.invalidation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * A batch of invalidations sent by one node. When {@link #isClear()} is {@code true} every key is
+ * invalidated and {@link #getKeys()} is empty.
+ */
+@Getter
+public class CacheInvalidationMessage {
+
+  private static final byte VERSION = 1;
+
+  private final String nodeId;
+
+  private final boolean clear;
+
+  private final List<String> keys;
+
+  public CacheInvalidationMessage(String nodeId, boolean clear, Collection<String> keys) {
+    this.nodeId = nodeId;
+    this.clear = clear;
+    this.keys = clear ? List.of() : List.copyOf(keys);
+  }
+
+  public static CacheInvalidationMessage ofKeys(String nodeId, Collection<String> keys) {
+    return new CacheInvalidationMessage(nodeId, false, keys);
+  }
+
+  public static CacheInvalidationMessage ofClear(String nodeId) {
+    return new CacheInvalidationMessage(nodeId, true, List.of());
+  }
+
+  public boolean isEmpty() {
+    return !clear && keys.isEmpty();
+  }
+
+  /**
+   * Encode as {@code version, nodeId, clear, keyCount, keys...} using modified UTF-8 strings.
+   */
+  public byte[] encode() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + keys.size() * 32);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(VERSION);
+      out.writeUTF(nodeId);
+      out.writeBoolean(clear);
+      out.writeInt(keys.size());
+      for (String key : keys) {
+        out.writeUTF(key);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Encode cache invalidation message exception", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  public static CacheInvalidationMessage decode(byte[] body) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+      byte version = in.readByte();
+      if (version != VERSION) {
+        throw new IllegalArgumentException("Unsupported cache invalidation message version: "
+            + version);
+      }
+      String nodeId = in.readUTF();
+      boolean clear = in.readBoolean();
+      int size = in.readInt();
+      List<String> keys = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        keys.add(in.readUTF());
+      }
+      return new CacheInvalidationMessage(nodeId, clear, keys);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Decode cache invalidation message exception", e);
+    }
+  }
+}
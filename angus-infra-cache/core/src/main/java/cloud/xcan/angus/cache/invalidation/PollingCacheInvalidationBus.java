@@ -0,0 +1,169 @@
+package cloud.xcan.angus.cache.invalidation;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link CacheInvalidationBus} backed by a database change-log table; needs no infrastructure
+ * beyond the cache database.
+ * <p>
+ * Every node appends its batched invalidations to {@link CacheInvalidationLog} and polls rows
+ * written by other nodes since the last id it has seen. Ids are allocated before commit, so a row
+ * can become visible after a row with a higher id; the ids a poll skipped are therefore looked up
+ * again on every poll until they show up or {@code GAP_TIMEOUT_MILLIS} has passed (the insert was
+ * rolled back, or the id was never used). Rows older than the retention period are purged
+ * periodically by whichever node gets there first.
+ */
+@Slf4j
+public class PollingCacheInvalidationBus extends AbstractCacheInvalidationBus {
+
+  private static final long PURGE_INTERVAL_MILLIS = 60_000L;
+  private static final long GAP_TIMEOUT_MILLIS = 60_000L;
+  /**
+   * Upper bound of the tracked gaps, so a large jump of the id sequence cannot exhaust memory.
+   */
+  private static final int MAX_GAPS = 10_000;
+
+  private final CacheInvalidationLog invalidationLog;
+  private final long pollIntervalMillis;
+  private final int pollBatchSize;
+  private final long retentionSeconds;
+
+  private volatile long lastId;
+  private volatile long lastPurgeAt;
+  /**
+   * Ids below {@link #lastId} not seen yet, in ascending order, with the time they were skipped.
+   */
+  private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+  public PollingCacheInvalidationBus(String nodeId, CacheInvalidationLog invalidationLog,
+      long batchIntervalMillis, long pollIntervalMillis, int pollBatchSize,
+      long retentionSeconds) {
+    super(nodeId, batchIntervalMillis);
+    this.invalidationLog = invalidationLog;
+    this.pollIntervalMillis = Math.max(1, pollIntervalMillis);
+    this.pollBatchSize = Math.max(1, pollBatchSize);
+    this.retentionSeconds = retentionSeconds;
+  }
+
+  @Override
+  protected void send(CacheInvalidationMessage message) {
+    invalidationLog.append(getNodeId(), message.getKeys(), message.isClear());
+  }
+
+  @Override
+  protected void doStart() {
+    // Only changes made after this node started are relevant, its memory tier is empty
+    lastId = invalidationLog.maxId();
+    lastPurgeAt = System.currentTimeMillis();
+    scheduler.scheduleWithFixedDelay(this::pollQuietly, pollIntervalMillis, pollIntervalMillis,
+        TimeUnit.MILLISECONDS);
+    log.info("PollingCacheInvalidationBus started: nodeId={}, lastId={}, pollIntervalMillis={}",
+        getNodeId(), lastId, pollIntervalMillis);
+  }
+
+  /**
+   * Read all rows written since the previous poll, and the rows that committed late into ids
+   * skipped by earlier polls, and dispatch them as one message per source batch of at most
+   * {@code pollBatchSize} rows.
+   */
+  public synchronized void poll() {
+    recheckGaps();
+    List<CacheInvalidationLog.Record> records;
+    do {
+      records = invalidationLog.findAfter(lastId, pollBatchSize);
+      if (records.isEmpty()) {
+        break;
+      }
+      for (CacheInvalidationLog.Record record : records) {
+        trackGaps(record.id());
+        lastId = Math.max(lastId, record.id());
+      }
+      dispatchRecords(records);
+    } while (records.size() >= pollBatchSize);
+
+    purgeIfDue();
+  }
+
+  /**
+   * Number of skipped ids still looked up by every poll.
+   */
+  public synchronized int gapCount() {
+    return gaps.size();
+  }
+
+  private void dispatchRecords(List<CacheInvalidationLog.Record> records) {
+    boolean clear = false;
+    Set<String> keys = new LinkedHashSet<>();
+    for (CacheInvalidationLog.Record record : records) {
+      if (getNodeId().equals(record.nodeId())) {
+        continue;
+      }
+      if (record.key() == null) {
+        clear = true;
+      } else {
+        keys.add(record.key());
+      }
+    }
+    // Node id is blank: the message aggregates rows from any number of remote nodes
+    dispatch(new CacheInvalidationMessage("", clear, keys));
+  }
+
+  private void trackGaps(long id) {
+    long now = System.currentTimeMillis();
+    for (long missing = Math.max(lastId + 1, id - MAX_GAPS); missing < id; missing++) {
+      gaps.put(missing, now);
+    }
+    Iterator<Long> oldest = gaps.keySet().iterator();
+    while (gaps.size() > MAX_GAPS) {
+      oldest.next();
+      oldest.remove();
+    }
+  }
+
+  private void recheckGaps() {
+    if (gaps.isEmpty()) {
+      return;
+    }
+    long expiredBefore = System.currentTimeMillis() - GAP_TIMEOUT_MILLIS;
+    gaps.values().removeIf(skippedAt -> skippedAt < expiredBefore);
+    List<Long> ids = new ArrayList<>(gaps.keySet());
+    for (int from = 0; from < ids.size(); from += pollBatchSize) {
+      List<CacheInvalidationLog.Record> found = invalidationLog.findByIds(
+          ids.subList(from, Math.min(from + pollBatchSize, ids.size())));
+      if (!found.isEmpty()) {
+        found.forEach(record -> gaps.remove(record.id()));
+        dispatchRecords(found);
+      }
+    }
+  }
+
+  private void purgeIfDue() {
+    long now = System.currentTimeMillis();
+    if (retentionSeconds <= 0 || now - lastPurgeAt < PURGE_INTERVAL_MILLIS) {
+      return;
+    }
+    lastPurgeAt = now;
+    int deleted = invalidationLog.deleteBefore(LocalDateTime.now().minusSeconds(retentionSeconds));
+    if (deleted > 0) {
+      log.debug("Purged {} cache invalidation log rows", deleted);
+    }
+  }
+
+  private void pollQuietly() {
+    try {
+      poll();
+    } catch (Exception e) {
+      log.error("[CACHE-DEGRADATION] Failed to poll cache invalidation log. error={}",
+          e.getMessage(), e);
+    }
+  }
+}
@@ -15,3 +15,14 @@ CREATE TABLE IF NOT EXISTS angus_cache_entries (
     UNIQUE KEY uk_cache_key (cache_key),
     INDEX idx_expire_time (expire_at)
 ) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- Change log for cross-node invalidation (angus.cache.invalidation.type=polling).
+-- cache_key NULL means "clear all".
+CREATE TABLE IF NOT EXISTS angus_cache_invalidations (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    cache_key   VARCHAR(256),
+    node_id     VARCHAR(64)  NOT NULL,
+    created_at  DATETIME     NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_cache_inv_created (created_at)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -14,3 +14,13 @@ CREATE TABLE IF NOT EXISTS angus_cache_entries (
     CONSTRAINT uk_cache_key UNIQUE (cache_key)
 );
 CREATE INDEX IF NOT EXISTS idx_expire_time ON angus_cache_entries (expire_at);
+
+-- Change log for cross-node invalidation (angus.cache.invalidation.type=polling).
+-- cache_key NULL means "clear all".
+CREATE TABLE IF NOT EXISTS angus_cache_invalidations (
+    id          BIGSERIAL    PRIMARY KEY,
+    cache_key   VARCHAR(256),
+    node_id     VARCHAR(64)  NOT NULL,
+    created_at  TIMESTAMP    NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_cache_inv_created ON angus_cache_invalidations (created_at);
@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -100,4 +101,45 @@ class CaffeineMemoryCacheTest {
     cache.put("past", "v", LocalDateTime.now().minusSeconds(1));
     assertTrue(cache.get("past").isEmpty());
   }
+
+  @Test
+  void putAllAndGetAll_returnsOnlyPresentKeys() {
+    cache.putAll(Map.of("a", "1", "b", "2"), null);
+    Map<String, String> values = cache.getAll(List.of("a", "b", "missing"));
+    assertEquals(Map.of("a", "1", "b", "2"), values);
+  }
+
+  @Test
+  void removeAll_invalidatesKeys() {
+    cache.putAll(Map.of("a", "1", "b", "2", "c", "3"), null);
+    cache.removeAll(List.of("a", "b"));
+    assertFalse(cache.containsKey("a"));
+    assertFalse(cache.containsKey("b"));
+    assertTrue(cache.containsKey("c"));
+  }
+
+  @Test
+  void putNegative_isNotReturnedAsValue() {
+    cache.putNegative("absent", LocalDateTime.now().plusMinutes(1));
+    assertTrue(cache.isNegative("absent"));
+    assertTrue(cache.get("absent").isEmpty());
+    assertFalse(cache.containsKey("absent"));
+    assertTrue(cache.getAll(List.of("absent")).isEmpty());
+
+    cache.put("absent", "now-present", null);
+    assertFalse(cache.isNegative("absent"));
+    assertEquals("now-present", cache.get("absent").orElseThrow());
+  }
+
+  @Test
+  void putNegative_keepsValueStoredSinceTheMiss() {
+    cache.put("k", "fresh", null);
+    cache.putNegative("k", LocalDateTime.now().plusMinutes(1));
+    assertFalse(cache.isNegative("k"));
+    assertEquals("fresh", cache.get("k").orElseThrow());
+
+    cache.put("expired", "old", LocalDateTime.now().minusSeconds(1));
+    cache.putNegative("expired", LocalDateTime.now().plusMinutes(1));
+    assertTrue(cache.isNegative("expired"));
+  }
 }
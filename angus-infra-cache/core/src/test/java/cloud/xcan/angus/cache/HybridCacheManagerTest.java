@@ -2,8 +2,10 @@ package cloud.xcan.angus.cache;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
@@ -11,25 +13,43 @@ import static org.mockito.Mockito.when;
 
 import cloud.xcan.angus.cache.config.CacheProperties;
 import cloud.xcan.angus.cache.entity.CacheEntry;
+import cloud.xcan.angus.cache.invalidation.CacheInvalidationBus;
+import cloud.xcan.angus.cache.invalidation.CacheInvalidationListener;
+import cloud.xcan.angus.cache.invalidation.CacheInvalidationMessage;
 import java.lang.reflect.Field;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 public class HybridCacheManagerTest {
 
   private HybridCacheManager manager;
   private ConcurrentHashMap<String, CacheEntry> store;
+  private CachePersistence persistence;
 
   @BeforeEach
   void setUp() {
     store = new ConcurrentHashMap<>();
-    CachePersistence persistence = Mockito.mock(CachePersistence.class);
+    persistence = Mockito.mock(CachePersistence.class);
 
     when(persistence.findByKey(anyString())).thenAnswer(
         inv -> Optional.ofNullable(store.get(inv.getArgument(0))));
@@ -50,6 +70,22 @@ public class HybridCacheManagerTest {
       return null;
     }).when(persistence).deleteAll();
 
+    when(persistence.findByKeys(anyCollection())).thenAnswer(inv -> {
+      Collection<String> keys = inv.getArgument(0);
+      return keys.stream().map(store::get).filter(Objects::nonNull).toList();
+    });
+
+    doAnswer(inv -> {
+      Collection<CacheEntry> entries = inv.getArgument(0);
+      entries.forEach(e -> store.put(e.getKey(), e));
+      return null;
+    }).when(persistence).upsertAll(anyCollection());
+
+    when(persistence.deleteByKeys(anyCollection())).thenAnswer(inv -> {
+      Collection<String> keys = inv.getArgument(0);
+      return (int) keys.stream().filter(k -> store.remove(k) != null).count();
+    });
+
     when(persistence.count()).thenAnswer(inv -> (long) store.size());
 
     when(persistence.countExpiredEntries()).thenAnswer(
@@ -347,5 +383,241 @@ public class HybridCacheManagerTest {
     manager.set("upd", "new", null);
     assertEquals("new", store.get("upd").getValue());
   }
-}
 
+  @Test
+  void writeBehind_setDefersPersistenceUntilFlush() {
+    CachePersistence persistence = Mockito.mock(CachePersistence.class);
+    when(persistence.findByKey(anyString())).thenReturn(Optional.empty());
+    CacheProperties props = new CacheProperties();
+    props.getWriteBehind().setEnabled(true);
+    props.getWriteBehind().setFlushIntervalMillis(60_000);
+    HybridCacheManager m = new HybridCacheManager(persistence, props);
+    try {
+      m.set("wb", "v", 60L);
+      Mockito.verify(persistence, Mockito.never()).save(any());
+      Mockito.verify(persistence, Mockito.never()).upsertAll(Mockito.anyCollection());
+      // Buffered entry is visible to persistence-backed reads on this node
+      assertTrue(m.exists("wb"));
+      assertTrue(m.getTTL("wb") > 0);
+      assertTrue(m.expire("wb", 120L));
+      assertTrue(m.getTTL("wb") > 60);
+    } finally {
+      m.close();
+    }
+    Mockito.verify(persistence).upsertAll(Mockito.argThat(
+        c -> c.size() == 1 && "wb".equals(c.iterator().next().getKey())));
+  }
+
+  @Test
+  void writeBehind_deleteDropsPendingWrite() {
+    CachePersistence persistence = Mockito.mock(CachePersistence.class);
+    when(persistence.findByKey(anyString())).thenReturn(Optional.empty());
+    when(persistence.deleteByKey(anyString())).thenReturn(false);
+    CacheProperties props = new CacheProperties();
+    props.getWriteBehind().setEnabled(true);
+    props.getWriteBehind().setFlushIntervalMillis(60_000);
+    HybridCacheManager m = new HybridCacheManager(persistence, props);
+    m.set("wb", "v", null);
+    assertTrue(m.delete("wb"));
+    m.close();
+    Mockito.verify(persistence, Mockito.never()).upsertAll(Mockito.anyCollection());
+  }
+
+  @Test
+  void invalidation_mutationsArePublished_andRemoteMessagesEvictMemory() {
+    CachePersistence persistence = Mockito.mock(CachePersistence.class);
+    when(persistence.findByKey(anyString())).thenReturn(Optional.empty());
+    when(persistence.save(any())).thenAnswer(inv -> inv.getArgument(0));
+    CacheInvalidationBus bus = Mockito.mock(CacheInvalidationBus.class);
+    HybridCacheManager m = new HybridCacheManager(persistence, new CacheProperties(), bus);
+    ArgumentCaptor<CacheInvalidationListener> listener =
+        ArgumentCaptor.forClass(CacheInvalidationListener.class);
+    Mockito.verify(bus).subscribe(listener.capture());
+
+    m.set("k", "v", null);
+    m.delete("k");
+    m.clear();
+    Mockito.verify(bus, Mockito.times(2)).publish("k");
+    Mockito.verify(bus).publishClear();
+
+    m.set("remote", "v", null);
+    listener.getValue().onInvalidation(
+        CacheInvalidationMessage.ofKeys("other", List.of("remote")));
+    assertFalse(m.get("remote").isPresent());
+  }
+
+  @Test
+  void invalidation_insideTransaction_isPublishedOnlyAfterCommit() {
+    CacheInvalidationBus bus = Mockito.mock(CacheInvalidationBus.class);
+    HybridCacheManager m = new HybridCacheManager(persistence, new CacheProperties(), bus);
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      m.set("k", "v", null);
+      m.setAll(Map.of("a", "1", "b", "2"), null);
+      Mockito.verify(bus, Mockito.never()).publish(anyString());
+
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    Mockito.verify(bus).publish("k");
+    Mockito.verify(bus).publish("a");
+    Mockito.verify(bus).publish("b");
+  }
+
+  @Test
+  void invalidation_insideRolledBackTransaction_isNotPublished() {
+    CacheInvalidationBus bus = Mockito.mock(CacheInvalidationBus.class);
+    HybridCacheManager m = new HybridCacheManager(persistence, new CacheProperties(), bus);
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      m.delete("k");
+      m.clear();
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    Mockito.verify(bus, Mockito.never()).publish(anyString());
+    Mockito.verify(bus, Mockito.never()).publishClear();
+  }
+
+  @Test
+  void getAll_resolvesMemoryHitsThenBatchesMisses() {
+    manager.set("m1", "mem", null);
+    store.put("d1", CacheEntry.builder()
+        .key("d1")
+        .value("db")
+        .createdAt(LocalDateTime.now())
+        .updatedAt(LocalDateTime.now())
+        .build());
+
+    Map<String, String> values = manager.getAll(List.of("m1", "d1", "absent"));
+    assertEquals(List.of("m1", "d1"), List.copyOf(values.keySet()));
+    assertEquals("db", values.get("d1"));
+
+    // d1 is now warm in memory: a second call must not reach persistence for it
+    store.remove("d1");
+    assertEquals("db", manager.getAll(List.of("d1")).get("d1"));
+  }
+
+  @Test
+  void setAll_persistsInOneBatch_andDeleteAllRemoves() {
+    manager.setAll(Map.of("a", "1", "b", "2"), 60L);
+    Mockito.verify(persistence).upsertAll(Mockito.argThat(c -> c.size() == 2));
+    assertEquals("1", store.get("a").getValue());
+    assertTrue(manager.getTTL("b") > 0);
+
+    assertEquals(2, manager.deleteAll(List.of("a", "b", "c")));
+    assertTrue(manager.getAll(List.of("a", "b")).isEmpty());
+  }
+
+  @Test
+  void getOrLoad_concurrentMisses_invokeLoaderOnce() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    int callers = 8;
+    ExecutorService pool = Executors.newFixedThreadPool(callers);
+    try {
+      List<Future<Optional<String>>> results = new ArrayList<>();
+      for (int i = 0; i < callers; i++) {
+        results.add(pool.submit(() -> manager.getOrLoad("hot", k -> {
+          loads.incrementAndGet();
+          try {
+            release.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return "loaded";
+        }, 60L)));
+      }
+      Thread.sleep(200); // let every caller reach the in-flight load
+      release.countDown();
+      for (Future<Optional<String>> r : results) {
+        assertEquals(Optional.of("loaded"), r.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    assertEquals(1, loads.get());
+    assertEquals("loaded", store.get("hot").getValue());
+  }
+
+  @Test
+  void getOrLoad_loaderFailure_propagatesAndIsNotCached() {
+    assertThrows(IllegalStateException.class, () -> manager.getOrLoad("boom", k -> {
+      throw new IllegalStateException("loader failed");
+    }, null));
+    assertEquals(Optional.of("ok"), manager.getOrLoad("boom", k -> "ok", null));
+  }
+
+  @Test
+  void negativeCaching_absentKeyIsNotLookedUpAgain() {
+    CacheProperties props = new CacheProperties();
+    props.getMemory().setNegativeTtlSeconds(60);
+    HybridCacheManager m = new HybridCacheManager(persistence, props);
+
+    assertTrue(m.get("ghost").isEmpty());
+    assertTrue(m.get("ghost").isEmpty());
+    assertFalse(m.exists("ghost"));
+    Mockito.verify(persistence, Mockito.times(1)).findByKey("ghost");
+
+    // A local write replaces the negative entry
+    m.set("ghost", "real", null);
+    assertEquals(Optional.of("real"), m.get("ghost"));
+  }
+
+  @Test
+  void negativeCaching_getMissDoesNotSkipLoader() {
+    CacheProperties props = new CacheProperties();
+    props.getMemory().setNegativeTtlSeconds(60);
+    HybridCacheManager m = new HybridCacheManager(persistence, props);
+
+    assertTrue(m.get("ghost").isEmpty());
+    AtomicInteger loads = new AtomicInteger();
+    assertEquals(Optional.of("x"), m.getOrLoad("ghost", k -> {
+      loads.incrementAndGet();
+      return "x";
+    }, null));
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void negativeCaching_loaderFailureIsNotRemembered() {
+    CacheProperties props = new CacheProperties();
+    props.getMemory().setNegativeTtlSeconds(60);
+    HybridCacheManager m = new HybridCacheManager(persistence, props);
+
+    assertThrows(IllegalStateException.class, () -> m.getOrLoad("flaky", k -> {
+      throw new IllegalStateException("loader failed");
+    }, null));
+    AtomicInteger loads = new AtomicInteger();
+    assertEquals(Optional.of("ok"), m.getOrLoad("flaky", k -> {
+      loads.incrementAndGet();
+      return "ok";
+    }, null));
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void negativeCaching_nullLoaderResultIsRemembered() {
+    CacheProperties props = new CacheProperties();
+    props.getMemory().setNegativeTtlSeconds(60);
+    HybridCacheManager m = new HybridCacheManager(persistence, props);
+    AtomicInteger loads = new AtomicInteger();
+    Function<String, String> loader = k -> {
+      loads.incrementAndGet();
+      return null;
+    };
+    assertTrue(m.getOrLoad("none", loader, null).isEmpty());
+    assertTrue(m.getOrLoad("none", loader, null).isEmpty());
+    assertEquals(1, loads.get());
+    // A later get() miss does not turn the load result into a plain negative entry
+    assertTrue(m.get("none").isEmpty());
+    assertTrue(m.getOrLoad("none", loader, null).isEmpty());
+    assertEquals(1, loads.get());
+  }
+}
@@ -0,0 +1,141 @@
+package cloud.xcan.angus.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import cloud.xcan.angus.cache.config.CacheProperties.WriteBehindProperties;
+import cloud.xcan.angus.cache.entity.CacheEntry;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class WriteBehindCacheWriterTest {
+
+  private CachePersistence persistence;
+  private List<List<CacheEntry>> flushed;
+  private WriteBehindCacheWriter writer;
+
+  @BeforeEach
+  void setUp() {
+    persistence = Mockito.mock(CachePersistence.class);
+    flushed = new ArrayList<>();
+    doAnswer(inv -> {
+      Collection<CacheEntry> batch = inv.getArgument(0);
+      flushed.add(new ArrayList<>(batch));
+      return null;
+    }).when(persistence).upsertAll(anyCollection());
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (writer != null) {
+      writer.close();
+    }
+  }
+
+  private WriteBehindCacheWriter newWriter(int batchSize, int capacity) {
+    WriteBehindProperties props = new WriteBehindProperties();
+    props.setEnabled(true);
+    props.setFlushIntervalMillis(60_000); // keep the background flusher out of the way
+    props.setFlushBatchSize(batchSize);
+    props.setBufferCapacity(capacity);
+    return new WriteBehindCacheWriter(persistence, props);
+  }
+
+  private static CacheEntry entry(String key, String value) {
+    LocalDateTime now = LocalDateTime.now();
+    return CacheEntry.builder().key(key).value(value).createdAt(now).updatedAt(now).build();
+  }
+
+  @Test
+  void write_coalescesPerKey() {
+    writer = newWriter(100, 1000);
+    writer.write(entry("k", "v1"));
+    writer.write(entry("k", "v2"));
+    assertEquals(1, writer.pendingCount());
+    assertEquals("v2", writer.peek("k").orElseThrow().getValue());
+
+    writer.flush();
+    assertEquals(1, flushed.size());
+    assertEquals(1, flushed.get(0).size());
+    assertEquals("v2", flushed.get(0).get(0).getValue());
+    assertEquals(0, writer.pendingCount());
+  }
+
+  @Test
+  void flush_splitsIntoBatches() {
+    writer = newWriter(2, 1000);
+    writer.write(entry("a", "1"));
+    writer.write(entry("b", "2"));
+    writer.write(entry("c", "3"));
+    writer.flush();
+    assertEquals(3, flushed.stream().mapToInt(List::size).sum());
+    assertTrue(flushed.stream().allMatch(b -> b.size() <= 2));
+  }
+
+  @Test
+  void write_bufferFull_flushesOnCallerThread() {
+    writer = newWriter(2, 2);
+    writer.write(entry("a", "1"));
+    writer.write(entry("b", "2"));
+    assertEquals(0, writer.pendingCount());
+    assertEquals(2, flushed.stream().mapToInt(List::size).sum());
+  }
+
+  @Test
+  void discard_removesPendingWrite() {
+    writer = newWriter(100, 1000);
+    writer.write(entry("k", "v"));
+    assertTrue(writer.discard("k"));
+    assertFalse(writer.discard("k"));
+    writer.flush();
+    verify(persistence, never()).upsertAll(anyCollection());
+  }
+
+  @Test
+  void flush_failure_keepsEntriesForRetry() {
+    writer = newWriter(100, 1000);
+    doThrow(new RuntimeException("db down")).when(persistence).upsertAll(anyCollection());
+    writer.write(entry("k", "v"));
+    writer.flush();
+    assertEquals(1, writer.pendingCount());
+  }
+
+  @Test
+  void close_drainsPendingWrites() {
+    writer = newWriter(100, 1000);
+    writer.write(entry("a", "1"));
+    writer.write(entry("b", "2"));
+    writer.close();
+    assertEquals(2, flushed.stream().mapToInt(List::size).sum());
+
+    // Writes after close are persisted synchronously
+    writer.write(entry("c", "3"));
+    verify(persistence, times(2)).upsertAll(any());
+  }
+
+  @Test
+  void flush_deletesEntriesExpiredWhileBuffered() {
+    writer = newWriter(100, 1000);
+    CacheEntry expired = entry("x", "v");
+    expired.setExpireAt(LocalDateTime.now().minusSeconds(1));
+    writer.write(expired);
+    writer.flush();
+    verify(persistence, never()).upsertAll(anyCollection());
+    verify(persistence).deleteByKeys(List.of("x"));
+    assertEquals(0, writer.pendingCount());
+  }
+}
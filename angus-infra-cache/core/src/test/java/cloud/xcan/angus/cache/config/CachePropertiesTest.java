@@ -15,8 +15,14 @@ class CachePropertiesTest {
     assertNotNull(p.getMemory());
     assertEquals(10_000L, p.getMemory().getMaxSize());
     assertEquals(300L, p.getMemory().getCleanupIntervalSeconds());
+    assertEquals(0L, p.getMemory().getNegativeTtlSeconds());
     assertNotNull(p.getManagement());
     assertFalse(p.getManagement().isEnabled());
+    assertNotNull(p.getWriteBehind());
+    assertFalse(p.getWriteBehind().isEnabled());
+    assertEquals(500L, p.getWriteBehind().getFlushIntervalMillis());
+    assertEquals(500, p.getWriteBehind().getFlushBatchSize());
+    assertEquals(10_000, p.getWriteBehind().getBufferCapacity());
   }
 
   @Test
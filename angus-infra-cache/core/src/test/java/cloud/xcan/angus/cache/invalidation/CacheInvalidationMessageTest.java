@@ -0,0 +1,36 @@
+package cloud.xcan.angus.cache.invalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CacheInvalidationMessageTest {
+
+  @Test
+  void encodeDecode_keys() {
+    CacheInvalidationMessage msg = CacheInvalidationMessage.ofKeys("node-1", List.of("a", "b"));
+    CacheInvalidationMessage decoded = CacheInvalidationMessage.decode(msg.encode());
+    assertEquals("node-1", decoded.getNodeId());
+    assertFalse(decoded.isClear());
+    assertEquals(List.of("a", "b"), decoded.getKeys());
+  }
+
+  @Test
+  void encodeDecode_clear() {
+    CacheInvalidationMessage decoded = CacheInvalidationMessage.decode(
+        CacheInvalidationMessage.ofClear("node-2").encode());
+    assertTrue(decoded.isClear());
+    assertTrue(decoded.getKeys().isEmpty());
+    assertFalse(decoded.isEmpty());
+  }
+
+  @Test
+  void decode_unknownVersion_throws() {
+    assertThrows(IllegalArgumentException.class,
+        () -> CacheInvalidationMessage.decode(new byte[]{99}));
+  }
+}
@@ -0,0 +1,160 @@
+package cloud.xcan.angus.cache.invalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PollingCacheInvalidationBusTest {
+
+  /**
+   * In-memory change log shared by the buses of several "nodes".
+   */
+  static class InMemoryLog implements CacheInvalidationLog {
+
+    final List<Record> rows = new ArrayList<>();
+    long nextId = 1;
+
+    @Override
+    public synchronized void append(String nodeId, Collection<String> keys, boolean clear) {
+      if (clear) {
+        rows.add(new Record(nextId++, nodeId, null));
+        return;
+      }
+      for (String key : keys) {
+        rows.add(new Record(nextId++, nodeId, key));
+      }
+    }
+
+    /**
+     * Allocate an id whose row only becomes visible on {@link #commit}, like an insert whose
+     * transaction commits after later inserts.
+     */
+    synchronized long reserveId() {
+      return nextId++;
+    }
+
+    synchronized void commit(long id, String nodeId, String key) {
+      rows.add(new Record(id, nodeId, key));
+    }
+
+    @Override
+    public synchronized List<Record> findAfter(long lastId, int limit) {
+      return rows.stream().filter(r -> r.id() > lastId)
+          .sorted(Comparator.comparingLong(Record::id)).limit(limit).toList();
+    }
+
+    @Override
+    public synchronized List<Record> findByIds(Collection<Long> ids) {
+      return rows.stream().filter(r -> ids.contains(r.id()))
+          .sorted(Comparator.comparingLong(Record::id)).toList();
+    }
+
+    @Override
+    public synchronized long maxId() {
+      return rows.stream().mapToLong(Record::id).max().orElse(0);
+    }
+
+    @Override
+    public int deleteBefore(LocalDateTime time) {
+      return 0;
+    }
+  }
+
+  private final InMemoryLog changeLog = new InMemoryLog();
+  private PollingCacheInvalidationBus nodeA;
+  private PollingCacheInvalidationBus nodeB;
+
+  @AfterEach
+  void tearDown() {
+    nodeA.close();
+    nodeB.close();
+  }
+
+  private PollingCacheInvalidationBus newBus(String nodeId, int pollBatchSize) {
+    // Long intervals: the test drives flush() and poll() explicitly
+    PollingCacheInvalidationBus bus = new PollingCacheInvalidationBus(nodeId, changeLog,
+        60_000, 60_000, pollBatchSize, 3600);
+    bus.start();
+    return bus;
+  }
+
+  @Test
+  void publish_deduplicatesWithinBatch_andSkipsSelf() {
+    nodeA = newBus("A", 100);
+    nodeB = newBus("B", 100);
+    Set<String> receivedByA = new HashSet<>();
+    Set<String> receivedByB = new HashSet<>();
+    nodeA.subscribe(m -> receivedByA.addAll(m.getKeys()));
+    nodeB.subscribe(m -> receivedByB.addAll(m.getKeys()));
+
+    nodeA.publish("k1");
+    nodeA.publish("k1");
+    nodeA.publish("k2");
+    nodeA.flush();
+    assertEquals(2, changeLog.rows.size());
+
+    nodeA.poll();
+    nodeB.poll();
+    assertTrue(receivedByA.isEmpty());
+    assertEquals(Set.of("k1", "k2"), receivedByB);
+  }
+
+  @Test
+  void publishClear_supersedesPendingKeys() {
+    nodeA = newBus("A", 100);
+    nodeB = newBus("B", 100);
+    List<CacheInvalidationMessage> received = new ArrayList<>();
+    nodeB.subscribe(received::add);
+
+    nodeA.publish("k1");
+    nodeA.publishClear();
+    nodeA.publish("k2");
+    nodeA.flush();
+    assertEquals(1, changeLog.rows.size());
+
+    nodeB.poll();
+    assertEquals(1, received.size());
+    assertTrue(received.get(0).isClear());
+  }
+
+  @Test
+  void poll_readsAllPagesSinceStart() {
+    changeLog.append("old", List.of("before-start"), false);
+    nodeA = newBus("A", 2);
+    nodeB = newBus("B", 2);
+    Set<String> received = new HashSet<>();
+    nodeB.subscribe(m -> received.addAll(m.getKeys()));
+
+    changeLog.append("A", List.of("a", "b", "c", "d", "e"), false);
+    nodeB.poll();
+    assertEquals(Set.of("a", "b", "c", "d", "e"), received);
+  }
+
+  @Test
+  void poll_picksUpRowsCommittedBehindTheLastSeenId() {
+    nodeA = newBus("A", 100);
+    nodeB = newBus("B", 100);
+    Set<String> received = new HashSet<>();
+    nodeB.subscribe(m -> received.addAll(m.getKeys()));
+
+    long slow = changeLog.reserveId();
+    changeLog.append("A", List.of("fast"), false);
+    nodeB.poll();
+    assertEquals(Set.of("fast"), received);
+    assertEquals(1, nodeB.gapCount());
+
+    changeLog.commit(slow, "A", "slow");
+    nodeB.poll();
+    assertEquals(Set.of("fast", "slow"), received);
+    assertEquals(0, nodeB.gapCount());
+  }
+}
@@ -4,15 +4,22 @@ import cloud.xcan.angus.cache.CachePersistence;
 import cloud.xcan.angus.cache.HybridCacheManager;
 import cloud.xcan.angus.cache.IDistributedCache;
 import cloud.xcan.angus.cache.config.CacheProperties;
+import cloud.xcan.angus.cache.config.CacheProperties.InvalidationProperties;
 import cloud.xcan.angus.cache.entity.CacheEntry;
+import cloud.xcan.angus.cache.invalidation.CacheInvalidationBus;
+import cloud.xcan.angus.cache.invalidation.PollingCacheInvalidationBus;
+import cloud.xcan.angus.cache.jdbc.JdbcCacheInvalidationLog;
 import cloud.xcan.angus.cache.jpa.SpringCachePersistenceAdapter;
 import cloud.xcan.angus.cache.jpa.SpringDataCacheEntryRepository;
+import cloud.xcan.angus.cache.redis.RedisCacheInvalidationBus;
 import jakarta.persistence.EntityManagerFactory;
+import java.util.UUID;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -20,8 +27,12 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 
-@AutoConfiguration(after = HibernateJpaAutoConfiguration.class)
+@AutoConfiguration(after = HibernateJpaAutoConfiguration.class, afterName = {
+    "org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration",
+    "org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration"})
 @EnableConfigurationProperties(CacheProperties.class)
 @ConditionalOnClass(JpaRepository.class)
 public class HybridCacheAutoConfiguration {
@@ -53,9 +64,60 @@ public class HybridCacheAutoConfiguration {
   @Bean
   @ConditionalOnMissingBean(IDistributedCache.class)
   public IDistributedCache distributedCache(CachePersistence persistence,
-      CacheProperties cacheProperties) {
-    HybridCacheManager core = new HybridCacheManager(persistence, cacheProperties);
+      CacheProperties cacheProperties, ObjectProvider<CacheInvalidationBus> invalidationBus) {
+    HybridCacheManager core = new HybridCacheManager(persistence, cacheProperties,
+        invalidationBus.getIfAvailable());
     return new TransactionalDistributedCache(core);
   }
 
+  static String resolveNodeId(InvalidationProperties properties) {
+    String nodeId = properties.getNodeId();
+    return nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+  }
+
+  /**
+   * Cross-node invalidation through the {@code angus_cache_invalidations} change-log table. The
+   * table must be created from the schema scripts shipped with the core module.
+   */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnProperty(prefix = "angus.cache.invalidation", name = "enabled",
+      havingValue = "true")
+  static class PollingInvalidationConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "angus.cache.invalidation", name = "type",
+        havingValue = "polling", matchIfMissing = true)
+    @ConditionalOnMissingBean(CacheInvalidationBus.class)
+    @ConditionalOnBean(JdbcTemplate.class)
+    public CacheInvalidationBus cacheInvalidationBus(CacheProperties cacheProperties,
+        JdbcTemplate jdbcTemplate) {
+      InvalidationProperties props = cacheProperties.getInvalidation();
+      return new PollingCacheInvalidationBus(resolveNodeId(props),
+          new JdbcCacheInvalidationLog(jdbcTemplate), props.getBatchIntervalMillis(),
+          props.getPollIntervalMillis(), props.getPollBatchSize(), props.getRetentionSeconds());
+    }
+  }
+
+  /**
+   * Cross-node invalidation over Redis pub/sub.
+   */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(RedisConnectionFactory.class)
+  @ConditionalOnProperty(prefix = "angus.cache.invalidation", name = "enabled",
+      havingValue = "true")
+  static class RedisInvalidationConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "angus.cache.invalidation", name = "type",
+        havingValue = "redis")
+    @ConditionalOnMissingBean(CacheInvalidationBus.class)
+    @ConditionalOnBean(RedisConnectionFactory.class)
+    public CacheInvalidationBus cacheInvalidationBus(CacheProperties cacheProperties,
+        RedisConnectionFactory redisConnectionFactory) {
+      InvalidationProperties props = cacheProperties.getInvalidation();
+      return new RedisCacheInvalidationBus(resolveNodeId(props), redisConnectionFactory,
+          props.getRedisChannel(), props.getBatchIntervalMillis());
+    }
+  }
+
 }
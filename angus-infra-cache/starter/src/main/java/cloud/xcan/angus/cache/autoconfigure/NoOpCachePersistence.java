@@ -2,6 +2,8 @@ package cloud.xcan.angus.cache.autoconfigure;
 
 import cloud.xcan.angus.cache.CachePersistence;
 import cloud.xcan.angus.cache.entity.CacheEntry;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -33,12 +35,34 @@ public class NoOpCachePersistence implements CachePersistence {
     return Optional.ofNullable(store.get(key));
   }
 
+  @Override
+  public List<CacheEntry> findByKeys(Collection<String> keys) {
+    List<CacheEntry> entries = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      CacheEntry entry = store.get(key);
+      if (entry != null) {
+        entries.add(entry);
+      }
+    }
+    return entries;
+  }
+
   @Override
   public CacheEntry save(CacheEntry entry) {
     store.put(entry.getKey(), entry);
     return entry;
   }
 
+  @Override
+  public void upsertAll(Collection<CacheEntry> entries) {
+    for (CacheEntry entry : entries) {
+      store.merge(entry.getKey(), entry, (existing, update) -> {
+        existing.mergeFrom(update);
+        return existing;
+      });
+    }
+  }
+
   @Override
   public boolean deleteByKey(String key) {
     return store.remove(key) != null;
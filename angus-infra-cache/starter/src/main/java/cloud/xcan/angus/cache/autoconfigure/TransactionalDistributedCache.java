@@ -3,12 +3,15 @@ package cloud.xcan.angus.cache.autoconfigure;
 import cloud.xcan.angus.cache.CacheEntryInfo;
 import cloud.xcan.angus.cache.CacheStats;
 import cloud.xcan.angus.cache.IDistributedCache;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import org.springframework.data.domain.Page;
 import org.springframework.transaction.annotation.Transactional;
 
-public class TransactionalDistributedCache implements IDistributedCache {
+public class TransactionalDistributedCache implements IDistributedCache, AutoCloseable {
 
   private final IDistributedCache delegate;
 
@@ -34,6 +37,31 @@ public class TransactionalDistributedCache implements IDistributedCache {
     return delegate.get(key);
   }
 
+  @Override
+  @Transactional
+  public Optional<String> getOrLoad(String key, Function<String, String> loader,
+      Long ttlSeconds) {
+    return delegate.getOrLoad(key, loader, ttlSeconds);
+  }
+
+  @Override
+  @Transactional
+  public Map<String, String> getAll(Collection<String> keys) {
+    return delegate.getAll(keys);
+  }
+
+  @Override
+  @Transactional
+  public void setAll(Map<String, String> entries, Long ttlSeconds) {
+    delegate.setAll(entries, ttlSeconds);
+  }
+
+  @Override
+  @Transactional
+  public int deleteAll(Collection<String> keys) {
+    return delegate.deleteAll(keys);
+  }
+
   @Override
   @Transactional
   public boolean delete(String key) {
@@ -87,5 +115,15 @@ public class TransactionalDistributedCache implements IDistributedCache {
   public Page<CacheEntryInfo> listEntries(int pageNo, int pageSize) {
     return delegate.listEntries(pageNo, pageSize);
   }
-}
 
+  /**
+   * Releases the delegate's resources (e.g. drains the write-behind buffer). Invoked by Spring as
+   * the inferred destroy method of the cache bean.
+   */
+  @Override
+  public void close() throws Exception {
+    if (delegate instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+  }
+}
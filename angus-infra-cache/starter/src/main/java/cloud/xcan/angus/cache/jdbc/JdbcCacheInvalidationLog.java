@@ -0,0 +1,84 @@
+package cloud.xcan.angus.cache.jdbc;
+
+import cloud.xcan.angus.cache.invalidation.CacheInvalidationLog;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * {@link CacheInvalidationLog} on the {@code angus_cache_invalidations} table via plain JDBC.
+ * <p>
+ * Deliberately not a JPA entity: applications that do not enable invalidation are not required to
+ * create the table, even with {@code ddl-auto: validate}. Statements run outside the caller's
+ * transaction because the bus publishes from its own thread.
+ */
+public class JdbcCacheInvalidationLog implements CacheInvalidationLog {
+
+  private static final String INSERT_SQL =
+      "INSERT INTO angus_cache_invalidations (cache_key, node_id, created_at) VALUES (?, ?, ?)";
+  private static final String SELECT_AFTER_SQL =
+      "SELECT id, node_id, cache_key FROM angus_cache_invalidations WHERE id > ? "
+          + "ORDER BY id LIMIT ?";
+  private static final String SELECT_IN_SQL =
+      "SELECT id, node_id, cache_key FROM angus_cache_invalidations WHERE id IN (%s) ORDER BY id";
+  private static final String MAX_ID_SQL =
+      "SELECT COALESCE(MAX(id), 0) FROM angus_cache_invalidations";
+  private static final String DELETE_BEFORE_SQL =
+      "DELETE FROM angus_cache_invalidations WHERE created_at < ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public JdbcCacheInvalidationLog(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public void append(String nodeId, Collection<String> keys, boolean clear) {
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    if (clear) {
+      jdbcTemplate.update(INSERT_SQL, null, nodeId, now);
+      return;
+    }
+    if (keys.isEmpty()) {
+      return;
+    }
+    List<Object[]> args = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      args.add(new Object[]{key, nodeId, now});
+    }
+    jdbcTemplate.batchUpdate(INSERT_SQL, args);
+  }
+
+  @Override
+  public List<Record> findAfter(long lastId, int limit) {
+    return jdbcTemplate.query(SELECT_AFTER_SQL,
+        (rs, rowNum) -> new Record(rs.getLong(1), rs.getString(2), rs.getString(3)),
+        lastId, limit);
+  }
+
+  @Override
+  public List<Record> findByIds(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+    return jdbcTemplate.query(String.format(SELECT_IN_SQL, placeholders),
+        (rs, rowNum) -> new Record(rs.getLong(1), rs.getString(2), rs.getString(3)),
+        ids.toArray());
+  }
+
+  @Override
+  public long maxId() {
+    Long max = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class);
+    return max == null ? 0L : max;
+  }
+
+  @Override
+  public int deleteBefore(LocalDateTime time) {
+    return jdbcTemplate.update(DELETE_BEFORE_SQL, Timestamp.valueOf(time));
+  }
+}
@@ -2,14 +2,24 @@ package cloud.xcan.angus.cache.jpa;
 
 import cloud.xcan.angus.cache.CachePersistence;
 import cloud.xcan.angus.cache.entity.CacheEntry;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
 
 public class SpringCachePersistenceAdapter implements CachePersistence {
 
+  /**
+   * Upper bound on the number of keys bound into one {@code IN} clause.
+   */
+  private static final int MAX_IN_KEYS = 1000;
+
   private final SpringDataCacheEntryRepository repository;
 
   public SpringCachePersistenceAdapter(SpringDataCacheEntryRepository repository) {
@@ -22,18 +32,74 @@ public class SpringCachePersistenceAdapter implements CachePersistence {
     return repository.findByKey(key);
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public List<CacheEntry> findByKeys(Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return List.of();
+    }
+    if (keys.size() <= MAX_IN_KEYS) {
+      return repository.findByKeyIn(keys);
+    }
+    List<CacheEntry> entries = new ArrayList<>(keys.size());
+    for (List<String> chunk : chunks(keys)) {
+      entries.addAll(repository.findByKeyIn(chunk));
+    }
+    return entries;
+  }
+
   @Override
   @Transactional
   public CacheEntry save(CacheEntry entry) {
     return repository.save(entry);
   }
 
+  /**
+   * Upserts the batch in one transaction: one {@code IN} lookup for existing rows, then a single
+   * {@code saveAll}.
+   */
+  @Override
+  @Transactional
+  public void upsertAll(Collection<CacheEntry> entries) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    Map<String, CacheEntry> existing = findByKeys(
+            entries.stream().map(CacheEntry::getKey).collect(Collectors.toSet()))
+        .stream()
+        .collect(Collectors.toMap(CacheEntry::getKey, Function.identity()));
+    List<CacheEntry> toSave = new ArrayList<>(entries.size());
+    for (CacheEntry entry : entries) {
+      CacheEntry row = existing.get(entry.getKey());
+      if (row == null) {
+        toSave.add(entry);
+      } else {
+        row.mergeFrom(entry);
+        toSave.add(row);
+      }
+    }
+    repository.saveAll(toSave);
+  }
+
   @Override
   @Transactional
   public boolean deleteByKey(String key) {
     return repository.deleteByKeyQuery(key) > 0;
   }
 
+  @Override
+  @Transactional
+  public int deleteByKeys(Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return 0;
+    }
+    int deleted = 0;
+    for (List<String> chunk : chunks(keys)) {
+      deleted += repository.deleteByKeyIn(chunk);
+    }
+    return deleted;
+  }
+
   @Override
   @Transactional
   public void deleteAll() {
@@ -69,4 +135,13 @@ public class SpringCachePersistenceAdapter implements CachePersistence {
   public Page<CacheEntry> findAllActive(Pageable pageable) {
     return repository.findAllActive(pageable);
   }
+
+  private static List<List<String>> chunks(Collection<String> keys) {
+    List<String> all = new ArrayList<>(keys);
+    List<List<String>> chunks = new ArrayList<>((all.size() + MAX_IN_KEYS - 1) / MAX_IN_KEYS);
+    for (int i = 0; i < all.size(); i += MAX_IN_KEYS) {
+      chunks.add(all.subList(i, Math.min(i + MAX_IN_KEYS, all.size())));
+    }
+    return chunks;
+  }
 }
@@ -2,6 +2,7 @@ package cloud.xcan.angus.cache.jpa;
 
 import cloud.xcan.angus.cache.entity.CacheEntry;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -17,10 +18,16 @@ public interface SpringDataCacheEntryRepository extends JpaRepository<CacheEntry
 
   Optional<CacheEntry> findByKey(String key);
 
+  List<CacheEntry> findByKeyIn(Collection<String> keys);
+
   @Modifying
   @Query("DELETE FROM CacheEntry c WHERE c.key = :key")
   int deleteByKeyQuery(@Param("key") String key);
 
+  @Modifying
+  @Query("DELETE FROM CacheEntry c WHERE c.key IN :keys")
+  int deleteByKeyIn(@Param("keys") Collection<String> keys);
+
   @Query("SELECT c FROM CacheEntry c WHERE c.expireAt IS NOT NULL AND c.expireAt < CURRENT_TIMESTAMP")
   List<CacheEntry> findExpiredEntries();
 
@@ -0,0 +1,70 @@
+package cloud.xcan.angus.cache.redis;
+
+import cloud.xcan.angus.cache.invalidation.AbstractCacheInvalidationBus;
+import cloud.xcan.angus.cache.invalidation.CacheInvalidationBus;
+import cloud.xcan.angus.cache.invalidation.CacheInvalidationMessage;
+import java.nio.charset.StandardCharsets;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * {@link CacheInvalidationBus} over Redis pub/sub. Messages use the compact binary encoding of
+ * {@link CacheInvalidationMessage}; delivery is fire-and-forget, so nodes that are disconnected
+ * while a message is published fall back to memory TTL.
+ */
+@Slf4j
+public class RedisCacheInvalidationBus extends AbstractCacheInvalidationBus implements
+    MessageListener {
+
+  private final RedisConnectionFactory connectionFactory;
+  private final byte[] channel;
+  private final RedisMessageListenerContainer container;
+
+  public RedisCacheInvalidationBus(String nodeId, RedisConnectionFactory connectionFactory,
+      String channel, long batchIntervalMillis) {
+    super(nodeId, batchIntervalMillis);
+    this.connectionFactory = connectionFactory;
+    this.channel = channel.getBytes(StandardCharsets.UTF_8);
+    this.container = new RedisMessageListenerContainer();
+    this.container.setConnectionFactory(connectionFactory);
+    this.container.addMessageListener(this, new ChannelTopic(channel));
+  }
+
+  @Override
+  protected void send(CacheInvalidationMessage message) {
+    try (RedisConnection connection = connectionFactory.getConnection()) {
+      connection.publish(channel, message.encode());
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    try {
+      dispatch(CacheInvalidationMessage.decode(message.getBody()));
+    } catch (Exception e) {
+      log.error("Failed to decode cache invalidation message. error={}", e.getMessage(), e);
+    }
+  }
+
+  @Override
+  protected void doStart() {
+    container.afterPropertiesSet();
+    container.start();
+    log.info("RedisCacheInvalidationBus started: nodeId={}, channel={}", getNodeId(),
+        new String(channel, StandardCharsets.UTF_8));
+  }
+
+  @Override
+  protected void doClose() {
+    try {
+      container.destroy();
+    } catch (Exception e) {
+      log.warn("Failed to stop cache invalidation listener container. error={}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package cloud.xcan.angus.cache.autoconfigure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import cloud.xcan.angus.cache.invalidation.CacheInvalidationLog.Record;
+import cloud.xcan.angus.cache.jdbc.JdbcCacheInvalidationLog;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class JdbcCacheInvalidationLogTest {
+
+  private EmbeddedDatabase database;
+  private JdbcCacheInvalidationLog changeLog;
+
+  @BeforeEach
+  void setUp() {
+    database = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .generateUniqueName(true)
+        .build();
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+    jdbcTemplate.execute("CREATE TABLE angus_cache_invalidations ("
+        + "id BIGINT AUTO_INCREMENT PRIMARY KEY, cache_key VARCHAR(256), "
+        + "node_id VARCHAR(64) NOT NULL, created_at TIMESTAMP NOT NULL)");
+    changeLog = new JdbcCacheInvalidationLog(jdbcTemplate);
+  }
+
+  @AfterEach
+  void tearDown() {
+    database.shutdown();
+  }
+
+  @Test
+  void appendAndFindAfter() {
+    assertEquals(0L, changeLog.maxId());
+    changeLog.append("n1", List.of("a", "b"), false);
+    changeLog.append("n2", List.of(), true);
+
+    List<Record> all = changeLog.findAfter(0, 10);
+    assertEquals(3, all.size());
+    assertEquals("a", all.get(0).key());
+    assertEquals("n1", all.get(0).nodeId());
+    assertNull(all.get(2).key());
+    assertEquals(all.get(2).id(), changeLog.maxId());
+
+    List<Record> page = changeLog.findAfter(all.get(0).id(), 1);
+    assertEquals(1, page.size());
+    assertEquals("b", page.get(0).key());
+  }
+
+  @Test
+  void findByIds_returnsExistingRowsInIdOrder() {
+    changeLog.append("n1", List.of("a", "b", "c"), false);
+    List<Record> all = changeLog.findAfter(0, 10);
+
+    List<Record> found = changeLog.findByIds(List.of(all.get(2).id(), all.get(0).id(), -1L));
+    assertEquals(List.of("a", "c"), found.stream().map(Record::key).toList());
+    assertEquals(0, changeLog.findByIds(List.of()).size());
+  }
+
+  @Test
+  void deleteBefore_purgesOldRows() {
+    changeLog.append("n1", List.of("a"), false);
+    assertEquals(1, changeLog.deleteBefore(LocalDateTime.now().plusSeconds(1)));
+    assertEquals(0, changeLog.findAfter(0, 10).size());
+  }
+}
@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import cloud.xcan.angus.cache.entity.CacheEntry;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,6 +37,15 @@ class NoOpCachePersistenceTest {
     assertFalse(persistence.deleteByKey("b"));
   }
 
+  @Test
+  void findByKeysAndDeleteByKeys() {
+    persistence.save(entry("x", "1", null));
+    persistence.save(entry("y", "2", null));
+    assertEquals(2, persistence.findByKeys(List.of("x", "y", "z")).size());
+    assertEquals(2, persistence.deleteByKeys(List.of("x", "y", "z")));
+    assertTrue(persistence.findByKeys(List.of("x", "y")).isEmpty());
+  }
+
   @Test
   void deleteAll() {
     persistence.save(entry("c", "v", null));
@@ -2,7 +2,9 @@ package cloud.xcan.angus.cache.autoconfigure;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -10,9 +12,12 @@ import cloud.xcan.angus.cache.entity.CacheEntry;
 import cloud.xcan.angus.cache.jpa.SpringCachePersistenceAdapter;
 import cloud.xcan.angus.cache.jpa.SpringDataCacheEntryRepository;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 class SpringCachePersistenceAdapterTest {
@@ -66,6 +71,41 @@ class SpringCachePersistenceAdapterTest {
     verify(repository).deleteAll();
   }
 
+  @Test
+  void findByKeys_usesSingleInQuery() {
+    when(repository.findByKeyIn(List.of("a", "b"))).thenReturn(List.of(sample("a")));
+    assertEquals(1, adapter.findByKeys(List.of("a", "b")).size());
+    assertTrue(adapter.findByKeys(List.of()).isEmpty());
+  }
+
+  @Test
+  void deleteByKeys_returnsAffectedRows() {
+    when(repository.deleteByKeyIn(anyCollection())).thenReturn(2);
+    assertEquals(2, adapter.deleteByKeys(List.of("a", "b")));
+    assertEquals(0, adapter.deleteByKeys(List.of()));
+  }
+
+  @Test
+  void upsertAll_mergesExistingRowsAndSavesBatch() {
+    CacheEntry existing = sample("a");
+    existing.setId(7L);
+    when(repository.findByKeyIn(anyCollection())).thenReturn(List.of(existing));
+    CacheEntry updateA = sample("a");
+    updateA.setValue("new");
+    CacheEntry insertB = sample("b");
+    adapter.upsertAll(List.of(updateA, insertB));
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Iterable<CacheEntry>> saved = ArgumentCaptor.forClass(Iterable.class);
+    verify(repository).saveAll(saved.capture());
+    List<CacheEntry> rows = new ArrayList<>();
+    saved.getValue().forEach(rows::add);
+    assertEquals(2, rows.size());
+    assertSame(existing, rows.get(0));
+    assertEquals("new", existing.getValue());
+    assertSame(insertB, rows.get(1));
+  }
+
   private static CacheEntry sample(String key) {
     return CacheEntry.builder()
         .key(key)
@@ -0,0 +1,131 @@
+package cloud.xcan.angus.idgen.benchmark;
+
+import cloud.xcan.angus.idgen.BidGenerator;
+import cloud.xcan.angus.idgen.bid.DateFormat;
+import cloud.xcan.angus.idgen.bid.DefaultBidGenerator;
+import cloud.xcan.angus.idgen.bid.Format;
+import cloud.xcan.angus.idgen.bid.Mode;
+import cloud.xcan.angus.idgen.bid.Scope;
+import cloud.xcan.angus.idgen.entity.IdConfig;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 业务 ID（BID）生成：DB / REDIS 两种模式下，纯序列与 {@code 前缀 + 日期 + 序列} 两种格式的单线程、多线程吞吐量与
+ * 延迟分布，以及批量取 ID、取原始序列和多租户场景。
+ * <p>
+ * 号段由内存桩 {@link InMemoryConfigIdAssigner} / {@link InMemoryIncrAssigner} 分配（无延迟），结果只反映生成器
+ * 本身的开销；号段边界处的等待见 {@link BidSegmentBenchmark}。
+ * <p>
+ * 运行示例：
+ * <pre>
+ *   mvn -pl angus-infra-idgen/benchmark -am package -DskipTests
+ *   java -jar angus-infra-idgen/benchmark/target/benchmarks.jar BidGeneratorBenchmark -prof gc
+ * </pre>
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode({org.openjdk.jmh.annotations.Mode.Throughput,
+    org.openjdk.jmh.annotations.Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BidGeneratorBenchmark {
+
+  private static final String BIZ_KEY = "ORDER";
+  private static final String TENANT_BIZ_KEY = "TENANT_ORDER";
+  private static final Long[] TENANT_IDS = {1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L};
+  private static final int BATCH_NUM = 100;
+
+  @Param({"DB", "REDIS"})
+  private Mode mode;
+
+  @Param({"SEQ", "PREFIX_DATE_SEQ"})
+  private Format format;
+
+  private DefaultBidGenerator bidGenerator;
+
+  @Setup
+  public void setup() {
+    InMemoryConfigIdAssigner configIdAssigner = new InMemoryConfigIdAssigner(0);
+    configIdAssigner.save(idConfig(BIZ_KEY, Scope.PLATFORM));
+    configIdAssigner.save(idConfig(TENANT_BIZ_KEY, Scope.TENANT));
+    bidGenerator = new DefaultBidGenerator(configIdAssigner, new InMemoryIncrAssigner(0), 512);
+  }
+
+  private IdConfig idConfig(String bizKey, Scope scope) {
+    return new IdConfig()
+        .setBizKey(bizKey)
+        .setFormat(format)
+        .setPrefix("ORD")
+        .setDateFormat(DateFormat.YYYYMMDD)
+        // Wide enough that a long run never overflows the sequence
+        .setSeqLength(Format.SEQ.equals(format) ? 0 : 12)
+        .setMode(mode)
+        .setScope(scope)
+        .setTenantId(BidGenerator.GLOBAL_TENANT_ID)
+        .setMaxId(Mode.REDIS.equals(mode) ? -1L : 0L)
+        .setStep(1000L);
+  }
+
+  @Benchmark
+  public String getId() {
+    return bidGenerator.getId(BIZ_KEY);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String fourThreadsGetId() {
+    return bidGenerator.getId(BIZ_KEY);
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public String allThreadsGetId() {
+    return bidGenerator.getId(BIZ_KEY);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String fourThreadsMultiTenant() {
+    Long tenantId = TENANT_IDS[ThreadLocalRandom.current().nextInt(TENANT_IDS.length)];
+    return bidGenerator.getId(TENANT_BIZ_KEY, tenantId);
+  }
+
+  @Benchmark
+  public List<String> getIds() {
+    return bidGenerator.getIds(BIZ_KEY, BATCH_NUM);
+  }
+
+  @Benchmark
+  public long[] getSequences() {
+    return bidGenerator.getSequences(BIZ_KEY, BATCH_NUM);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(BidGeneratorBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .result("benchmark_bid.json")
+        .resultFormat(ResultFormatType.JSON)
+        .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,134 @@
+package cloud.xcan.angus.idgen.benchmark;
+
+import cloud.xcan.angus.idgen.BidGenerator;
+import cloud.xcan.angus.idgen.bid.DefaultBidGenerator;
+import cloud.xcan.angus.idgen.bid.Format;
+import cloud.xcan.angus.idgen.bid.Mode;
+import cloud.xcan.angus.idgen.bid.Scope;
+import cloud.xcan.angus.idgen.entity.IdConfig;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 号段边界：以较小的 step 频繁耗尽号段，并模拟每次取号段的数据库
+ * 延迟，观察预取与自适应步长对尾延迟（SampleTime 的 p99 / p99.9 /
+ * max）和吞吐量的影响。
+ * <p>
+ * {@code adaptive=false} 时将最大步长固定为配置的 step，
+ * {@code adaptive=true} 时允许 DB 模式按消耗速度放大步长。
+ * 每次迭代的取号段次数以辅助计数器 {@code segmentFetches} 随结果一并输出。
+ * <p>
+ * 运行示例：
+ * <pre>
+ *   java -jar angus-infra-idgen/benchmark/target/benchmarks.jar BidSegmentBenchmark \
+ *     -p step=100 -p fetchLatencyMicros=500
+ * </pre>
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode({org.openjdk.jmh.annotations.Mode.Throughput,
+    org.openjdk.jmh.annotations.Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BidSegmentBenchmark {
+
+  private static final String BIZ_KEY = "SEGMENT";
+
+  @Param({"10", "100", "1000"})
+  private long step;
+
+  @Param({"0", "500"})
+  private long fetchLatencyMicros;
+
+  @Param({"false", "true"})
+  private boolean adaptive;
+
+  private InMemoryConfigIdAssigner configIdAssigner;
+  private DefaultBidGenerator bidGenerator;
+
+  @Setup
+  public void setup() {
+    configIdAssigner = new InMemoryConfigIdAssigner(fetchLatencyMicros);
+    configIdAssigner.save(new IdConfig()
+        .setBizKey(BIZ_KEY)
+        .setFormat(Format.SEQ)
+        .setSeqLength(0)
+        .setMode(Mode.DB)
+        .setScope(Scope.PLATFORM)
+        .setTenantId(BidGenerator.GLOBAL_TENANT_ID)
+        .setMaxId(0L)
+        .setStep(step));
+    bidGenerator = new DefaultBidGenerator(configIdAssigner, new InMemoryIncrAssigner(0), 16,
+        DefaultBidGenerator.DEFAULT_PREFETCH_THRESHOLD, adaptive ? BidGenerator.MAX_STEP : step,
+        DefaultBidGenerator.defaultPrefetchExecutor());
+  }
+
+  @Benchmark
+  public String getId(SegmentFetches fetches) {
+    return bidGenerator.getId(BIZ_KEY);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String fourThreadsGetId(SegmentFetches fetches) {
+    return bidGenerator.getId(BIZ_KEY);
+  }
+
+  /**
+   * 每次迭代的取号段次数（含后台预取）。号段由所有线程共享，
+   * 只由第一个线程上报，避免按线程数重复累加。
+   */
+  @State(org.openjdk.jmh.annotations.Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class SegmentFetches {
+
+    public long segmentFetches;
+
+    private boolean reporter;
+    private long startFetches;
+
+    @Setup(Level.Iteration)
+    public void start(BidSegmentBenchmark benchmark, ThreadParams threadParams) {
+      reporter = threadParams.getThreadIndex() == 0;
+      startFetches = benchmark.configIdAssigner.getSegmentFetches();
+      segmentFetches = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop(BidSegmentBenchmark benchmark) {
+      if (reporter) {
+        segmentFetches = benchmark.configIdAssigner.getSegmentFetches() - startFetches;
+      }
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(BidSegmentBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .result("benchmark_bid_segment.json")
+        .resultFormat(ResultFormatType.JSON)
+        .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,66 @@
+package cloud.xcan.angus.idgen.benchmark;
+
+import cloud.xcan.angus.idgen.ConfigIdAssigner;
+import cloud.xcan.angus.idgen.entity.IdConfig;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 内存版 {@link ConfigIdAssigner}：以 {@code max_id = max_id + step} 的语义分配号段，并可模拟一次数据库往返的
+ * 延迟，用于观察号段边界处的等待。不依赖 Mockito，避免桩代码本身的开销计入结果。
+ */
+public class InMemoryConfigIdAssigner implements ConfigIdAssigner {
+
+  private final Map<String, IdConfig> configs = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> maxIds = new ConcurrentHashMap<>();
+  private final long fetchLatencyNanos;
+  private final LongAdder segmentFetches = new LongAdder();
+
+  /**
+   * @param fetchLatencyMicros 每次取号段模拟的数据库延迟（微秒），0 表示不模拟
+   */
+  public InMemoryConfigIdAssigner(long fetchLatencyMicros) {
+    this.fetchLatencyNanos = TimeUnit.MICROSECONDS.toNanos(fetchLatencyMicros);
+  }
+
+  @Override
+  public IdConfig save(IdConfig idConfigDB) {
+    configs.put(key(idConfigDB.getBizKey(), idConfigDB.getTenantId()), idConfigDB);
+    return idConfigDB;
+  }
+
+  @Override
+  public IdConfig retrieveFromIdConfig(String bizKey, Long globalTenantId) {
+    return configs.get(key(bizKey, globalTenantId));
+  }
+
+  @Override
+  public long assignSegmentByParam(Long step, String bizKey, Long tenantId) {
+    segmentFetches.increment();
+    if (fetchLatencyNanos > 0) {
+      LockSupport.parkNanos(fetchLatencyNanos);
+    }
+    return maxIds.computeIfAbsent(key(bizKey, tenantId), k -> new AtomicLong())
+        .addAndGet(step);
+  }
+
+  @Override
+  public IdConfig saveAndAssignSegment(IdConfig idConfigDB) {
+    return save(idConfigDB);
+  }
+
+  /**
+   * 累计取号段次数
+   */
+  public long getSegmentFetches() {
+    return segmentFetches.sum();
+  }
+
+  private static String key(String bizKey, Long tenantId) {
+    return bizKey + ":" + tenantId;
+  }
+}
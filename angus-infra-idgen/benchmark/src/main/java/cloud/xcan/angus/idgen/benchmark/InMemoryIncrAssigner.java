@@ -0,0 +1,32 @@
+package cloud.xcan.angus.idgen.benchmark;
+
+import cloud.xcan.angus.idgen.DistributedIncrAssigner;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 内存版 {@link DistributedIncrAssigner}：以 {@code INCRBY} 的语义递增，并可模拟一次 Redis 往返的延迟。
+ */
+public class InMemoryIncrAssigner implements DistributedIncrAssigner {
+
+  private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+  private final long incrLatencyNanos;
+
+  /**
+   * @param incrLatencyMicros 每次递增模拟的 Redis 延迟（微秒），0 表示不模拟
+   */
+  public InMemoryIncrAssigner(long incrLatencyMicros) {
+    this.incrLatencyNanos = TimeUnit.MICROSECONDS.toNanos(incrLatencyMicros);
+  }
+
+  @Override
+  public Long incr(String generatorKey, long i) {
+    if (incrLatencyNanos > 0) {
+      LockSupport.parkNanos(incrLatencyNanos);
+    }
+    return counters.computeIfAbsent(generatorKey, k -> new AtomicLong()).addAndGet(i);
+  }
+}
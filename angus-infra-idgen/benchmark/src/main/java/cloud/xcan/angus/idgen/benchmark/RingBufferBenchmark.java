@@ -4,53 +4,62 @@ import cloud.xcan.angus.idgen.uid.buffer.BufferPaddingExecutor;
 import cloud.xcan.angus.idgen.uid.buffer.RingBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 /**
- * {@link RingBuffer}：{@code take()} 会触发 {@link BufferPaddingExecutor#asyncPadding()}，必须注入 padding
- * 执行器，否则会 NPE。
+ * {@link RingBuffer}：单分片与多分片下 {@code take()} + {@code put()} 的吞吐量与延迟分布，以及批量填充。
+ * <p>
+ * 缓冲区预填一半，padding 阈值取 10%，单分片时基准循环不会触发 {@link BufferPaddingExecutor#asyncPadding()}，只测量
+ * RingBuffer 本身。多分片时 {@code put()} 轮询各分片而 {@code take()} 优先取本线程所在分片，该分片取空后的跨分片窃取
+ * 与异步填充也计入结果；填充写满时的拒绝不打印日志。
  * <p>
  * 运行示例：
  * <pre>
- *   mvn -pl idgen/starter test-compile exec:java \
- *     -Dexec.classpathScope=test \
- *     -Dexec.mainClass=org.openjdk.jmh.Main \
- *     -Dexec.args="cloud.xcan.angus.idgen.benchmark.RingBufferBenchmark"
+ *   java -jar angus-infra-idgen/benchmark/target/benchmarks.jar RingBufferBenchmark -prof gc
  * </pre>
  */
 @State(Scope.Benchmark)
 @Fork(1)
 @Warmup(iterations = 3, time = 1)
 @Measurement(iterations = 5, time = 2)
-@BenchmarkMode(Mode.Throughput)
-@OutputTimeUnit(java.util.concurrent.TimeUnit.SECONDS)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
 public class RingBufferBenchmark {
 
   private static final int RING_BUFFER_SIZE = 8192;
-  private static final int PADDING_FACTOR = 50;
+  private static final int PADDING_FACTOR = 10;
+  private static final int BATCH_SIZE = 512;
+
+  @Param({"1", "8"})
+  private int stripes;
 
   private RingBuffer ringBuffer;
   private BufferPaddingExecutor bufferPaddingExecutor;
+  private final long[] batch = new long[BATCH_SIZE];
 
   private List<Long> paddingBatch(long second) {
-    List<Long> list = new ArrayList<>(512);
+    List<Long> list = new ArrayList<>(BATCH_SIZE);
     long base = second * 1_000_000L;
-    for (int i = 0; i < 512; i++) {
+    for (int i = 0; i < BATCH_SIZE; i++) {
       list.add(base + i);
     }
     return list;
@@ -58,9 +67,11 @@ public class RingBufferBenchmark {
 
   @Setup
   public void setup() {
-    ringBuffer = new RingBuffer(RING_BUFFER_SIZE, PADDING_FACTOR);
+    ringBuffer = new RingBuffer(RING_BUFFER_SIZE, PADDING_FACTOR, stripes);
     bufferPaddingExecutor = new BufferPaddingExecutor(ringBuffer, this::paddingBatch, false);
     ringBuffer.setBufferPaddingExecutor(bufferPaddingExecutor);
+    ringBuffer.setRejectedPutHandler((buffer, uid) -> {
+    });
     for (long i = 0; i < RING_BUFFER_SIZE / 2; i++) {
       ringBuffer.put(i);
     }
@@ -91,11 +102,33 @@ public class RingBufferBenchmark {
     return v;
   }
 
+  @Benchmark
+  @Threads(Threads.MAX)
+  public long allThreadsTakeThenPut() {
+    long v = ringBuffer.take();
+    ringBuffer.put(v + 1);
+    return v;
+  }
+
+  /**
+   * 批量放入后逐个取回，对应 padding 线程一次填充一批 UID 的路径。
+   */
+  @Benchmark
+  public long putBatchThenTake() {
+    int put = ringBuffer.put(batch, 0, BATCH_SIZE);
+    long last = 0;
+    for (int i = 0; i < put; i++) {
+      last = ringBuffer.take();
+    }
+    return last;
+  }
+
   public static void main(String[] args) throws RunnerException {
     Options opt = new OptionsBuilder()
         .include(RingBufferBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
         .result("benchmark_ringbuffer.json")
-        .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+        .resultFormat(ResultFormatType.JSON)
         .build();
     new Runner(opt).run();
   }
@@ -0,0 +1,119 @@
+package cloud.xcan.angus.idgen.benchmark;
+
+import cloud.xcan.angus.api.pojo.instance.InstanceType;
+import cloud.xcan.angus.idgen.uid.CachedUidGenerator;
+import cloud.xcan.angus.idgen.uid.DefaultUidGenerator;
+import cloud.xcan.angus.idgen.uid.InstanceIdAssigner;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * UID 生成：对比同步的 {@link DefaultUidGenerator} 与基于 RingBuffer 的 {@link CachedUidGenerator}
+ * （单缓冲 / 按 CPU 核数分片），分别测量单线程、4 线程及满核线程下的吞吐量与延迟分布（SampleTime）。
+ * <p>
+ * 位分配使用生产默认值（32/13/18），同步模式受每秒 {@code 2^seqBits} 个序列的上限约束。
+ * <p>
+ * 运行示例：
+ * <pre>
+ *   mvn -pl angus-infra-idgen/benchmark -am package -DskipTests
+ *   java -jar angus-infra-idgen/benchmark/target/benchmarks.jar UidGeneratorBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UidGeneratorBenchmark {
+
+  @Param({"DEFAULT", "CACHED", "CACHED_STRIPED"})
+  private String generatorType;
+
+  private DefaultUidGenerator generator;
+
+  @Setup
+  public void setup() throws Exception {
+    if ("DEFAULT".equals(generatorType)) {
+      generator = new DefaultUidGenerator();
+    } else {
+      CachedUidGenerator cached = new CachedUidGenerator();
+      if ("CACHED_STRIPED".equals(generatorType)) {
+        cached.setStripes(Integer.highestOneBit(Runtime.getRuntime().availableProcessors()));
+      }
+      generator = cached;
+    }
+    generator.setInstanceIdAssigner(new FixedInstanceIdAssigner());
+    generator.afterPropertiesSet();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    if (generator instanceof CachedUidGenerator cached) {
+      cached.destroy();
+    }
+  }
+
+  @Benchmark
+  public long getUid() {
+    return generator.getUID();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public long fourThreadsGetUid() {
+    return generator.getUID();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public long allThreadsGetUid() {
+    return generator.getUID();
+  }
+
+  @Benchmark
+  public String parseUid() {
+    return generator.parseUID(generator.getUID());
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(UidGeneratorBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .result("benchmark_uid.json")
+        .resultFormat(ResultFormatType.JSON)
+        .build();
+    new Runner(opt).run();
+  }
+
+  private static final class FixedInstanceIdAssigner implements InstanceIdAssigner {
+
+    @Override
+    public Long assignInstanceIdByEnv() {
+      return 1L;
+    }
+
+    @Override
+    public Long assignInstanceIdByParam(String host, String port, InstanceType type) {
+      return 1L;
+    }
+  }
+}
@@ -27,4 +27,12 @@ public interface BidGenerator {
 
   List<String> getIds(String bizKey, int batchNum, Long tenantId);
 
+  /**
+   * Returns the raw sequences of {@code batchNum} IDs, without prefix, date or padding, for
+   * callers that format IDs themselves.
+   */
+  long[] getSequences(String bizKey, int batchNum);
+
+  long[] getSequences(String bizKey, int batchNum, Long tenantId);
+
 }
@@ -0,0 +1,139 @@
+package cloud.xcan.angus.idgen.bid;
+
+import cloud.xcan.angus.idgen.entity.IdConfig;
+import cloud.xcan.angus.idgen.exception.IdGenerateException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formats the sequences of one generator key into IDs.
+ * <p>
+ * The head of the ID (prefix and date) is rendered once and cached until the next midnight. Each
+ * sequence is zero-padded straight into a per-thread char buffer behind that head, so an ID costs a
+ * single {@code String} allocation, and a batch copies the head only once.
+ */
+final class BidFormatter {
+
+  private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[64]);
+
+  private final String prefix;
+  private final DateFormat dateFormat;
+  private final int seqLength;
+  private final Clock clock;
+
+  private volatile Head head;
+
+  BidFormatter(IdConfig idConfig) {
+    this(idConfig, Clock.systemDefaultZone());
+  }
+
+  BidFormatter(IdConfig idConfig, Clock clock) {
+    Format format = idConfig.getFormat();
+    this.prefix = Format.PREFIX_SEQ.equals(format) || Format.PREFIX_DATE_SEQ.equals(format)
+        ? idConfig.getPrefix() : "";
+    this.dateFormat = Format.DATE_SEQ.equals(format) || Format.PREFIX_DATE_SEQ.equals(format)
+        ? idConfig.getDateFormat() : null;
+    this.seqLength = idConfig.getSeqLength() == null ? 0 : idConfig.getSeqLength();
+    this.clock = clock;
+  }
+
+  String format(long sequence) {
+    char[] head = head();
+    int width = width(sequence);
+    char[] buffer = buffer(head.length + width);
+    System.arraycopy(head, 0, buffer, 0, head.length);
+    writeDigits(buffer, head.length, width, sequence);
+    return new String(buffer, 0, head.length + width);
+  }
+
+  List<String> format(long[] sequences) {
+    char[] head = head();
+    char[] buffer = buffer(head.length + Math.max(seqLength, 20));
+    System.arraycopy(head, 0, buffer, 0, head.length);
+    List<String> ids = new ArrayList<>(sequences.length);
+    for (long sequence : sequences) {
+      int width = width(sequence);
+      writeDigits(buffer, head.length, width, sequence);
+      ids.add(new String(buffer, 0, head.length + width));
+    }
+    return ids;
+  }
+
+  /**
+   * Number of chars the non-negative {@code sequence} takes: {@code seqLength}, or its own digits
+   * when no length is configured.
+   */
+  private int width(long sequence) {
+    int digits = 1;
+    for (long bound = 10; digits < 19 && sequence >= bound; bound *= 10) {
+      digits++;
+    }
+    if (seqLength <= 0) {
+      return digits;
+    }
+    if (digits > seqLength) {
+      throw new IdGenerateException(
+          "The length of the generated ID value exceeds the seqLength configuration: "
+              + seqLength);
+    }
+    return seqLength;
+  }
+
+  private static void writeDigits(char[] buffer, int offset, int width, long value) {
+    for (int i = offset + width - 1; i >= offset; i--) {
+      buffer[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+  }
+
+  private static char[] buffer(int length) {
+    char[] buffer = BUFFER.get();
+    if (buffer.length < length) {
+      buffer = new char[Math.max(length, buffer.length * 2)];
+      BUFFER.set(buffer);
+    }
+    return buffer;
+  }
+
+  private char[] head() {
+    Head current = head;
+    if (current == null || clock.millis() >= current.validUntilMillis) {
+      current = renderHead();
+      head = current;
+    }
+    return current.chars;
+  }
+
+  private Head renderHead() {
+    if (dateFormat == null) {
+      return new Head(prefix.toCharArray(), Long.MAX_VALUE);
+    }
+    LocalDate today = LocalDate.now(clock);
+    StringBuilder builder = new StringBuilder(prefix.length() + 8).append(prefix);
+    appendPadded(builder, today.getYear(), 4);
+    if (dateFormat != DateFormat.YYYY) {
+      appendPadded(builder, today.getMonthValue(), 2);
+    }
+    if (dateFormat == DateFormat.YYYYMMDD) {
+      appendPadded(builder, today.getDayOfMonth(), 2);
+    }
+    long nextMidnight = today.plusDays(1).atStartOfDay(clock.getZone()).toInstant()
+        .toEpochMilli();
+    return new Head(builder.toString().toCharArray(), nextMidnight);
+  }
+
+  private static void appendPadded(StringBuilder builder, int value, int width) {
+    for (int bound = 10, digits = 1; digits < width; bound *= 10, digits++) {
+      if (value < bound) {
+        builder.append('0');
+      }
+    }
+    builder.append(value);
+  }
+
+  private record Head(char[] chars, long validUntilMillis) {
+
+  }
+}
@@ -5,20 +5,46 @@ import static org.hibernate.internal.util.collections.CollectionHelper.LOAD_FACT
 import cloud.xcan.angus.idgen.BidGenerator;
 import cloud.xcan.angus.idgen.ConfigIdAssigner;
 import cloud.xcan.angus.idgen.DistributedIncrAssigner;
+import cloud.xcan.angus.idgen.bid.SegmentBuffer.Segment;
 import cloud.xcan.angus.idgen.entity.IdConfig;
 import cloud.xcan.angus.idgen.exception.IdGenerateException;
-import java.time.LocalDate;
+import cloud.xcan.angus.idgen.utils.NamingThreadFactory;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Segment-based business ID generator.
+ * <p>
+ * Each generator key ({@code bizKey} + {@code tenantId}) reserves ranges of sequences (segments)
+ * from the DB or Redis and hands them out from memory. Segments are double-buffered per key: once
+ * {@code prefetchThreshold} of the current segment is used, the next one is fetched on a
+ * background thread and swapped in when the current one runs out, so callers do not stall at
+ * segment boundaries. Swaps and fetches lock only their own key.
+ * <p>
+ * Redis keys and keys with a step of 1 fetch their next segment only when the current one runs
+ * out, so that IDs stay in issue order across instances.
+ * <p>
+ * In DB mode the step of each fetch adapts to the consumption rate: it doubles (up to
+ * {@code maxStep}) while segments last less than 15 minutes, and halves (down to the configured
+ * step) once they last more than 30 minutes.
+ * <p>
+ * IDs are rendered by a per-key {@link BidFormatter}, which caches the prefix and date part for
+ * the day and writes the padded sequence behind it without intermediate strings.
+ */
 public class DefaultBidGenerator extends AbstractBidGenerator {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(DefaultBidGenerator.class);
+
   /**
    * Default initial capacity for id config and atomic maps Configurable to prevent frequent
    * rehashing under high concurrency
@@ -27,9 +53,21 @@ public class DefaultBidGenerator extends AbstractBidGenerator {
   private static final int DEFAULT_CONCURRENCY_LEVEL = 128;
 
   /**
-   * DistributedLock object
+   * Share of the current segment used before the next one is prefetched.
+   */
+  public static final double DEFAULT_PREFETCH_THRESHOLD = 0.1;
+
+  /**
+   * Target lifetime of a DB segment, used to adapt the step.
+   */
+  private static final long SEGMENT_DURATION_NANOS = TimeUnit.MINUTES.toNanos(15);
+
+  /**
+   * Upper bound of a single wait for an in-flight fetch before checking again.
    */
-  private final Object monitor = new Object();
+  private static final long FETCH_WAIT_MILLIS = 100;
+
+  private static final String PREFETCH_WORKER_NAME = "BidGenerator-Segment-Prefetch";
 
   /**
    * Spring property.
@@ -42,7 +80,17 @@ public class DefaultBidGenerator extends AbstractBidGenerator {
   private final DistributedIncrAssigner distributedIncrAssigner;
 
   private final Map<String, IdConfig> idConfigMap;
-  private final Map<String, AtomicLong> idAtomicMap;
+  private final Map<String, SegmentBuffer> segmentBufferMap;
+  private final Map<String, BidFormatter> formatterMap;
+
+  /**
+   * Per-key locks guarding the first load of a generator key.
+   */
+  private final Map<String, Object> initLocks;
+
+  private final double prefetchThreshold;
+  private final long maxStep;
+  private final Executor prefetchExecutor;
 
   /**
    * Constructor with default capacity
@@ -61,16 +109,54 @@ public class DefaultBidGenerator extends AbstractBidGenerator {
    */
   public DefaultBidGenerator(ConfigIdAssigner configIdAssigner,
       DistributedIncrAssigner distributedIncrAssigner, int initialMapCapacity) {
+    this(configIdAssigner, distributedIncrAssigner, initialMapCapacity,
+        DEFAULT_PREFETCH_THRESHOLD, BidGenerator.MAX_STEP, defaultPrefetchExecutor());
+  }
+
+  /**
+   * Constructor with customizable segment prefetching
+   *
+   * @param configIdAssigner        the config id assigner
+   * @param distributedIncrAssigner the distributed increment assigner
+   * @param initialMapCapacity      initial capacity for id config and segment maps
+   * @param prefetchThreshold       share (0-1] of a segment used before the next one is fetched
+   * @param maxStep                 upper bound of the adaptive DB step; not above a key's
+   *                                configured step keeps that step fixed
+   * @param prefetchExecutor        executor running background segment fetches
+   */
+  public DefaultBidGenerator(ConfigIdAssigner configIdAssigner,
+      DistributedIncrAssigner distributedIncrAssigner, int initialMapCapacity,
+      double prefetchThreshold, long maxStep, Executor prefetchExecutor) {
+    if (prefetchThreshold <= 0 || prefetchThreshold > 1) {
+      throw new IllegalArgumentException("The prefetchThreshold must be in (0, 1]");
+    }
     this.configIdAssigner = configIdAssigner;
     this.distributedIncrAssigner = distributedIncrAssigner;
+    this.prefetchThreshold = prefetchThreshold;
+    this.maxStep = Math.min(maxStep, BidGenerator.MAX_STEP);
+    this.prefetchExecutor = Objects.requireNonNull(prefetchExecutor, "prefetchExecutor");
 
     // Initialize maps with configurable capacity to prevent frequent rehashing
     this.idConfigMap = new ConcurrentHashMap<>(initialMapCapacity, LOAD_FACTOR,
         DEFAULT_CONCURRENCY_LEVEL);
-    this.idAtomicMap = new ConcurrentHashMap<>(initialMapCapacity, LOAD_FACTOR,
+    this.segmentBufferMap = new ConcurrentHashMap<>(initialMapCapacity, LOAD_FACTOR,
+        DEFAULT_CONCURRENCY_LEVEL);
+    this.formatterMap = new ConcurrentHashMap<>(initialMapCapacity, LOAD_FACTOR,
+        DEFAULT_CONCURRENCY_LEVEL);
+    this.initLocks = new ConcurrentHashMap<>(initialMapCapacity, LOAD_FACTOR,
         DEFAULT_CONCURRENCY_LEVEL);
   }
 
+  /**
+   * Daemon pool for background fetches. A fetch it rejects is done by the caller that exhausts the
+   * segment.
+   */
+  public static Executor defaultPrefetchExecutor() {
+    return new ThreadPoolExecutor(0, Math.max(2, Runtime.getRuntime().availableProcessors()),
+        60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+        new NamingThreadFactory(PREFETCH_WORKER_NAME, true));
+  }
+
   @Override
   public String getId(String bizKey) {
     return getId(bizKey, BidGenerator.GLOBAL_TENANT_ID);
@@ -81,8 +167,7 @@ public class DefaultBidGenerator extends AbstractBidGenerator {
     checkTenantIdParam(tenantId);
     String generatorKey = getGeneratorKey(bizKey, tenantId);
     IdConfig idConfig = checkAndGetIdConfig(bizKey, tenantId, generatorKey);
-    Format format = idConfig.getFormat();
-    return getFormatId(generatorKey, idConfig, format);
+    return formatterMap.get(generatorKey).format(nextSequence(generatorKey, idConfig));
   }
 
   @Override
@@ -94,38 +179,26 @@ public class DefaultBidGenerator extends AbstractBidGenerator {
 
   @Override
   public List<String> getIds(String bizKey, int batchNum, Long tenantId) {
+    String generatorKey = getGeneratorKey(bizKey, tenantId);
+    long[] sequences = getSequences(bizKey, batchNum, tenantId);
+    return formatterMap.get(generatorKey).format(sequences);
+  }
+
+  @Override
+  public long[] getSequences(String bizKey, int batchNum) {
+    return getSequences(bizKey, batchNum, BidGenerator.GLOBAL_TENANT_ID);
+  }
+
+  @Override
+  public long[] getSequences(String bizKey, int batchNum, Long tenantId) {
     checkBizKeyParam(bizKey);
     checkBatchNumParam(batchNum);
     checkTenantIdParam(tenantId);
     String generatorKey = getGeneratorKey(bizKey, tenantId);
     IdConfig idConfig = checkAndGetIdConfig(bizKey, tenantId, generatorKey);
-    Format format = idConfig.getFormat();
-    List<String> sequences = new ArrayList<>(batchNum);
-    if (Format.SEQ.equals(format)) {
-      return getSequences(generatorKey, idConfig, batchNum, 0, sequences);
-    } else if (Format.PREFIX_SEQ.equals(format)) {
-      getSequences(generatorKey, idConfig, batchNum, 0, sequences);
-      return sequences.stream().map(s -> idConfig.getPrefix() + s).collect(Collectors.toList());
-    } else if (Format.DATE_SEQ.equals(format)) {
-      getSequences(generatorKey, idConfig, batchNum, 0, sequences);
-      return sequences.stream().map(s -> getDate(idConfig) + s).collect(Collectors.toList());
-    } else {
-      getSequences(generatorKey, idConfig, batchNum, 0, sequences);
-      return sequences.stream().map(s -> idConfig.getPrefix() + getDate(idConfig) + s)
-          .collect(Collectors.toList());
-    }
-  }
-
-  private String getFormatId(String generatorKey, IdConfig idConfig, Format format) {
-    if (Format.SEQ.equals(format)) {
-      return getSequence(generatorKey, idConfig);
-    } else if (Format.PREFIX_SEQ.equals(format)) {
-      return idConfig.getPrefix() + getSequence(generatorKey, idConfig);
-    } else if (Format.DATE_SEQ.equals(format)) {
-      return getDate(idConfig) + getSequence(generatorKey, idConfig);
-    } else {
-      return idConfig.getPrefix() + getDate(idConfig) + getSequence(generatorKey, idConfig);
-    }
+    long[] sequences = new long[batchNum];
+    nextSequences(generatorKey, idConfig, sequences);
+    return sequences;
   }
 
   public IdConfig checkAndGetIdConfig(String bizKey, Long tenantId, String generatorKey) {
@@ -140,7 +213,7 @@ public class DefaultBidGenerator extends AbstractBidGenerator {
     if (Objects.nonNull(idConfig)) {
       return idConfig;
     }
-    synchronized (monitor) {
+    synchronized (initLocks.computeIfAbsent(generatorKey, key -> new Object())) {
       idConfig = idConfigMap.get(generatorKey);
       if (Objects.nonNull(idConfig)) {
         return idConfig;
@@ -176,105 +249,176 @@ public class DefaultBidGenerator extends AbstractBidGenerator {
     return "idgen:" + bizKey + ":" + tenantId;
   }
 
-  private String getDate(IdConfig idConfig) {
-    DateFormat dateFormat = idConfig.getDateFormat();
-    LocalDate now = LocalDate.now();
-    return switch (dateFormat) {
-      case YYYY -> String.valueOf(now.getYear());
-      case YYYYMM -> String.format("%4d%02d", now.getYear(), now.getMonthValue());
-      case YYYYMMDD ->
-          String.format("%4d%02d%02d", now.getYear(), now.getMonthValue(), now.getDayOfMonth());
-    };
+  private long nextSequence(String generatorKey, IdConfig idConfig) {
+    SegmentBuffer buffer = segmentBufferMap.get(generatorKey);
+    for (; ; ) {
+      Segment segment = buffer.current;
+      long sequence = segment.value.incrementAndGet();
+      if (sequence <= segment.max) {
+        prefetchIfNeeded(generatorKey, idConfig, buffer, segment, sequence);
+        return sequence;
+      }
+      switchSegment(generatorKey, idConfig, buffer, segment);
+    }
   }
 
-  private String getSequence(String generatorKey, IdConfig idConfig) {
-    Integer length = idConfig.getSeqLength();
-    for (; ; ) {
-      long sequence = idAtomicMap.get(generatorKey).incrementAndGet();
-      if (sequence > idConfig.getMaxId()) {
-        assignAndSetIdSegment(generatorKey, idConfig);
-        continue;
+  /**
+   * Fills {@code values} with consecutive ranges claimed from the current segment by a single
+   * {@code getAndAdd}, moving on to the next segment when it runs out.
+   */
+  private void nextSequences(String generatorKey, IdConfig idConfig, long[] values) {
+    SegmentBuffer buffer = segmentBufferMap.get(generatorKey);
+    int filled = 0;
+    while (filled < values.length) {
+      Segment segment = buffer.current;
+      int wanted = values.length - filled;
+      long start = segment.value.getAndAdd(wanted) + 1;
+      long end = Math.min(start + wanted - 1, segment.max);
+      for (long sequence = start; sequence <= end; sequence++) {
+        values[filled++] = sequence;
+      }
+      if (start <= end) {
+        prefetchIfNeeded(generatorKey, idConfig, buffer, segment, end);
+      }
+      if (filled < values.length) {
+        switchSegment(generatorKey, idConfig, buffer, segment);
       }
-      return checkAndFormatSequence(idConfig, length, sequence);
     }
   }
 
-  private List<String> getSequences(String generatorKey, IdConfig idConfig, int batchNum,
-      int nextBatchNum, List<String> sequences) {
-    Long sequence;
-    int currentBatchNum = nextBatchNum > 0 ? nextBatchNum : batchNum;
-    for (int i = 0; i < currentBatchNum; i++) {
-      sequence = idAtomicMap.get(generatorKey).incrementAndGet();
-      if (sequence <= idConfig.getMaxId()) {
-        if (sequences.size() <= batchNum) {
-          sequences.add(checkAndFormatSequence(idConfig, idConfig.getSeqLength(), sequence));
+  /**
+   * Starts a background fetch of the next segment once {@link #prefetchThreshold} of the current
+   * one is used, unless the next segment is already there or being fetched.
+   * <p>
+   * Redis keys and keys with a step of 1 are never prefetched: their segments are shared by all
+   * instances in issue order, and a segment fetched ahead would hand out IDs out of that order and
+   * leave a gap when the instance stops before using it.
+   */
+  private void prefetchIfNeeded(String generatorKey, IdConfig idConfig, SegmentBuffer buffer,
+      Segment segment, long sequence) {
+    if (Mode.REDIS.equals(idConfig.getMode()) || idConfig.getStep() <= 1) {
+      return;
+    }
+    if (buffer.next != null || buffer.current != segment
+        || !segment.consumed(sequence, prefetchThreshold)
+        || !buffer.fetching.compareAndSet(false, true)) {
+      return;
+    }
+    // Another fetch may have completed or been swapped in between the check and the claim
+    if (buffer.next != null || buffer.current != segment) {
+      buffer.fetching.set(false);
+      return;
+    }
+    try {
+      prefetchExecutor.execute(() -> {
+        Segment fetched = null;
+        try {
+          fetched = fetchSegment(generatorKey, idConfig, buffer);
+        } catch (Exception e) {
+          LOGGER.warn("Failed to prefetch the next segment of {}", generatorKey, e);
+        } finally {
+          buffer.lock.lock();
+          try {
+            if (fetched != null) {
+              buffer.next = fetched;
+            }
+            buffer.fetching.set(false);
+            buffer.fetched.signalAll();
+          } finally {
+            buffer.lock.unlock();
+          }
         }
-        if (sequences.size() == batchNum) {
-          return sequences;
+      });
+    } catch (RejectedExecutionException e) {
+      buffer.fetching.set(false);
+    }
+  }
+
+  /**
+   * Replaces the {@code exhausted} segment of the key with the prefetched one. Waits for an
+   * in-flight fetch, or fetches synchronously when none is running.
+   */
+  private void switchSegment(String generatorKey, IdConfig idConfig, SegmentBuffer buffer,
+      Segment exhausted) {
+    buffer.lock.lock();
+    try {
+      while (buffer.current == exhausted) {
+        Segment next = buffer.next;
+        if (next != null) {
+          buffer.current = next;
+          buffer.next = null;
+          idConfig.setMaxId(next.max);
+        } else if (buffer.fetching.compareAndSet(false, true)) {
+          try {
+            buffer.current = fetchSegment(generatorKey, idConfig, buffer);
+            idConfig.setMaxId(buffer.current.max);
+          } finally {
+            buffer.fetching.set(false);
+            buffer.fetched.signalAll();
+          }
+        } else {
+          buffer.fetched.await(FETCH_WAIT_MILLIS, TimeUnit.MILLISECONDS);
         }
-      } else {
-        assignAndSetIdSegment(generatorKey, idConfig);
-        return getSequences(generatorKey, idConfig, batchNum, batchNum - sequences.size(),
-            sequences);
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IdGenerateException(
+          "Interrupted while waiting for the next segment of " + generatorKey);
+    } finally {
+      buffer.lock.unlock();
     }
-    return null;
   }
 
-  private IdConfig assignAndInitIdSegment(String generatorKey, IdConfig idConfig) {
-    checkRedisInstanceParam(idConfig, distributedIncrAssigner);
+  /**
+   * Reserves the next segment from the DB or Redis. Callers hold
+   * {@link SegmentBuffer#fetching}, so only one fetch per key runs at a time.
+   */
+  private Segment fetchSegment(String generatorKey, IdConfig idConfig, SegmentBuffer buffer) {
+    long step = adaptStep(idConfig, buffer);
     long maxId;
     if (Mode.REDIS.equals(idConfig.getMode())) {
-      maxId = distributedIncrAssigner.incr(generatorKey, idConfig.getStep());
+      checkRedisInstanceParam(idConfig, distributedIncrAssigner);
+      maxId = distributedIncrAssigner.incr(generatorKey, step);
     } else {
-      maxId = configIdAssigner.assignSegmentByParam(idConfig.getStep(),
-          idConfig.getBizKey(), idConfig.getTenantId());
-    }
-    synchronized (monitor) {
-      idConfig.setMaxId(maxId);
-      idConfigMap.put(generatorKey, idConfig);
-      idAtomicMap.put(generatorKey, new AtomicLong(maxId - idConfig.getStep()));
+      maxId = configIdAssigner.assignSegmentByParam(step, idConfig.getBizKey(),
+          idConfig.getTenantId());
     }
-    return idConfig;
+    return new Segment(maxId, step);
   }
 
   /**
-   * Extends the local segment when the counter exceeds {@link IdConfig#getMaxId()}. All work is
-   * done under {@link #monitor}: only one thread fetches a new segment; others see the updated
-   * range and retry via {@link #getSequence}.
+   * Doubles the step of a DB key whose last segment lasted less than 15 minutes and halves it
+   * after more than 30 minutes. Redis keys keep their configured step, which is often 1 to keep
+   * IDs consecutive across instances.
    */
-  private void assignAndSetIdSegment(String generatorKey, IdConfig idConfig) {
-    synchronized (monitor) {
-      AtomicLong atomic = idAtomicMap.get(generatorKey);
-      // Counter can race ahead while assignSegmentByParam runs — fetch until maxId covers it
-      while (atomic.get() > idConfig.getMaxId()) {
-        Long maxId;
-        if (Mode.REDIS.equals(idConfig.getMode())) {
-          checkRedisInstanceParam(idConfig, distributedIncrAssigner);
-          maxId = distributedIncrAssigner.incr(generatorKey, idConfig.getStep());
-        } else {
-          maxId = configIdAssigner
-              .assignSegmentByParam(idConfig.getStep(), idConfig.getBizKey(),
-                  idConfig.getTenantId());
-        }
-        long newStart = maxId - idConfig.getStep();
-        idConfig.setMaxId(maxId);
-        atomic.set(Math.max(atomic.get(), newStart));
+  private long adaptStep(IdConfig idConfig, SegmentBuffer buffer) {
+    long now = System.nanoTime();
+    long step = buffer.step;
+    long minStep = idConfig.getStep();
+    if (Mode.DB.equals(idConfig.getMode()) && buffer.lastFetchNanos != 0 && maxStep > minStep) {
+      long elapsed = now - buffer.lastFetchNanos;
+      if (elapsed < SEGMENT_DURATION_NANOS) {
+        step = Math.min(step * 2, maxStep);
+      } else if (elapsed >= SEGMENT_DURATION_NANOS * 2) {
+        step = Math.max(step / 2, minStep);
       }
     }
+    buffer.step = step;
+    buffer.lastFetchNanos = now;
+    return step;
   }
 
-  private String checkAndFormatSequence(IdConfig idConfig, Integer seqLength,
-      Long currentMaxSequence) {
-    if (idConfig.getSeqLength() <= 0) {
-      return String.valueOf(currentMaxSequence);
-    }
-    if (String.valueOf(currentMaxSequence).length() > seqLength) {
-      throw new IdGenerateException(
-          "The length of the generated ID value exceeds the seqLength configuration: " + idConfig
-              .getSeqLength());
-    }
-    return String.format("%0" + seqLength + "d", currentMaxSequence);
+  private IdConfig assignAndInitIdSegment(String generatorKey, IdConfig idConfig) {
+    checkRedisInstanceParam(idConfig, distributedIncrAssigner);
+    SegmentBuffer buffer = new SegmentBuffer(idConfig.getStep());
+    Segment segment = fetchSegment(generatorKey, idConfig, buffer);
+    idConfig.setMaxId(segment.max);
+    buffer.current = segment;
+    // Publish the buffer and formatter before the config: readers look the config up first
+    segmentBufferMap.put(generatorKey, buffer);
+    formatterMap.put(generatorKey, new BidFormatter(idConfig));
+    idConfigMap.put(generatorKey, idConfig);
+    return idConfig;
   }
 
   private IdConfig buildIdConfig(IdConfig idConfigTemplateDB, Long tenantId) {
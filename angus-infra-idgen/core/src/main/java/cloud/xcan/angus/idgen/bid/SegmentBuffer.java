@@ -0,0 +1,79 @@
+package cloud.xcan.angus.idgen.bid;
+
+import cloud.xcan.angus.idgen.utils.PaddedAtomicLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Double buffer of ID segments for one generator key.
+ * <p>
+ * Callers consume {@link #current} lock-free. Once a share of it is used, the next segment is
+ * fetched in the background into {@link #next}; the exhausted segment is then swapped for it under
+ * the key's own {@link #lock}, so a caller only waits for a fetch when the background fetch has
+ * not finished yet, and generator keys never wait for each other.
+ */
+final class SegmentBuffer {
+
+  /**
+   * Serializes segment swaps of this key.
+   */
+  final ReentrantLock lock = new ReentrantLock();
+
+  /**
+   * Signalled when a fetch of this key finishes, successfully or not.
+   */
+  final Condition fetched = lock.newCondition();
+
+  /**
+   * Set while a segment of this key is being fetched; at most one fetch runs at a time.
+   */
+  final AtomicBoolean fetching = new AtomicBoolean(false);
+
+  volatile Segment current;
+
+  /**
+   * Prefetched segment; {@code null} until the background fetch completes.
+   */
+  volatile Segment next;
+
+  /**
+   * Step of the next fetch, adapted to the consumption rate; written by the fetching thread only.
+   */
+  volatile long step;
+
+  /**
+   * {@link System#nanoTime()} of the last fetch; written by the fetching thread only.
+   */
+  volatile long lastFetchNanos;
+
+  SegmentBuffer(long step) {
+    this.step = step;
+  }
+
+  /**
+   * The range {@code (max - step, max]} reserved from the DB or Redis.
+   */
+  static final class Segment {
+
+    /**
+     * Last sequence handed out; may run past {@link #max} once the segment is exhausted.
+     */
+    final PaddedAtomicLong value;
+    final long max;
+    final long step;
+
+    Segment(long max, long step) {
+      this.value = new PaddedAtomicLong(max - step);
+      this.max = max;
+      this.step = step;
+    }
+
+    /**
+     * Whether {@code sequence} lies at or beyond {@code ratio} of the segment.
+     */
+    boolean consumed(long sequence, double ratio) {
+      return sequence - (max - step) >= step * ratio;
+    }
+  }
+}
@@ -6,10 +6,12 @@ import static cloud.xcan.angus.spec.experimental.Assert.assertTrue;
 import cloud.xcan.angus.idgen.UidGenerator;
 import cloud.xcan.angus.idgen.exception.IdGenerateException;
 import cloud.xcan.angus.idgen.uid.buffer.BufferPaddingExecutor;
+import cloud.xcan.angus.idgen.uid.buffer.BufferedUidProvider;
 import cloud.xcan.angus.idgen.uid.buffer.RejectedPutBufferHandler;
 import cloud.xcan.angus.idgen.uid.buffer.RejectedPutBufferPolicies;
 import cloud.xcan.angus.idgen.uid.buffer.RejectedTakeBufferHandler;
 import cloud.xcan.angus.idgen.uid.buffer.RingBuffer;
+import cloud.xcan.angus.idgen.uid.buffer.RingBufferMetrics;
 import java.util.ArrayList;
 import java.util.List;
 import org.slf4j.Logger;
@@ -34,6 +36,9 @@ import org.springframework.beans.factory.DisposableBean;
  * request, just do logging
  * <li><b>rejectedTakeBufferHandler:</b> Policy for rejected take buffer. Default as throwing up an
  * exception
+ * <li><b>stripes:</b> Number of RingBuffer sub-buffers, a power of 2. Taking threads spread over
+ * the stripes instead of all contending on one cursor; UIDs then increase per stripe only. Default
+ * as 1
  */
 public class CachedUidGenerator extends DefaultUidGenerator implements DisposableBean {
 
@@ -42,6 +47,7 @@ public class CachedUidGenerator extends DefaultUidGenerator implements Disposabl
   private static final int DEFAULT_BOOST_POWER = 2; // BufferSize(262144 << 2 = 1048576) * PaddedAtomicLong(6 Long * 8 = 48Byte) = 48MB
 
   private int boostPower = DEFAULT_BOOST_POWER;
+  private int stripes = 1;
   private Long scheduleInterval;
 
   private RejectedPutBufferHandler rejectedPutBufferHandler;
@@ -86,6 +92,13 @@ public class CachedUidGenerator extends DefaultUidGenerator implements Disposabl
     return super.parseUID(uid);
   }
 
+  /**
+   * Current fill level, rejection counts and padding latency of the RingBuffer
+   */
+  public RingBufferMetrics getMetrics() {
+    return RingBufferMetrics.of(ringBuffer, bufferPaddingExecutor);
+  }
+
   @Override
   public void destroy() throws Exception {
     bufferPaddingExecutor.shutdown();
@@ -97,17 +110,29 @@ public class CachedUidGenerator extends DefaultUidGenerator implements Disposabl
    * @return UID list, size of {@link BitsAllocator#getMaxSequence()} + 1
    */
   private List<Long> nextIdsForOneSecond(long currentSecond) {
-    // Initialize result list size of (max sequence + 1)
-    int listSize = (int) bitsAllocator.getMaxSequence() + 1;
-    List<Long> uidList = new ArrayList<>(listSize);
+    long[] uids = nextIdBatchForOneSecond(currentSecond);
+    List<Long> uidList = new ArrayList<>(uids.length);
+    for (long uid : uids) {
+      uidList.add(uid);
+    }
+    return uidList;
+  }
+
+  /**
+   * Get the UIDs in the same specified second under the max sequence, without boxing
+   *
+   * @return UID array, size of {@link BitsAllocator#getMaxSequence()} + 1
+   */
+  private long[] nextIdBatchForOneSecond(long currentSecond) {
+    long[] uids = new long[(int) bitsAllocator.getMaxSequence() + 1];
 
     // Allocate the first sequence of the second, the others can be calculated with the offset
     long firstSeqUid = bitsAllocator.allocate(currentSecond - epochSeconds, instanceId, 0L);
-    for (int offset = 0; offset < listSize; offset++) {
-      uidList.add(firstSeqUid + offset);
+    for (int offset = 0; offset < uids.length; offset++) {
+      uids[offset] = firstSeqUid + offset;
     }
 
-    return uidList;
+    return uids;
   }
 
   /**
@@ -117,12 +142,24 @@ public class CachedUidGenerator extends DefaultUidGenerator implements Disposabl
     // initialize RingBuffer
     int bufferSize = ((int) bitsAllocator.getMaxSequence() + 1) << boostPower;
     int paddingFactor = RingBuffer.DEFAULT_PADDING_PERCENT;
-    this.ringBuffer = new RingBuffer(bufferSize, paddingFactor);
-    LOGGER.info("Initialized ring buffer size:{}, paddingFactor:{}", bufferSize, paddingFactor);
+    this.ringBuffer = new RingBuffer(bufferSize, paddingFactor, stripes);
+    LOGGER.info("Initialized ring buffer size:{}, paddingFactor:{}, stripes:{}", bufferSize,
+        paddingFactor, stripes);
 
     // initialize RingBufferPaddingExecutor
     boolean usingSchedule = (scheduleInterval != null);
-    this.bufferPaddingExecutor = new BufferPaddingExecutor(ringBuffer, this::nextIdsForOneSecond,
+    BufferedUidProvider uidProvider = new BufferedUidProvider() {
+      @Override
+      public List<Long> provide(long momentInSecond) {
+        return nextIdsForOneSecond(momentInSecond);
+      }
+
+      @Override
+      public long[] provideBatch(long momentInSecond) {
+        return nextIdBatchForOneSecond(momentInSecond);
+      }
+    };
+    this.bufferPaddingExecutor = new BufferPaddingExecutor(ringBuffer, uidProvider,
         usingSchedule);
     if (usingSchedule) {
       bufferPaddingExecutor.setScheduleInterval(scheduleInterval);
@@ -161,6 +198,11 @@ public class CachedUidGenerator extends DefaultUidGenerator implements Disposabl
     this.boostPower = boostPower;
   }
 
+  public void setStripes(int stripes) {
+    assertTrue(stripes > 0 && Integer.bitCount(stripes) == 1, "Stripes must be a power of 2!");
+    this.stripes = stripes;
+  }
+
   public void setRejectedPutBufferHandler(RejectedPutBufferHandler rejectedPutBufferHandler) {
     assertNotNull(rejectedPutBufferHandler, "RejectedPutBufferHandler can't be null!");
     this.rejectedPutBufferHandler = rejectedPutBufferHandler;
@@ -4,12 +4,12 @@ import static cloud.xcan.angus.spec.experimental.Assert.assertTrue;
 
 import cloud.xcan.angus.idgen.utils.NamingThreadFactory;
 import cloud.xcan.angus.idgen.utils.PaddedAtomicLong;
-import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,6 +53,13 @@ public class BufferPaddingExecutor {
    */
   private final ScheduledExecutorService bufferPadSchedule;
 
+  /**
+   * Padding metrics: completed paddings, duration of the last and the slowest one
+   */
+  private final AtomicLong paddingCount = new AtomicLong();
+  private volatile long lastPaddingNanos;
+  private volatile long maxPaddingNanos;
+
   /**
    * Schedule interval ValueUnit as seconds
    */
@@ -147,18 +154,18 @@ public class BufferPaddingExecutor {
       return;
     }
 
+    long start = System.nanoTime();
     try {
-      // fill the rest slots until to catch the cursor
+      // fill the rest slots until to catch the cursor, a whole second of UIDs per put
       boolean isFullRingBuffer = false;
       while (!isFullRingBuffer) {
-        List<Long> uidList = uidProvider.provide(lastSecond.incrementAndGet());
-        for (Long uid : uidList) {
-          isFullRingBuffer = !ringBuffer.put(uid);
-          if (isFullRingBuffer) {
-            break;
-          }
-        }
+        long[] uids = uidProvider.provideBatch(lastSecond.incrementAndGet());
+        isFullRingBuffer = ringBuffer.put(uids, 0, uids.length) < uids.length;
       }
+      long elapsed = System.nanoTime() - start;
+      lastPaddingNanos = elapsed;
+      maxPaddingNanos = Math.max(maxPaddingNanos, elapsed);
+      paddingCount.incrementAndGet();
     } finally {
       // must clear if provide() or put() throws, or subsequent async padding never runs
       running.compareAndSet(true, false);
@@ -166,6 +173,27 @@ public class BufferPaddingExecutor {
     // LOGGER.info("End to padding buffer lastSecond:{}. {}", lastSecond.get(), ringBuffer);
   }
 
+  /**
+   * Number of completed paddings
+   */
+  public long getPaddingCount() {
+    return paddingCount.get();
+  }
+
+  /**
+   * Duration of the last completed padding, in nanoseconds
+   */
+  public long getLastPaddingNanos() {
+    return lastPaddingNanos;
+  }
+
+  /**
+   * Duration of the slowest completed padding, in nanoseconds
+   */
+  public long getMaxPaddingNanos() {
+    return maxPaddingNanos;
+  }
+
   /**
    * Setters
    */
@@ -12,4 +12,17 @@ public interface BufferedUidProvider {
    * Provides UID in one second
    */
   List<Long> provide(long momentInSecond);
+
+  /**
+   * Provides UID in one second as a primitive array, which the {@link BufferPaddingExecutor} puts
+   * into the ring in one batch. Override it to skip boxing
+   */
+  default long[] provideBatch(long momentInSecond) {
+    List<Long> uids = provide(momentInSecond);
+    long[] batch = new long[uids.size()];
+    for (int i = 0; i < batch.length; i++) {
+      batch[i] = uids.get(i);
+    }
+    return batch;
+  }
 }
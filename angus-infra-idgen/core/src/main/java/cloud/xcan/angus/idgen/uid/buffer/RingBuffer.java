@@ -3,7 +3,9 @@ package cloud.xcan.angus.idgen.uid.buffer;
 import static cloud.xcan.angus.spec.experimental.Assert.assertTrue;
 
 import cloud.xcan.angus.idgen.utils.PaddedAtomicLong;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,6 +20,12 @@ import org.slf4j.LoggerFactory;
  * take or put slot
  * <li><b>tail:</b> a sequence of the max slot position to produce
  * <li><b>cursor:</b> a sequence of the min slot position to consume
+ * <p>
+ * Producers claim slots with a CAS on the claimed sequence, a whole batch at a time, and publish
+ * the tail in claim order, so puts never lock. The slots can be split into several stripes, each a
+ * ring of its own with its own tail and cursor: {@link #take()} uses the stripe picked by the
+ * calling thread and only falls back to the others when it is empty, so consumers spread their
+ * cursor CAS over the stripes. UIDs are taken in put order within a stripe only.
  */
 public class RingBuffer {
 
@@ -38,19 +46,22 @@ public class RingBuffer {
   private final PaddedAtomicLong[] flags;
 
   /**
-   * Tail: last position sequence to produce
+   * Stripes of the slots, {@code stripeSize = bufferSize / stripes.length} slots each
    */
-  private final AtomicLong tail = new PaddedAtomicLong(START_POINT);
+  private final Stripe[] stripes;
+  private final int stripeMask;
+  private final AtomicInteger putStripe = new AtomicInteger();
 
   /**
-   * Cursor: current position sequence to consume
+   * Threshold for trigger padding buffer, per stripe
    */
-  private final AtomicLong cursor = new PaddedAtomicLong(START_POINT);
+  private final int paddingThreshold;
 
   /**
-   * Threshold for trigger padding buffer
+   * Metrics
    */
-  private final int paddingThreshold;
+  private final LongAdder rejectedPuts = new LongAdder();
+  private final LongAdder rejectedTakes = new LongAdder();
 
   /**
    * Reject put/take buffer handle policy
@@ -82,52 +93,87 @@ public class RingBuffer {
    *                      triggered when tail-cursor<threshold
    */
   public RingBuffer(int bufferSize, int paddingFactor) {
+    this(bufferSize, paddingFactor, 1);
+  }
+
+  /**
+   * Constructor with buffer size, padding factor & stripes
+   *
+   * @param bufferSize    must be positive & a power of 2
+   * @param paddingFactor percent in (0 - 100), applied to each stripe
+   * @param stripes       number of sub-buffers, must be a power of 2 and leave at least 2 slots
+   *                      per stripe. Usually the number of cores when many threads take UIDs
+   */
+  public RingBuffer(int bufferSize, int paddingFactor, int stripes) {
     // check buffer size is positive & a power of 2; padding factor in (0, 100)
     assertTrue(bufferSize > 0L, "RingBuffer size must be positive");
     assertTrue(Integer.bitCount(bufferSize) == 1, "RingBuffer size must be a power of 2");
     assertTrue(paddingFactor > 0 && paddingFactor < 100, "RingBuffer size must be positive");
+    assertTrue(stripes > 0 && Integer.bitCount(stripes) == 1,
+        "RingBuffer stripes must be a power of 2");
+    assertTrue(bufferSize / stripes >= 2, "RingBuffer stripes must hold at least 2 slots");
 
+    int stripeSize = bufferSize / stripes;
     this.bufferSize = bufferSize;
-    this.indexMask = bufferSize - 1;
+    this.indexMask = stripeSize - 1;
     this.slots = new long[bufferSize];
     this.flags = initFlags(bufferSize);
+    this.stripes = new Stripe[stripes];
+    for (int i = 0; i < stripes; i++) {
+      this.stripes[i] = new Stripe(i * stripeSize);
+    }
+    this.stripeMask = stripes - 1;
 
-    this.paddingThreshold = bufferSize * paddingFactor / 100;
+    this.paddingThreshold = stripeSize * paddingFactor / 100;
   }
 
   /**
-   * Put an UID in the ring & tail moved<br> We use 'synchronized' to guarantee the UID fill in slot
-   * & publish new tail sequence as atomic operations<br>
-   *
-   * <b>Note that: </b> It is recommended to put UID in a serialize way, cause we once batch
-   * generate a series UIDs and put the one by one into the buffer, so it is unnecessary put in
-   * multi-threads
+   * Put an UID in the ring & tail moved. The slot is claimed by CAS and the tail published once
+   * the UID is in place.
    *
    * @return false means that the buffer is full, apply {@link RejectedPutBufferHandler}
    */
   public boolean put(long uid) {
-    synchronized (this) {
-      long currentTail = tail.get();
-      long currentCursor = cursor.get();
-
-      // tail catches the cursor, means that you can't put any cause of RingBuffer is full
-      long distance = currentTail - (currentCursor == START_POINT ? 0 : currentCursor);
-      if (distance != bufferSize - 1) {
-        int nextTailIndex = calSlotIndex(currentTail + 1);
-        if (flags[nextTailIndex].get() == CAN_PUT_FLAG) {
-          slots[nextTailIndex] = uid;
-          flags[nextTailIndex].set(CAN_TAKE_FLAG);
-          tail.incrementAndGet();
-          // take can't consume until tail is published (tail.incrementAndGet)
-          return true;
-        }
+    int start = putStripe.getAndIncrement();
+    for (int i = 0; i < stripes.length; i++) {
+      if (putInto(stripes[(start + i) & stripeMask], uid)) {
+        return true;
       }
     }
-    // Outside synchronized: BlockPolicy may sleep while consumers take()
+    rejectedPuts.increment();
+    // BlockPolicy may sleep while consumers take()
     rejectedPutHandler.rejectPutBuffer(this, uid);
     return false;
   }
 
+  /**
+   * Put {@code uids[from, to)} in the ring, claiming a whole range of slots per stripe with a
+   * single CAS and spreading the UIDs evenly over the stripes. When the buffer fills up, the
+   * {@link RejectedPutBufferHandler} is applied once, to the first UID that did not fit. Padding
+   * puts batches until the buffer is full, so the UIDs left over are not counted as rejected puts.
+   *
+   * @return the number of UIDs put, from {@code from} on
+   */
+  public int put(long[] uids, int from, int to) {
+    int next = from;
+    int chunk = Math.max(1, (to - from + stripes.length - 1) / stripes.length);
+    int start = putStripe.getAndIncrement();
+    boolean progress = true;
+    while (next < to && progress) {
+      progress = false;
+      for (int i = 0; i < stripes.length && next < to; i++) {
+        int put = putInto(stripes[(start + i) & stripeMask], uids, next,
+            Math.min(next + chunk, to));
+        next += put;
+        progress |= put > 0;
+      }
+    }
+    if (next < to) {
+      rejectedPutHandler.rejectPutBuffer(this, uids[next]);
+    }
+    return next - from;
+  }
+
   /**
    * Take an UID of the ring at the next cursor, this is a lock free operation by using atomic
    * cursor<p>
@@ -137,32 +183,33 @@ public class RingBuffer {
    * taken, the specified {@link RejectedTakeBufferHandler} will be applied<br>
    *
    * @return UID
-   * @throws IllegalStateException if the cursor moved back
+   * @throws IllegalStateException if no UID is available
    */
   public long take() {
-    // spin get next available cursor
-    long currentCursor = cursor.get();
-    long nextCursor = cursor.updateAndGet(old -> old == tail.get() ? old : old + 1);
-
-    // check for safety consideration, it never occurs
-    assertTrue(nextCursor >= currentCursor, "Curosr can't move back");
+    int home = stripes.length == 1 ? 0 : (int) Thread.currentThread().threadId() & stripeMask;
+    Stripe stripe = stripes[home];
+    long nextCursor = claimTake(stripe);
 
     // trigger padding in an async-mode if reach the threshold
-    long currentTail = tail.get();
-    if (currentTail - nextCursor < paddingThreshold) {
-      //      LOGGER.info("Reach the padding threshold:{}. tail:{}, cursor:{}, rest:{}", paddingThreshold,
-      //          currentTail,
-      //          nextCursor, currentTail - nextCursor);
+    if (stripe.tail.get() - stripe.cursor.get() < paddingThreshold) {
       bufferPaddingExecutor.asyncPadding();
     }
 
+    // steal from the other stripes before giving up
+    for (int i = 1; nextCursor == START_POINT && i < stripes.length; i++) {
+      stripe = stripes[(home + i) & stripeMask];
+      nextCursor = claimTake(stripe);
+    }
+
     // cursor catch the tail, means that there is no more available UID to take
-    if (nextCursor == currentCursor) {
+    if (nextCursor == START_POINT) {
+      rejectedTakes.increment();
       rejectedTakeHandler.rejectTakeBuffer(this);
+      throw new IllegalStateException("Rejected take buffer. " + this);
     }
 
     // 1. check next slot flag is CAN_TAKE_FLAG
-    int nextCursorIndex = calSlotIndex(nextCursor);
+    int nextCursorIndex = stripe.base + calSlotIndex(nextCursor);
     assertTrue(flags[nextCursorIndex].get() == CAN_TAKE_FLAG, "Curosr not in can take status");
 
     // 2. get UID from next slot
@@ -176,7 +223,95 @@ public class RingBuffer {
   }
 
   /**
-   * Calculate slot index with the slot sequence (sequence % bufferSize)
+   * Moves the cursor of {@code stripe} one step forward unless it caught the tail.
+   *
+   * @return the claimed cursor, or {@value #START_POINT} if the stripe is empty
+   */
+  private long claimTake(Stripe stripe) {
+    for (; ; ) {
+      long currentCursor = stripe.cursor.get();
+      if (currentCursor >= stripe.tail.get()) {
+        return START_POINT;
+      }
+      if (stripe.cursor.compareAndSet(currentCursor, currentCursor + 1)) {
+        return currentCursor + 1;
+      }
+    }
+  }
+
+  /**
+   * Claims one slot of {@code stripe} and puts {@code uid} in it.
+   */
+  private boolean putInto(Stripe stripe, long uid) {
+    long claimed;
+    do {
+      claimed = stripe.claimed.get();
+      // claimed catches the cursor, means that the stripe is full
+      if (claimed - consumed(stripe) >= indexMask) {
+        return false;
+      }
+    } while (!stripe.claimed.compareAndSet(claimed, claimed + 1));
+    fill(stripe, claimed + 1, uid);
+    publish(stripe, claimed + 1, 1);
+    return true;
+  }
+
+  /**
+   * Claims as many slots of {@code stripe} as are free, up to {@code to - from}, with one CAS and
+   * puts {@code uids[from, ...)} in them.
+   *
+   * @return the number of UIDs put
+   */
+  private int putInto(Stripe stripe, long[] uids, int from, int to) {
+    long first;
+    int count;
+    for (; ; ) {
+      long claimed = stripe.claimed.get();
+      long free = indexMask - (claimed - consumed(stripe));
+      if (free <= 0) {
+        return 0;
+      }
+      count = (int) Math.min(free, to - from);
+      if (stripe.claimed.compareAndSet(claimed, claimed + count)) {
+        first = claimed + 1;
+        break;
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      fill(stripe, first + i, uids[from + i]);
+    }
+    publish(stripe, first, count);
+    return count;
+  }
+
+  private long consumed(Stripe stripe) {
+    long currentCursor = stripe.cursor.get();
+    return currentCursor == START_POINT ? 0 : currentCursor;
+  }
+
+  private void fill(Stripe stripe, long sequence, long uid) {
+    int index = stripe.base + calSlotIndex(sequence);
+    // the consumer moves the cursor before it releases the slot, wait for the release
+    while (flags[index].get() != CAN_PUT_FLAG) {
+      Thread.onSpinWait();
+    }
+    slots[index] = uid;
+    flags[index].set(CAN_TAKE_FLAG);
+  }
+
+  /**
+   * Publishes claimed slots in claim order: take can't consume a slot until the tail passes it, so
+   * the tail must never pass a slot another producer is still filling.
+   */
+  private void publish(Stripe stripe, long first, int count) {
+    while (stripe.tail.get() != first - 1) {
+      Thread.onSpinWait();
+    }
+    stripe.tail.set(first + count - 1);
+  }
+
+  /**
+   * Calculate slot index within a stripe with the slot sequence (sequence % stripeSize)
    */
   protected int calSlotIndex(long sequence) {
     return (int) (sequence & indexMask);
@@ -210,20 +345,57 @@ public class RingBuffer {
   }
 
   /**
-   * Getters
+   * Getters, tail and cursor are summed over the stripes
    */
   public long getTail() {
-    return tail.get();
+    long sum = 0;
+    for (Stripe stripe : stripes) {
+      sum += stripe.tail.get();
+    }
+    return sum;
   }
 
   public long getCursor() {
-    return cursor.get();
+    long sum = 0;
+    for (Stripe stripe : stripes) {
+      sum += stripe.cursor.get();
+    }
+    return sum;
   }
 
   public int getBufferSize() {
     return bufferSize;
   }
 
+  public int getStripes() {
+    return stripes.length;
+  }
+
+  /**
+   * Number of UIDs ready to be taken
+   */
+  public long getAvailable() {
+    long available = 0;
+    for (Stripe stripe : stripes) {
+      available += stripe.tail.get() - stripe.cursor.get();
+    }
+    return available;
+  }
+
+  /**
+   * Number of UIDs rejected by {@link #put(long)} because the buffer was full
+   */
+  public long getRejectedPutCount() {
+    return rejectedPuts.sum();
+  }
+
+  /**
+   * Number of takes rejected because the buffer was empty
+   */
+  public long getRejectedTakeCount() {
+    return rejectedTakes.sum();
+  }
+
   /**
    * Setters
    */
@@ -243,11 +415,39 @@ public class RingBuffer {
   public String toString() {
     StringBuilder builder = new StringBuilder();
     builder.append("RingBuffer [bufferSize=").append(bufferSize)
-        .append(", tail=").append(tail)
-        .append(", cursor=").append(cursor)
+        .append(", stripes=").append(stripes.length)
+        .append(", tail=").append(getTail())
+        .append(", cursor=").append(getCursor())
         .append(", paddingThreshold=").append(paddingThreshold).append("]");
 
     return builder.toString();
   }
 
+  /**
+   * A ring of {@code stripeSize} slots starting at {@link #base}
+   */
+  private static final class Stripe {
+
+    private final int base;
+
+    /**
+     * Tail: last position sequence to produce, published in claim order
+     */
+    private final AtomicLong tail = new PaddedAtomicLong(START_POINT);
+
+    /**
+     * Claimed: last position sequence claimed by producers, at or ahead of the tail
+     */
+    private final AtomicLong claimed = new PaddedAtomicLong(START_POINT);
+
+    /**
+     * Cursor: current position sequence to consume
+     */
+    private final AtomicLong cursor = new PaddedAtomicLong(START_POINT);
+
+    private Stripe(int base) {
+      this.base = base;
+    }
+  }
+
 }
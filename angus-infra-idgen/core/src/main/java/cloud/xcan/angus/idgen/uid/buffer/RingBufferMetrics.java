@@ -0,0 +1,32 @@
+package cloud.xcan.angus.idgen.uid.buffer;
+
+/**
+ * Snapshot of the state of a {@link RingBuffer} and its {@link BufferPaddingExecutor}
+ *
+ * @param bufferSize       total number of slots
+ * @param stripes          number of sub-buffers
+ * @param available        UIDs ready to be taken
+ * @param rejectedPuts     UIDs rejected by a single put because the buffer was full
+ * @param rejectedTakes    takes rejected because the buffer was empty
+ * @param paddingCount     completed paddings
+ * @param lastPaddingNanos duration of the last padding
+ * @param maxPaddingNanos  duration of the slowest padding
+ */
+public record RingBufferMetrics(int bufferSize, int stripes, long available, long rejectedPuts,
+                                long rejectedTakes, long paddingCount, long lastPaddingNanos,
+                                long maxPaddingNanos) {
+
+  /**
+   * Share of the slots holding UIDs ready to be taken, in [0, 1]
+   */
+  public double fillRatio() {
+    return (double) available / bufferSize;
+  }
+
+  public static RingBufferMetrics of(RingBuffer ringBuffer, BufferPaddingExecutor executor) {
+    return new RingBufferMetrics(ringBuffer.getBufferSize(), ringBuffer.getStripes(),
+        ringBuffer.getAvailable(), ringBuffer.getRejectedPutCount(),
+        ringBuffer.getRejectedTakeCount(), executor.getPaddingCount(),
+        executor.getLastPaddingNanos(), executor.getMaxPaddingNanos());
+  }
+}
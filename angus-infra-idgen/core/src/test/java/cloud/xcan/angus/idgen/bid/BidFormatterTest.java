@@ -0,0 +1,80 @@
+package cloud.xcan.angus.idgen.bid;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import cloud.xcan.angus.idgen.entity.IdConfig;
+import cloud.xcan.angus.idgen.exception.IdGenerateException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+
+class BidFormatterTest {
+
+  private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-03-05T23:59:59Z"),
+      ZoneOffset.UTC);
+
+  private static IdConfig config(Format format, DateFormat dateFormat, int seqLength) {
+    return new IdConfig().setFormat(format).setPrefix("ORD").setDateFormat(dateFormat)
+        .setSeqLength(seqLength);
+  }
+
+  @Test
+  void padsSequenceBehindPrefixAndDate() {
+    BidFormatter formatter = new BidFormatter(
+        config(Format.PREFIX_DATE_SEQ, DateFormat.YYYYMMDD, 6), CLOCK);
+
+    assertThat(formatter.format(42)).isEqualTo("ORD20260305000042");
+    assertThat(formatter.format(new long[]{1, 123456}))
+        .containsExactly("ORD20260305000001", "ORD20260305123456");
+  }
+
+  @Test
+  void rendersEachFormat() {
+    assertThat(new BidFormatter(config(Format.SEQ, null, 0), CLOCK).format(7)).isEqualTo("7");
+    assertThat(new BidFormatter(config(Format.PREFIX_SEQ, null, 3), CLOCK).format(7))
+        .isEqualTo("ORD007");
+    assertThat(new BidFormatter(config(Format.DATE_SEQ, DateFormat.YYYYMM, 2), CLOCK).format(7))
+        .isEqualTo("20260307");
+    assertThat(new BidFormatter(config(Format.DATE_SEQ, DateFormat.YYYY, 4), CLOCK).format(1001))
+        .isEqualTo("20261001");
+  }
+
+  @Test
+  void rejectsSequenceLongerThanSeqLength() {
+    BidFormatter formatter = new BidFormatter(config(Format.SEQ, null, 3), CLOCK);
+
+    assertThatThrownBy(() -> formatter.format(1000))
+        .isInstanceOf(IdGenerateException.class)
+        .hasMessageContaining("seqLength");
+  }
+
+  @Test
+  void rollsDateOverAtMidnight() {
+    Instant[] now = {Instant.parse("2026-03-05T23:59:59Z")};
+    Clock clock = new Clock() {
+      @Override
+      public ZoneId getZone() {
+        return ZoneOffset.UTC;
+      }
+
+      @Override
+      public Clock withZone(ZoneId zone) {
+        return this;
+      }
+
+      @Override
+      public Instant instant() {
+        return now[0];
+      }
+    };
+    BidFormatter formatter = new BidFormatter(config(Format.DATE_SEQ, DateFormat.YYYYMMDD, 4),
+        clock);
+
+    assertThat(formatter.format(1)).isEqualTo("202603050001");
+    now[0] = Instant.parse("2026-03-06T00:00:00Z");
+    assertThat(formatter.format(2)).isEqualTo("202603060002");
+  }
+}
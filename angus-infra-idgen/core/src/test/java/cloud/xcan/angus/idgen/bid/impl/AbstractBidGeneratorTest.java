@@ -39,6 +39,16 @@ class AbstractBidGeneratorTest {
     public List<String> getIds(String bizKey, int batchNum, Long tenantId) {
       return Collections.emptyList();
     }
+
+    @Override
+    public long[] getSequences(String bizKey, int batchNum) {
+      return new long[0];
+    }
+
+    @Override
+    public long[] getSequences(String bizKey, int batchNum, Long tenantId) {
+      return new long[0];
+    }
   }
 
   private final Stub gen = new Stub();
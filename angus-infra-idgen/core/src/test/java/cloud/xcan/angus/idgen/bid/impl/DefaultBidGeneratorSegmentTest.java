@@ -0,0 +1,169 @@
+package cloud.xcan.angus.idgen.bid.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cloud.xcan.angus.idgen.BidGenerator;
+import cloud.xcan.angus.idgen.ConfigIdAssigner;
+import cloud.xcan.angus.idgen.DistributedIncrAssigner;
+import cloud.xcan.angus.idgen.bid.DefaultBidGenerator;
+import cloud.xcan.angus.idgen.bid.Format;
+import cloud.xcan.angus.idgen.bid.Mode;
+import cloud.xcan.angus.idgen.entity.IdConfig;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class DefaultBidGeneratorSegmentTest {
+
+  private ConfigIdAssigner configIdAssigner;
+  private DistributedIncrAssigner incrAssigner;
+  private final AtomicLong maxId = new AtomicLong();
+
+  @BeforeEach
+  void setUp() {
+    configIdAssigner = mock(ConfigIdAssigner.class);
+    incrAssigner = mock(DistributedIncrAssigner.class);
+    when(configIdAssigner.assignSegmentByParam(anyLong(), anyString(), anyLong()))
+        .thenAnswer(inv -> maxId.addAndGet(inv.getArgument(0)));
+  }
+
+  private DefaultBidGenerator generator(long maxStep) {
+    // Prefetch on the calling thread to keep the fetch order deterministic
+    return new DefaultBidGenerator(configIdAssigner, incrAssigner, 16, 0.1, maxStep,
+        Runnable::run);
+  }
+
+  private void config(String bizKey, Mode mode) {
+    config(bizKey, mode, 1000L);
+  }
+
+  private void config(String bizKey, Mode mode, long step) {
+    IdConfig config = new IdConfig();
+    config.setBizKey(bizKey);
+    config.setTenantId(BidGenerator.GLOBAL_TENANT_ID);
+    config.setFormat(Format.SEQ);
+    config.setSeqLength(0);
+    config.setStep(step);
+    config.setMode(mode);
+    when(configIdAssigner.retrieveFromIdConfig(bizKey, BidGenerator.GLOBAL_TENANT_ID))
+        .thenReturn(config);
+  }
+
+  @Test
+  void prefetchesNextSegmentOnceThresholdIsReached() {
+    config("P1", Mode.DB);
+    DefaultBidGenerator generator = generator(1000L);
+
+    for (int i = 1; i < 100; i++) {
+      assertThat(generator.getId("P1")).isEqualTo(String.valueOf(i));
+    }
+    verify(configIdAssigner, times(1)).assignSegmentByParam(anyLong(), anyString(), anyLong());
+
+    generator.getId("P1");
+    verify(configIdAssigner, times(2)).assignSegmentByParam(anyLong(), anyString(), anyLong());
+
+    for (int i = 101; i <= 1001; i++) {
+      assertThat(generator.getId("P1")).isEqualTo(String.valueOf(i));
+    }
+    // The prefetched segment was swapped in without a synchronous fetch
+    verify(configIdAssigner, times(2)).assignSegmentByParam(anyLong(), anyString(), anyLong());
+  }
+
+  @Test
+  void batchSpanningSegmentsIsContiguous() {
+    config("P2", Mode.DB);
+    DefaultBidGenerator generator = generator(1000L);
+
+    List<String> ids = generator.getIds("P2", 2500);
+
+    assertThat(ids).hasSize(2500);
+    for (int i = 0; i < ids.size(); i++) {
+      assertThat(ids.get(i)).isEqualTo(String.valueOf(i + 1));
+    }
+    assertThat(generator.getId("P2")).isEqualTo("2501");
+  }
+
+  @Test
+  void dbStepDoublesWhileSegmentsAreShortLived() {
+    config("P3", Mode.DB);
+    DefaultBidGenerator generator = generator(4000L);
+
+    List<String> ids = generator.getIds("P3", 7000);
+
+    ArgumentCaptor<Long> steps = ArgumentCaptor.forClass(Long.class);
+    verify(configIdAssigner, times(4)).assignSegmentByParam(steps.capture(), eq("P3"),
+        eq(BidGenerator.GLOBAL_TENANT_ID));
+    assertThat(steps.getAllValues()).containsExactly(1000L, 2000L, 4000L, 4000L);
+    assertThat(ids).doesNotHaveDuplicates();
+    assertThat(ids.get(ids.size() - 1)).isEqualTo("7000");
+  }
+
+  @Test
+  void redisStepStaysFixed() {
+    config("P4", Mode.REDIS);
+    AtomicLong redis = new AtomicLong();
+    when(incrAssigner.incr(contains("P4"), eq(1000L)))
+        .thenAnswer(inv -> redis.addAndGet(1000L));
+    DefaultBidGenerator generator = generator(4000L);
+
+    List<String> ids = generator.getIds("P4", 2050);
+
+    assertThat(ids.get(ids.size() - 1)).isEqualTo("2050");
+    verify(incrAssigner, times(3)).incr(contains("P4"), eq(1000L));
+  }
+
+  @Test
+  void redisSegmentsAreNotPrefetched() {
+    config("P6", Mode.REDIS);
+    AtomicLong redis = new AtomicLong();
+    when(incrAssigner.incr(contains("P6"), eq(1000L)))
+        .thenAnswer(inv -> redis.addAndGet(1000L));
+    DefaultBidGenerator generator = generator(4000L);
+
+    for (int i = 1; i <= 1000; i++) {
+      assertThat(generator.getId("P6")).isEqualTo(String.valueOf(i));
+    }
+    verify(incrAssigner, times(1)).incr(contains("P6"), eq(1000L));
+
+    assertThat(generator.getId("P6")).isEqualTo("1001");
+    verify(incrAssigner, times(2)).incr(contains("P6"), eq(1000L));
+  }
+
+  @Test
+  void stepOfOneIsNotPrefetched() {
+    config("P7", Mode.DB, 1L);
+    DefaultBidGenerator generator = generator(1L);
+
+    assertThat(generator.getIds("P7", 3)).containsExactly("1", "2", "3");
+    // One fetch per ID, none ahead of use
+    verify(configIdAssigner, times(3)).assignSegmentByParam(eq(1L), eq("P7"),
+        eq(BidGenerator.GLOBAL_TENANT_ID));
+  }
+
+  @Test
+  void rawSequencesShareTheCounterWithFormattedIds() {
+    config("P5", Mode.DB);
+    DefaultBidGenerator generator = generator(1000L);
+
+    assertThat(generator.getId("P5")).isEqualTo("1");
+    assertThat(generator.getSequences("P5", 3)).containsExactly(2L, 3L, 4L);
+    assertThat(generator.getIds("P5", 2)).containsExactly("5", "6");
+  }
+
+  @Test
+  void rejectsInvalidPrefetchThreshold() {
+    assertThatThrownBy(() -> new DefaultBidGenerator(configIdAssigner, incrAssigner, 16, 0,
+        1000L, Runnable::run)).isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -1,12 +1,14 @@
 package cloud.xcan.angus.idgen.uid.buffer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -169,4 +171,99 @@ class RingBufferTest {
       assertThat(taken).as("Position " + i).isEqualTo(expected[i]);
     }
   }
+
+  @Test
+  @DisplayName("should put a batch with one claim and keep FIFO order within a stripe")
+  void testBatchPut() {
+    long[] uids = new long[2048];
+    for (int i = 0; i < uids.length; i++) {
+      uids[i] = i;
+    }
+
+    int put = ringBuffer.put(uids, 0, uids.length);
+
+    assertThat(put).isEqualTo(1024);
+    assertThat(ringBuffer.getAvailable()).isEqualTo(1024);
+    // The overflow of a batch ends a padding and is not a rejection
+    assertThat(ringBuffer.getRejectedPutCount()).isZero();
+    assertThat(ringBuffer.put(4096L)).isFalse();
+    assertThat(ringBuffer.getRejectedPutCount()).isEqualTo(1);
+    for (long i = 0; i < 1024; i++) {
+      assertThat(ringBuffer.take()).isEqualTo(i);
+    }
+  }
+
+  @Test
+  @DisplayName("should spread a batch over the stripes and steal from other stripes on take")
+  void testStripedPutTake() {
+    RingBuffer striped = new RingBuffer(64, 50, 4);
+    striped.setBufferPaddingExecutor(mock(BufferPaddingExecutor.class));
+    long[] uids = new long[40];
+    for (int i = 0; i < uids.length; i++) {
+      uids[i] = i;
+    }
+
+    assertThat(striped.put(uids, 0, uids.length)).isEqualTo(40);
+
+    Set<Long> taken = new HashSet<>();
+    for (int i = 0; i < 40; i++) {
+      taken.add(striped.take());
+    }
+    assertThat(taken).hasSize(40);
+    assertThat(striped.getAvailable()).isZero();
+    assertThatThrownBy(striped::take).isInstanceOf(RuntimeException.class);
+    assertThat(striped.getRejectedTakeCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should not lose or duplicate UIDs with striped concurrent batch puts and takes")
+  void testStripedConcurrentPutTake() throws Exception {
+    RingBuffer striped = new RingBuffer(4096, 50, 8);
+    striped.setBufferPaddingExecutor(mock(BufferPaddingExecutor.class));
+    int producers = 4;
+    int batches = 200;
+    int total = producers * batches * 100;
+    AtomicInteger sequence = new AtomicInteger();
+    AtomicInteger takeCount = new AtomicInteger();
+    Set<Long> takenValues = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(producers + 8);
+
+    for (int p = 0; p < producers; p++) {
+      executor.submit(() -> {
+        long[] batch = new long[100];
+        for (int b = 0; b < batches; b++) {
+          for (int i = 0; i < batch.length; i++) {
+            batch[i] = sequence.incrementAndGet();
+          }
+          int from = 0;
+          while (from < batch.length) {
+            from += striped.put(batch, from, batch.length);
+          }
+        }
+      });
+    }
+    CountDownLatch takeDone = new CountDownLatch(8);
+    for (int c = 0; c < 8; c++) {
+      executor.submit(() -> {
+        try {
+          while (takeCount.get() < total) {
+            try {
+              takenValues.add(striped.take());
+              takeCount.incrementAndGet();
+            } catch (RuntimeException e) {
+              Thread.onSpinWait();
+            }
+          }
+        } finally {
+          takeDone.countDown();
+        }
+      });
+    }
+
+    assertThat(takeDone.await(60, TimeUnit.SECONDS)).isTrue();
+    executor.shutdown();
+
+    assertThat(takeCount.get()).isEqualTo(total);
+    assertThat(takenValues).hasSize(total);
+  }
 }
@@ -94,6 +94,7 @@ public class IdGenAutoConfiguration {
     IdGenProperties.CachedUidConfig cachedConfig = idGenProperties.getCached();
     generator.setBoostPower(cachedConfig.getBoostPower());
     generator.setScheduleInterval(cachedConfig.getScheduleInterval());
+    generator.setStripes(cachedConfig.getStripes());
 
     // Apply rejection policy
     String rejectionPolicy = cachedConfig.getRejectionPolicy();
@@ -157,7 +158,8 @@ public class IdGenAutoConfiguration {
       @Autowired(required = false) DistributedIncrAssigner distributedIncrAssigner) {
     IdGenProperties.BidGeneratorConfig bidConfig = idGenProperties.getBid();
     return new DefaultBidGenerator(configIdAssigner, distributedIncrAssigner,
-        bidConfig.getInitialMapCapacity());
+        bidConfig.getInitialMapCapacity(), bidConfig.getPrefetchThreshold(),
+        bidConfig.getMaxStep(), DefaultBidGenerator.defaultPrefetchExecutor());
   }
 
   public static final class CoreCondition implements Condition {
@@ -27,11 +27,13 @@ import org.springframework.stereotype.Component;
  *       paddingFactor: 50
  *       scheduleInterval: 300
  *       rejectionPolicy: BLOCK
+ *       stripes: 1
  *     bid:
  *       maxStep: 1000000
  *       maxBatchNum: 10000
  *       maxSeqLength: 40
  *       initialMapCapacity: 512
+ *       prefetchThreshold: 0.1
  * </pre>
  */
 @Component
@@ -122,6 +124,12 @@ public class IdGenProperties {
      * loss but may increase latency
      */
     private String rejectionPolicy = "BLOCK";
+
+    /**
+     * Number of ring buffer sub-buffers, a power of 2. Set it to the number of cores when many
+     * threads take UIDs concurrently; UIDs then increase per sub-buffer only
+     */
+    private int stripes = 1;
   }
 
   /**
@@ -132,7 +140,7 @@ public class IdGenProperties {
   public static class BidGeneratorConfig {
 
     /**
-     * Maximum step for ID allocation
+     * Maximum step for ID allocation; upper bound of the adaptive step in DB mode
      */
     private long maxStep = 1000000L;
 
@@ -150,5 +158,10 @@ public class IdGenProperties {
      * Initial capacity for ID config and atomic maps
      */
     private int initialMapCapacity = 512;
+
+    /**
+     * Share (0-1] of the current segment used before the next one is prefetched
+     */
+    private double prefetchThreshold = 0.1;
   }
 }
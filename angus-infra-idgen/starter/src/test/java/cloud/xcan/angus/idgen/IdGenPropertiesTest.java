@@ -14,6 +14,7 @@ class IdGenPropertiesTest {
     assertThat(p.getUid().getTimeBits()).isEqualTo(32);
     assertThat(p.getCached().getBoostPower()).isEqualTo(2);
     assertThat(p.getBid().getInitialMapCapacity()).isEqualTo(512);
+    assertThat(p.getBid().getPrefetchThreshold()).isEqualTo(0.1);
 
     p.setEnabled(false);
     p.getUid().setTimeBits(30);
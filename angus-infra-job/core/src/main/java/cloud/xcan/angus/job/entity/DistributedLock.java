@@ -13,10 +13,10 @@ import lombok.Setter;
 /**
  * Database-backed distributed lock record.
  *
- * <p>Lock acquisition is performed by attempting to insert a new row.
- * The primary-key uniqueness constraint on {@code lock_key} guarantees mutual exclusion: only one
- * node can successfully insert for a given key; concurrent nodes receive a constraint-violation
- * exception and must treat that as "lock already held".
+ * <p>The primary key on {@code lock_key} guarantees mutual exclusion. A lock is acquired by
+ * inserting its row or by taking over a row whose {@code expire_time} has passed, both with
+ * conditional statements that simply affect no row while the lock is held, see
+ * {@link cloud.xcan.angus.job.lock.LockDialect}.
  *
  * <p>Ownership is verified by comparing both {@code owner} (node ID) AND
  * {@code lockValue} (per-acquisition UUID), so lock release cannot be spoofed by knowing only the
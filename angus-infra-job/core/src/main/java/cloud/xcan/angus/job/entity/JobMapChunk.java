@@ -0,0 +1,66 @@
+package cloud.xcan.angus.job.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One chunk of map output spilled by a streaming MapReduce shard.
+ *
+ * <p>Chunks are written while the map shard runs and read one at a time by the reduce phase of
+ * their partition. Only chunks whose {@code attempt} matches the attempt that completed the shard
+ * are read; all chunks of a job are deleted once its reduce phase ends.
+ */
+@Entity
+@Table(
+    name = "angus_job_map_chunk",
+    indexes = {
+        @Index(name = "idx_jmc_job_partition", columnList = "job_id, partition_no")
+    }
+)
+@Getter
+@Setter
+public class JobMapChunk {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "job_id", nullable = false)
+  private Long jobId;
+
+  @Column(name = "sharding_item", nullable = false)
+  private Integer shardingItem;
+
+  /**
+   * Token of the map shard attempt that wrote the chunk.
+   */
+  @Column(name = "attempt", nullable = false, length = 64)
+  private String attempt;
+
+  @Column(name = "partition_no", nullable = false)
+  private Integer partitionNo;
+
+  @Column(name = "chunk_seq", nullable = false)
+  private Integer chunkSeq;
+
+  @Column(name = "record_count", nullable = false)
+  private Integer recordCount;
+
+  /**
+   * Deflate-compressed records, see {@link cloud.xcan.angus.job.mapreduce.MapChunkCodec}. The
+   * length maps to {@code LONGBLOB} on MySQL and {@code BYTEA} on PostgreSQL.
+   */
+  @Column(name = "data", nullable = false, length = 67_108_864)
+  private byte[] data;
+
+  @Column(name = "create_time", nullable = false)
+  private LocalDateTime createTime;
+}
@@ -20,13 +20,19 @@ import lombok.Setter;
  * <p>A new set of shards is created at the start of each job execution, replacing
  * any shards left over from the previous run.  The {@code mapResult} field is only populated for
  * MAP_REDUCE jobs during the map phase.
+ *
+ * <p>Shards are claimed by any live node: a PENDING shard, or a RUNNING shard whose
+ * {@code leaseUntil} has passed, is moved to RUNNING for the claiming node with a new lease. The
+ * node renews the lease while the shard runs, so a shard whose node died is claimed again by
+ * another node once its lease expires.
  */
 @Entity
 @Table(
     name = "angus_job_shard",
     indexes = {
         @Index(name = "idx_js_job_id", columnList = "job_id"),
-        @Index(name = "idx_js_status", columnList = "status")
+        @Index(name = "idx_js_status", columnList = "status"),
+        @Index(name = "idx_js_status_lease", columnList = "status, lease_until")
     }
 )
 @Getter
@@ -64,4 +70,10 @@ public class JobShard {
 
   @Column(name = "end_time")
   private LocalDateTime endTime;
+
+  /**
+   * Lease of the executing node; renewed by its heartbeats while the shard is RUNNING.
+   */
+  @Column(name = "lease_until")
+  private LocalDateTime leaseUntil;
 }
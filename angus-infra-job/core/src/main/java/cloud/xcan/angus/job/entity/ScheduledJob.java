@@ -21,7 +21,7 @@ import lombok.Setter;
  *
  * <p>One row represents one recurring or one-shot job registered in the system.
  * The scheduler polls rows in READY state whose {@code nextExecuteTime} is in the past and
- * dispatches them for execution under a distributed lock.
+ * claims them for one node with a conditional status update before dispatching them.
  */
 @Entity
 @Table(
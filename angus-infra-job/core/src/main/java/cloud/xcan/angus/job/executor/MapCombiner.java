@@ -0,0 +1,24 @@
+package cloud.xcan.angus.job.executor;
+
+import java.util.List;
+
+/**
+ * Pre-aggregates the values of one key before they are spilled, shrinking what the reduce phase
+ * reads.
+ *
+ * <p>A combiner only sees the values of one key within one spilled chunk, so the reducer may
+ * still receive several combined records per key. It must therefore be associative and produce
+ * values the reducer accepts in place of the originals, e.g. partial sums or counts.
+ */
+@FunctionalInterface
+public interface MapCombiner {
+
+  /**
+   * Combines the values of one key.
+   *
+   * @param key    the shared key, never {@code null}
+   * @param values at least two values emitted for the key
+   * @return the combined value
+   */
+  byte[] combine(String key, List<byte[]> values);
+}
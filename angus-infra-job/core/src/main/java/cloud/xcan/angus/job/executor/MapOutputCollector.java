@@ -0,0 +1,36 @@
+package cloud.xcan.angus.job.executor;
+
+import cloud.xcan.angus.job.model.MapRecord;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Receives the records emitted by one map shard of a {@link StreamingMapReduceJobExecutor}.
+ *
+ * <p>Records are buffered per reduce partition and spilled to the configured
+ * {@link cloud.xcan.angus.job.mapreduce.MapOutputStore} in bounded chunks, so a shard may emit far
+ * more records than fit in memory.
+ */
+public interface MapOutputCollector {
+
+  /**
+   * Emits one record.
+   *
+   * @param key   partitioning key, may be {@code null}
+   * @param value record payload
+   */
+  void emit(String key, byte[] value);
+
+  /**
+   * Emits one record with a UTF-8 encoded value.
+   */
+  default void emit(String key, String value) {
+    emit(key, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Emits one record.
+   */
+  default void emit(MapRecord record) {
+    emit(record.key(), record.value());
+  }
+}
@@ -0,0 +1,70 @@
+package cloud.xcan.angus.job.executor;
+
+import cloud.xcan.angus.job.model.JobContext;
+import cloud.xcan.angus.job.model.MapRecord;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * MapReduce contract for jobs whose intermediate data does not fit in memory.
+ *
+ * <p>Unlike {@link MapReduceJobExecutor}, the map phase does not return its results: it emits
+ * key/value records into a {@link MapOutputCollector}, which hashes each key to one of
+ * {@link #reducePartitions} partitions, optionally {@linkplain #combiner() combines} values per
+ * key and spills the records in bounded chunks to the configured
+ * {@link cloud.xcan.angus.job.mapreduce.MapOutputStore}. Once every map shard has completed, the
+ * coordinating node reduces the partitions in parallel; each {@link #reduce} call streams the
+ * records of its partition one chunk at a time. The partition results are finally
+ * {@linkplain #merge merged} into the job result.
+ *
+ * <p>Records are not sorted: the records of one key all reach the same partition, but not
+ * necessarily next to each other. Implementations must also provide an {@link #execute} method,
+ * but the framework never calls it directly — it is provided for API symmetry only and should
+ * return {@code null}.
+ */
+public interface StreamingMapReduceJobExecutor extends JobExecutor {
+
+  /**
+   * Map phase — processes one data shard and emits its records.
+   *
+   * @param context           runtime job context
+   * @param shardingItem      zero-based shard index
+   * @param shardingParameter parameter string for this specific shard
+   * @param output            collector receiving the emitted records
+   */
+  void map(JobContext context, int shardingItem, String shardingParameter,
+      MapOutputCollector output);
+
+  /**
+   * Reduce phase — consumes the records of one partition.
+   *
+   * @param context   runtime job context; {@link JobContext#getShardingItem()} is the partition
+   * @param partition zero-based partition index
+   * @param records   the records of the partition from all map shards, read lazily
+   * @return the result of the partition
+   */
+  String reduce(JobContext context, int partition, Iterator<MapRecord> records);
+
+  /**
+   * Number of reduce partitions, reduced in parallel.
+   */
+  default int reducePartitions(JobContext context) {
+    return 1;
+  }
+
+  /**
+   * Optional combiner applied to the values of each key before they are spilled.
+   *
+   * @return the combiner, or {@code null} to spill records as emitted
+   */
+  default MapCombiner combiner() {
+    return null;
+  }
+
+  /**
+   * Merges the partition results, ordered by partition, into the job result.
+   */
+  default String merge(JobContext context, List<String> partitionResults) {
+    return String.join(",", partitionResults);
+  }
+}
@@ -0,0 +1,39 @@
+package cloud.xcan.angus.job.lock;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Storage of the job module's distributed locks.
+ *
+ * <p>Implementations never signal contention with exceptions: a lock held by someone else is
+ * simply reported as not acquired, not released or not renewed. A lock is identified by its key
+ * and proven by the per-acquisition {@code lockValue}; an expired lock may be taken over by any
+ * owner.
+ */
+public interface JobLockProvider {
+
+  /**
+   * Acquires the lock unless it is held and not yet expired.
+   *
+   * @return {@code true} if {@code owner} now holds the lock with {@code lockValue}
+   */
+  boolean tryLock(String lockKey, String owner, String lockValue, Duration lease);
+
+  /**
+   * Releases the lock if it is still held by {@code owner} with {@code lockValue}.
+   *
+   * @return {@code true} if the lock was released
+   */
+  boolean unlock(String lockKey, String owner, String lockValue);
+
+  /**
+   * Extends all given locks held by {@code owner} to {@code lease} from now, in as few round
+   * trips as the storage allows.
+   *
+   * @param locks lock values keyed by lock key
+   * @return keys of the locks that were renewed; the others are no longer held
+   */
+  Set<String> renew(String owner, Map<String, String> locks, Duration lease);
+}
@@ -0,0 +1,69 @@
+package cloud.xcan.angus.job.lock;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SQL strategy used by the database lock provider to acquire a lock without relying on
+ * constraint-violation exceptions.
+ */
+public enum LockDialect {
+
+  /**
+   * Detect the dialect from the JDBC metadata of the data source.
+   */
+  AUTO,
+
+  /**
+   * PostgreSQL: one {@code INSERT ... ON CONFLICT (lock_key) DO UPDATE ... WHERE expire_time <=
+   * now}, which inserts a free lock or takes over an expired one and reports 0 rows otherwise.
+   */
+  POSTGRES,
+
+  /**
+   * MySQL: {@code INSERT IGNORE} of the lock row, followed only when it already exists by a
+   * conditional UPDATE taking over an expired lock. {@code ON DUPLICATE KEY UPDATE} is avoided
+   * because its affected-row count cannot tell an insert from a no-op under the driver's default
+   * {@code useAffectedRows=false}.
+   */
+  MYSQL,
+
+  /**
+   * Any other database: a conditional UPDATE taking over an expired lock, then an insert only when
+   * no row exists. Only two nodes racing for a never-taken key see a constraint violation.
+   */
+  GENERIC;
+
+  private static final Logger log = LoggerFactory.getLogger(LockDialect.class);
+
+  public static LockDialect detect(DataSource dataSource) {
+    if (dataSource == null) {
+      return GENERIC;
+    }
+    try (Connection connection = dataSource.getConnection()) {
+      DatabaseMetaData metaData = connection.getMetaData();
+      return of(metaData.getDatabaseProductName(), metaData.getDatabaseMajorVersion());
+    } catch (SQLException e) {
+      log.warn("Failed to detect the job lock dialect, falling back to GENERIC", e);
+      return GENERIC;
+    }
+  }
+
+  static LockDialect of(String productName, int majorVersion) {
+    if (productName == null) {
+      return GENERIC;
+    }
+    String name = productName.toLowerCase();
+    if (name.contains("postgresql") && majorVersion >= 10) {
+      return POSTGRES;
+    }
+    if (name.contains("mysql")) {
+      return MYSQL;
+    }
+    return GENERIC;
+  }
+}
@@ -0,0 +1,44 @@
+package cloud.xcan.angus.job.mapreduce;
+
+import cloud.xcan.angus.job.model.MapRecord;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates the records of a list of chunks, reading one chunk from the {@link MapOutputStore} at
+ * a time so that only one chunk is held in memory.
+ */
+public class ChunkedMapRecordIterator implements Iterator<MapRecord> {
+
+  private final MapOutputStore store;
+  private final Long jobId;
+  private final Iterator<String> chunkIds;
+  private Iterator<MapRecord> current = Collections.emptyIterator();
+
+  public ChunkedMapRecordIterator(MapOutputStore store, Long jobId, List<String> chunkIds) {
+    this.store = store;
+    this.jobId = jobId;
+    this.chunkIds = List.copyOf(chunkIds).iterator();
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!current.hasNext()) {
+      if (!chunkIds.hasNext()) {
+        return false;
+      }
+      current = MapChunkCodec.decode(store.readChunk(jobId, chunkIds.next())).iterator();
+    }
+    return true;
+  }
+
+  @Override
+  public MapRecord next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return current.next();
+  }
+}
@@ -0,0 +1,141 @@
+package cloud.xcan.angus.job.mapreduce;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * {@link MapOutputStore} keeping chunks as files under a local directory, laid out as
+ * {@code <directory>/<jobId>/<partition>/<shardingItem>-<attempt>-<sequence>.chunk}.
+ *
+ * <p>The directory must be shared by all nodes running map shards and reduce phases, e.g. a
+ * network mount, unless the job runs on a single node.
+ */
+public class LocalFileMapOutputStore implements MapOutputStore {
+
+  private static final String SUFFIX = ".chunk";
+  private static final Pattern ATTEMPT = Pattern.compile("[A-Za-z0-9_]+");
+
+  private final Path directory;
+
+  public LocalFileMapOutputStore(Path directory) {
+    this.directory = directory.toAbsolutePath().normalize();
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  @Override
+  public void writeChunk(Long jobId, int shardingItem, String attempt, int partition,
+      int sequence, int recordCount, byte[] data) {
+    if (!ATTEMPT.matcher(attempt).matches()) {
+      throw new IllegalArgumentException("Invalid map attempt token: " + attempt);
+    }
+    Path dir = partitionDir(jobId, partition);
+    try {
+      Files.createDirectories(dir);
+      // Write to a temporary file first so readers never see a partial chunk.
+      Path tmp = Files.createTempFile(dir, "chunk-", ".tmp");
+      Files.write(tmp, data);
+      Files.move(tmp, dir.resolve(shardingItem + "-" + attempt + "-" + sequence + SUFFIX),
+          StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to write map chunk of job " + jobId, e);
+    }
+  }
+
+  @Override
+  public List<String> listChunks(Long jobId, int partition, Collection<String> attempts) {
+    Path dir = partitionDir(jobId, partition);
+    if (!Files.isDirectory(dir)) {
+      return List.of();
+    }
+    Set<String> wanted = Set.copyOf(attempts);
+    List<ChunkName> chunks = new ArrayList<>();
+    try (Stream<Path> files = Files.list(dir)) {
+      files.forEach(file -> {
+        ChunkName name = ChunkName.parse(file.getFileName().toString());
+        if (name != null && wanted.contains(name.attempt())) {
+          chunks.add(name);
+        }
+      });
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to list map chunks of job " + jobId, e);
+    }
+    chunks.sort(Comparator.comparingInt(ChunkName::shardingItem)
+        .thenComparingInt(ChunkName::sequence));
+    return chunks.stream().map(c -> partition + "/" + c.fileName()).toList();
+  }
+
+  @Override
+  public byte[] readChunk(Long jobId, String chunkId) {
+    Path jobDir = jobDir(jobId);
+    Path file = jobDir.resolve(chunkId).normalize();
+    if (!file.startsWith(jobDir)) {
+      throw new IllegalArgumentException("Invalid map chunk id: " + chunkId);
+    }
+    try {
+      return Files.readAllBytes(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read map chunk " + chunkId + " of job " + jobId,
+          e);
+    }
+  }
+
+  @Override
+  public void deleteJob(Long jobId) {
+    Path jobDir = jobDir(jobId);
+    if (!Files.exists(jobDir)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(jobDir)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        try {
+          Files.delete(path);
+        } catch (NoSuchFileException ignored) {
+          // Deleted concurrently
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to delete map chunks of job " + jobId, e);
+    }
+  }
+
+  private Path jobDir(Long jobId) {
+    return directory.resolve(String.valueOf(jobId));
+  }
+
+  private Path partitionDir(Long jobId, int partition) {
+    return jobDir(jobId).resolve(String.valueOf(partition));
+  }
+
+  private record ChunkName(String fileName, int shardingItem, String attempt, int sequence) {
+
+    private static ChunkName parse(String fileName) {
+      if (!fileName.endsWith(SUFFIX)) {
+        return null;
+      }
+      String[] parts = fileName.substring(0, fileName.length() - SUFFIX.length()).split("-");
+      if (parts.length != 3) {
+        return null;
+      }
+      try {
+        return new ChunkName(fileName, Integer.parseInt(parts[0]), parts[1],
+            Integer.parseInt(parts[2]));
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package cloud.xcan.angus.job.mapreduce;
+
+import cloud.xcan.angus.job.model.MapRecord;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Binary encoding of a chunk of {@link MapRecord}s.
+ *
+ * <p>Layout, deflate-compressed: the record count, then per record the key length ({@code -1} for
+ * a {@code null} key), the UTF-8 key bytes, the value length and the value bytes. Lengths are
+ * big-endian ints.
+ */
+public final class MapChunkCodec {
+
+  private MapChunkCodec() {
+  }
+
+  public static byte[] encode(List<MapRecord> records) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try (DataOutputStream out = new DataOutputStream(
+        new DeflaterOutputStream(bytes, deflater, 8192))) {
+      out.writeInt(records.size());
+      for (MapRecord record : records) {
+        if (record.key() == null) {
+          out.writeInt(-1);
+        } else {
+          byte[] key = record.key().getBytes(StandardCharsets.UTF_8);
+          out.writeInt(key.length);
+          out.write(key);
+        }
+        out.writeInt(record.value().length);
+        out.write(record.value());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to encode map chunk", e);
+    } finally {
+      deflater.end();
+    }
+    return bytes.toByteArray();
+  }
+
+  public static List<MapRecord> decode(byte[] data) {
+    Inflater inflater = new Inflater();
+    try (DataInputStream in = new DataInputStream(
+        new InflaterInputStream(new ByteArrayInputStream(data), inflater, 8192))) {
+      int count = in.readInt();
+      List<MapRecord> records = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        int keyLength = in.readInt();
+        String key = keyLength < 0 ? null
+            : new String(readBytes(in, keyLength), StandardCharsets.UTF_8);
+        records.add(new MapRecord(key, readBytes(in, in.readInt())));
+      }
+      return records;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to decode map chunk", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private static byte[] readBytes(DataInputStream in, int length) throws IOException {
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,50 @@
+package cloud.xcan.angus.job.mapreduce;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Storage of the chunks spilled by the map shards of streaming MapReduce jobs.
+ *
+ * <p>A chunk is an encoded batch of records of one reduce partition written by one map shard
+ * attempt. The attempt token tells the chunks of the attempt that completed the shard apart from
+ * those of an attempt whose lease was lost midway, which are never read and are removed with the
+ * rest of the job's chunks by {@link #deleteJob}.
+ *
+ * <p>Map shards may run on any live node while the reduce phase runs on the node coordinating the
+ * job, so implementations used by more than one node must be shared between them.
+ */
+public interface MapOutputStore {
+
+  /**
+   * Stores one chunk.
+   *
+   * @param jobId        job id
+   * @param shardingItem map shard that produced the chunk
+   * @param attempt      token of the map shard attempt
+   * @param partition    reduce partition of the records
+   * @param sequence     sequence number of the chunk within the attempt and partition
+   * @param recordCount  number of records in the chunk
+   * @param data         the encoded records, see {@link MapChunkCodec}
+   */
+  void writeChunk(Long jobId, int shardingItem, String attempt, int partition, int sequence,
+      int recordCount, byte[] data);
+
+  /**
+   * Ids of the chunks of a partition written by the given attempts, ordered by shard and
+   * sequence.
+   */
+  List<String> listChunks(Long jobId, int partition, Collection<String> attempts);
+
+  /**
+   * Reads the encoded records of one chunk.
+   *
+   * @param chunkId id returned by {@link #listChunks}
+   */
+  byte[] readChunk(Long jobId, String chunkId);
+
+  /**
+   * Removes every chunk of the job.
+   */
+  void deleteJob(Long jobId);
+}
@@ -0,0 +1,153 @@
+package cloud.xcan.angus.job.mapreduce;
+
+import cloud.xcan.angus.job.executor.MapCombiner;
+import cloud.xcan.angus.job.executor.MapOutputCollector;
+import cloud.xcan.angus.job.model.MapRecord;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link MapOutputCollector} of one map shard attempt that spills its records to a
+ * {@link MapOutputStore} in bounded chunks.
+ *
+ * <p>Records are buffered per reduce partition, chosen by the hash of their key. A partition is
+ * spilled as one chunk once it holds {@code chunkRecords} records, and the largest partition is
+ * spilled whenever all buffers together hold {@code bufferBytes} bytes of keys and values, so the
+ * memory used does not grow with the shard's output. The combiner, if any, is applied to each
+ * chunk before it is encoded.
+ *
+ * <p>{@link #flush()} must be called after the map phase to spill the remaining records. This
+ * class is not thread-safe.
+ */
+public class SpillingMapOutputCollector implements MapOutputCollector {
+
+  private final MapOutputStore store;
+  private final Long jobId;
+  private final int shardingItem;
+  private final String attempt;
+  private final MapCombiner combiner;
+  private final int chunkRecords;
+  private final long bufferBytes;
+
+  private final List<List<MapRecord>> buffers;
+  private final long[] bufferedBytes;
+  private final int[] sequences;
+  private long totalBufferedBytes;
+  private long recordCount;
+  private int chunkCount;
+
+  public SpillingMapOutputCollector(MapOutputStore store, Long jobId, int shardingItem,
+      String attempt, int partitions, MapCombiner combiner, int chunkRecords, long bufferBytes) {
+    if (partitions < 1) {
+      throw new IllegalArgumentException("partitions must be at least 1: " + partitions);
+    }
+    this.store = store;
+    this.jobId = jobId;
+    this.shardingItem = shardingItem;
+    this.attempt = attempt;
+    this.combiner = combiner;
+    this.chunkRecords = Math.max(1, chunkRecords);
+    this.bufferBytes = Math.max(1, bufferBytes);
+    this.buffers = new ArrayList<>(partitions);
+    for (int i = 0; i < partitions; i++) {
+      buffers.add(new ArrayList<>());
+    }
+    this.bufferedBytes = new long[partitions];
+    this.sequences = new int[partitions];
+  }
+
+  /**
+   * Reduce partition of a key.
+   */
+  public static int partition(String key, int partitions) {
+    return key == null ? 0 : Math.floorMod(key.hashCode(), partitions);
+  }
+
+  @Override
+  public void emit(String key, byte[] value) {
+    MapRecord record = new MapRecord(key, value);
+    int partition = partition(key, buffers.size());
+    List<MapRecord> buffer = buffers.get(partition);
+    buffer.add(record);
+    long size = sizeOf(record);
+    bufferedBytes[partition] += size;
+    totalBufferedBytes += size;
+    recordCount++;
+    if (buffer.size() >= chunkRecords) {
+      spill(partition);
+    } else if (totalBufferedBytes >= bufferBytes) {
+      spill(largestPartition());
+    }
+  }
+
+  /**
+   * Spills every buffered record.
+   */
+  public void flush() {
+    for (int partition = 0; partition < buffers.size(); partition++) {
+      if (!buffers.get(partition).isEmpty()) {
+        spill(partition);
+      }
+    }
+  }
+
+  /**
+   * Number of records emitted, before combining.
+   */
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  /**
+   * Number of chunks written so far.
+   */
+  public int getChunkCount() {
+    return chunkCount;
+  }
+
+  private void spill(int partition) {
+    List<MapRecord> buffer = buffers.get(partition);
+    List<MapRecord> records = combiner == null ? buffer : combine(buffer);
+    store.writeChunk(jobId, shardingItem, attempt, partition, sequences[partition]++,
+        records.size(), MapChunkCodec.encode(records));
+    chunkCount++;
+    totalBufferedBytes -= bufferedBytes[partition];
+    bufferedBytes[partition] = 0;
+    buffers.set(partition, new ArrayList<>());
+  }
+
+  private List<MapRecord> combine(List<MapRecord> records) {
+    List<MapRecord> combined = new ArrayList<>();
+    Map<String, List<byte[]>> byKey = new LinkedHashMap<>();
+    for (MapRecord record : records) {
+      if (record.key() == null) {
+        combined.add(record);
+      } else {
+        byKey.computeIfAbsent(record.key(), k -> new ArrayList<>()).add(record.value());
+      }
+    }
+    for (Map.Entry<String, List<byte[]>> entry : byKey.entrySet()) {
+      List<byte[]> values = entry.getValue();
+      combined.add(new MapRecord(entry.getKey(), values.size() == 1
+          ? values.get(0) : combiner.combine(entry.getKey(), values)));
+    }
+    return combined;
+  }
+
+  private int largestPartition() {
+    int largest = 0;
+    for (int partition = 1; partition < bufferedBytes.length; partition++) {
+      if (bufferedBytes[partition] > bufferedBytes[largest]) {
+        largest = partition;
+      }
+    }
+    return largest;
+  }
+
+  private static long sizeOf(MapRecord record) {
+    // UTF-16 chars of the key plus the value bytes; an estimate of the buffered heap.
+    return (record.key() == null ? 0 : 2L * record.key().length()) + record.value().length;
+  }
+}
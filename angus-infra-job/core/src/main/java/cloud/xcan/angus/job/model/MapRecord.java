@@ -0,0 +1,34 @@
+package cloud.xcan.angus.job.model;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One key/value record emitted by the map phase of a
+ * {@link cloud.xcan.angus.job.executor.StreamingMapReduceJobExecutor}.
+ *
+ * <p>The key decides the reduce partition of the record and groups values for the combiner; it
+ * may be {@code null}, in which case the record goes to partition 0 and is never combined. The
+ * value is opaque to the framework.
+ *
+ * @param key   partitioning key, may be {@code null}
+ * @param value record payload, never {@code null}
+ */
+public record MapRecord(String key, byte[] value) {
+
+  public MapRecord {
+    if (value == null) {
+      throw new IllegalArgumentException("Map record value must not be null");
+    }
+  }
+
+  public static MapRecord of(String key, String value) {
+    return new MapRecord(key, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * The value decoded as UTF-8.
+   */
+  public String valueAsString() {
+    return new String(value, StandardCharsets.UTF_8);
+  }
+}
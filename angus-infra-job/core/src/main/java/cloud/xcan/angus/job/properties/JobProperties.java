@@ -1,5 +1,8 @@
 package cloud.xcan.angus.job.properties;
 
+import cloud.xcan.angus.job.lock.LockDialect;
+import java.util.HashMap;
+import java.util.Map;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -14,11 +17,37 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  *   job:
  *     scan-interval-ms: 1000
  *     lock-timeout-seconds: 300
+ *     lock:
+ *       provider: db
+ *       dialect: auto
+ *       watchdog-enabled: false
+ *       watchdog-interval-ms: 10000
  *     executor-core-pool-size: 10
  *     executor-max-pool-size: 50
  *     executor-queue-capacity: 1000
  *     scheduler-pool-size: 20
  *     retry-backoff-minutes: 5
+ *     max-concurrent-jobs: 5
+ *     default-group-concurrency: 0
+ *     group-concurrency:
+ *       report: 1
+ *     virtual-thread-dispatch: false
+ *     max-concurrent-shards: 5
+ *     shard-lease-seconds: 30
+ *     shard-heartbeat-interval-ms: 10000
+ *     shard-poll-interval-ms: 1000
+ *     map-output:
+ *       store: db
+ *       directory: /tmp/angus-job-map-output
+ *       chunk-records: 10000
+ *       buffer-bytes: 16777216
+ *     time-wheel:
+ *       enabled: false
+ *       tick-ms: 100
+ *       wheel-size: 512
+ *       prefetch-interval-ms: 5000
+ *       prefetch-window-ms: 10000
+ *       prefetch-limit: 1000
  * }</pre>
  */
 @ConfigurationProperties(prefix = "angus.job")
@@ -38,6 +67,11 @@ public class JobProperties {
    */
   private int lockTimeoutSeconds = 300;
 
+  /**
+   * Storage and renewal of distributed locks.
+   */
+  private Lock lock = new Lock();
+
   /**
    * Core thread count for the shared job-executor pool.
    */
@@ -74,4 +108,162 @@ public class JobProperties {
    * pool has enough capacity.
    */
   private int maxJobsPerScan = 100;
+
+  /**
+   * Maximum number of jobs this node runs at the same time. The scanner only claims as many due
+   * jobs as there are free slots. When jobs are dispatched to the shared job-executor pool, keep
+   * this below {@code executorCorePoolSize} so that SHARDING and MAP_REDUCE shards still find free
+   * threads in the same pool.
+   */
+  private int maxConcurrentJobs = 5;
+
+  /**
+   * Concurrency limit applied to job groups not listed in {@link #groupConcurrency}. {@code 0} or
+   * less means such groups are only bounded by {@link #maxConcurrentJobs}.
+   */
+  private int defaultGroupConcurrency = 0;
+
+  /**
+   * Per-group concurrency limits on this node, keyed by job group.
+   */
+  private Map<String, Integer> groupConcurrency = new HashMap<>();
+
+  /**
+   * Run claimed jobs on virtual threads instead of the shared job-executor pool. Shards of
+   * SHARDING and MAP_REDUCE jobs still run on the pool.
+   */
+  private boolean virtualThreadDispatch = false;
+
+  /**
+   * Maximum number of SHARDING / MAP_REDUCE shards this node runs at the same time, whichever node
+   * coordinates their job. Shards run on the shared job-executor pool.
+   */
+  private int maxConcurrentShards = 5;
+
+  /**
+   * Lease of a claimed shard. A shard whose node stops renewing it is claimed again by another node
+   * after this many seconds.
+   */
+  private int shardLeaseSeconds = 30;
+
+  /**
+   * Interval in milliseconds between lease renewals of running shards; keep well below
+   * {@link #shardLeaseSeconds}.
+   */
+  private long shardHeartbeatIntervalMs = 10_000;
+
+  /**
+   * Interval in milliseconds between polls for claimable shards of running jobs.
+   */
+  private long shardPollIntervalMs = 1_000;
+
+  /**
+   * In-memory timing wheel that fires prefetched jobs at their exact next fire time.
+   */
+  private TimeWheel timeWheel = new TimeWheel();
+
+  /**
+   * Spill storage of streaming MapReduce jobs.
+   */
+  private MapOutput mapOutput = new MapOutput();
+
+  @Getter
+  @Setter
+  public static class Lock {
+
+    /**
+     * Where locks are kept: {@code db} for the {@code angus_distributed_lock} table or
+     * {@code redis} for keys set through the lettucex {@code RedisLock}, which requires
+     * {@code xcan-angusinfra.lettucex} and a {@code StringRedisTemplate} bean.
+     */
+    private String provider = "db";
+
+    /**
+     * SQL used by the {@code db} provider to acquire locks; {@code AUTO} detects it from the data
+     * source.
+     */
+    private LockDialect dialect = LockDialect.AUTO;
+
+    /**
+     * Keep locks acquired through {@code DistributedLockService.tryLock} alive until they are
+     * released, renewing them in one batch per owner every {@link #watchdogIntervalMs}, unless
+     * the call chooses with its {@code keepAlive} argument. Off by default: a lock then lapses
+     * after its timeout even while its holder still runs, and only callers that opt in per call
+     * are renewed.
+     */
+    private boolean watchdogEnabled = false;
+
+    /**
+     * Interval in milliseconds between watchdog renewals; keep well below the shortest lock
+     * timeout in use.
+     */
+    private long watchdogIntervalMs = 10_000;
+  }
+
+  @Getter
+  @Setter
+  public static class TimeWheel {
+
+    /**
+     * Replace the {@code scan-interval-ms} poll with the timing wheel. Jobs firing within
+     * {@link #prefetchWindowMs} are loaded every {@link #prefetchIntervalMs} and fired within
+     * {@link #tickMs} of their {@code nextExecuteTime}.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Duration of one tick of the lowest wheel level; the trigger precision.
+     */
+    private long tickMs = 100;
+
+    /**
+     * Number of buckets per wheel level. Deadlines beyond {@code tickMs * wheelSize} go to
+     * coarser overflow levels.
+     */
+    private int wheelSize = 512;
+
+    /**
+     * Interval in milliseconds between successive prefetch queries.
+     */
+    private long prefetchIntervalMs = 5_000;
+
+    /**
+     * How far ahead each prefetch loads jobs. Must exceed {@link #prefetchIntervalMs} so that
+     * consecutive windows overlap.
+     */
+    private long prefetchWindowMs = 10_000;
+
+    /**
+     * Maximum number of jobs loaded per prefetch.
+     */
+    private int prefetchLimit = 1_000;
+  }
+
+  @Getter
+  @Setter
+  public static class MapOutput {
+
+    /**
+     * Where map chunks are kept: {@code db} for the {@code angus_job_map_chunk} table, shared by
+     * all nodes, or {@code file} for {@link #directory}, which must then be shared by all nodes
+     * running the job.
+     */
+    private String store = "db";
+
+    /**
+     * Directory of the {@code file} store.
+     */
+    private String directory = System.getProperty("java.io.tmpdir") + "/angus-job-map-output";
+
+    /**
+     * Maximum number of records per chunk and reduce partition.
+     */
+    private int chunkRecords = 10_000;
+
+    /**
+     * Bytes of keys and values a map shard buffers over all partitions before spilling the
+     * largest one.
+     */
+    private long bufferBytes = 16L * 1024 * 1024;
+  }
 }
@@ -0,0 +1,175 @@
+package cloud.xcan.angus.job.trigger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel holding tasks until their deadline.
+ *
+ * <p>The lowest level has {@code wheelSize} buckets of {@code tickMs} each. Deadlines beyond its
+ * span go to an overflow level whose buckets span a whole lower wheel, created on demand, and so
+ * on. When the lowest level reaches the start of an overflow bucket, that bucket is moved down.
+ * Adding a task and expiring it are O(1) regardless of how far its deadline is.
+ *
+ * <p>A task is returned by {@link #advance} once the tick containing its deadline has passed, so
+ * it is never early and at most {@code tickMs} late.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @param <T> task type
+ */
+public class HierarchicalTimingWheel<T> {
+
+  private final Level lowest;
+  private int size;
+
+  /**
+   * @param tickMs    duration of one bucket of the lowest level
+   * @param wheelSize number of buckets per level
+   * @param startMs   current time in epoch milliseconds
+   */
+  public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+    if (tickMs <= 0) {
+      throw new IllegalArgumentException("tickMs must be positive: " + tickMs);
+    }
+    if (wheelSize < 2) {
+      throw new IllegalArgumentException("wheelSize must be at least 2: " + wheelSize);
+    }
+    this.lowest = new Level(tickMs, wheelSize, startMs, true);
+  }
+
+  /**
+   * Adds a task firing at {@code deadlineMs}.
+   *
+   * @return {@code false} if the deadline has already passed; the task is not added and should be
+   * run now
+   */
+  public boolean add(T task, long deadlineMs) {
+    if (!lowest.add(new Entry<>(task, deadlineMs))) {
+      return false;
+    }
+    size++;
+    return true;
+  }
+
+  /**
+   * Advances the wheel to {@code nowMs}.
+   *
+   * @return the tasks whose deadline tick has passed, in deadline tick order
+   */
+  public List<T> advance(long nowMs) {
+    List<T> expired = new ArrayList<>();
+    lowest.advance(nowMs, expired);
+    size -= expired.size();
+    return expired;
+  }
+
+  /**
+   * Start of the lowest-level tick that has not expired yet.
+   */
+  public long getCurrentTimeMs() {
+    return lowest.currentTime;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  private record Entry<T>(T task, long deadline) {
+
+  }
+
+  private final class Level {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final boolean lowest;
+    private final List<List<Entry<T>>> buckets;
+    private long currentTime;
+    private Level overflow;
+
+    private Level(long tickMs, int wheelSize, long startMs, boolean lowest) {
+      this.tickMs = tickMs;
+      this.wheelSize = wheelSize;
+      this.interval = tickMs * wheelSize;
+      this.lowest = lowest;
+      this.currentTime = startMs - Math.floorMod(startMs, tickMs);
+      this.buckets = new ArrayList<>(wheelSize);
+      for (int i = 0; i < wheelSize; i++) {
+        buckets.add(new ArrayList<>());
+      }
+    }
+
+    /**
+     * @return {@code false} if the entry belongs to a lower level (or is due, for the lowest level)
+     */
+    private boolean add(Entry<T> entry) {
+      // The lowest level keeps the current tick; overflow levels hand it down instead.
+      if (entry.deadline() < (lowest ? currentTime : currentTime + tickMs)) {
+        return false;
+      }
+      if (entry.deadline() < currentTime + interval) {
+        bucket(entry.deadline()).add(entry);
+        return true;
+      }
+      if (overflow == null) {
+        overflow = new Level(interval, wheelSize, currentTime, false);
+      }
+      return overflow.add(entry);
+    }
+
+    private void advance(long nowMs, List<T> expired) {
+      while (nowMs >= currentTime + tickMs) {
+        List<Entry<T>> bucket = bucket(currentTime);
+        for (Entry<T> entry : bucket) {
+          expired.add(entry.task());
+        }
+        bucket.clear();
+        currentTime += tickMs;
+        for (Entry<T> entry : cascade()) {
+          if (!add(entry)) {
+            expired.add(entry.task());
+          }
+        }
+      }
+    }
+
+    /**
+     * Moves this level to {@code time}, the start of its next bucket, and adds the entries that now
+     * belong to the level below to {@code moved}.
+     */
+    private void advanceTo(long time, List<Entry<T>> moved) {
+      currentTime = time;
+      List<Entry<T>> bucket = bucket(time);
+      moved.addAll(bucket);
+      bucket.clear();
+      for (Entry<T> entry : cascade()) {
+        if (!add(entry)) {
+          moved.add(entry);
+        }
+      }
+    }
+
+    /**
+     * Entries of the overflow level that reach this level when its current time starts a new
+     * overflow bucket.
+     */
+    private List<Entry<T>> cascade() {
+      if (overflow == null || Math.floorMod(currentTime, interval) != 0) {
+        return List.of();
+      }
+      List<Entry<T>> moved = new ArrayList<>();
+      overflow.advanceTo(currentTime, moved);
+      return moved;
+    }
+
+    private List<Entry<T>> bucket(long time) {
+      return buckets.get((int) Math.floorMod(Math.floorDiv(time, tickMs), (long) wheelSize));
+    }
+  }
+}
@@ -69,7 +69,28 @@ CREATE TABLE IF NOT EXISTS angus_job_shard (
     executor_node       VARCHAR(255),
     start_time          DATETIME,
     end_time            DATETIME,
+    lease_until         DATETIME,
     PRIMARY KEY (id),
     INDEX idx_js_job_id (job_id),
-    INDEX idx_js_status (status)
+    INDEX idx_js_status (status),
+    -- 优化分片认领查询：PENDING 或租约过期的 RUNNING 分片
+    INDEX idx_js_status_lease (status, lease_until)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+-- Existing installations:
+-- ALTER TABLE angus_job_shard ADD COLUMN lease_until DATETIME;
+-- CREATE INDEX idx_js_status_lease ON angus_job_shard (status, lease_until);
+
+-- 流式 MapReduce 的 map 输出分块，reduce 阶段按分区逐块读取，任务结束后删除
+CREATE TABLE IF NOT EXISTS angus_job_map_chunk (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    job_id        BIGINT       NOT NULL,
+    sharding_item INT          NOT NULL,
+    attempt       VARCHAR(64)  NOT NULL,
+    partition_no  INT          NOT NULL,
+    chunk_seq     INT          NOT NULL,
+    record_count  INT          NOT NULL,
+    data          LONGBLOB     NOT NULL,
+    create_time   DATETIME     NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_jmc_job_partition (job_id, partition_no)
 ) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
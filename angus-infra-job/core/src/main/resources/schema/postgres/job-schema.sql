@@ -65,7 +65,24 @@ CREATE TABLE IF NOT EXISTS angus_job_shard (
     map_result         TEXT,
     executor_node      VARCHAR(255),
     start_time         TIMESTAMP,
-    end_time           TIMESTAMP
+    end_time           TIMESTAMP,
+    lease_until        TIMESTAMP
 );
+-- Existing installations: ALTER TABLE angus_job_shard ADD COLUMN IF NOT EXISTS lease_until TIMESTAMP;
 CREATE INDEX IF NOT EXISTS idx_js_job_id ON angus_job_shard (job_id);
 CREATE INDEX IF NOT EXISTS idx_js_status ON angus_job_shard (status);
+CREATE INDEX IF NOT EXISTS idx_js_status_lease ON angus_job_shard (status, lease_until);
+
+-- 流式 MapReduce 的 map 输出分块，reduce 阶段按分区逐块读取，任务结束后删除
+CREATE TABLE IF NOT EXISTS angus_job_map_chunk (
+    id            BIGSERIAL    PRIMARY KEY,
+    job_id        BIGINT       NOT NULL,
+    sharding_item INT          NOT NULL,
+    attempt       VARCHAR(64)  NOT NULL,
+    partition_no  INT          NOT NULL,
+    chunk_seq     INT          NOT NULL,
+    record_count  INT          NOT NULL,
+    data          BYTEA        NOT NULL,
+    create_time   TIMESTAMP    NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_jmc_job_partition ON angus_job_map_chunk (job_id, partition_no);
@@ -0,0 +1,22 @@
+package cloud.xcan.angus.job.lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class LockDialectTest {
+
+  @Test
+  void resolvesFromProductNameAndVersion() {
+    assertEquals(LockDialect.POSTGRES, LockDialect.of("PostgreSQL", 15));
+    assertEquals(LockDialect.GENERIC, LockDialect.of("PostgreSQL", 9));
+    assertEquals(LockDialect.MYSQL, LockDialect.of("MySQL", 5));
+    assertEquals(LockDialect.GENERIC, LockDialect.of("H2", 2));
+    assertEquals(LockDialect.GENERIC, LockDialect.of(null, 0));
+  }
+
+  @Test
+  void detectWithoutDataSourceIsGeneric() {
+    assertEquals(LockDialect.GENERIC, LockDialect.detect(null));
+  }
+}
@@ -0,0 +1,150 @@
+package cloud.xcan.angus.job.mapreduce;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cloud.xcan.angus.job.executor.MapCombiner;
+import cloud.xcan.angus.job.model.MapRecord;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SpillingMapOutputCollectorTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void codecRoundTripsNullKeysAndBinaryValues() {
+    List<MapRecord> records = List.of(MapRecord.of("k", "v"), MapRecord.of("ключ", ""),
+        new MapRecord(null, new byte[]{0, -1, 42}));
+
+    List<MapRecord> decoded = MapChunkCodec.decode(MapChunkCodec.encode(records));
+
+    assertEquals(3, decoded.size());
+    assertEquals("k", decoded.get(0).key());
+    assertEquals("v", decoded.get(0).valueAsString());
+    assertEquals("ключ", decoded.get(1).key());
+    assertEquals("", decoded.get(1).valueAsString());
+    assertNull(decoded.get(2).key());
+    assertArrayEquals(new byte[]{0, -1, 42}, decoded.get(2).value());
+  }
+
+  @Test
+  void spillsChunksPerPartitionAndStreamsThemBack() {
+    LocalFileMapOutputStore store = new LocalFileMapOutputStore(dir);
+    SpillingMapOutputCollector output = new SpillingMapOutputCollector(store, 1L, 0, "a0", 2,
+        null, 3, Long.MAX_VALUE);
+    for (int i = 0; i < 10; i++) {
+      output.emit("key-" + i, "value-" + i);
+    }
+    output.flush();
+
+    assertEquals(10, output.getRecordCount());
+    List<String> values = new ArrayList<>();
+    for (int partition = 0; partition < 2; partition++) {
+      List<String> chunks = store.listChunks(1L, partition, Set.of("a0"));
+      new ChunkedMapRecordIterator(store, 1L, chunks)
+          .forEachRemaining(record -> values.add(record.valueAsString()));
+      for (String chunk : chunks) {
+        assertTrue(MapChunkCodec.decode(store.readChunk(1L, chunk)).size() <= 3);
+      }
+    }
+    assertEquals(10, values.size());
+    for (int i = 0; i < 10; i++) {
+      assertTrue(values.contains("value-" + i));
+    }
+  }
+
+  @Test
+  void spillsLargestPartitionWhenBufferIsFull() {
+    List<Integer> spilled = new ArrayList<>();
+    MapOutputStore store = new RecordingStore(spilled);
+    SpillingMapOutputCollector output = new SpillingMapOutputCollector(store, 1L, 0, "a0", 4,
+        null, 1_000, 100);
+    String big = "x".repeat(60);
+    output.emit(null, big);
+    assertTrue(spilled.isEmpty());
+    output.emit(null, big);
+
+    assertEquals(List.of(0), spilled);
+    assertEquals(1, output.getChunkCount());
+  }
+
+  @Test
+  void combinesValuesOfEachKeyBeforeSpilling() {
+    LocalFileMapOutputStore store = new LocalFileMapOutputStore(dir);
+    MapCombiner sum = (key, values) -> String.valueOf(values.stream()
+        .mapToInt(v -> Integer.parseInt(new String(v, StandardCharsets.UTF_8))).sum())
+        .getBytes(StandardCharsets.UTF_8);
+    SpillingMapOutputCollector output = new SpillingMapOutputCollector(store, 2L, 0, "a0", 1, sum,
+        1_000, Long.MAX_VALUE);
+    output.emit("a", "1");
+    output.emit("b", "5");
+    output.emit("a", "2");
+    output.emit(null, "7");
+    output.flush();
+
+    List<MapRecord> records = new ArrayList<>();
+    new ChunkedMapRecordIterator(store, 2L, store.listChunks(2L, 0, Set.of("a0")))
+        .forEachRemaining(records::add);
+    assertEquals(3, records.size());
+    assertNull(records.get(0).key());
+    assertEquals("7", records.get(0).valueAsString());
+    assertEquals("a", records.get(1).key());
+    assertEquals("3", records.get(1).valueAsString());
+    assertEquals("5", records.get(2).valueAsString());
+  }
+
+  @Test
+  void ignoresChunksOfOtherAttemptsAndDeletesJob() {
+    LocalFileMapOutputStore store = new LocalFileMapOutputStore(dir);
+    byte[] data = MapChunkCodec.encode(List.of(MapRecord.of("k", "v")));
+    store.writeChunk(3L, 1, "lost", 0, 0, 1, data);
+    store.writeChunk(3L, 1, "won", 0, 0, 1, data);
+    store.writeChunk(3L, 0, "won", 0, 1, 1, data);
+
+    List<String> chunks = store.listChunks(3L, 0, Set.of("won"));
+    assertEquals(List.of("0/0-won-1.chunk", "0/1-won-0.chunk"), chunks);
+    assertTrue(store.listChunks(3L, 1, Set.of("won")).isEmpty());
+
+    store.deleteJob(3L);
+    assertFalse(Files.exists(dir.resolve("3")));
+    assertThrows(IllegalArgumentException.class, () -> store.readChunk(3L, "../4/0/x.chunk"));
+    assertThrows(IllegalArgumentException.class,
+        () -> store.writeChunk(3L, 0, "../x", 0, 0, 0, new byte[0]));
+  }
+
+  private record RecordingStore(List<Integer> spilled) implements MapOutputStore {
+
+    @Override
+    public void writeChunk(Long jobId, int shardingItem, String attempt, int partition,
+        int sequence, int recordCount, byte[] data) {
+      spilled.add(partition);
+    }
+
+    @Override
+    public List<String> listChunks(Long jobId, int partition, Collection<String> attempts) {
+      return List.of();
+    }
+
+    @Override
+    public byte[] readChunk(Long jobId, String chunkId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void deleteJob(Long jobId) {
+    }
+  }
+}
@@ -1,7 +1,11 @@
 package cloud.xcan.angus.job.properties;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import cloud.xcan.angus.job.lock.LockDialect;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 
 class JobPropertiesTest {
@@ -11,6 +15,10 @@ class JobPropertiesTest {
     JobProperties p = new JobProperties();
     assertEquals(1_000L, p.getScanIntervalMs());
     assertEquals(300, p.getLockTimeoutSeconds());
+    assertEquals("db", p.getLock().getProvider());
+    assertEquals(LockDialect.AUTO, p.getLock().getDialect());
+    assertFalse(p.getLock().isWatchdogEnabled());
+    assertEquals(10_000L, p.getLock().getWatchdogIntervalMs());
     assertEquals(10, p.getExecutorCorePoolSize());
     assertEquals(50, p.getExecutorMaxPoolSize());
     assertEquals(1_000, p.getExecutorQueueCapacity());
@@ -18,6 +26,24 @@ class JobPropertiesTest {
     assertEquals(5, p.getRetryBackoffMinutes());
     assertEquals(30, p.getTimeoutThresholdMinutes());
     assertEquals(100, p.getMaxJobsPerScan());
+    assertEquals(5, p.getMaxConcurrentJobs());
+    assertEquals(0, p.getDefaultGroupConcurrency());
+    assertTrue(p.getGroupConcurrency().isEmpty());
+    assertFalse(p.isVirtualThreadDispatch());
+    assertEquals(5, p.getMaxConcurrentShards());
+    assertEquals(30, p.getShardLeaseSeconds());
+    assertEquals(10_000L, p.getShardHeartbeatIntervalMs());
+    assertEquals(1_000L, p.getShardPollIntervalMs());
+    assertFalse(p.getTimeWheel().isEnabled());
+    assertEquals(100L, p.getTimeWheel().getTickMs());
+    assertEquals(512, p.getTimeWheel().getWheelSize());
+    assertEquals(5_000L, p.getTimeWheel().getPrefetchIntervalMs());
+    assertEquals(10_000L, p.getTimeWheel().getPrefetchWindowMs());
+    assertEquals(1_000, p.getTimeWheel().getPrefetchLimit());
+    assertEquals("db", p.getMapOutput().getStore());
+    assertTrue(p.getMapOutput().getDirectory().endsWith("angus-job-map-output"));
+    assertEquals(10_000, p.getMapOutput().getChunkRecords());
+    assertEquals(16L * 1024 * 1024, p.getMapOutput().getBufferBytes());
 
     p.setScanIntervalMs(2_000);
     p.setLockTimeoutSeconds(60);
@@ -28,9 +54,15 @@ class JobPropertiesTest {
     p.setRetryBackoffMinutes(10);
     p.setTimeoutThresholdMinutes(15);
     p.setMaxJobsPerScan(50);
+    p.setMaxConcurrentJobs(8);
+    p.setGroupConcurrency(Map.of("report", 1));
+    p.setVirtualThreadDispatch(true);
 
     assertEquals(2_000L, p.getScanIntervalMs());
     assertEquals(60, p.getLockTimeoutSeconds());
     assertEquals(50, p.getMaxJobsPerScan());
+    assertEquals(8, p.getMaxConcurrentJobs());
+    assertEquals(1, p.getGroupConcurrency().get("report"));
+    assertTrue(p.isVirtualThreadDispatch());
   }
 }
@@ -0,0 +1,72 @@
+package cloud.xcan.angus.job.trigger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class HierarchicalTimingWheelTest {
+
+  @Test
+  void firesWithinOneTickAfterDeadline() {
+    HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 8, 1_000);
+    assertTrue(wheel.add("a", 1_150));
+
+    assertTrue(wheel.advance(1_150).isEmpty());
+    assertTrue(wheel.advance(1_199).isEmpty());
+    assertEquals(List.of("a"), wheel.advance(1_200));
+    assertTrue(wheel.isEmpty());
+  }
+
+  @Test
+  void rejectsPassedDeadline() {
+    HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 8, 1_000);
+
+    assertFalse(wheel.add("late", 999));
+    assertTrue(wheel.add("current-tick", 1_000));
+    assertEquals(1, wheel.size());
+  }
+
+  @Test
+  void cascadesFarDeadlinesThroughOverflowLevels() {
+    // Level spans: 800ms, 6.4s, 51.2s
+    HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(100, 8, 0);
+    long[] deadlines = {5, 799, 800, 6_399, 6_400, 51_234, 1_000_000};
+    for (long deadline : deadlines) {
+      assertTrue(wheel.add(deadline, deadline));
+    }
+
+    List<Long> fired = new ArrayList<>();
+    for (long now = 0; now <= 1_000_100; now += 10) {
+      for (Long deadline : wheel.advance(now)) {
+        assertTrue(now >= deadline, "fired early: " + deadline + " at " + now);
+        assertTrue(now - deadline <= 100, "fired late: " + deadline + " at " + now);
+        fired.add(deadline);
+      }
+    }
+    assertEquals(List.of(5L, 799L, 800L, 6_399L, 6_400L, 51_234L, 1_000_000L), fired);
+    assertTrue(wheel.isEmpty());
+  }
+
+  @Test
+  void largeJumpExpiresEverythingDue() {
+    HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(100, 8, 0);
+    wheel.add(300L, 300);
+    wheel.add(70_000L, 70_000);
+    wheel.add(90_000L, 90_000);
+
+    assertEquals(List.of(300L, 70_000L), wheel.advance(80_000));
+    assertEquals(1, wheel.size());
+    assertEquals(80_000, wheel.getCurrentTimeMs());
+  }
+
+  @Test
+  void invalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<>(0, 8, 0));
+    assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<>(100, 1, 0));
+  }
+}
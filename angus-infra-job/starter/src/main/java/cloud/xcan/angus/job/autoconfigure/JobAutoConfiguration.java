@@ -4,16 +4,31 @@ import cloud.xcan.angus.job.builtin.JobExecutionLogCleanupJob;
 import cloud.xcan.angus.job.entity.ScheduledJob;
 import cloud.xcan.angus.job.executor.JobExecutor;
 import cloud.xcan.angus.job.jpa.DistributedLockRepository;
+import cloud.xcan.angus.job.jpa.JobMapChunkRepository;
 import cloud.xcan.angus.job.jpa.ScheduledJobRepository;
+import cloud.xcan.angus.job.lock.JobLockProvider;
+import cloud.xcan.angus.job.lock.JpaJobLockProvider;
+import cloud.xcan.angus.job.lock.LockDialect;
+import cloud.xcan.angus.job.lock.RedisJobLockProvider;
+import cloud.xcan.angus.job.mapreduce.JpaMapOutputStore;
+import cloud.xcan.angus.job.mapreduce.LocalFileMapOutputStore;
+import cloud.xcan.angus.job.mapreduce.MapOutputStore;
 import cloud.xcan.angus.job.properties.JobProperties;
 import cloud.xcan.angus.job.registrar.JobRegistrar;
 import cloud.xcan.angus.job.service.JobManagementService;
+import cloud.xcan.angus.job.service.JobSchedulerService;
+import cloud.xcan.angus.job.trigger.TimeWheelTriggerEngine;
+import cloud.xcan.angus.lettucex.distlock.RedisLock;
 import jakarta.persistence.EntityManagerFactory;
+import java.nio.file.Path;
 import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -21,9 +36,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
 
 /**
  * Spring Boot auto-configuration for the Job scheduler module.
@@ -41,11 +58,15 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
  * {@link EnableJpaRepositories} for {@code cloud.xcan.angus.job.jpa} repositories when an
  * {@link EntityManagerFactory} is present (runs after {@link HibernateJpaAutoConfiguration}).
  *
+ * <p>Distributed locks are kept by a {@link JobLockProvider}: the {@code angus_distributed_lock}
+ * table by default, or Redis with {@code angus.job.lock.provider=redis}.
+ *
  * <p>Also registers {@link JobRegistrar} which scans all {@link JobExecutor} beans annotated with
  * {@link cloud.xcan.angus.job.annotation.JobDefinition} and auto-registers them into the
  * {@code scheduled_job} table on startup (idempotent).
  */
-@AutoConfiguration(after = HibernateJpaAutoConfiguration.class)
+@AutoConfiguration(after = HibernateJpaAutoConfiguration.class,
+    afterName = "org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration")
 @EnableScheduling
 @EnableConfigurationProperties(JobProperties.class)
 // 扫描内置 job 组件（如 JobExecutionLogCleanupJob），使其作为 Spring Bean 注册并被 JobRegistrar 发现
@@ -63,12 +84,62 @@ public class JobAutoConfiguration {
   @EnableJpaRepositories(basePackageClasses = ScheduledJobRepository.class)
   static class JobJpaBootstrapConfiguration {
 
+    /**
+     * Keeps streaming MapReduce chunks in {@code angus_job_map_chunk}; the default store.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "angus.job.map-output", name = "store", havingValue = "db",
+        matchIfMissing = true)
+    @ConditionalOnMissingBean(MapOutputStore.class)
+    public MapOutputStore jpaMapOutputStore(JobMapChunkRepository chunkRepository,
+        PlatformTransactionManager transactionManager) {
+      return new JpaMapOutputStore(chunkRepository, transactionManager);
+    }
+
+    /**
+     * Keeps distributed locks in {@code angus_distributed_lock}; the default provider.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "angus.job.lock", name = "provider", havingValue = "db",
+        matchIfMissing = true)
+    @ConditionalOnMissingBean(JobLockProvider.class)
+    public JobLockProvider jpaJobLockProvider(DistributedLockRepository lockRepository,
+        ObjectProvider<DataSource> dataSource, PlatformTransactionManager transactionManager,
+        JobProperties props) {
+      LockDialect dialect = props.getLock().getDialect();
+      if (dialect == null || dialect == LockDialect.AUTO) {
+        dialect = LockDialect.detect(dataSource.getIfAvailable());
+      }
+      return new JpaJobLockProvider(lockRepository, dialect, transactionManager);
+    }
+  }
+
+  /**
+   * Keeps distributed locks as Redis keys through the lettucex {@link RedisLock}. Enabled with
+   * {@code angus.job.lock.provider=redis} when {@code xcan-angusinfra.lettucex} is on the
+   * classpath.
+   */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass({RedisLock.class, StringRedisTemplate.class})
+  static class JobRedisLockConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "angus.job.lock", name = "provider", havingValue = "redis")
+    @ConditionalOnBean(StringRedisTemplate.class)
+    @ConditionalOnMissingBean(JobLockProvider.class)
+    public JobLockProvider redisJobLockProvider(StringRedisTemplate redisTemplate) {
+      return new RedisJobLockProvider(redisTemplate);
+    }
   }
 
   /**
    * Shared executor pool for job and shard work items. Used by
    * {@link cloud.xcan.angus.job.service.JobSchedulerService} for SHARDING and MAP_REDUCE parallel
    * phases.  Injected by name {@code "jobExecutorPool"}.
+   *
+   * <p>A saturated or shut down pool rejects work with {@code AbortPolicy} instead of running it
+   * on the caller: the scheduler and shard worker then release the claimed job or shard for
+   * another node rather than stalling their polling thread.
    */
   @Bean(name = "jobExecutorPool")
   @ConditionalOnMissingBean(name = "jobExecutorPool")
@@ -79,7 +150,7 @@ public class JobAutoConfiguration {
     executor.setQueueCapacity(props.getExecutorQueueCapacity());
     executor.setThreadNamePrefix("job-executor-");
     executor.setRejectedExecutionHandler(
-        new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        new java.util.concurrent.ThreadPoolExecutor.AbortPolicy());
     executor.initialize();
     return executor;
   }
@@ -114,4 +185,30 @@ public class JobAutoConfiguration {
       Map<String, JobExecutor> jobExecutors) {
     return new JobRegistrar(jobManagementService, jobRepository, lockRepository, jobExecutors);
   }
+
+  /**
+   * Keeps streaming MapReduce chunks as files under {@code angus.job.map-output.directory}.
+   * Enabled with {@code angus.job.map-output.store=file}.
+   */
+  @Bean
+  @ConditionalOnProperty(prefix = "angus.job.map-output", name = "store", havingValue = "file")
+  @ConditionalOnMissingBean(MapOutputStore.class)
+  public MapOutputStore fileMapOutputStore(JobProperties props) {
+    return new LocalFileMapOutputStore(Path.of(props.getMapOutput().getDirectory()));
+  }
+
+  /**
+   * Fires due jobs from an in-memory timing wheel instead of the {@code scan-interval-ms} poll.
+   * Enabled with {@code angus.job.time-wheel.enabled=true}.
+   */
+  @Bean
+  @ConditionalOnProperty(prefix = "angus.job.time-wheel", name = "enabled", havingValue = "true")
+  @ConditionalOnBean(JobSchedulerService.class)
+  @ConditionalOnMissingBean(TimeWheelTriggerEngine.class)
+  public TimeWheelTriggerEngine timeWheelTriggerEngine(
+      ScheduledJobRepository jobRepository,
+      JobSchedulerService jobSchedulerService,
+      JobProperties props) {
+    return new TimeWheelTriggerEngine(jobRepository, jobSchedulerService, props.getTimeWheel());
+  }
 }
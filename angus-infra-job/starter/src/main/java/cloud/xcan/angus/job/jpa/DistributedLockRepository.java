@@ -2,6 +2,8 @@ package cloud.xcan.angus.job.jpa;
 
 import cloud.xcan.angus.job.entity.DistributedLock;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -41,21 +43,113 @@ public interface DistributedLockRepository extends JpaRepository<DistributedLock
   int deleteExpiredLockByKey(@Param("lockKey") String lockKey, @Param("now") LocalDateTime now);
 
   /**
-   * 删除当前节点（owner）遗留的**所有**分布式锁，包括未过期的。
+   * 删除指定 owner 遗留的**所有**分布式锁，包括未过期的。
    *
-   * <p>应用启动时调用，清理该节点崩溃前获取的锁。由于 nodeId 使用稳定的
-   * hostname-based 标识，确保同一物理节点重启后能识别并清理自己遗留的锁。
+   * <p>应用启动时调用，清理本机已退出的调度进程（或本进程上一次运行）崩溃前获取的锁，
+   * owner 由 {@link #findOwnersLike} 查出并经
+   * {@link cloud.xcan.angus.job.service.NodeIdentity#isLeftOver} 确认已不在运行。
    *
    * <p>典型场景：节点 A 在持有某些 job_lock 时被强制关闭（kill -9、OOM、
    * 电源故障），这些锁的 {@code expireTime} 设得很远（如 5 分钟内不会过期）。
-   * 节点 A 重启后，生成相同的 nodeId，立即调用此方法清理所有遗留的锁，
-   * 避免其他节点在很长时间内无法获取这些 job。
+   * 节点 A 重启后立即调用此方法清理这些锁，避免其他节点在很长时间内无法获取这些 job；
+   * 同一主机上仍在运行的其他调度进程的锁不受影响。
    *
-   * @param owner 当前节点的 nodeId（格式 {@code hostname|ip}）
+   * @param owner 遗留锁的 owner（格式 {@code hostname|ip|pid}）
    * @return 受影响的行数
    */
   @Transactional
   @Modifying
   @Query("DELETE FROM DistributedLock l WHERE l.owner = :owner")
   int deleteByOwner(@Param("owner") String owner);
+
+  /**
+   * Distinct owners of the locks whose owner matches {@code pattern}, e.g. all processes of a
+   * host with {@code hostname|ip%}.
+   */
+  @Query("SELECT DISTINCT l.owner FROM DistributedLock l WHERE l.owner LIKE :pattern")
+  List<String> findOwnersLike(@Param("pattern") String pattern);
+
+  /**
+   * PostgreSQL: inserts the lock, or takes it over when the existing row has expired, in one
+   * statement.
+   *
+   * @return 1 if the lock was acquired, 0 if it is held by someone else
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "INSERT INTO angus_distributed_lock "
+      + "(lock_key, lock_value, owner, acquire_time, expire_time, version) "
+      + "VALUES (:lockKey, :lockValue, :owner, :now, :expireTime, 0) "
+      + "ON CONFLICT (lock_key) DO UPDATE SET lock_value = EXCLUDED.lock_value, "
+      + "owner = EXCLUDED.owner, acquire_time = EXCLUDED.acquire_time, "
+      + "expire_time = EXCLUDED.expire_time, "
+      + "version = COALESCE(angus_distributed_lock.version, 0) + 1 "
+      + "WHERE angus_distributed_lock.expire_time <= EXCLUDED.acquire_time",
+      nativeQuery = true)
+  int upsertLockIfExpired(@Param("lockKey") String lockKey, @Param("lockValue") String lockValue,
+      @Param("owner") String owner, @Param("now") LocalDateTime now,
+      @Param("expireTime") LocalDateTime expireTime);
+
+  /**
+   * MySQL: inserts the lock unless a row for the key already exists.
+   *
+   * @return 1 if the row was inserted, 0 otherwise
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "INSERT IGNORE INTO angus_distributed_lock "
+      + "(lock_key, lock_value, owner, acquire_time, expire_time, version) "
+      + "VALUES (:lockKey, :lockValue, :owner, :now, :expireTime, 0)", nativeQuery = true)
+  int insertLockIfAbsent(@Param("lockKey") String lockKey, @Param("lockValue") String lockValue,
+      @Param("owner") String owner, @Param("now") LocalDateTime now,
+      @Param("expireTime") LocalDateTime expireTime);
+
+  /**
+   * Takes over the lock of the given key if it has expired as of {@code now}.
+   *
+   * @return 1 if the lock was taken over, 0 if it is missing or still held
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE DistributedLock l SET l.lockValue = :lockValue, l.owner = :owner, "
+      + "l.acquireTime = :now, l.expireTime = :expireTime, "
+      + "l.version = COALESCE(l.version, 0) + 1 "
+      + "WHERE l.lockKey = :lockKey AND l.expireTime <= :now")
+  int takeOverExpiredLock(@Param("lockKey") String lockKey, @Param("lockValue") String lockValue,
+      @Param("owner") String owner, @Param("now") LocalDateTime now,
+      @Param("expireTime") LocalDateTime expireTime);
+
+  /**
+   * Releases the lock of the given key if it is still held by {@code owner} with
+   * {@code lockValue}.
+   *
+   * @return 1 if the lock was released, 0 otherwise
+   */
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM DistributedLock l WHERE l.lockKey = :lockKey AND l.owner = :owner "
+      + "AND l.lockValue = :lockValue")
+  int deleteHeldLock(@Param("lockKey") String lockKey, @Param("owner") String owner,
+      @Param("lockValue") String lockValue);
+
+  /**
+   * Extends all locks held by {@code owner} with one of {@code lockValues} in one statement.
+   *
+   * @return number of rows updated
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE DistributedLock l SET l.expireTime = :expireTime "
+      + "WHERE l.owner = :owner AND l.lockValue IN :lockValues")
+  int renewHeldLocks(@Param("owner") String owner,
+      @Param("lockValues") Collection<String> lockValues,
+      @Param("expireTime") LocalDateTime expireTime);
+
+  /**
+   * Keys of the locks still held by {@code owner} with one of {@code lockValues}.
+   */
+  @Query("SELECT l.lockKey FROM DistributedLock l "
+      + "WHERE l.owner = :owner AND l.lockValue IN :lockValues")
+  List<String> findHeldLockKeys(@Param("owner") String owner,
+      @Param("lockValues") Collection<String> lockValues);
 }
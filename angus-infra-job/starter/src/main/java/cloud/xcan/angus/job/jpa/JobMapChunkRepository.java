@@ -0,0 +1,35 @@
+package cloud.xcan.angus.job.jpa;
+
+import cloud.xcan.angus.job.entity.JobMapChunk;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Spring Data JPA jpa for {@link JobMapChunk}.
+ */
+@Repository
+public interface JobMapChunkRepository extends JpaRepository<JobMapChunk, Long> {
+
+  /**
+   * Ids of the chunks of a partition written by the given map attempts, in read order. Only ids
+   * are loaded so that the chunk data is read one chunk at a time.
+   */
+  @Query("SELECT c.id FROM JobMapChunk c WHERE c.jobId = :jobId AND c.partitionNo = :partition "
+      + "AND c.attempt IN :attempts ORDER BY c.shardingItem, c.chunkSeq")
+  List<Long> findChunkIds(@Param("jobId") Long jobId, @Param("partition") Integer partition,
+      @Param("attempts") Collection<String> attempts);
+
+  @Query("SELECT c.data FROM JobMapChunk c WHERE c.id = :id AND c.jobId = :jobId")
+  byte[] findData(@Param("jobId") Long jobId, @Param("id") Long id);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM JobMapChunk c WHERE c.jobId = :jobId")
+  int deleteByJobId(@Param("jobId") Long jobId);
+}
@@ -2,12 +2,16 @@ package cloud.xcan.angus.job.jpa;
 
 import cloud.xcan.angus.job.entity.JobShard;
 import cloud.xcan.angus.job.enums.ShardStatus;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Spring Data JPA jpa for {@link JobShard}.
@@ -26,4 +30,84 @@ public interface JobShardRepository extends JpaRepository<JobShard, Long> {
   @Modifying
   @Query("DELETE FROM JobShard s WHERE s.jobId = :jobId")
   void deleteByJobId(@Param("jobId") Long jobId);
+
+  /**
+   * Finds shards any node may claim: PENDING shards and RUNNING shards whose lease expired, of jobs
+   * that are still RUNNING, oldest first.
+   */
+  @Query("SELECT s FROM JobShard s, ScheduledJob j WHERE j.id = s.jobId "
+      + "AND j.status = cloud.xcan.angus.job.enums.JobStatus.RUNNING "
+      + "AND (s.status = cloud.xcan.angus.job.enums.ShardStatus.PENDING "
+      + "OR (s.status = cloud.xcan.angus.job.enums.ShardStatus.RUNNING AND s.leaseUntil < :now)) "
+      + "ORDER BY s.id")
+  List<JobShard> findClaimableShards(@Param("now") LocalDateTime now, Pageable pageable);
+
+  /**
+   * Claims the given shards for {@code nodeId} with one conditional UPDATE. Only shards that are
+   * still claimable are updated, so concurrent claims of the same shard by several nodes update it
+   * once.
+   *
+   * @return number of shards claimed by this call
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE JobShard s SET s.status = cloud.xcan.angus.job.enums.ShardStatus.RUNNING, "
+      + "s.executorNode = :nodeId, s.leaseUntil = :leaseUntil, s.startTime = :now "
+      + "WHERE s.id IN :ids AND (s.status = cloud.xcan.angus.job.enums.ShardStatus.PENDING "
+      + "OR (s.status = cloud.xcan.angus.job.enums.ShardStatus.RUNNING AND s.leaseUntil < :now))")
+  int claimShards(@Param("ids") Collection<Long> ids, @Param("nodeId") String nodeId,
+      @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+  List<JobShard> findByIdInAndStatusAndExecutorNode(Collection<Long> ids, ShardStatus status,
+      String executorNode);
+
+  /**
+   * Extends the leases of shards still held by {@code nodeId}.
+   *
+   * @return number of leases renewed; lower than {@code ids.size()} when some leases were lost
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE JobShard s SET s.leaseUntil = :leaseUntil WHERE s.id IN :ids "
+      + "AND s.executorNode = :nodeId "
+      + "AND s.status = cloud.xcan.angus.job.enums.ShardStatus.RUNNING")
+  int renewLeases(@Param("ids") Collection<Long> ids, @Param("nodeId") String nodeId,
+      @Param("leaseUntil") LocalDateTime leaseUntil);
+
+  /**
+   * Records the outcome of a shard, provided {@code nodeId} still holds it. A node that lost its
+   * lease to another node cannot overwrite the new holder's outcome.
+   *
+   * @return 1 if recorded, 0 if the shard is no longer held by {@code nodeId}
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE JobShard s SET s.status = :status, s.mapResult = :mapResult, s.endTime = :now, "
+      + "s.leaseUntil = NULL WHERE s.id = :id AND s.executorNode = :nodeId "
+      + "AND s.status = cloud.xcan.angus.job.enums.ShardStatus.RUNNING")
+  int completeShard(@Param("id") Long id, @Param("nodeId") String nodeId,
+      @Param("status") ShardStatus status, @Param("mapResult") String mapResult,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * Returns a shard held by {@code nodeId} to PENDING, e.g. when it could not be dispatched.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE JobShard s SET s.status = cloud.xcan.angus.job.enums.ShardStatus.PENDING, "
+      + "s.executorNode = NULL, s.leaseUntil = NULL WHERE s.id = :id AND s.executorNode = :nodeId "
+      + "AND s.status = cloud.xcan.angus.job.enums.ShardStatus.RUNNING")
+  int releaseShard(@Param("id") Long id, @Param("nodeId") String nodeId);
+
+  /**
+   * Fails the unfinished shards of a job whose coordinator gave up waiting, so that no node claims
+   * them any more.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE JobShard s SET s.status = cloud.xcan.angus.job.enums.ShardStatus.FAILED, "
+      + "s.endTime = :now, s.leaseUntil = NULL WHERE s.jobId = :jobId "
+      + "AND s.status IN (cloud.xcan.angus.job.enums.ShardStatus.PENDING, "
+      + "cloud.xcan.angus.job.enums.ShardStatus.RUNNING)")
+  int failUnfinishedShards(@Param("jobId") Long jobId, @Param("now") LocalDateTime now);
 }
@@ -3,6 +3,7 @@ package cloud.xcan.angus.job.jpa;
 import cloud.xcan.angus.job.entity.ScheduledJob;
 import cloud.xcan.angus.job.enums.JobStatus;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Pageable;
@@ -39,21 +40,64 @@ public interface ScheduledJobRepository extends JpaRepository<ScheduledJob, Long
 
   Optional<ScheduledJob> findByJobNameAndJobGroup(String jobName, String jobGroup);
 
+  /**
+   * Claims the given due jobs for {@code nodeId} with one conditional UPDATE. Only rows that are
+   * still READY and due are moved to RUNNING, so when several nodes claim the same job exactly one
+   * of them updates the row.
+   *
+   * @param ids    candidate job ids loaded by the scan
+   * @param nodeId identifier of the claiming node, written to {@code executor_node}
+   * @param now    scan time; also written as the claim time
+   * @return number of jobs claimed by this call
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE ScheduledJob j SET j.status = cloud.xcan.angus.job.enums.JobStatus.RUNNING, "
+      + "j.executorNode = :nodeId, j.lastExecuteTime = :now, j.updateTime = :now "
+      + "WHERE j.id IN :ids AND j.status = cloud.xcan.angus.job.enums.JobStatus.READY "
+      + "AND j.nextExecuteTime <= :now")
+  int claimDueJobs(@Param("ids") Collection<Long> ids, @Param("nodeId") String nodeId,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * Loads the jobs among {@code ids} that are in {@code status} and owned by
+   * {@code executorNode}; used after {@link #claimDueJobs} to find the jobs this node won.
+   */
+  List<ScheduledJob> findByIdInAndStatusAndExecutorNode(Collection<Long> ids, JobStatus status,
+      String executorNode);
+
+  /**
+   * Returns a claimed job to READY when it could not be dispatched, e.g. because the executor
+   * rejected it during shutdown.
+   *
+   * @return 1 if the claim was released, 0 if the job is no longer claimed by {@code nodeId}
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE ScheduledJob j SET j.status = cloud.xcan.angus.job.enums.JobStatus.READY "
+      + "WHERE j.id = :id AND j.status = cloud.xcan.angus.job.enums.JobStatus.RUNNING "
+      + "AND j.executorNode = :nodeId")
+  int releaseClaim(@Param("id") Long id, @Param("nodeId") String nodeId);
+
   /**
    * 将遗留的 RUNNING 状态任务重置为 READY（仅限当前节点遗留的任务）。
    *
-   * <p>应用正常运行时不存在长期处于 RUNNING 的任务（每个任务执行完成后均会恢复为
-   * READY 或置为 FAILED）。若当前节点在执行任务时被强制终止（kill -9、OOM、
-   * 电源故障等），该任务的状态会永久滞留为 RUNNING，导致下次启动后调度器
-   * 永远无法再次触发这些任务。
+   * <p>应用正常运行时不存在长期处于 RUNNING 的任务（每个任务执行完成后
+   * 均会恢复为 READY 或置为 FAILED）。若当前节点在执行任务时被强制终止
+   * （kill -9、OOM、电源故障等），该任务的状态会永久滞留为 RUNNING，
+   * 导致下次启动后调度器永远无法再次触发这些任务。
    *
-   * <p>此方法**仅重置该节点之前执行但未完成的 RUNNING job**，通过检查
-   * {@code JobExecutionLog} 的最新记录来判断。这避免误伤其他节点正在执行的 job。
+   * <p>此方法**仅重置该节点之前执行但未完成的 RUNNING job**，
+   * 通过 {@code executor_node}（调度器认领任务时写入）或
+   * {@code JobExecutionLog} 的最新记录来判断。这避免误伤其他节点
+   * 正在执行的 job，也覆盖认领后、写入执行日志前崩溃的情况。
    *
-   * <p>此方法在 {@link cloud.xcan.angus.job.registrar.JobRegistrar} 启动阶段调用，
-   * 确保每次应用重启后所有脏数据都能被自动清理，无需人工介入。
+   * <p>此方法在 {@link cloud.xcan.angus.job.registrar.JobRegistrar}
+   * 启动阶段调用，对 {@link #findRunningExecutorNodesLike} 查出的、
+   * 本机已退出进程的每个 nodeId 各调用一次，确保每次应用重启后
+   * 所有脏数据都能被自动清理，无需人工介入。
    *
-   * @param currentNodeId 当前节点的 nodeId（格式 {@code hostname|ip}）
+   * @param currentNodeId 遗留任务的 nodeId（格式 {@code hostname|ip|pid}）
    * @return 受影响的行数
    */
   @Modifying
@@ -61,7 +105,7 @@ public interface ScheduledJobRepository extends JpaRepository<ScheduledJob, Long
   @Query(value = ""
       + "UPDATE angus_scheduled_job sj SET status = 'READY', update_time = NOW() "
       + "WHERE sj.status = 'RUNNING' "
-      + "  AND sj.id IN ( "
+      + "  AND (sj.executor_node = :currentNodeId OR sj.id IN ( "
       + "    SELECT DISTINCT jel.job_id FROM angus_job_execution_log jel "
       + "    WHERE jel.executor_node = :currentNodeId "
       + "      AND jel.status = 'RUNNING' "
@@ -69,7 +113,20 @@ public interface ScheduledJobRepository extends JpaRepository<ScheduledJob, Long
       + "        SELECT MAX(id) FROM angus_job_execution_log jel2 "
       + "        WHERE jel2.job_id = jel.job_id "
       + "      ) "
-      + "  ) ",
+      + "  )) ",
       nativeQuery = true)
   int resetStaleRunningJobs(@Param("currentNodeId") String currentNodeId);
+
+  /**
+   * Distinct nodes matching {@code pattern} that own a RUNNING job or a RUNNING execution log,
+   * i.e. the candidates for {@link #resetStaleRunningJobs}.
+   */
+  @Query(value = ""
+      + "SELECT executor_node FROM angus_scheduled_job "
+      + "WHERE status = 'RUNNING' AND executor_node LIKE :pattern "
+      + "UNION "
+      + "SELECT executor_node FROM angus_job_execution_log "
+      + "WHERE status = 'RUNNING' AND executor_node LIKE :pattern",
+      nativeQuery = true)
+  List<String> findRunningExecutorNodesLike(@Param("pattern") String pattern);
 }
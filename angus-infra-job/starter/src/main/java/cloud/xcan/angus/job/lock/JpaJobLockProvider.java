@@ -0,0 +1,119 @@
+package cloud.xcan.angus.job.lock;
+
+import cloud.xcan.angus.job.entity.DistributedLock;
+import cloud.xcan.angus.job.jpa.DistributedLockRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * {@link JobLockProvider} keeping locks in the {@code angus_distributed_lock} table.
+ *
+ * <p>Acquisition uses the conditional statements of the configured {@link LockDialect}, so a
+ * held lock costs one or two statements that update nothing instead of a failed insert. Every
+ * operation runs in its own transaction: a lock must be visible to other nodes as soon as it is
+ * taken, and must not keep row locks open for the rest of the caller's transaction.
+ */
+@Slf4j
+public class JpaJobLockProvider implements JobLockProvider {
+
+  private final DistributedLockRepository lockRepository;
+  private final LockDialect dialect;
+  private final TransactionTemplate requiresNew;
+
+  public JpaJobLockProvider(DistributedLockRepository lockRepository, LockDialect dialect,
+      PlatformTransactionManager transactionManager) {
+    this.lockRepository = lockRepository;
+    this.dialect = dialect == null || dialect == LockDialect.AUTO ? LockDialect.GENERIC : dialect;
+    this.requiresNew = new TransactionTemplate(transactionManager);
+    this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  public LockDialect getDialect() {
+    return dialect;
+  }
+
+  @Override
+  public boolean tryLock(String lockKey, String owner, String lockValue, Duration lease) {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime expireTime = now.plus(lease);
+    return switch (dialect) {
+      case POSTGRES -> inNewTransaction(() ->
+          lockRepository.upsertLockIfExpired(lockKey, lockValue, owner, now, expireTime) > 0);
+      case MYSQL -> inNewTransaction(() ->
+          lockRepository.insertLockIfAbsent(lockKey, lockValue, owner, now, expireTime) > 0
+              || takeOver(lockKey, lockValue, owner, now, expireTime));
+      default -> tryLockGeneric(lockKey, lockValue, owner, now, expireTime);
+    };
+  }
+
+  @Override
+  public boolean unlock(String lockKey, String owner, String lockValue) {
+    return inNewTransaction(() -> lockRepository.deleteHeldLock(lockKey, owner, lockValue) > 0);
+  }
+
+  @Override
+  public Set<String> renew(String owner, Map<String, String> locks, Duration lease) {
+    if (locks.isEmpty()) {
+      return Set.of();
+    }
+    LocalDateTime expireTime = LocalDateTime.now().plus(lease);
+    return requiresNew.execute(status -> {
+      int renewed = lockRepository.renewHeldLocks(owner, locks.values(), expireTime);
+      if (renewed == locks.size()) {
+        return Set.copyOf(locks.keySet());
+      }
+      // Some locks were lost, or the driver reports changed rather than matched rows
+      Set<String> held = new HashSet<>(lockRepository.findHeldLockKeys(owner, locks.values()));
+      held.retainAll(locks.keySet());
+      return held;
+    });
+  }
+
+  private boolean tryLockGeneric(String lockKey, String lockValue, String owner,
+      LocalDateTime now, LocalDateTime expireTime) {
+    if (inNewTransaction(() -> takeOver(lockKey, lockValue, owner, now, expireTime))) {
+      return true;
+    }
+    if (inNewTransaction(() -> lockRepository.existsById(lockKey))) {
+      return false;
+    }
+    // Only a key that has never been taken, or whose lock was released, needs an insert
+    return insert(lockKey, lockValue, owner, now, expireTime);
+  }
+
+  private boolean takeOver(String lockKey, String lockValue, String owner, LocalDateTime now,
+      LocalDateTime expireTime) {
+    return lockRepository.takeOverExpiredLock(lockKey, lockValue, owner, now, expireTime) > 0;
+  }
+
+  private boolean inNewTransaction(BooleanSupplier action) {
+    return Boolean.TRUE.equals(requiresNew.execute(status -> action.getAsBoolean()));
+  }
+
+  private boolean insert(String lockKey, String lockValue, String owner, LocalDateTime now,
+      LocalDateTime expireTime) {
+    DistributedLock lock = new DistributedLock();
+    lock.setLockKey(lockKey);
+    lock.setLockValue(lockValue);
+    lock.setOwner(owner);
+    lock.setAcquireTime(now);
+    lock.setExpireTime(expireTime);
+    try {
+      requiresNew.executeWithoutResult(status -> lockRepository.saveAndFlush(lock));
+      return true;
+    } catch (DataIntegrityViolationException e) {
+      // Another node inserted the same key after the existence check
+      log.debug("Lock contention on insert: key={}", lockKey);
+      return false;
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package cloud.xcan.angus.job.lock;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import cloud.xcan.angus.lettucex.distlock.RedisLock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * {@link JobLockProvider} keeping locks as Redis keys through the lettucex {@link RedisLock}
+ * ({@code SET NX EX} to acquire, a compare-and-delete script to release).
+ *
+ * <p>The key holds the lock value only, so {@code owner} is not checked by Redis; the
+ * per-acquisition lock value alone proves ownership. Renewals of all locks are sent as one
+ * pipeline of compare-and-expire scripts, one per key, which also works on Redis Cluster.
+ */
+public class RedisJobLockProvider implements JobLockProvider {
+
+  public static final String KEY_PREFIX = "angus:job:lock:";
+
+  private static final byte[] RENEW_SCRIPT = ("if redis.call('get', KEYS[1]) == ARGV[1] then "
+      + "return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end").getBytes(UTF_8);
+
+  private final RedisLock redisLock;
+  private final StringRedisTemplate redisTemplate;
+
+  public RedisJobLockProvider(StringRedisTemplate redisTemplate) {
+    this.redisLock = new RedisLock(redisTemplate);
+    this.redisTemplate = redisTemplate;
+  }
+
+  @Override
+  public boolean tryLock(String lockKey, String owner, String lockValue, Duration lease) {
+    // RedisLock expires keys with second precision
+    return redisLock.tryLock(KEY_PREFIX + lockKey, lockValue, Math.max(1, lease.toSeconds()),
+        TimeUnit.SECONDS);
+  }
+
+  @Override
+  public boolean unlock(String lockKey, String owner, String lockValue) {
+    return redisLock.releaseLock(KEY_PREFIX + lockKey, lockValue);
+  }
+
+  @Override
+  public Set<String> renew(String owner, Map<String, String> locks, Duration lease) {
+    if (locks.isEmpty()) {
+      return Set.of();
+    }
+    List<String> keys = new ArrayList<>(locks.keySet());
+    byte[] leaseMillis = String.valueOf(lease.toMillis()).getBytes(UTF_8);
+    List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      for (String key : keys) {
+        connection.scriptingCommands().eval(RENEW_SCRIPT, ReturnType.BOOLEAN, 1,
+            (KEY_PREFIX + key).getBytes(UTF_8), locks.get(key).getBytes(UTF_8), leaseMillis);
+      }
+      return null;
+    });
+    Set<String> renewed = new HashSet<>();
+    for (int i = 0; i < keys.size() && i < results.size(); i++) {
+      if (Boolean.TRUE.equals(results.get(i))) {
+        renewed.add(keys.get(i));
+      }
+    }
+    return renewed;
+  }
+}
@@ -0,0 +1,70 @@
+package cloud.xcan.angus.job.mapreduce;
+
+import cloud.xcan.angus.job.entity.JobMapChunk;
+import cloud.xcan.angus.job.jpa.JobMapChunkRepository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * {@link MapOutputStore} keeping chunks in the {@code angus_job_map_chunk} table, shared by all
+ * nodes of the cluster.
+ *
+ * <p>Each chunk is written in its own transaction: a map shard running inside a transaction
+ * neither holds its whole output in that transaction nor loses the chunks already written when
+ * it fails — they are simply never read and removed with the job's other chunks.
+ */
+public class JpaMapOutputStore implements MapOutputStore {
+
+  private final JobMapChunkRepository chunkRepository;
+  private final TransactionTemplate requiresNew;
+
+  public JpaMapOutputStore(JobMapChunkRepository chunkRepository,
+      PlatformTransactionManager transactionManager) {
+    this.chunkRepository = chunkRepository;
+    this.requiresNew = new TransactionTemplate(transactionManager);
+    this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  @Override
+  public void writeChunk(Long jobId, int shardingItem, String attempt, int partition,
+      int sequence, int recordCount, byte[] data) {
+    JobMapChunk chunk = new JobMapChunk();
+    chunk.setJobId(jobId);
+    chunk.setShardingItem(shardingItem);
+    chunk.setAttempt(attempt);
+    chunk.setPartitionNo(partition);
+    chunk.setChunkSeq(sequence);
+    chunk.setRecordCount(recordCount);
+    chunk.setData(data);
+    chunk.setCreateTime(LocalDateTime.now());
+    requiresNew.executeWithoutResult(status -> chunkRepository.save(chunk));
+  }
+
+  @Override
+  public List<String> listChunks(Long jobId, int partition, Collection<String> attempts) {
+    if (attempts.isEmpty()) {
+      return List.of();
+    }
+    return chunkRepository.findChunkIds(jobId, partition, attempts).stream()
+        .map(String::valueOf)
+        .toList();
+  }
+
+  @Override
+  public byte[] readChunk(Long jobId, String chunkId) {
+    byte[] data = chunkRepository.findData(jobId, Long.valueOf(chunkId));
+    if (data == null) {
+      throw new IllegalStateException("Map chunk " + chunkId + " of job " + jobId + " not found");
+    }
+    return data;
+  }
+
+  @Override
+  public void deleteJob(Long jobId) {
+    requiresNew.executeWithoutResult(status -> chunkRepository.deleteByJobId(jobId));
+  }
+}
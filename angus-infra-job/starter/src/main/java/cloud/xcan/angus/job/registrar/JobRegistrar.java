@@ -7,6 +7,7 @@ import cloud.xcan.angus.job.jpa.DistributedLockRepository;
 import cloud.xcan.angus.job.jpa.ScheduledJobRepository;
 import cloud.xcan.angus.job.model.CreateJobRequest;
 import cloud.xcan.angus.job.service.JobManagementService;
+import cloud.xcan.angus.job.service.NodeIdentity;
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.Optional;
@@ -54,36 +55,46 @@ public class JobRegistrar implements ApplicationRunner {
 
   @Override
   public void run(ApplicationArguments args) {
-    String nodeId = buildNodeId();
+    String hostPattern = NodeIdentity.host() + "%";
 
     // -----------------------------------------------------------------------
-    // 启动阶段第一步：清理当前节点遗留的分布式锁
+    // 启动阶段第一步：清理本机已退出进程遗留的分布式锁
     //
-    // 若节点在持有 job_lock 时被强制关闭（kill -9、OOM、电源故障等），这些锁会
-    // 遗留在数据库中，expireTime 设得较远（如 5 分钟）。当该节点重启时，由于 nodeId
-    // 使用 hostname-based 生成，重启后仍然相同，因此可以识别并删除所有由该节点
-    // 加的锁，这样其他节点就可以立即获取这些 job 并重新调度。
+    // 若进程在持有 job_lock 时被强制关闭（kill -9、OOM、电源故障等），这些锁会
+    // 遗留在数据库中，expireTime 设得较远（如 5 分钟）。nodeId 为 hostname|ip|pid，
+    // 启动时查出本机所有 owner，只删除已不在运行的进程（或本进程上一次运行）加的锁，
+    // 这样其他节点就可以立即获取这些 job 并重新调度，而同机其他调度进程的锁不受影响。
     // -----------------------------------------------------------------------
-    int locksCleaned = lockRepository.deleteByOwner(nodeId);
+    int locksCleaned = 0;
+    for (String owner : lockRepository.findOwnersLike(hostPattern)) {
+      if (NodeIdentity.isLeftOver(owner)) {
+        locksCleaned += lockRepository.deleteByOwner(owner);
+      }
+    }
     if (locksCleaned > 0) {
-      log.warn("Cleaned {} stale distributed lock(s) held by this node [{}] on startup",
-          locksCleaned, nodeId);
+      log.warn("Cleaned {} stale distributed lock(s) left on this host [{}] on startup",
+          locksCleaned, NodeIdentity.host());
     }
 
     // -----------------------------------------------------------------------
-    // 启动阶段第二步：清理遗留的 RUNNING 脏数据（仅限当前节点）
+    // 启动阶段第二步：清理遗留的 RUNNING 脏数据（仅限本机已退出的进程）
     //
-    // 正常情况下任务执行完毕后状态会恢复为 READY 或 FAILED。若当前节点在执行任务时
+    // 正常情况下任务执行完毕后状态会恢复为 READY 或 FAILED。若进程在执行任务时
     // 被强制终止（kill -9、OOM、强制重启等），正在执行的任务状态会永久滞留为 RUNNING，
     // 导致调度器永远无法再次触发这些任务（调度器只轮询 READY 状态）。
     //
-    // 此处只重置**该节点之前执行但未完成的 RUNNING job**（通过 JobExecutionLog
-    // 判断），避免误伤其他节点正在执行的 job。
+    // 此处只重置**本机已退出进程之前执行但未完成的 RUNNING job**（通过 executor_node 与
+    // JobExecutionLog 判断），避免误伤其他节点及同机其他进程正在执行的 job。
     // -----------------------------------------------------------------------
-    int reset = jobRepository.resetStaleRunningJobs(nodeId);
+    int reset = 0;
+    for (String node : jobRepository.findRunningExecutorNodesLike(hostPattern)) {
+      if (NodeIdentity.isLeftOver(node)) {
+        reset += jobRepository.resetStaleRunningJobs(node);
+      }
+    }
     if (reset > 0) {
-      log.warn("Reset {} stale RUNNING job(s) to READY on startup (caused by previous crash or forced shutdown)",
-          reset);
+      log.warn("Reset {} stale RUNNING job(s) to READY on startup "
+          + "(caused by previous crash or forced shutdown)", reset);
     }
 
     int registered = 0;
@@ -170,24 +181,4 @@ public class JobRegistrar implements ApplicationRunner {
       return bean.getClass();
     }
   }
-
-  /**
-   * 生成稳定的节点标识，格式为 {@code hostname|local-ip}。
-   *
-   * <p>稳定性保证：只要物理节点不变，重启后生成的 nodeId 完全相同，
-   * 这允许应用启动时只删除该节点遗留的分布式锁（包括未过期的）。
-   *
-   * @return 节点标识字符串，格式 {@code hostname|192.168.1.100}
-   */
-  private String buildNodeId() {
-    try {
-      String hostname = java.net.InetAddress.getLocalHost().getHostName();
-      String ip = java.net.InetAddress.getLocalHost().getHostAddress();
-      return hostname + "|" + ip;
-    } catch (java.net.UnknownHostException e) {
-      // Fallback if hostname resolution fails
-      log.warn("Failed to resolve hostname, using localhost fallback", e);
-      return "localhost|127.0.0.1";
-    }
-  }
 }
@@ -1,31 +1,36 @@
 package cloud.xcan.angus.job.service;
 
-import cloud.xcan.angus.job.entity.DistributedLock;
-import cloud.xcan.angus.job.jpa.DistributedLockRepository;
+import cloud.xcan.angus.job.lock.JobLockProvider;
 import cloud.xcan.angus.job.properties.JobProperties;
-import java.time.LocalDateTime;
-import java.util.Optional;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
- * Database-backed distributed lock service.
+ * Distributed lock service backed by a {@link JobLockProvider}.
  *
- * <h3>Atomicity guarantee</h3>
- * Lock acquisition is performed in two steps within a single transaction:
- * <ol>
- *   <li>Delete any <em>expired</em> row for the requested key (safe: only touches rows
- *       whose {@code expire_time &le; now}, never affecting valid locks held by other nodes).</li>
- *   <li>Insert a new lock row.  Because {@code lock_key} is the primary key, a
- *       concurrent insert by another node will cause a {@link DataIntegrityViolationException},
- *       which this method catches and converts to {@code false}.</li>
- * </ol>
- * This eliminates the TOCTOU window present in the original three-step
- * (find → delete → insert) approach.
+ * <h3>Acquisition</h3>
+ * The provider acquires a free or expired lock with conditional statements (a single
+ * {@code INSERT ... ON CONFLICT DO UPDATE ... WHERE expired} on PostgreSQL, {@code INSERT IGNORE}
+ * plus a conditional UPDATE on MySQL, {@code SET NX EX} on Redis). A lock held by another node is
+ * reported as {@code null}, never as an exception, so contention between many nodes neither
+ * floods the logs nor costs extra round trips.
+ *
+ * <h3>Watchdog</h3>
+ * Locks acquired with {@code keepAlive} are remembered until {@link #unlock}, and
+ * {@link #renewHeldLocks} extends all of them in one batch per owner, so such a lock outlives its
+ * timeout for as long as its holder runs, and still lapses after one timeout once the node dies.
+ * Renewal is opt-in per {@link #tryLock(String, String, int, boolean)} call; the overloads without
+ * {@code keepAlive} follow {@code angus.job.lock.watchdog-enabled}, which is off by default.
  *
  * <h3>Ownership verification</h3>
  * Both {@code owner} (node ID) and {@code lockValue} (per-acquisition UUID) must match
@@ -36,9 +41,11 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class DistributedLockService {
 
-  private final DistributedLockRepository lockRepository;
+  private final JobLockProvider lockProvider;
   private final JobProperties properties;
 
+  private final Map<String, HeldLock> heldLocks = new ConcurrentHashMap<>();
+
   /**
    * Attempts to acquire a lock with the default timeout from {@link JobProperties}.
    *
@@ -56,37 +63,38 @@ public class DistributedLockService {
    *
    * @param lockKey        unique lock identifier
    * @param owner          identifier of the requesting node
-   * @param timeoutSeconds lock TTL in seconds
+   * @param timeoutSeconds lock TTL in seconds, renewed by the watchdog while the lock is held if
+   *                       {@code angus.job.lock.watchdog-enabled} is set
    * @return the lock value (UUID) to pass to {@link #unlock} if successful, or {@code null} if the
    * lock is already held by another node
    */
-  @Transactional
   public String tryLock(String lockKey, String owner, int timeoutSeconds) {
-    try {
-      LocalDateTime now = LocalDateTime.now();
-
-      // Step 1: remove any expired lock for this key (safe, atomic delete).
-      lockRepository.deleteExpiredLockByKey(lockKey, now);
+    return tryLock(lockKey, owner, timeoutSeconds, properties.getLock().isWatchdogEnabled());
+  }
 
-      // Step 2: attempt to insert a new lock row.
-      // If another node holds a valid lock, the PK uniqueness constraint fires
-      // and DataIntegrityViolationException is thrown.
+  /**
+   * Attempts to acquire a lock with a custom timeout, choosing whether the watchdog renews it.
+   *
+   * @param lockKey        unique lock identifier
+   * @param owner          identifier of the requesting node
+   * @param timeoutSeconds lock TTL in seconds
+   * @param keepAlive      renew the lock every {@code watchdog-interval-ms} until {@link #unlock};
+   *                       otherwise it lapses after {@code timeoutSeconds}
+   * @return the lock value (UUID) to pass to {@link #unlock} if successful, or {@code null} if the
+   * lock is already held by another node
+   */
+  public String tryLock(String lockKey, String owner, int timeoutSeconds, boolean keepAlive) {
+    try {
       String lockValue = UUID.randomUUID().toString();
-      DistributedLock lock = new DistributedLock();
-      lock.setLockKey(lockKey);
-      lock.setLockValue(lockValue);
-      lock.setOwner(owner);
-      lock.setAcquireTime(now);
-      lock.setExpireTime(now.plusSeconds(timeoutSeconds));
-
-      lockRepository.saveAndFlush(lock);
+      if (!lockProvider.tryLock(lockKey, owner, lockValue, Duration.ofSeconds(timeoutSeconds))) {
+        log.debug("Lock contention: key={} is already held", lockKey);
+        return null;
+      }
+      if (keepAlive) {
+        heldLocks.put(lockKey, new HeldLock(owner, lockValue, timeoutSeconds));
+      }
       log.debug("Lock acquired: key={} owner={}", lockKey, owner);
       return lockValue;
-
-    } catch (DataIntegrityViolationException e) {
-      // Another node holds a valid lock.
-      log.debug("Lock contention: key={} is already held", lockKey);
-      return null;
     } catch (Exception e) {
       log.error("Failed to acquire lock: key={}", lockKey, e);
       return null;
@@ -98,26 +106,18 @@ public class DistributedLockService {
    * spoofed releases.
    *
    * @param lockKey   lock to release
-   * @param owner     must match the owner stored in the lock row
+   * @param owner     must match the owner stored with the lock
    * @param lockValue must match the value returned by {@link #tryLock}
    */
-  @Transactional
   public void unlock(String lockKey, String owner, String lockValue) {
+    forget(lockKey, owner, lockValue);
     try {
-      Optional<DistributedLock> optLock = lockRepository.findById(lockKey);
-      if (optLock.isEmpty()) {
-        log.debug("Lock not found on release (already expired?): key={}", lockKey);
-        return;
-      }
-      DistributedLock lock = optLock.get();
-      if (!owner.equals(lock.getOwner()) || !lockValue.equals(lock.getLockValue())) {
-        log.warn("Lock release rejected: key={} — owner/value mismatch "
-                + "(expected owner={} value={}, got owner={} value={})",
-            lockKey, lock.getOwner(), lock.getLockValue(), owner, lockValue);
-        return;
+      if (lockProvider.unlock(lockKey, owner, lockValue)) {
+        log.debug("Lock released: key={} owner={}", lockKey, owner);
+      } else {
+        log.debug("Lock not released (expired or held by another owner): key={} owner={}",
+            lockKey, owner);
       }
-      lockRepository.deleteById(lockKey);
-      log.debug("Lock released: key={} owner={}", lockKey, owner);
     } catch (Exception e) {
       log.error("Failed to release lock: key={}", lockKey, e);
     }
@@ -132,23 +132,66 @@ public class DistributedLockService {
    * @param timeoutSeconds new TTL measured from now
    * @return {@code true} if the lock was successfully renewed
    */
-  @Transactional
   public boolean renewLock(String lockKey, String owner, String lockValue, int timeoutSeconds) {
     try {
-      Optional<DistributedLock> optLock = lockRepository.findById(lockKey);
-      if (optLock.isEmpty()) {
-        return false;
-      }
-      DistributedLock lock = optLock.get();
-      if (!owner.equals(lock.getOwner()) || !lockValue.equals(lock.getLockValue())) {
-        return false;
-      }
-      lock.setExpireTime(LocalDateTime.now().plusSeconds(timeoutSeconds));
-      lockRepository.save(lock);
-      return true;
+      return !lockProvider.renew(owner, Map.of(lockKey, lockValue),
+          Duration.ofSeconds(timeoutSeconds)).isEmpty();
     } catch (Exception e) {
       log.error("Failed to renew lock: key={}", lockKey, e);
       return false;
     }
   }
+
+  /**
+   * Watchdog: renews every lock acquired through this service and not yet released, one batch
+   * per owner and timeout. Locks that turn out to be lost are forgotten.
+   */
+  @Scheduled(fixedDelayString = "${angus.job.lock.watchdog-interval-ms:10000}")
+  public void renewHeldLocks() {
+    if (heldLocks.isEmpty()) {
+      return;
+    }
+    Map<RenewBatch, Map<String, String>> batches = new HashMap<>();
+    heldLocks.forEach((key, lock) -> batches
+        .computeIfAbsent(new RenewBatch(lock.owner(), lock.timeoutSeconds()), b -> new HashMap<>())
+        .put(key, lock.lockValue()));
+    batches.forEach((batch, locks) -> {
+      try {
+        Set<String> renewed = lockProvider.renew(batch.owner(), locks,
+            Duration.ofSeconds(batch.timeoutSeconds()));
+        List<String> lost = new ArrayList<>();
+        locks.forEach((key, value) -> {
+          if (!renewed.contains(key) && forget(key, batch.owner(), value)) {
+            lost.add(key);
+          }
+        });
+        if (!lost.isEmpty()) {
+          log.warn("Locks lost before release: owner={} keys={}", batch.owner(), lost);
+        }
+      } catch (Exception e) {
+        log.error("Failed to renew {} locks of owner {}", locks.size(), batch.owner(), e);
+      }
+    });
+  }
+
+  /**
+   * Keys of the locks currently kept alive by the watchdog.
+   */
+  public Set<String> getHeldLockKeys() {
+    return Set.copyOf(heldLocks.keySet());
+  }
+
+  private boolean forget(String lockKey, String owner, String lockValue) {
+    HeldLock held = heldLocks.get(lockKey);
+    return held != null && held.owner().equals(owner) && held.lockValue().equals(lockValue)
+        && heldLocks.remove(lockKey, held);
+  }
+
+  private record HeldLock(String owner, String lockValue, int timeoutSeconds) {
+
+  }
+
+  private record RenewBatch(String owner, int timeoutSeconds) {
+
+  }
 }
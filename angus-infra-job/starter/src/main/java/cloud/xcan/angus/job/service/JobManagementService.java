@@ -7,6 +7,7 @@ import cloud.xcan.angus.job.enums.JobStatus;
 import cloud.xcan.angus.job.jpa.JobExecutionLogRepository;
 import cloud.xcan.angus.job.jpa.JobShardRepository;
 import cloud.xcan.angus.job.jpa.ScheduledJobRepository;
+import cloud.xcan.angus.job.mapreduce.MapOutputStore;
 import cloud.xcan.angus.job.model.CreateJobRequest;
 import cloud.xcan.angus.job.model.UpdateJobRequest;
 import jakarta.persistence.EntityNotFoundException;
@@ -43,6 +44,7 @@ public class JobManagementService {
   private final ScheduledJobRepository jobRepository;
   private final JobExecutionLogRepository executionLogRepository;
   private final JobShardRepository shardRepository;
+  private final MapOutputStore mapOutputStore;
 
   /**
    * Registers a new job definition.
@@ -185,7 +187,7 @@ public class JobManagementService {
   }
 
   /**
-   * Permanently removes a job and all associated shards and execution logs.
+   * Permanently removes a job and all associated shards, map chunks and execution logs.
    */
   @Transactional
   public void deleteJob(Long jobId) {
@@ -193,6 +195,7 @@ public class JobManagementService {
     getJob(jobId);
     executionLogRepository.deleteByJobId(jobId);
     shardRepository.deleteByJobId(jobId);
+    mapOutputStore.deleteJob(jobId);
     jobRepository.deleteById(jobId);
   }
 
@@ -10,21 +10,37 @@ import cloud.xcan.angus.job.executor.JobExecutor;
 import cloud.xcan.angus.job.executor.JobExecutorRegistry;
 import cloud.xcan.angus.job.executor.MapReduceJobExecutor;
 import cloud.xcan.angus.job.executor.ShardingJobExecutor;
+import cloud.xcan.angus.job.executor.StreamingMapReduceJobExecutor;
 import cloud.xcan.angus.job.jpa.JobExecutionLogRepository;
 import cloud.xcan.angus.job.jpa.JobShardRepository;
 import cloud.xcan.angus.job.jpa.ScheduledJobRepository;
+import cloud.xcan.angus.job.mapreduce.ChunkedMapRecordIterator;
+import cloud.xcan.angus.job.mapreduce.MapOutputStore;
 import cloud.xcan.angus.job.model.JobContext;
 import cloud.xcan.angus.job.model.JobExecutionResult;
 import cloud.xcan.angus.job.properties.JobProperties;
+import cloud.xcan.angus.job.trigger.CronExpressionCache;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.support.CronExpression;
@@ -41,41 +57,70 @@ import org.springframework.transaction.support.TransactionTemplate;
  * <ul>
  *   <li>The shared {@code jobExecutorPool} is injected rather than created per
  *       execution — no thread-pool leaks.</li>
- *   <li>Map and sharding phases run lambda bodies with their own {@link TransactionTemplate}
- *       because Spring's {@code @Transactional} does not propagate across thread
- *       boundaries. Each lambda opens, commits, or rolls back its own transaction.</li>
+ *   <li>Shards of SHARDING and MAP_REDUCE jobs are not run here: this node only creates them
+ *       and waits until {@link ShardWorkerService} instances on all live nodes have claimed, run
+ *       and reported every shard, then completes the job or runs the reduce phase.</li>
+ *   <li>The partitions of a {@link StreamingMapReduceJobExecutor} are reduced in parallel on
+ *       {@code jobExecutorPool}, each streaming its spilled chunks from
+ *       {@link MapOutputStore}.</li>
  *   <li>The main {@link #executeJob} method is {@code @Transactional} for the
  *       overall job-status update.</li>
  * </ul>
  *
- * <h3>Distributed mutual exclusion</h3>
- * Each job is protected by a distributed lock acquired via {@link DistributedLockService}
- * before execution begins and released in a {@code finally} block.  Lock acquisition
- * uses the atomic delete-then-insert strategy to avoid TOCTOU races.
+ * <h3>Claim and dispatch</h3>
+ * The scan thread only claims due jobs and never runs them itself:
+ * <ol>
+ *   <li>Due READY jobs are loaded by the periodic scan, or fired at their next fire time by
+ *       {@link cloud.xcan.angus.job.trigger.TimeWheelTriggerEngine} when the time wheel is
+ *       enabled, and filtered down to the free slots of this node — the global
+ *       {@code maxConcurrentJobs} limit and the per-group limits — skipping jobs already in
+ *       flight here.</li>
+ *   <li>The remaining jobs are claimed with one conditional UPDATE that moves them from READY to
+ *       RUNNING for this node. A job claimed concurrently by another node is not updated, so each
+ *       run is owned by exactly one node without per-job lock rows.</li>
+ *   <li>Claimed jobs are handed to {@code jobExecutorPool}, or to virtual threads when
+ *       {@code virtualThreadDispatch} is enabled, and their slots are released when they end.</li>
+ * </ol>
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class JobSchedulerService {
+public class JobSchedulerService implements DisposableBean {
 
   private final ScheduledJobRepository jobRepository;
   private final JobExecutionLogRepository executionLogRepository;
   private final JobShardRepository shardRepository;
-  private final DistributedLockService lockService;
   private final JobExecutorRegistry executorRegistry;
   private final JobProperties properties;
   private final ThreadPoolTaskExecutor jobExecutorPool;
   private final PlatformTransactionManager transactionManager;
+  private final ShardWorkerService shardWorker;
+  private final MapOutputStore mapOutputStore;
 
   /**
-   * Stable per-node identifier included in lock ownership and execution-log records.
-   *
-   * <p>使用 hostname + 本机 IP 地址生成稳定的节点标识，确保同一物理节点重启后拥有相同的 ID。
-   * 这允许启动时只清理该节点遗留的分布式锁（即使过期）。
-   *
-   * <p>格式：{@code hostname|ip:port}（如 {@code server-001|192.168.1.100:8080}）
+   * Identifier of this process, written as the claim owner of jobs and in execution-log records;
+   * see {@link NodeIdentity}.
+   */
+  private final String nodeId = NodeIdentity.current();
+
+  /**
+   * Ids of the jobs claimed by this node and not finished yet.
    */
-  private final String nodeId = buildNodeId();
+  private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Concurrency permits of the job groups that have a limit, created on first use.
+   */
+  private final Map<String, Semaphore> groupPermits = new ConcurrentHashMap<>();
+
+  /**
+   * Parsed cron expressions of the jobs run on this node.
+   */
+  private final CronExpressionCache cronCache = new CronExpressionCache();
+
+  private volatile ExecutorService virtualThreadExecutor;
+
+  private volatile Consumer<ScheduledJob> completionListener;
 
   // ---------------------------------------------------------------------------
   // Scheduler entity point
@@ -83,31 +128,181 @@ public class JobSchedulerService {
 
   @Scheduled(fixedDelayString = "${angus.job.scan-interval-ms:1000}")
   public void scanAndExecuteJobs() {
+    if (properties.getTimeWheel().isEnabled()) {
+      // Due jobs are prefetched and fired by TimeWheelTriggerEngine instead.
+      return;
+    }
+    if (properties.getMaxConcurrentJobs() - inFlight.size() <= 0) {
+      log.debug("All {} job slots are busy, skipping scan", properties.getMaxConcurrentJobs());
+      return;
+    }
+
     // Limit results per cycle to prevent OOM / executor-pool saturation when
     // many jobs become overdue simultaneously (e.g. after a maintenance window).
-    PageRequest limit = PageRequest.of(0, properties.getMaxJobsPerScan());
+    PageRequest limit = PageRequest.of(0, properties.getMaxJobsPerScan(),
+        Sort.by("nextExecuteTime"));
     List<ScheduledJob> jobs = jobRepository.findByStatusAndNextExecuteTimeBefore(
         JobStatus.READY, LocalDateTime.now(), limit);
+    triggerJobs(jobs);
+  }
+
+  /**
+   * Claims the given candidate jobs that are still due and dispatches the ones this node won.
+   * Candidates beyond the free node and group slots are left READY for a later trigger.
+   *
+   * @param jobs candidate jobs, usually loaded in READY state; the claim re-checks their state
+   */
+  public synchronized void triggerJobs(List<ScheduledJob> jobs) {
+    int capacity = properties.getMaxConcurrentJobs() - inFlight.size();
+    if (jobs.isEmpty() || capacity <= 0) {
+      return;
+    }
+
+    // Reserve slots before claiming: a claimed job that cannot run would stay RUNNING.
+    Map<Long, Semaphore> reserved = new LinkedHashMap<>();
     for (ScheduledJob job : jobs) {
-      executeJobWithLock(job);
+      if (reserved.size() >= capacity) {
+        break;
+      }
+      if (inFlight.contains(job.getId()) || reserved.containsKey(job.getId())) {
+        continue;
+      }
+      Semaphore permits = groupPermits(job.getJobGroup());
+      if (permits != null && !permits.tryAcquire()) {
+        continue;
+      }
+      reserved.put(job.getId(), permits);
+    }
+    if (reserved.isEmpty()) {
+      return;
+    }
+
+    // A snapshot: reserved is drained while dispatching
+    List<Long> ids = List.copyOf(reserved.keySet());
+    List<ScheduledJob> claimed;
+    try {
+      int count = jobRepository.claimDueJobs(ids, nodeId, LocalDateTime.now());
+      claimed = count > 0
+          ? jobRepository.findByIdInAndStatusAndExecutorNode(ids, JobStatus.RUNNING, nodeId)
+          : List.of();
+    } catch (Exception e) {
+      log.error("Failed to claim {} due job(s)", reserved.size(), e);
+      reserved.values().forEach(JobSchedulerService::release);
+      return;
+    }
+
+    for (ScheduledJob job : claimed) {
+      if (reserved.containsKey(job.getId())) {
+        dispatch(job, reserved.remove(job.getId()));
+      }
+    }
+    if (!reserved.isEmpty()) {
+      log.debug("Job(s) {} were claimed by another node or are no longer due", reserved.keySet());
+      reserved.values().forEach(JobSchedulerService::release);
+    }
+  }
+
+  /**
+   * Registers a callback receiving each job after this node finished running it, with its
+   * next fire time already advanced.
+   */
+  public void setCompletionListener(Consumer<ScheduledJob> completionListener) {
+    this.completionListener = completionListener;
+  }
+
+  /**
+   * Ids of the jobs currently claimed and running on this node.
+   */
+  public Set<Long> getInFlightJobs() {
+    return Set.copyOf(inFlight);
+  }
+
+  @Override
+  public void destroy() {
+    ExecutorService executor = virtualThreadExecutor;
+    if (executor != null) {
+      executor.shutdown();
     }
   }
 
   // ---------------------------------------------------------------------------
-  // Lock + dispatch
+  // Dispatch
   // ---------------------------------------------------------------------------
 
-  private void executeJobWithLock(ScheduledJob job) {
-    String lockKey = "job_lock_" + job.getId();
-    String lockValue = lockService.tryLock(lockKey, nodeId, properties.getLockTimeoutSeconds());
-    if (lockValue == null) {
-      log.debug("Job {} is locked by another node", job.getJobName());
+  private void dispatch(ScheduledJob job, Semaphore permits) {
+    inFlight.add(job.getId());
+    try {
+      dispatchExecutor().execute(() -> {
+        try {
+          executeJob(job);
+        } catch (Exception e) {
+          log.error("Job {} (id={}) ended abnormally", job.getJobName(), job.getId(), e);
+        } finally {
+          inFlight.remove(job.getId());
+          release(permits);
+        }
+        notifyCompletion(job);
+      });
+    } catch (RejectedExecutionException e) {
+      inFlight.remove(job.getId());
+      release(permits);
+      log.warn("Job {} (id={}) was rejected by the executor, releasing claim", job.getJobName(),
+          job.getId());
+      try {
+        jobRepository.releaseClaim(job.getId(), nodeId);
+      } catch (Exception ex) {
+        log.error("Failed to release claim of job {} (id={})", job.getJobName(), job.getId(), ex);
+      }
+    }
+  }
+
+  private void notifyCompletion(ScheduledJob job) {
+    Consumer<ScheduledJob> listener = completionListener;
+    if (listener == null) {
       return;
     }
     try {
-      executeJob(job);
-    } finally {
-      lockService.unlock(lockKey, nodeId, lockValue);
+      listener.accept(job);
+    } catch (Exception e) {
+      log.warn("Job completion listener failed for job {} (id={})", job.getJobName(), job.getId(),
+          e);
+    }
+  }
+
+  private Executor dispatchExecutor() {
+    if (!properties.isVirtualThreadDispatch()) {
+      return jobExecutorPool;
+    }
+    ExecutorService executor = virtualThreadExecutor;
+    if (executor == null) {
+      synchronized (this) {
+        executor = virtualThreadExecutor;
+        if (executor == null) {
+          executor = Executors.newThreadPerTaskExecutor(
+              Thread.ofVirtual().name("job-dispatch-", 0).factory());
+          virtualThreadExecutor = executor;
+        }
+      }
+    }
+    return executor;
+  }
+
+  /**
+   * Permits of the group, or {@code null} when the group has no concurrency limit.
+   */
+  private Semaphore groupPermits(String group) {
+    String key = group == null ? "" : group;
+    int limit = properties.getGroupConcurrency().getOrDefault(key,
+        properties.getDefaultGroupConcurrency());
+    if (limit <= 0) {
+      return null;
+    }
+    return groupPermits.computeIfAbsent(key, g -> new Semaphore(limit));
+  }
+
+  private static void release(Semaphore permits) {
+    if (permits != null) {
+      permits.release();
     }
   }
 
@@ -120,6 +315,7 @@ public class JobSchedulerService {
     log.info("Executing job: {} (id={})", job.getJobName(), job.getId());
 
     job.setStatus(JobStatus.RUNNING);
+    job.setExecutorNode(nodeId);
     job.setLastExecuteTime(LocalDateTime.now());
     jobRepository.save(job);
 
@@ -151,7 +347,7 @@ public class JobSchedulerService {
 
   private void executeSimpleJob(ScheduledJob job) {
     long startTime = System.currentTimeMillis();
-    JobExecutionLog executionLog = initLog(job, null);
+    JobExecutionLog executionLog = initLog(job, null, nodeId);
 
     try {
       JobExecutor executor = executorRegistry.getExecutor(job.getBeanName());
@@ -174,82 +370,46 @@ public class JobSchedulerService {
   }
 
   // ---------------------------------------------------------------------------
-  // MAP_REDUCE job  (P0 fixes: injected pool, TransactionTemplate in lambdas)
+  // MAP_REDUCE job  (map shards run on any live node, reduce on the coordinator)
   // ---------------------------------------------------------------------------
 
   private void executeMapReduceJob(ScheduledJob job) {
     log.info("Executing MapReduce job: {}", job.getJobName());
-    List<JobShard> shards = createShards(job);
-    TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
-
-    // Map phase — each shard runs in the shared pool with its own transaction.
-    List<CompletableFuture<String>> futures = shards.stream()
-        .map(shard -> CompletableFuture.supplyAsync(
-            () -> txTemplate.execute(status -> executeMapPhase(job, shard)),
-            jobExecutorPool))
-        .toList();
+    JobExecutor executor = requireMapReduceExecutor(executorRegistry, job);
+    if (executor instanceof StreamingMapReduceJobExecutor) {
+      // Chunks left by an earlier run that ended before its reduce phase
+      mapOutputStore.deleteJob(job.getId());
+    }
+    createShards(job);
 
+    List<JobShard> shards = shardWorker.awaitShards(job);
     List<String> mapResults = new ArrayList<>();
-    for (CompletableFuture<String> future : futures) {
-      try {
-        String result = future.get(properties.getLockTimeoutSeconds(), TimeUnit.SECONDS);
-        if (result != null) {
-          mapResults.add(result);
-        }
-      } catch (Exception e) {
-        log.error("Map phase failed for job {}", job.getJobName(), e);
-        throw new RuntimeException("Map phase failed", e);
+    for (JobShard shard : shards) {
+      if (shard.getStatus() != ShardStatus.COMPLETED) {
+        throw new RuntimeException("Map phase failed for job " + job.getJobName()
+            + " at shard " + shard.getShardingItem());
       }
-    }
-
-    executeReducePhase(job, mapResults);
-  }
-
-  private String executeMapPhase(ScheduledJob job, JobShard shard) {
-    shard.setStatus(ShardStatus.RUNNING);
-    shard.setExecutorNode(nodeId);
-    shard.setStartTime(LocalDateTime.now());
-    shardRepository.save(shard);
-
-    try {
-      JobExecutor raw = executorRegistry.getExecutor(job.getBeanName());
-      if (!(raw instanceof MapReduceJobExecutor executor)) {
-        throw new IllegalArgumentException(
-            "Executor '" + job.getBeanName() + "' does not implement MapReduceJobExecutor "
-                + "(required for MAP_REDUCE job type). Actual type: " + raw.getClass().getName());
+      if (shard.getMapResult() != null) {
+        mapResults.add(shard.getMapResult());
       }
-      List<String> mapResult = executor.map(
-          buildContext(job, shard.getShardingItem()),
-          shard.getShardingItem(),
-          shard.getShardingParameter());
-
-      String result = String.join(",", mapResult);
-      shard.setMapResult(result);
-      shard.setStatus(ShardStatus.COMPLETED);
-      return result;
+    }
 
-    } catch (Exception e) {
-      shard.setStatus(ShardStatus.FAILED);
-      throw e;
-    } finally {
-      shard.setEndTime(LocalDateTime.now());
-      shardRepository.save(shard);
+    if (executor instanceof StreamingMapReduceJobExecutor streaming) {
+      // The map result of a streaming shard is the token of the attempt that wrote its chunks.
+      executeStreamingReducePhase(job, streaming, mapResults);
+    } else {
+      executeReducePhase(job, mapResults);
     }
   }
 
   private void executeReducePhase(ScheduledJob job, List<String> mapResults) {
     long startTime = System.currentTimeMillis();
     // Sentinel value -1 indicates the reduce phase in execution logs.
-    JobExecutionLog executionLog = initLog(job, -1);
+    JobExecutionLog executionLog = initLog(job, -1, nodeId);
 
     try {
-      JobExecutor raw = executorRegistry.getExecutor(job.getBeanName());
-      if (!(raw instanceof MapReduceJobExecutor executor)) {
-        throw new IllegalArgumentException(
-            "Executor '" + job.getBeanName() + "' does not implement MapReduceJobExecutor "
-                + "(required for MAP_REDUCE reduce phase). Actual type: " + raw.getClass()
-                .getName());
-      }
+      MapReduceJobExecutor executor = requireExecutor(job, MapReduceJobExecutor.class,
+          "MAP_REDUCE reduce phase");
       String result = executor.reduce(buildContext(job, null), mapResults);
       executionLog.setStatus(ExecutionStatus.SUCCESS);
       executionLog.setResult(result);
@@ -265,73 +425,79 @@ public class JobSchedulerService {
     }
   }
 
-  // ---------------------------------------------------------------------------
-  // SHARDING job  (P0 fixes: injected pool, TransactionTemplate in lambdas)
-  // ---------------------------------------------------------------------------
-
-  private void executeShardingJob(ScheduledJob job) {
-    List<JobShard> shards = createShards(job);
-    TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
-
-    List<CompletableFuture<Void>> futures = shards.stream()
-        .map(shard -> CompletableFuture.runAsync(
-            () -> txTemplate.executeWithoutResult(status -> executeShardingItem(job, shard)),
-            jobExecutorPool))
-        .toList();
-
-    boolean anyFailed = false;
-    for (CompletableFuture<Void> future : futures) {
-      try {
-        future.get(properties.getLockTimeoutSeconds(), TimeUnit.SECONDS);
-      } catch (Exception e) {
-        log.error("Sharding execution failed for job {}", job.getJobName(), e);
-        anyFailed = true;
-      }
-    }
-
-    if (anyFailed) {
-      throw new RuntimeException("One or more shards failed for job: " + job.getJobName());
-    }
-  }
-
-  private void executeShardingItem(ScheduledJob job, JobShard shard) {
+  /**
+   * Reduces the partitions of a streaming MapReduce job in parallel on {@code jobExecutorPool},
+   * each reading its chunks one at a time, then merges the partition results. Partitions the
+   * saturated pool rejects are reduced on the calling thread. The job's chunks are deleted
+   * afterwards whether the reduce succeeded or not.
+   */
+  private void executeStreamingReducePhase(ScheduledJob job,
+      StreamingMapReduceJobExecutor executor, List<String> attempts) {
     long startTime = System.currentTimeMillis();
-    JobExecutionLog executionLog = initLog(job, shard.getShardingItem());
-
-    shard.setStatus(ShardStatus.RUNNING);
-    shard.setExecutorNode(nodeId);
-    shard.setStartTime(LocalDateTime.now());
-    shardRepository.save(shard);
+    JobExecutionLog executionLog = initLog(job, -1, nodeId);
 
     try {
-      JobExecutor raw = executorRegistry.getExecutor(job.getBeanName());
-      if (!(raw instanceof ShardingJobExecutor executor)) {
-        throw new IllegalArgumentException(
-            "Executor '" + job.getBeanName() + "' does not implement ShardingJobExecutor "
-                + "(required for SHARDING job type). Actual type: " + raw.getClass().getName());
+      int partitions = Math.max(1, executor.reducePartitions(buildContext(job, null)));
+      List<CompletableFuture<String>> futures = new ArrayList<>(partitions);
+      Executor reduceExecutor = task -> {
+        try {
+          jobExecutorPool.execute(task);
+        } catch (RejectedExecutionException e) {
+          task.run();
+        }
+      };
+      for (int partition = 0; partition < partitions; partition++) {
+        int p = partition;
+        futures.add(CompletableFuture.supplyAsync(() -> executor.reduce(
+            buildContext(job, p), p, new ChunkedMapRecordIterator(mapOutputStore, job.getId(),
+                mapOutputStore.listChunks(job.getId(), p, attempts))), reduceExecutor));
       }
-      JobExecutionResult result = executor.executeSharding(
-          buildContext(job, shard.getShardingItem()),
-          shard.getShardingItem(),
-          shard.getShardingParameter());
-
-      shard.setStatus(result.isSuccess() ? ShardStatus.COMPLETED : ShardStatus.FAILED);
-      executionLog.setStatus(
-          result.isSuccess() ? ExecutionStatus.SUCCESS : ExecutionStatus.FAILURE);
-      executionLog.setResult(result.getResult());
-      executionLog.setErrorMessage(result.getErrorMessage());
+      List<String> partitionResults = new ArrayList<>(partitions);
+      for (int partition = 0; partition < partitions; partition++) {
+        try {
+          partitionResults.add(futures.get(partition)
+              .get(properties.getLockTimeoutSeconds(), TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException("Interrupted reducing partition " + partition, e);
+        } catch (Exception e) {
+          futures.forEach(f -> f.cancel(true));
+          throw new RuntimeException("Reduce of partition " + partition + " failed for job "
+              + job.getJobName(), e instanceof ExecutionException ? e.getCause() : e);
+        }
+      }
+      String result = executor.merge(buildContext(job, null), partitionResults);
+      executionLog.setStatus(ExecutionStatus.SUCCESS);
+      executionLog.setResult(result);
 
     } catch (Exception e) {
-      shard.setStatus(ShardStatus.FAILED);
       executionLog.setStatus(ExecutionStatus.FAILURE);
       executionLog.setErrorMessage(e.getMessage());
       throw e;
     } finally {
-      shard.setEndTime(LocalDateTime.now());
-      shardRepository.save(shard);
       executionLog.setEndTime(LocalDateTime.now());
       executionLog.setExecutionTime(System.currentTimeMillis() - startTime);
       executionLogRepository.save(executionLog);
+      try {
+        mapOutputStore.deleteJob(job.getId());
+      } catch (Exception e) {
+        log.warn("Failed to delete map chunks of job {}", job.getJobName(), e);
+      }
+    }
+  }
+
+  // ---------------------------------------------------------------------------
+  // SHARDING job  (shards run on any live node)
+  // ---------------------------------------------------------------------------
+
+  private void executeShardingJob(ScheduledJob job) {
+    requireExecutor(job, ShardingJobExecutor.class, "SHARDING");
+    createShards(job);
+
+    List<JobShard> shards = shardWorker.awaitShards(job);
+    long failed = shards.stream().filter(s -> s.getStatus() != ShardStatus.COMPLETED).count();
+    if (failed > 0) {
+      throw new RuntimeException(failed + " shard(s) failed for job: " + job.getJobName());
     }
   }
 
@@ -344,10 +510,9 @@ public class JobSchedulerService {
    *
    * <p><strong>Transaction isolation fix:</strong> this method runs in its own
    * {@code REQUIRES_NEW} transaction so that the inserted shard rows are
-   * <em>committed</em> before the child-thread {@link TransactionTemplate}s
-   * start.  Without this, child threads (which use separate DB connections with READ_COMMITTED
-   * isolation) would not see the parent's uncommitted inserts and would fail with "entity not
-   * found" or issue duplicate inserts.
+   * <em>committed</em> before any node tries to claim them.  Without this, claimers (which use
+   * separate DB connections with READ_COMMITTED isolation) would not see the parent's uncommitted
+   * inserts.
    */
   private List<JobShard> createShards(ScheduledJob job) {
     TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
@@ -373,7 +538,45 @@ public class JobSchedulerService {
     });
   }
 
-  private JobContext buildContext(ScheduledJob job, Integer shardingItem) {
+  /**
+   * Resolves the job's executor and checks that it implements the contract of its job type.
+   *
+   * @throws IllegalArgumentException if the executor is missing or of the wrong type
+   */
+  static <T extends JobExecutor> T requireExecutor(JobExecutorRegistry registry, ScheduledJob job,
+      Class<T> type, String usage) {
+    JobExecutor raw = registry.getExecutor(job.getBeanName());
+    if (!type.isInstance(raw)) {
+      throw new IllegalArgumentException(
+          "Executor '" + job.getBeanName() + "' does not implement " + type.getSimpleName()
+              + " (required for " + usage + " job type). Actual type: " + raw.getClass().getName());
+    }
+    return type.cast(raw);
+  }
+
+  /**
+   * Resolves the executor of a MAP_REDUCE job, either a {@link MapReduceJobExecutor} or a
+   * {@link StreamingMapReduceJobExecutor}.
+   *
+   * @throws IllegalArgumentException if the executor is missing or of neither type
+   */
+  static JobExecutor requireMapReduceExecutor(JobExecutorRegistry registry, ScheduledJob job) {
+    JobExecutor raw = registry.getExecutor(job.getBeanName());
+    if (!(raw instanceof MapReduceJobExecutor) && !(raw instanceof StreamingMapReduceJobExecutor)) {
+      throw new IllegalArgumentException(
+          "Executor '" + job.getBeanName() + "' implements neither MapReduceJobExecutor nor "
+              + "StreamingMapReduceJobExecutor (required for MAP_REDUCE job type). Actual type: "
+              + raw.getClass().getName());
+    }
+    return raw;
+  }
+
+  private <T extends JobExecutor> T requireExecutor(ScheduledJob job, Class<T> type,
+      String usage) {
+    return requireExecutor(executorRegistry, job, type, usage);
+  }
+
+  static JobContext buildContext(ScheduledJob job, Integer shardingItem) {
     return JobContext.builder()
         .jobId(job.getId())
         .jobName(job.getJobName())
@@ -385,7 +588,7 @@ public class JobSchedulerService {
         .build();
   }
 
-  private JobExecutionLog initLog(ScheduledJob job, Integer shardingItem) {
+  static JobExecutionLog initLog(ScheduledJob job, Integer shardingItem, String nodeId) {
     JobExecutionLog log = new JobExecutionLog();
     log.setJobId(job.getId());
     log.setJobName(job.getJobName());
@@ -397,14 +600,15 @@ public class JobSchedulerService {
   }
 
   /**
-   * Advances the job's {@code nextExecuteTime} based on its cron expression.
+   * Advances the job's {@code nextExecuteTime} based on its cron expression. The parsed expression
+   * is cached per job and only parsed again when the job's expression changes.
    *
    * <p>If the cron expression cannot be parsed, the job is set to FAILED to
    * prevent an infinite re-scheduling loop (P0 fix).
    */
   private void updateNextExecuteTime(ScheduledJob job) {
     try {
-      CronExpression cron = CronExpression.parse(job.getCronExpression());
+      CronExpression cron = cronCache.get(job.getId(), job.getCronExpression());
       LocalDateTime next = cron.next(LocalDateTime.now());
       if (next == null) {
         log.error("Cron expression '{}' has no future fire times for job '{}'; marking FAILED.",
@@ -437,24 +641,4 @@ public class JobSchedulerService {
           maxRetry);
     }
   }
-
-  /**
-   * 生成稳定的节点标识，格式为 {@code hostname|local-ip}。
-   *
-   * <p>稳定性保证：只要物理节点不变，重启后生成的 nodeId 完全相同，
-   * 这允许应用启动时只删除该节点遗留的分布式锁（包括未过期的）。
-   *
-   * @return 节点标识字符串，格式 {@code hostname|192.168.1.100}
-   */
-  private String buildNodeId() {
-    try {
-      String hostname = java.net.InetAddress.getLocalHost().getHostName();
-      String ip = java.net.InetAddress.getLocalHost().getHostAddress();
-      return hostname + "|" + ip;
-    } catch (java.net.UnknownHostException e) {
-      // Fallback if hostname resolution fails
-      log.warn("Failed to resolve hostname, using localhost fallback", e);
-      return "localhost|127.0.0.1";
-    }
-  }
 }
@@ -0,0 +1,79 @@
+package cloud.xcan.angus.job.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Identity of this scheduler process, written as the claim owner of jobs and shards, as the owner
+ * of distributed locks and in execution-log records.
+ *
+ * <p>格式：{@code hostname|ip|pid}（如 {@code server-001|192.168.1.100|4711}）。hostname + IP
+ * 标识物理节点，进程号区分同一主机上的多个调度进程，使它们的认领与锁互不干扰。
+ *
+ * <p>进程重启后进程号通常会变化（容器内一般保持为 1），因此启动时不能只按当前标识清理遗留数据：
+ * {@link #isLeftOver(String)} 识别本机已退出的进程（以及本进程的上一次运行）留下的标识。
+ */
+@Slf4j
+public final class NodeIdentity {
+
+  private static final String HOST_ID = buildHostId();
+  private static final long PID = ProcessHandle.current().pid();
+  private static final String NODE_ID = HOST_ID + "|" + PID;
+
+  private NodeIdentity() {
+  }
+
+  /**
+   * @return the identifier of this process, {@code hostname|ip|pid}
+   */
+  public static String current() {
+    return NODE_ID;
+  }
+
+  /**
+   * @return the identifier of this host, {@code hostname|ip}, which prefixes the identifier of
+   * every process on it
+   */
+  public static String host() {
+    return HOST_ID;
+  }
+
+  /**
+   * Whether {@code nodeId} was written by a process of this host that is no longer running, so
+   * that its claims and locks can be released on startup without touching other live processes.
+   *
+   * <p>Identifiers with the current pid are treated as left over by a previous run of this
+   * process (containers restart with the same pid), so this must only be called on startup,
+   * before this process claims anything. Identifiers in the legacy {@code hostname|ip} format
+   * of this host are left over as well.
+   */
+  public static boolean isLeftOver(String nodeId) {
+    if (nodeId == null || !nodeId.startsWith(HOST_ID)) {
+      return false;
+    }
+    if (nodeId.length() == HOST_ID.length()) {
+      return true;
+    }
+    if (nodeId.charAt(HOST_ID.length()) != '|') {
+      return false;
+    }
+    try {
+      long pid = Long.parseLong(nodeId.substring(HOST_ID.length() + 1));
+      return pid == PID || ProcessHandle.of(pid).isEmpty();
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private static String buildHostId() {
+    try {
+      InetAddress local = InetAddress.getLocalHost();
+      return local.getHostName() + "|" + local.getHostAddress();
+    } catch (UnknownHostException e) {
+      // Fallback if hostname resolution fails
+      log.warn("Failed to resolve hostname, using localhost fallback", e);
+      return "localhost|127.0.0.1";
+    }
+  }
+}
@@ -0,0 +1,357 @@
+package cloud.xcan.angus.job.service;
+
+import static cloud.xcan.angus.job.service.JobSchedulerService.buildContext;
+import static cloud.xcan.angus.job.service.JobSchedulerService.initLog;
+import static cloud.xcan.angus.job.service.JobSchedulerService.requireMapReduceExecutor;
+import static cloud.xcan.angus.job.service.JobSchedulerService.requireExecutor;
+
+import cloud.xcan.angus.job.entity.JobExecutionLog;
+import cloud.xcan.angus.job.entity.JobShard;
+import cloud.xcan.angus.job.entity.ScheduledJob;
+import cloud.xcan.angus.job.enums.ExecutionStatus;
+import cloud.xcan.angus.job.enums.JobType;
+import cloud.xcan.angus.job.enums.ShardStatus;
+import cloud.xcan.angus.job.executor.JobExecutor;
+import cloud.xcan.angus.job.executor.JobExecutorRegistry;
+import cloud.xcan.angus.job.executor.MapReduceJobExecutor;
+import cloud.xcan.angus.job.executor.ShardingJobExecutor;
+import cloud.xcan.angus.job.executor.StreamingMapReduceJobExecutor;
+import cloud.xcan.angus.job.jpa.JobExecutionLogRepository;
+import cloud.xcan.angus.job.jpa.JobShardRepository;
+import cloud.xcan.angus.job.jpa.ScheduledJobRepository;
+import cloud.xcan.angus.job.mapreduce.MapOutputStore;
+import cloud.xcan.angus.job.mapreduce.SpillingMapOutputCollector;
+import cloud.xcan.angus.job.model.JobContext;
+import cloud.xcan.angus.job.model.JobExecutionResult;
+import cloud.xcan.angus.job.properties.JobProperties;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Claims and runs shards of SHARDING and MAP_REDUCE jobs on every live node.
+ *
+ * <h3>Leases</h3>
+ * <ul>
+ *   <li>Every {@code shardPollIntervalMs} this node claims, up to its free
+ *       {@code maxConcurrentShards} slots, PENDING shards of running jobs and RUNNING shards whose
+ *       lease expired — the latter are stolen from nodes that died or stalled. The claim is one
+ *       conditional UPDATE, so a shard is claimed by one node only.</li>
+ *   <li>Leases of the shards running here are renewed every {@code shardHeartbeatIntervalMs}.</li>
+ *   <li>The outcome of a shard is only recorded while this node still holds it, so a node that
+ *       lost its lease cannot overwrite the outcome of the node that took over.</li>
+ * </ul>
+ *
+ * <h3>Transactions</h3>
+ * Each shard runs in its own {@link TransactionTemplate} because Spring's {@code @Transactional}
+ * does not propagate across thread boundaries. Its outcome and execution log are written after
+ * that transaction ends, so a failed shard is reported as FAILED even though its work was rolled
+ * back.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ShardWorkerService {
+
+  private final ScheduledJobRepository jobRepository;
+  private final JobShardRepository shardRepository;
+  private final JobExecutionLogRepository executionLogRepository;
+  private final JobExecutorRegistry executorRegistry;
+  private final JobProperties properties;
+  private final ThreadPoolTaskExecutor jobExecutorPool;
+  private final PlatformTransactionManager transactionManager;
+  private final MapOutputStore mapOutputStore;
+
+  /**
+   * Identifier of this process, written as the shard lease owner and in execution-log records;
+   * see {@link NodeIdentity}.
+   */
+  private final String nodeId = NodeIdentity.current();
+
+  /**
+   * Ids of the shards claimed by this node and not finished yet.
+   */
+  private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+  // ---------------------------------------------------------------------------
+  // Claim
+  // ---------------------------------------------------------------------------
+
+  /**
+   * Claims claimable shards up to the free slots of this node and runs them on the shared
+   * job-executor pool.
+   */
+  @Scheduled(fixedDelayString = "${angus.job.shard-poll-interval-ms:1000}")
+  public synchronized void pollShards() {
+    int capacity = properties.getMaxConcurrentShards() - running.size();
+    if (capacity <= 0) {
+      return;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    List<JobShard> candidates;
+    Map<Long, ScheduledJob> jobs = new HashMap<>();
+    try {
+      // Over-fetch so that shards of jobs this node cannot run do not starve the others.
+      candidates = shardRepository.findClaimableShards(now, PageRequest.of(0, capacity * 4));
+      if (candidates.isEmpty()) {
+        return;
+      }
+      Set<Long> jobIds = new LinkedHashSet<>();
+      candidates.forEach(shard -> jobIds.add(shard.getJobId()));
+      jobRepository.findAllById(jobIds).forEach(job -> jobs.put(job.getId(), job));
+    } catch (Exception e) {
+      log.error("Failed to load claimable shards", e);
+      return;
+    }
+
+    List<Long> ids = new ArrayList<>();
+    for (JobShard shard : candidates) {
+      if (ids.size() >= capacity) {
+        break;
+      }
+      ScheduledJob job = jobs.get(shard.getJobId());
+      if (job != null && !running.contains(shard.getId()) && hasExecutor(job)) {
+        ids.add(shard.getId());
+      }
+    }
+    if (ids.isEmpty()) {
+      return;
+    }
+
+    List<JobShard> claimed;
+    try {
+      int count = shardRepository.claimShards(ids, nodeId, now,
+          now.plusSeconds(properties.getShardLeaseSeconds()));
+      claimed = count > 0
+          ? shardRepository.findByIdInAndStatusAndExecutorNode(ids, ShardStatus.RUNNING, nodeId)
+          : List.of();
+    } catch (Exception e) {
+      log.error("Failed to claim {} shard(s)", ids.size(), e);
+      return;
+    }
+    for (JobShard shard : claimed) {
+      if (running.add(shard.getId())) {
+        dispatch(jobs.get(shard.getJobId()), shard);
+      }
+    }
+  }
+
+  /**
+   * Renews the leases of the shards running on this node.
+   */
+  @Scheduled(fixedDelayString = "${angus.job.shard-heartbeat-interval-ms:10000}")
+  public void heartbeat() {
+    if (running.isEmpty()) {
+      return;
+    }
+    List<Long> ids = List.copyOf(running);
+    try {
+      int renewed = shardRepository.renewLeases(ids, nodeId,
+          LocalDateTime.now().plusSeconds(properties.getShardLeaseSeconds()));
+      if (renewed < ids.size()) {
+        log.warn("Lost the lease of {} of {} running shard(s); their outcome will be discarded",
+            ids.size() - renewed, ids.size());
+      }
+    } catch (Exception e) {
+      log.error("Failed to renew shard leases", e);
+    }
+  }
+
+  // ---------------------------------------------------------------------------
+  // Coordinator side
+  // ---------------------------------------------------------------------------
+
+  /**
+   * Waits until every shard of the job's current execution has reported, helping to run them
+   * meanwhile. Unfinished shards are failed when {@code lockTimeoutSeconds} elapses.
+   *
+   * @return the shards ordered by sharding item, each COMPLETED or FAILED
+   * @throws RuntimeException if the shards did not finish in time or the wait was interrupted
+   */
+  public List<JobShard> awaitShards(ScheduledJob job) {
+    long deadline = System.currentTimeMillis() + properties.getLockTimeoutSeconds() * 1000L;
+    // Read outside the caller's transaction and persistence context, which would otherwise keep
+    // returning the shard states of the first read.
+    TransactionTemplate freshRead = new TransactionTemplate(transactionManager);
+    freshRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    freshRead.setReadOnly(true);
+    while (true) {
+      pollShards();
+      List<JobShard> shards = new ArrayList<>(
+          freshRead.execute(tx -> shardRepository.findByJobId(job.getId())));
+      if (shards.stream().allMatch(s -> s.getStatus() == ShardStatus.COMPLETED
+          || s.getStatus() == ShardStatus.FAILED)) {
+        shards.sort(Comparator.comparing(JobShard::getShardingItem));
+        return shards;
+      }
+      if (System.currentTimeMillis() >= deadline) {
+        shardRepository.failUnfinishedShards(job.getId(), LocalDateTime.now());
+        throw new RuntimeException("Timed out waiting for shards of job: " + job.getJobName());
+      }
+      try {
+        Thread.sleep(Math.max(10, properties.getShardPollIntervalMs()));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted waiting for shards of job: " + job.getJobName(),
+            e);
+      }
+    }
+  }
+
+  /**
+   * Ids of the shards currently claimed and running on this node.
+   */
+  public Set<Long> getRunningShards() {
+    return Set.copyOf(running);
+  }
+
+  // ---------------------------------------------------------------------------
+  // Execution
+  // ---------------------------------------------------------------------------
+
+  private void dispatch(ScheduledJob job, JobShard shard) {
+    try {
+      jobExecutorPool.execute(() -> {
+        try {
+          runShard(job, shard);
+        } catch (Exception e) {
+          log.error("Shard {} of job {} ended abnormally", shard.getShardingItem(),
+              job.getJobName(), e);
+        } finally {
+          running.remove(shard.getId());
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      running.remove(shard.getId());
+      log.warn("Shard {} of job {} was rejected by the executor, releasing it",
+          shard.getShardingItem(), job.getJobName());
+      try {
+        shardRepository.releaseShard(shard.getId(), nodeId);
+      } catch (Exception ex) {
+        log.error("Failed to release shard {} of job {}", shard.getShardingItem(),
+            job.getJobName(), ex);
+      }
+    }
+  }
+
+  void runShard(ScheduledJob job, JobShard shard) {
+    long startTime = System.currentTimeMillis();
+    // MAP_REDUCE map shards are not logged individually; the reduce phase is.
+    JobExecutionLog executionLog = job.getJobType() == JobType.SHARDING
+        ? initLog(job, shard.getShardingItem(), nodeId) : null;
+
+    TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+    ShardStatus status;
+    String mapResult = null;
+    try {
+      if (job.getJobType() == JobType.MAP_REDUCE) {
+        mapResult = txTemplate.execute(tx -> runMapShard(job, shard));
+        status = ShardStatus.COMPLETED;
+      } else {
+        JobExecutionResult result = txTemplate.execute(tx -> runShardingItem(job, shard));
+        boolean success = result != null && result.isSuccess();
+        status = success ? ShardStatus.COMPLETED : ShardStatus.FAILED;
+        if (executionLog != null && result != null) {
+          executionLog.setStatus(success ? ExecutionStatus.SUCCESS : ExecutionStatus.FAILURE);
+          executionLog.setResult(result.getResult());
+          executionLog.setErrorMessage(result.getErrorMessage());
+        }
+      }
+    } catch (Exception e) {
+      log.error("Shard {} of job {} failed", shard.getShardingItem(), job.getJobName(), e);
+      status = ShardStatus.FAILED;
+      if (executionLog != null) {
+        executionLog.setStatus(ExecutionStatus.FAILURE);
+        executionLog.setErrorMessage(e.getMessage());
+      }
+    }
+
+    if (shardRepository.completeShard(shard.getId(), nodeId, status, mapResult,
+        LocalDateTime.now()) == 0) {
+      log.warn("Shard {} of job {} was taken over by another node; discarding its outcome",
+          shard.getShardingItem(), job.getJobName());
+    }
+    if (executionLog != null) {
+      if (executionLog.getStatus() == ExecutionStatus.RUNNING) {
+        executionLog.setStatus(ExecutionStatus.FAILURE);
+      }
+      executionLog.setEndTime(LocalDateTime.now());
+      executionLog.setExecutionTime(System.currentTimeMillis() - startTime);
+      executionLogRepository.save(executionLog);
+    }
+  }
+
+  private String runMapShard(ScheduledJob job, JobShard shard) {
+    JobExecutor raw = requireMapReduceExecutor(executorRegistry, job);
+    if (raw instanceof StreamingMapReduceJobExecutor streaming) {
+      return runStreamingMapShard(job, shard, streaming);
+    }
+    MapReduceJobExecutor executor = (MapReduceJobExecutor) raw;
+    List<String> mapResult = executor.map(
+        buildContext(job, shard.getShardingItem()),
+        shard.getShardingItem(),
+        shard.getShardingParameter());
+    return String.join(",", mapResult);
+  }
+
+  /**
+   * Runs a streaming map shard, spilling its records under a fresh attempt token.
+   *
+   * @return the attempt token, stored as the shard's map result so that the reduce phase only
+   * reads the chunks of the attempt that completed the shard
+   */
+  private String runStreamingMapShard(ScheduledJob job, JobShard shard,
+      StreamingMapReduceJobExecutor executor) {
+    String attempt = UUID.randomUUID().toString().replace("-", "");
+    JobContext context = buildContext(job, shard.getShardingItem());
+    JobProperties.MapOutput config = properties.getMapOutput();
+    SpillingMapOutputCollector output = new SpillingMapOutputCollector(mapOutputStore,
+        job.getId(), shard.getShardingItem(), attempt,
+        Math.max(1, executor.reducePartitions(context)), executor.combiner(),
+        config.getChunkRecords(), config.getBufferBytes());
+    executor.map(context, shard.getShardingItem(), shard.getShardingParameter(), output);
+    output.flush();
+    log.debug("Shard {} of job {} emitted {} record(s) in {} chunk(s)", shard.getShardingItem(),
+        job.getJobName(), output.getRecordCount(), output.getChunkCount());
+    return attempt;
+  }
+
+  private JobExecutionResult runShardingItem(ScheduledJob job, JobShard shard) {
+    ShardingJobExecutor executor = requireExecutor(executorRegistry, job,
+        ShardingJobExecutor.class, "SHARDING");
+    return executor.executeSharding(
+        buildContext(job, shard.getShardingItem()),
+        shard.getShardingItem(),
+        shard.getShardingParameter());
+  }
+
+  /**
+   * Whether the job's executor bean exists on this node. Nodes running different applications
+   * leave each other's shards alone instead of failing them.
+   */
+  private boolean hasExecutor(ScheduledJob job) {
+    try {
+      executorRegistry.getExecutor(job.getBeanName());
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package cloud.xcan.angus.job.trigger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.scheduling.support.CronExpression;
+
+/**
+ * Parsed {@link CronExpression} per job, so that advancing a job's next fire time does not parse
+ * its expression again on every run.
+ *
+ * <p>Each entry remembers the expression it was parsed from; a job whose expression was changed
+ * through the management API is parsed again on its next lookup.
+ */
+public class CronExpressionCache {
+
+  private final Map<Long, Parsed> cache = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the parsed expression of the job.
+   *
+   * @param jobId      job id; {@code null} bypasses the cache
+   * @param expression the job's current cron expression
+   * @throws IllegalArgumentException if the expression is invalid
+   */
+  public CronExpression get(Long jobId, String expression) {
+    if (jobId == null) {
+      return CronExpression.parse(expression);
+    }
+    Parsed parsed = cache.get(jobId);
+    if (parsed == null || !parsed.expression().equals(expression)) {
+      parsed = new Parsed(expression, CronExpression.parse(expression));
+      cache.put(jobId, parsed);
+    }
+    return parsed.cron();
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  private record Parsed(String expression, CronExpression cron) {
+
+  }
+}
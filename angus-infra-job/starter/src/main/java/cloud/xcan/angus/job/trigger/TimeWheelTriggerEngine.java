@@ -0,0 +1,193 @@
+package cloud.xcan.angus.job.trigger;
+
+import cloud.xcan.angus.job.entity.ScheduledJob;
+import cloud.xcan.angus.job.enums.JobStatus;
+import cloud.xcan.angus.job.jpa.ScheduledJobRepository;
+import cloud.xcan.angus.job.properties.JobProperties;
+import cloud.xcan.angus.job.service.JobSchedulerService;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Fires scheduled jobs at their exact {@code nextExecuteTime} instead of on the next poll.
+ *
+ * <h3>Prefetch</h3>
+ * Every {@code prefetchIntervalMs} the READY jobs firing within the next {@code prefetchWindowMs}
+ * are loaded with one query and put into a {@link HierarchicalTimingWheel}. Jobs that finish on
+ * this node are put back into the wheel right away when their next fire time is inside the window,
+ * so short-period jobs do not wait for the next prefetch.
+ *
+ * <h3>Fire</h3>
+ * A single {@code job-time-wheel} thread advances the wheel every {@code tickMs} and hands the
+ * expired jobs to {@link JobSchedulerService#triggerJobs}, which claims and dispatches them. Stale
+ * entries, i.e. jobs paused, rescheduled or claimed by another node since the prefetch, are
+ * harmless: the claim only takes jobs that are still READY and due. A job that was due but could
+ * not be claimed for lack of free slots is loaded again by the next prefetch.
+ */
+@Slf4j
+public class TimeWheelTriggerEngine implements SmartLifecycle {
+
+  private final ScheduledJobRepository jobRepository;
+  private final JobSchedulerService scheduler;
+  private final long tickMs;
+  private final long prefetchIntervalMs;
+  private final long prefetchWindowMs;
+  private final int prefetchLimit;
+
+  // Guarded by this
+  private final HierarchicalTimingWheel<ScheduledJob> wheel;
+  private final Map<Long, Long> scheduled = new HashMap<>();
+  private final List<ScheduledJob> overdue = new ArrayList<>();
+
+  private volatile boolean running;
+  private Thread ticker;
+
+  public TimeWheelTriggerEngine(ScheduledJobRepository jobRepository,
+      JobSchedulerService scheduler, JobProperties.TimeWheel config) {
+    this.jobRepository = jobRepository;
+    this.scheduler = scheduler;
+    this.tickMs = Math.max(1, config.getTickMs());
+    this.prefetchIntervalMs = Math.max(tickMs, config.getPrefetchIntervalMs());
+    this.prefetchWindowMs = Math.max(prefetchIntervalMs + tickMs, config.getPrefetchWindowMs());
+    this.prefetchLimit = Math.max(1, config.getPrefetchLimit());
+    this.wheel = new HierarchicalTimingWheel<>(tickMs, Math.max(2, config.getWheelSize()),
+        System.currentTimeMillis());
+  }
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    running = true;
+    scheduler.setCompletionListener(this::schedule);
+    ticker = new Thread(this::run, "job-time-wheel");
+    ticker.setDaemon(true);
+    ticker.start();
+    log.info("Job time wheel started (tick={}ms, prefetch every {}ms for the next {}ms)", tickMs,
+        prefetchIntervalMs, prefetchWindowMs);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    scheduler.setCompletionListener(null);
+    ticker.interrupt();
+    ticker = null;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Puts the job into the wheel if it is READY and fires within the prefetch window.
+   *
+   * @return {@code true} if the job was added, {@code false} if it is not due soon or already in
+   * the wheel with the same fire time
+   */
+  public boolean schedule(ScheduledJob job) {
+    if (job.getId() == null || job.getStatus() != JobStatus.READY
+        || job.getNextExecuteTime() == null) {
+      return false;
+    }
+    long deadline = toEpochMs(job.getNextExecuteTime());
+    if (deadline >= System.currentTimeMillis() + prefetchWindowMs) {
+      return false;
+    }
+    synchronized (this) {
+      Long previous = scheduled.put(job.getId(), deadline);
+      if (previous != null && previous == deadline) {
+        return false;
+      }
+      if (!wheel.add(job, deadline)) {
+        overdue.add(job);
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Number of distinct jobs waiting in the wheel.
+   */
+  public synchronized int getScheduledCount() {
+    return scheduled.size();
+  }
+
+  void prefetch(long nowMs) {
+    LocalDateTime until = toLocalDateTime(nowMs + prefetchWindowMs);
+    List<ScheduledJob> jobs = jobRepository.findByStatusAndNextExecuteTimeBefore(JobStatus.READY,
+        until, PageRequest.of(0, prefetchLimit, Sort.by("nextExecuteTime")));
+    int added = 0;
+    for (ScheduledJob job : jobs) {
+      if (schedule(job)) {
+        added++;
+      }
+    }
+    if (added > 0) {
+      log.debug("Prefetched {} job(s) firing before {}", added, until);
+    }
+    if (jobs.size() >= prefetchLimit) {
+      log.warn("Job prefetch hit its limit of {}; later jobs in the window wait for the next "
+          + "prefetch", prefetchLimit);
+    }
+  }
+
+  void fire(long nowMs) {
+    List<ScheduledJob> due;
+    synchronized (this) {
+      due = new ArrayList<>(overdue);
+      overdue.clear();
+      due.addAll(wheel.advance(nowMs));
+      for (ScheduledJob job : due) {
+        scheduled.remove(job.getId(), toEpochMs(job.getNextExecuteTime()));
+      }
+    }
+    if (!due.isEmpty()) {
+      scheduler.triggerJobs(due);
+    }
+  }
+
+  private void run() {
+    long nextPrefetch = 0;
+    while (running) {
+      long now = System.currentTimeMillis();
+      try {
+        if (now >= nextPrefetch) {
+          nextPrefetch = now + prefetchIntervalMs;
+          prefetch(now);
+        }
+        fire(now);
+      } catch (Exception e) {
+        log.error("Job time wheel tick failed", e);
+      }
+      try {
+        Thread.sleep(Math.max(1, tickMs - System.currentTimeMillis() % tickMs));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private static long toEpochMs(LocalDateTime time) {
+    return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  private static LocalDateTime toLocalDateTime(long epochMs) {
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault());
+  }
+}
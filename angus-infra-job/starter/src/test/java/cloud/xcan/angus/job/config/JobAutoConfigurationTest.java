@@ -3,7 +3,10 @@ package cloud.xcan.angus.job.config;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import cloud.xcan.angus.job.autoconfigure.JobAutoConfiguration;
+import cloud.xcan.angus.job.mapreduce.LocalFileMapOutputStore;
+import cloud.xcan.angus.job.mapreduce.MapOutputStore;
 import cloud.xcan.angus.job.properties.JobProperties;
+import java.nio.file.Path;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
@@ -32,4 +35,21 @@ class JobAutoConfigurationTest {
               .isEqualTo(3);
         });
   }
+
+  @Test
+  void registersFileMapOutputStoreWhenConfigured() {
+    new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(JobAutoConfiguration.class))
+        .withPropertyValues(
+            "angus.job.map-output.store=file",
+            "angus.job.map-output.directory=/tmp/angus-job-test-map-output"
+        )
+        .run(ctx -> {
+          assertThat(ctx).hasSingleBean(MapOutputStore.class);
+          assertThat(ctx.getBean(MapOutputStore.class))
+              .isInstanceOf(LocalFileMapOutputStore.class);
+          assertThat(ctx.getBean(LocalFileMapOutputStore.class).getDirectory())
+              .isEqualTo(Path.of("/tmp/angus-job-test-map-output"));
+        });
+  }
 }
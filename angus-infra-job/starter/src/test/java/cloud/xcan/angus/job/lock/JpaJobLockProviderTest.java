@@ -0,0 +1,116 @@
+package cloud.xcan.angus.job.lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cloud.xcan.angus.job.jpa.DistributedLockRepository;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+@ExtendWith(MockitoExtension.class)
+class JpaJobLockProviderTest {
+
+  private static final Duration LEASE = Duration.ofSeconds(30);
+
+  @Mock
+  private DistributedLockRepository lockRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private TransactionStatus transactionStatus;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+  }
+
+  private JpaJobLockProvider provider(LockDialect dialect) {
+    return new JpaJobLockProvider(lockRepository, dialect, transactionManager);
+  }
+
+  @Test
+  void postgresAcquiresWithOneUpsert() {
+    when(lockRepository.upsertLockIfExpired(eq("k"), eq("v1"), eq("n"), any(), any()))
+        .thenReturn(1);
+    when(lockRepository.upsertLockIfExpired(eq("k"), eq("v2"), eq("n2"), any(), any()))
+        .thenReturn(0);
+
+    assertThat(provider(LockDialect.POSTGRES).tryLock("k", "n", "v1", LEASE)).isTrue();
+    assertThat(provider(LockDialect.POSTGRES).tryLock("k", "n2", "v2", LEASE)).isFalse();
+    verify(lockRepository, never()).takeOverExpiredLock(any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void mysqlTakesOverExpiredLockOnlyWhenInsertIsIgnored() {
+    when(lockRepository.insertLockIfAbsent(eq("free"), any(), any(), any(), any())).thenReturn(1);
+    when(lockRepository.insertLockIfAbsent(eq("held"), any(), any(), any(), any())).thenReturn(0);
+    when(lockRepository.takeOverExpiredLock(eq("held"), any(), any(), any(), any()))
+        .thenReturn(0);
+
+    JpaJobLockProvider provider = provider(LockDialect.MYSQL);
+    assertThat(provider.tryLock("free", "n", "v", LEASE)).isTrue();
+    assertThat(provider.tryLock("held", "n", "v", LEASE)).isFalse();
+    verify(lockRepository, never()).takeOverExpiredLock(eq("free"), any(), any(), any(), any());
+  }
+
+  @Test
+  void genericInsertsOnlyMissingLocksAndNeverThrowsOnContention() {
+    when(lockRepository.takeOverExpiredLock(any(), any(), any(), any(), any())).thenReturn(0);
+    when(lockRepository.existsById("held")).thenReturn(true);
+    when(lockRepository.existsById("raced")).thenReturn(false);
+    when(lockRepository.saveAndFlush(any()))
+        .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+    JpaJobLockProvider provider = provider(LockDialect.AUTO);
+    assertThat(provider.getDialect()).isEqualTo(LockDialect.GENERIC);
+    assertThat(provider.tryLock("held", "n", "v", LEASE)).isFalse();
+    assertThat(provider.tryLock("raced", "n", "v", LEASE)).isFalse();
+    verify(lockRepository).saveAndFlush(any());
+  }
+
+  @Test
+  void unlockDeletesOnlyTheHeldLock() {
+    when(lockRepository.deleteHeldLock("k", "n", "v")).thenReturn(1);
+    when(lockRepository.deleteHeldLock("k", "n", "other")).thenReturn(0);
+
+    assertThat(provider(LockDialect.GENERIC).unlock("k", "n", "v")).isTrue();
+    assertThat(provider(LockDialect.GENERIC).unlock("k", "n", "other")).isFalse();
+  }
+
+  @Test
+  void renewUpdatesAllLocksInOneStatement() {
+    Map<String, String> locks = Map.of("a", "va", "b", "vb");
+    when(lockRepository.renewHeldLocks(eq("n"), any(), any())).thenReturn(2);
+
+    assertThat(provider(LockDialect.MYSQL).renew("n", locks, LEASE))
+        .containsExactlyInAnyOrder("a", "b");
+    verify(lockRepository, never()).findHeldLockKeys(anyString(), any());
+  }
+
+  @Test
+  void renewReportsLostLocks() {
+    Map<String, String> locks = Map.of("a", "va", "b", "vb");
+    when(lockRepository.renewHeldLocks(eq("n"), any(), any())).thenReturn(1);
+    when(lockRepository.findHeldLockKeys(eq("n"), any())).thenReturn(List.of("b"));
+
+    assertThat(provider(LockDialect.MYSQL).renew("n", locks, LEASE)).containsExactly("b");
+    assertThat(provider(LockDialect.MYSQL).renew("n", Map.of(), LEASE)).isEmpty();
+  }
+}
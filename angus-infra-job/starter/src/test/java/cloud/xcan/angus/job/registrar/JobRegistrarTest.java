@@ -18,8 +18,10 @@ import cloud.xcan.angus.job.model.CreateJobRequest;
 import cloud.xcan.angus.job.model.JobContext;
 import cloud.xcan.angus.job.model.JobExecutionResult;
 import cloud.xcan.angus.job.service.JobManagementService;
+import cloud.xcan.angus.job.service.NodeIdentity;
 import java.time.LocalDateTime;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.DisplayName;
@@ -602,4 +604,33 @@ class JobRegistrarTest {
           argThat(req -> req != null && req.getMaxRetryCount() == 3));
     }
   }
+
+  // ---------------------------------------------------------------------------
+
+  @Nested
+  @DisplayName("Startup cleanup — left-over locks and RUNNING jobs of this host")
+  class StartupCleanup {
+
+    @Test
+    @DisplayName("only releases what exited processes of this host left behind")
+    void cleansOnlyLeftOverNodes() throws Exception {
+      String exited = NodeIdentity.host() + "|" + Long.MAX_VALUE;
+      String live = NodeIdentity.host() + "|" + ProcessHandle.current().parent().orElseThrow()
+          .pid();
+      when(lockRepository.findOwnersLike(NodeIdentity.host() + "%"))
+          .thenReturn(List.of(exited, live));
+      when(lockRepository.deleteByOwner(exited)).thenReturn(2);
+      when(jobRepository.findRunningExecutorNodesLike(NodeIdentity.host() + "%"))
+          .thenReturn(List.of(live, NodeIdentity.current()));
+      when(jobRepository.resetStaleRunningJobs(NodeIdentity.current())).thenReturn(1);
+
+      new JobRegistrar(jobManagementService, jobRepository, lockRepository, Map.of())
+          .run(NO_ARGS);
+
+      verify(lockRepository).deleteByOwner(exited);
+      verify(lockRepository, never()).deleteByOwner(live);
+      verify(jobRepository).resetStaleRunningJobs(NodeIdentity.current());
+      verify(jobRepository, never()).resetStaleRunningJobs(live);
+    }
+  }
 }
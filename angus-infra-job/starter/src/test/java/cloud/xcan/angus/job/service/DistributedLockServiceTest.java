@@ -2,32 +2,32 @@ package cloud.xcan.angus.job.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import cloud.xcan.angus.job.entity.DistributedLock;
-import cloud.xcan.angus.job.jpa.DistributedLockRepository;
+import cloud.xcan.angus.job.lock.JobLockProvider;
 import cloud.xcan.angus.job.properties.JobProperties;
-import java.time.LocalDateTime;
-import java.util.Optional;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.dao.DataIntegrityViolationException;
 
 @ExtendWith(MockitoExtension.class)
 class DistributedLockServiceTest {
 
   @Mock
-  private DistributedLockRepository lockRepository;
+  private JobLockProvider lockProvider;
 
   @Mock
   private JobProperties properties;
@@ -35,9 +35,12 @@ class DistributedLockServiceTest {
   @InjectMocks
   private DistributedLockService lockService;
 
+  private final JobProperties.Lock lockProperties = new JobProperties.Lock();
+
   @BeforeEach
   void setUp() {
     lenient().when(properties.getLockTimeoutSeconds()).thenReturn(30);
+    lenient().when(properties.getLock()).thenReturn(lockProperties);
   }
 
   // ---------------------------------------------------------------------------
@@ -45,33 +48,56 @@ class DistributedLockServiceTest {
   // ---------------------------------------------------------------------------
 
   @Test
-  @DisplayName("tryLock returns lockValue when no existing lock")
+  @DisplayName("tryLock returns lockValue and leaves the lock to its timeout by default")
   void tryLock_success() {
-    when(lockRepository.deleteExpiredLockByKey(eq("key1"), any())).thenReturn(0);
-    when(lockRepository.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
+    when(lockProvider.tryLock(eq("key1"), eq("node-A"), anyString(), eq(Duration.ofSeconds(30))))
+        .thenReturn(true);
 
     String lockValue = lockService.tryLock("key1", "node-A");
 
     assertThat(lockValue).isNotNull().isNotBlank();
-    ArgumentCaptor<DistributedLock> captor = ArgumentCaptor.forClass(DistributedLock.class);
-    verify(lockRepository).saveAndFlush(captor.capture());
-    DistributedLock saved = captor.getValue();
-    assertThat(saved.getLockKey()).isEqualTo("key1");
-    assertThat(saved.getOwner()).isEqualTo("node-A");
-    assertThat(saved.getLockValue()).isEqualTo(lockValue);
-    assertThat(saved.getExpireTime()).isAfter(LocalDateTime.now());
+    verify(lockProvider).tryLock("key1", "node-A", lockValue, Duration.ofSeconds(30));
+    assertThat(lockService.getHeldLockKeys()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("tryLock with keepAlive keeps the lock for the watchdog")
+  void tryLock_keepAlive() {
+    when(lockProvider.tryLock(any(), any(), any(), any())).thenReturn(true);
+
+    assertThat(lockService.tryLock("key1", "node-A", 30, true)).isNotNull();
+    assertThat(lockService.getHeldLockKeys()).containsExactly("key1");
   }
 
   @Test
-  @DisplayName("tryLock returns null when another node holds the lock (constraint violation)")
+  @DisplayName("tryLock returns null when another node holds the lock")
   void tryLock_contention() {
-    when(lockRepository.deleteExpiredLockByKey(any(), any())).thenReturn(0);
-    when(lockRepository.saveAndFlush(any()))
-        .thenThrow(new DataIntegrityViolationException("duplicate key"));
+    when(lockProvider.tryLock(any(), any(), any(), any())).thenReturn(false);
 
     String lockValue = lockService.tryLock("key1", "node-B");
 
     assertThat(lockValue).isNull();
+    assertThat(lockService.getHeldLockKeys()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("tryLock keeps locks alive unless opted out when the watchdog is enabled")
+  void tryLock_watchdogEnabled() {
+    lockProperties.setWatchdogEnabled(true);
+    when(lockProvider.tryLock(any(), any(), any(), any())).thenReturn(true);
+
+    assertThat(lockService.tryLock("k", "o", 10)).isNotNull();
+    assertThat(lockService.tryLock("k2", "o", 10, false)).isNotNull();
+    assertThat(lockService.getHeldLockKeys()).containsExactly("k");
+  }
+
+  @Test
+  @DisplayName("tryLock returns null on unexpected exception")
+  void tryLock_unexpectedException() {
+    when(lockProvider.tryLock(any(), any(), any(), any()))
+        .thenThrow(new RuntimeException("db down"));
+
+    assertThat(lockService.tryLock("k", "o", 10)).isNull();
   }
 
   // ---------------------------------------------------------------------------
@@ -79,107 +105,84 @@ class DistributedLockServiceTest {
   // ---------------------------------------------------------------------------
 
   @Test
-  @DisplayName("unlock deletes lock when owner and lockValue match")
+  @DisplayName("unlock releases the lock and stops renewing it")
   void unlock_success() {
-    DistributedLock lock = new DistributedLock();
-    lock.setLockKey("key1");
-    lock.setOwner("node-A");
-    lock.setLockValue("uuid-123");
-    when(lockRepository.findById("key1")).thenReturn(Optional.of(lock));
+    when(lockProvider.tryLock(any(), any(), any(), any())).thenReturn(true);
+    String lockValue = lockService.tryLock("key1", "node-A", 30, true);
+    when(lockProvider.unlock("key1", "node-A", lockValue)).thenReturn(true);
 
-    lockService.unlock("key1", "node-A", "uuid-123");
+    lockService.unlock("key1", "node-A", lockValue);
 
-    verify(lockRepository).deleteById("key1");
+    verify(lockProvider).unlock("key1", "node-A", lockValue);
+    assertThat(lockService.getHeldLockKeys()).isEmpty();
   }
 
   @Test
-  @DisplayName("unlock is rejected when lockValue does not match")
+  @DisplayName("unlock with a foreign lockValue keeps the held lock renewed")
   void unlock_wrongLockValue() {
-    DistributedLock lock = new DistributedLock();
-    lock.setLockKey("key1");
-    lock.setOwner("node-A");
-    lock.setLockValue("uuid-correct");
-    when(lockRepository.findById("key1")).thenReturn(Optional.of(lock));
+    when(lockProvider.tryLock(any(), any(), any(), any())).thenReturn(true);
+    lockService.tryLock("key1", "node-A", 30, true);
+    when(lockProvider.unlock("key1", "node-A", "uuid-wrong")).thenReturn(false);
 
     lockService.unlock("key1", "node-A", "uuid-wrong");
 
-    verify(lockRepository, never()).deleteById(any());
+    assertThat(lockService.getHeldLockKeys()).containsExactly("key1");
   }
 
   @Test
-  @DisplayName("unlock is rejected when owner does not match")
-  void unlock_wrongOwner() {
-    DistributedLock lock = new DistributedLock();
-    lock.setLockKey("key1");
-    lock.setOwner("node-A");
-    lock.setLockValue("uuid-123");
-    when(lockRepository.findById("key1")).thenReturn(Optional.of(lock));
-
-    lockService.unlock("key1", "node-B", "uuid-123");
-
-    verify(lockRepository, never()).deleteById(any());
+  @DisplayName("unlock swallows provider errors")
+  void unlock_exceptionSwallowed() {
+    when(lockProvider.unlock("k", "o", "v")).thenThrow(new RuntimeException("db"));
+    lockService.unlock("k", "o", "v");
   }
 
-  @Test
-  @DisplayName("tryLock two-arg delegates default timeout from properties")
-  void tryLock_defaultTimeoutOverload() {
-    when(lockRepository.deleteExpiredLockByKey(eq("k"), any())).thenReturn(0);
-    when(lockRepository.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
-
-    String v = lockService.tryLock("k", "owner");
-
-    assertThat(v).isNotNull();
-  }
+  // ---------------------------------------------------------------------------
+  // renew
+  // ---------------------------------------------------------------------------
 
   @Test
-  @DisplayName("tryLock returns null on unexpected exception")
-  void tryLock_unexpectedException() {
-    when(lockRepository.deleteExpiredLockByKey(any(), any()))
-        .thenThrow(new RuntimeException("db down"));
+  @DisplayName("renewLock reports whether the provider renewed the lock")
+  void renewLock() {
+    when(lockProvider.renew("node", Map.of("k", "uuid"), Duration.ofSeconds(120)))
+        .thenReturn(Set.of("k"));
+    when(lockProvider.renew("node", Map.of("k2", "other"), Duration.ofSeconds(120)))
+        .thenReturn(Set.of());
 
-    assertThat(lockService.tryLock("k", "o", 10)).isNull();
+    assertThat(lockService.renewLock("k", "node", "uuid", 120)).isTrue();
+    assertThat(lockService.renewLock("k2", "node", "other", 120)).isFalse();
   }
 
   @Test
-  @DisplayName("renewLock extends expiry when owner and value match")
-  void renewLock_success() {
-    DistributedLock lock = new DistributedLock();
-    lock.setLockKey("k");
-    lock.setOwner("node");
-    lock.setLockValue("uuid");
-    when(lockRepository.findById("k")).thenReturn(Optional.of(lock));
-    when(lockRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+  @DisplayName("watchdog renews held locks in one batch per owner and forgets lost ones")
+  void renewHeldLocks_batchesPerOwner() {
+    when(lockProvider.tryLock(any(), any(), any(), any())).thenReturn(true);
+    String a = lockService.tryLock("a", "node", 30, true);
+    String b = lockService.tryLock("b", "node", 30, true);
+    when(lockProvider.renew("node", Map.of("a", a, "b", b), Duration.ofSeconds(30)))
+        .thenReturn(Set.of("a"));
 
-    assertThat(lockService.renewLock("k", "node", "uuid", 120)).isTrue();
-  }
+    lockService.renewHeldLocks();
 
-  @Test
-  @DisplayName("renewLock returns false when lock missing or mismatch")
-  void renewLock_failure() {
-    when(lockRepository.findById("k")).thenReturn(Optional.empty());
-    assertThat(lockService.renewLock("k", "n", "v", 10)).isFalse();
-
-    DistributedLock lock = new DistributedLock();
-    lock.setOwner("a");
-    lock.setLockValue("b");
-    when(lockRepository.findById("k2")).thenReturn(Optional.of(lock));
-    assertThat(lockService.renewLock("k2", "wrong", "b", 10)).isFalse();
+    assertThat(lockService.getHeldLockKeys()).containsExactly("a");
   }
 
   @Test
-  @DisplayName("unlock swallows persistence errors")
-  void unlock_exceptionSwallowed() {
-    when(lockRepository.findById("k")).thenThrow(new RuntimeException("db"));
-    lockService.unlock("k", "o", "v");
+  @DisplayName("watchdog keeps locks when the renewal fails")
+  void renewHeldLocks_providerError() {
+    when(lockProvider.tryLock(any(), any(), any(), any())).thenReturn(true);
+    lockService.tryLock("a", "node", 30, true);
+    when(lockProvider.renew(eq("node"), anyMap(), any())).thenThrow(new RuntimeException("db"));
+
+    lockService.renewHeldLocks();
+
+    assertThat(lockService.getHeldLockKeys()).containsExactly("a");
   }
 
   @Test
-  @DisplayName("unlock is a no-op when lock has already expired and been cleaned")
-  void unlock_lockAlreadyGone() {
-    when(lockRepository.findById("key1")).thenReturn(Optional.empty());
-
-    lockService.unlock("key1", "node-A", "any-value");
+  @DisplayName("watchdog is idle without held locks")
+  void renewHeldLocks_idle() {
+    lockService.renewHeldLocks();
 
-    verify(lockRepository, never()).deleteById(any());
+    verify(lockProvider, never()).renew(any(), any(), any());
   }
 }
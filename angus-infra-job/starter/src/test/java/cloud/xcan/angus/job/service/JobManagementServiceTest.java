@@ -16,6 +16,7 @@ import cloud.xcan.angus.job.enums.JobType;
 import cloud.xcan.angus.job.jpa.JobExecutionLogRepository;
 import cloud.xcan.angus.job.jpa.JobShardRepository;
 import cloud.xcan.angus.job.jpa.ScheduledJobRepository;
+import cloud.xcan.angus.job.mapreduce.MapOutputStore;
 import cloud.xcan.angus.job.model.CreateJobRequest;
 import cloud.xcan.angus.job.model.UpdateJobRequest;
 import jakarta.persistence.EntityNotFoundException;
@@ -44,6 +45,8 @@ class JobManagementServiceTest {
   private JobExecutionLogRepository executionLogRepository;
   @Mock
   private JobShardRepository shardRepository;
+  @Mock
+  private MapOutputStore mapOutputStore;
 
   @InjectMocks
   private JobManagementService service;
@@ -265,7 +268,7 @@ class JobManagementServiceTest {
   // ---------------------------------------------------------------------------
 
   @Test
-  @DisplayName("deleteJob cascades to execution logs and shards")
+  @DisplayName("deleteJob cascades to execution logs, shards and map chunks")
   void deleteJob_cascade() {
     ScheduledJob job = readyJob(5L);
     when(jobRepository.findById(5L)).thenReturn(Optional.of(job));
@@ -274,6 +277,7 @@ class JobManagementServiceTest {
 
     verify(executionLogRepository).deleteByJobId(5L);
     verify(shardRepository).deleteByJobId(5L);
+    verify(mapOutputStore).deleteJob(5L);
     verify(jobRepository).deleteById(5L);
   }
 
@@ -2,6 +2,7 @@ package cloud.xcan.angus.job.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -10,6 +11,7 @@ import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -19,18 +21,29 @@ import cloud.xcan.angus.job.entity.ScheduledJob;
 import cloud.xcan.angus.job.enums.ExecutionStatus;
 import cloud.xcan.angus.job.enums.JobStatus;
 import cloud.xcan.angus.job.enums.JobType;
+import cloud.xcan.angus.job.enums.ShardStatus;
 import cloud.xcan.angus.job.executor.JobExecutor;
 import cloud.xcan.angus.job.executor.JobExecutorRegistry;
 import cloud.xcan.angus.job.executor.MapReduceJobExecutor;
 import cloud.xcan.angus.job.executor.ShardingJobExecutor;
+import cloud.xcan.angus.job.executor.StreamingMapReduceJobExecutor;
 import cloud.xcan.angus.job.jpa.JobExecutionLogRepository;
 import cloud.xcan.angus.job.jpa.JobShardRepository;
 import cloud.xcan.angus.job.jpa.ScheduledJobRepository;
+import cloud.xcan.angus.job.mapreduce.MapChunkCodec;
+import cloud.xcan.angus.job.mapreduce.MapOutputStore;
 import cloud.xcan.angus.job.model.JobExecutionResult;
+import cloud.xcan.angus.job.model.MapRecord;
 import cloud.xcan.angus.job.properties.JobProperties;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -56,11 +69,13 @@ class JobSchedulerServiceTest {
   @Mock
   private JobShardRepository shardRepository;
   @Mock
-  private DistributedLockService lockService;
-  @Mock
   private JobExecutorRegistry executorRegistry;
   @Mock
   private JobProperties properties;
+  @Mock
+  private ShardWorkerService shardWorker;
+  @Mock
+  private MapOutputStore mapOutputStore;
 
   private ThreadPoolTaskExecutor jobExecutorPool;
   private PlatformTransactionManager transactionManager;
@@ -78,15 +93,19 @@ class JobSchedulerServiceTest {
     lenient().when(properties.getLockTimeoutSeconds()).thenReturn(60);
     lenient().when(properties.getRetryBackoffMinutes()).thenReturn(5);
     lenient().when(properties.getMaxJobsPerScan()).thenReturn(100);
+    lenient().when(properties.getMaxConcurrentJobs()).thenReturn(5);
+    lenient().when(properties.getGroupConcurrency()).thenReturn(new HashMap<>());
+    lenient().when(properties.getTimeWheel()).thenReturn(new JobProperties.TimeWheel());
     scheduler = new JobSchedulerService(
         jobRepository,
         executionLogRepository,
         shardRepository,
-        lockService,
         executorRegistry,
         properties,
         jobExecutorPool,
-        transactionManager
+        transactionManager,
+        shardWorker,
+        mapOutputStore
     );
     lenient().when(jobRepository.save(any(ScheduledJob.class)))
         .thenAnswer(inv -> inv.getArgument(0));
@@ -101,18 +120,135 @@ class JobSchedulerServiceTest {
   }
 
   @Test
-  @DisplayName("scanAndExecuteJobs skips when lock not acquired")
-  void scan_skipsWhenLockContended() {
+  @DisplayName("scanAndExecuteJobs skips jobs claimed by another node")
+  void scan_skipsWhenClaimedElsewhere() {
     ScheduledJob job = readyJob(1L, JobType.SIMPLE);
     when(jobRepository.findByStatusAndNextExecuteTimeBefore(
         eq(JobStatus.READY), any(LocalDateTime.class), any()))
         .thenReturn(List.of(job));
-    when(lockService.tryLock(anyString(), anyString(), anyInt())).thenReturn(null);
+    when(jobRepository.claimDueJobs(anyCollection(), anyString(), any(LocalDateTime.class)))
+        .thenReturn(0);
+
+    scheduler.scanAndExecuteJobs();
+
+    verify(jobRepository, never()).findByIdInAndStatusAndExecutorNode(anyCollection(), any(),
+        anyString());
+    verify(executorRegistry, never()).getExecutor(anyString());
+    assertThat(scheduler.getInFlightJobs()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("scanAndExecuteJobs dispatches claimed jobs to the executor pool")
+  void scan_dispatchesClaimedJobs() throws Exception {
+    ScheduledJob job = readyJob(2L, JobType.SIMPLE);
+    when(jobRepository.findByStatusAndNextExecuteTimeBefore(
+        eq(JobStatus.READY), any(LocalDateTime.class), any()))
+        .thenReturn(List.of(job));
+    stubClaimAll(List.of(job));
+    CountDownLatch release = new CountDownLatch(1);
+    JobExecutor exec = mock(JobExecutor.class);
+    when(exec.execute(any())).thenAnswer(inv -> {
+      release.await(5, TimeUnit.SECONDS);
+      return JobExecutionResult.builder().success(true).build();
+    });
+    when(executorRegistry.getExecutor("exec")).thenReturn(exec);
+
+    scheduler.scanAndExecuteJobs();
+
+    assertThat(scheduler.getInFlightJobs()).containsExactly(2L);
+    // A second scan must not dispatch the running job again
+    scheduler.scanAndExecuteJobs();
+    release.countDown();
+    awaitIdle();
+
+    verify(exec, times(1)).execute(any());
+    assertThat(job.getStatus()).isEqualTo(JobStatus.READY);
+  }
+
+  @Test
+  @DisplayName("scanAndExecuteJobs releases the claim of a job the executor pool rejects")
+  void scan_releasesClaimWhenPoolRejects() {
+    ScheduledJob job = readyJob(3L, JobType.SIMPLE);
+    when(jobRepository.findByStatusAndNextExecuteTimeBefore(
+        eq(JobStatus.READY), any(LocalDateTime.class), any()))
+        .thenReturn(List.of(job));
+    stubClaimAll(List.of(job));
+    jobExecutorPool.shutdown();
 
     scheduler.scanAndExecuteJobs();
 
-    verify(lockService).tryLock(anyString(), anyString(), anyInt());
+    verify(jobRepository).releaseClaim(eq(3L), anyString());
     verify(executorRegistry, never()).getExecutor(anyString());
+    assertThat(scheduler.getInFlightJobs()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("scanAndExecuteJobs claims no more jobs of a group than its limit")
+  void scan_respectsGroupConcurrency() throws Exception {
+    when(properties.getGroupConcurrency()).thenReturn(new HashMap<>(Map.of("g", 1)));
+    ScheduledJob first = readyJob(3L, JobType.SIMPLE);
+    ScheduledJob second = readyJob(4L, JobType.SIMPLE);
+    when(jobRepository.findByStatusAndNextExecuteTimeBefore(
+        eq(JobStatus.READY), any(LocalDateTime.class), any()))
+        .thenReturn(List.of(first, second));
+    stubClaimAll(List.of(first, second));
+    JobExecutor exec = mock(JobExecutor.class);
+    when(exec.execute(any())).thenReturn(JobExecutionResult.builder().success(true).build());
+    when(executorRegistry.getExecutor("exec")).thenReturn(exec);
+
+    scheduler.scanAndExecuteJobs();
+    awaitIdle();
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+    verify(jobRepository).claimDueJobs(ids.capture(), anyString(), any(LocalDateTime.class));
+    assertThat(ids.getValue()).containsExactly(3L);
+  }
+
+  @Test
+  @DisplayName("scanAndExecuteJobs does not claim beyond maxConcurrentJobs")
+  void scan_respectsMaxConcurrentJobs() {
+    when(properties.getMaxConcurrentJobs()).thenReturn(0);
+
+    scheduler.scanAndExecuteJobs();
+
+    verify(jobRepository, never()).findByStatusAndNextExecuteTimeBefore(any(), any(), any());
+    verify(jobRepository, never()).claimDueJobs(anyCollection(), anyString(), any());
+  }
+
+  @Test
+  @DisplayName("scanAndExecuteJobs leaves due jobs to the time wheel when it is enabled")
+  void scan_disabledByTimeWheel() {
+    JobProperties.TimeWheel timeWheel = new JobProperties.TimeWheel();
+    timeWheel.setEnabled(true);
+    when(properties.getTimeWheel()).thenReturn(timeWheel);
+
+    scheduler.scanAndExecuteJobs();
+
+    verify(jobRepository, never()).findByStatusAndNextExecuteTimeBefore(any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("triggerJobs dispatches fired jobs and reports their completion")
+  void trigger_notifiesCompletionListener() throws Exception {
+    ScheduledJob job = readyJob(5L, JobType.SIMPLE);
+    stubClaimAll(List.of(job));
+    JobExecutor exec = mock(JobExecutor.class);
+    when(exec.execute(any())).thenReturn(JobExecutionResult.builder().success(true).build());
+    when(executorRegistry.getExecutor("exec")).thenReturn(exec);
+    CountDownLatch completed = new CountDownLatch(1);
+    List<ScheduledJob> completedJobs = new ArrayList<>();
+    scheduler.setCompletionListener(j -> {
+      completedJobs.add(j);
+      completed.countDown();
+    });
+
+    scheduler.triggerJobs(List.of(job));
+
+    assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(completedJobs).containsExactly(job);
+    assertThat(job.getStatus()).isEqualTo(JobStatus.READY);
+    assertThat(job.getNextExecuteTime()).isAfter(LocalDateTime.now().minusSeconds(1));
   }
 
   @Test
@@ -181,23 +317,28 @@ class JobSchedulerServiceTest {
   }
 
   @Test
-  @DisplayName("executeJob MAP_REDUCE runs map and reduce")
+  @DisplayName("executeJob MAP_REDUCE reduces the map results of all shards")
   void mapReduce_success() {
     ScheduledJob job = readyJob(20L, JobType.MAP_REDUCE);
     job.setShardingCount(2);
     job.setShardingParameter("a,b");
     stubSaveAllShardsWithIds();
+    when(shardWorker.awaitShards(job)).thenReturn(List.of(
+        shard(0, ShardStatus.COMPLETED, "x"), shard(1, ShardStatus.COMPLETED, "y")));
 
     MapReduceJobExecutor mr = mock(MapReduceJobExecutor.class);
-    when(mr.map(any(), anyInt(), anyString())).thenReturn(List.of("x"));
     when(mr.reduce(any(), anyList())).thenReturn("merged");
     when(executorRegistry.getExecutor("exec")).thenReturn(mr);
 
     scheduler.executeJob(job);
 
     assertThat(job.getStatus()).isEqualTo(JobStatus.READY);
-    verify(mr, atLeastOnce()).map(any(), anyInt(), anyString());
-    verify(mr).reduce(any(), anyList());
+    verify(mr).reduce(any(), eq(List.of("x", "y")));
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<JobShard>> created = ArgumentCaptor.forClass(List.class);
+    verify(shardRepository).saveAll(created.capture());
+    assertThat(created.getValue()).extracting(JobShard::getShardingParameter)
+        .containsExactly("a", "b");
     ArgumentCaptor<JobExecutionLog> logCap = ArgumentCaptor.forClass(JobExecutionLog.class);
     verify(executionLogRepository, atLeastOnce()).save(logCap.capture());
     assertThat(logCap.getAllValues()).anyMatch(
@@ -205,54 +346,124 @@ class JobSchedulerServiceTest {
             && ExecutionStatus.SUCCESS.equals(l.getStatus()));
   }
 
+  @Test
+  @DisplayName("executeJob MAP_REDUCE streams each partition of a streaming executor")
+  void mapReduce_streaming() {
+    ScheduledJob job = readyJob(23L, JobType.MAP_REDUCE);
+    stubSaveAllShardsWithIds();
+    when(shardWorker.awaitShards(job)).thenReturn(List.of(
+        shard(0, ShardStatus.COMPLETED, "a0"), shard(1, ShardStatus.COMPLETED, "a1")));
+    when(mapOutputStore.listChunks(eq(23L), anyInt(), eq(List.of("a0", "a1"))))
+        .thenAnswer(inv -> List.of("c" + inv.getArgument(1)));
+    when(mapOutputStore.readChunk(eq(23L), anyString())).thenAnswer(inv -> MapChunkCodec.encode(
+        List.of(MapRecord.of("k", inv.getArgument(1)), MapRecord.of("k", "x"))));
+
+    StreamingMapReduceJobExecutor smr = mock(StreamingMapReduceJobExecutor.class);
+    when(smr.reducePartitions(any())).thenReturn(2);
+    when(smr.reduce(any(), anyInt(), any())).thenAnswer(inv -> {
+      Iterator<MapRecord> records = inv.getArgument(2);
+      StringBuilder values = new StringBuilder();
+      records.forEachRemaining(r -> values.append(r.valueAsString()));
+      return values.toString();
+    });
+    when(smr.merge(any(), anyList())).thenAnswer(inv -> String.join("|",
+        inv.<List<String>>getArgument(1)));
+    when(executorRegistry.getExecutor("exec")).thenReturn(smr);
+
+    scheduler.executeJob(job);
+
+    assertThat(job.getStatus()).isEqualTo(JobStatus.READY);
+    assertThat(job.getRetryCount()).isEqualTo(0);
+    verify(smr).merge(any(), eq(List.of("c0x", "c1x")));
+    // Once before the map phase for leftovers, once after the reduce phase
+    verify(mapOutputStore, times(2)).deleteJob(23L);
+  }
+
+  @Test
+  @DisplayName("executeJob MAP_REDUCE skips reduce when a map shard failed")
+  void mapReduce_mapFailure() {
+    ScheduledJob job = readyJob(22L, JobType.MAP_REDUCE);
+    stubSaveAllShardsWithIds();
+    when(shardWorker.awaitShards(job)).thenReturn(List.of(
+        shard(0, ShardStatus.COMPLETED, "x"), shard(1, ShardStatus.FAILED, null)));
+    MapReduceJobExecutor mr = mock(MapReduceJobExecutor.class);
+    when(executorRegistry.getExecutor("exec")).thenReturn(mr);
+
+    scheduler.executeJob(job);
+
+    verify(mr, never()).reduce(any(), anyList());
+    assertThat(job.getRetryCount()).isEqualTo(1);
+  }
+
   @Test
   @DisplayName("executeJob MAP_REDUCE fails when executor is wrong type")
   void mapReduce_wrongExecutorType() {
     ScheduledJob job = readyJob(21L, JobType.MAP_REDUCE);
     job.setShardingCount(1);
-    stubSaveAllShardsWithIds();
     when(executorRegistry.getExecutor("exec")).thenReturn(mock(JobExecutor.class));
 
     scheduler.executeJob(job);
 
     assertThat(job.getStatus()).isEqualTo(JobStatus.READY);
     assertThat(job.getRetryCount()).isEqualTo(1);
+    verify(shardRepository, never()).saveAll(anyList());
+    verify(shardWorker, never()).awaitShards(any());
   }
 
   @Test
-  @DisplayName("executeJob SHARDING aggregates shard futures")
+  @DisplayName("executeJob SHARDING succeeds when every shard completed")
   void sharding_success() {
     ScheduledJob job = readyJob(30L, JobType.SHARDING);
     job.setShardingCount(2);
     job.setShardingParameter("p1,p2");
     stubSaveAllShardsWithIds();
-
-    ShardingJobExecutor se = mock(ShardingJobExecutor.class);
-    when(se.executeSharding(any(), anyInt(), anyString())).thenReturn(
-        JobExecutionResult.builder().success(true).result("ok").build());
-    when(executorRegistry.getExecutor("exec")).thenReturn(se);
+    when(shardWorker.awaitShards(job)).thenReturn(List.of(
+        shard(0, ShardStatus.COMPLETED, null), shard(1, ShardStatus.COMPLETED, null)));
+    when(executorRegistry.getExecutor("exec")).thenReturn(mock(ShardingJobExecutor.class));
 
     scheduler.executeJob(job);
 
     assertThat(job.getStatus()).isEqualTo(JobStatus.READY);
-    verify(se, atLeastOnce()).executeSharding(any(), anyInt(), anyString());
+    assertThat(job.getRetryCount()).isEqualTo(0);
   }
 
   @Test
-  @DisplayName("executeJob SHARDING fails when any shard throws")
+  @DisplayName("executeJob SHARDING fails when any shard failed")
   void sharding_shardFailure() {
     ScheduledJob job = readyJob(31L, JobType.SHARDING);
     job.setShardingCount(1);
     stubSaveAllShardsWithIds();
-
-    ShardingJobExecutor se = mock(ShardingJobExecutor.class);
-    when(se.executeSharding(any(), anyInt(), anyString()))
-        .thenThrow(new RuntimeException("shard down"));
-    when(executorRegistry.getExecutor("exec")).thenReturn(se);
+    when(shardWorker.awaitShards(job)).thenReturn(List.of(shard(0, ShardStatus.FAILED, null)));
+    when(executorRegistry.getExecutor("exec")).thenReturn(mock(ShardingJobExecutor.class));
 
     scheduler.executeJob(job);
 
-    assertThat(job.getRetryCount()).isGreaterThanOrEqualTo(1);
+    assertThat(job.getRetryCount()).isEqualTo(1);
+  }
+
+  private void stubClaimAll(List<ScheduledJob> scanned) {
+    when(jobRepository.claimDueJobs(anyCollection(), anyString(), any(LocalDateTime.class)))
+        .thenAnswer(inv -> ((Collection<?>) inv.getArgument(0)).size());
+    when(jobRepository.findByIdInAndStatusAndExecutorNode(anyCollection(), eq(JobStatus.RUNNING),
+        anyString())).thenAnswer(inv -> {
+      Collection<?> ids = inv.getArgument(0);
+      List<ScheduledJob> jobs = new ArrayList<>();
+      for (ScheduledJob job : scanned) {
+        if (ids.contains(job.getId())) {
+          job.setStatus(JobStatus.RUNNING);
+          jobs.add(job);
+        }
+      }
+      return jobs;
+    });
+  }
+
+  private void awaitIdle() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (!scheduler.getInFlightJobs().isEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(scheduler.getInFlightJobs()).isEmpty();
   }
 
   private void stubSaveAllShardsWithIds() {
@@ -267,6 +478,14 @@ class JobSchedulerServiceTest {
     });
   }
 
+  private static JobShard shard(int item, ShardStatus status, String mapResult) {
+    JobShard shard = new JobShard();
+    shard.setShardingItem(item);
+    shard.setStatus(status);
+    shard.setMapResult(mapResult);
+    return shard;
+  }
+
   private static ScheduledJob readyJob(Long id, JobType type) {
     ScheduledJob job = new ScheduledJob();
     job.setId(id);
@@ -0,0 +1,36 @@
+package cloud.xcan.angus.job.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class NodeIdentityTest {
+
+  private static final String HOST = NodeIdentity.host();
+
+  @Test
+  @DisplayName("current id is the host id followed by the pid")
+  void current_isHostAndPid() {
+    assertThat(NodeIdentity.current()).isEqualTo(HOST + "|" + ProcessHandle.current().pid());
+  }
+
+  @Test
+  @DisplayName("ids of exited processes and earlier runs of this process are left over")
+  void isLeftOver_exitedOrCurrentProcess() {
+    assertThat(NodeIdentity.isLeftOver(HOST + "|" + Long.MAX_VALUE)).isTrue();
+    assertThat(NodeIdentity.isLeftOver(NodeIdentity.current())).isTrue();
+    assertThat(NodeIdentity.isLeftOver(HOST)).isTrue();
+  }
+
+  @Test
+  @DisplayName("ids of live processes, other hosts and unknown formats are not left over")
+  void isLeftOver_liveOrForeign() {
+    long parent = ProcessHandle.current().parent().orElseThrow().pid();
+    assertThat(NodeIdentity.isLeftOver(HOST + "|" + parent)).isFalse();
+    assertThat(NodeIdentity.isLeftOver("other-host|10.0.0.1|" + Long.MAX_VALUE)).isFalse();
+    assertThat(NodeIdentity.isLeftOver(HOST + "|worker-1")).isFalse();
+    assertThat(NodeIdentity.isLeftOver(HOST + "0|" + Long.MAX_VALUE)).isFalse();
+    assertThat(NodeIdentity.isLeftOver(null)).isFalse();
+  }
+}
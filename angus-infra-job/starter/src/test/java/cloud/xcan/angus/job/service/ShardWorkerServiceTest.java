@@ -0,0 +1,307 @@
+package cloud.xcan.angus.job.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cloud.xcan.angus.job.entity.JobExecutionLog;
+import cloud.xcan.angus.job.entity.JobShard;
+import cloud.xcan.angus.job.entity.ScheduledJob;
+import cloud.xcan.angus.job.enums.ExecutionStatus;
+import cloud.xcan.angus.job.enums.JobStatus;
+import cloud.xcan.angus.job.enums.JobType;
+import cloud.xcan.angus.job.enums.ShardStatus;
+import cloud.xcan.angus.job.executor.JobExecutorRegistry;
+import cloud.xcan.angus.job.executor.MapOutputCollector;
+import cloud.xcan.angus.job.executor.MapReduceJobExecutor;
+import cloud.xcan.angus.job.executor.ShardingJobExecutor;
+import cloud.xcan.angus.job.executor.StreamingMapReduceJobExecutor;
+import cloud.xcan.angus.job.jpa.JobExecutionLogRepository;
+import cloud.xcan.angus.job.jpa.JobShardRepository;
+import cloud.xcan.angus.job.jpa.ScheduledJobRepository;
+import cloud.xcan.angus.job.mapreduce.MapChunkCodec;
+import cloud.xcan.angus.job.mapreduce.MapOutputStore;
+import cloud.xcan.angus.job.model.JobExecutionResult;
+import cloud.xcan.angus.job.model.MapRecord;
+import cloud.xcan.angus.job.properties.JobProperties;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+@ExtendWith(MockitoExtension.class)
+class ShardWorkerServiceTest {
+
+  @Mock
+  private ScheduledJobRepository jobRepository;
+  @Mock
+  private JobShardRepository shardRepository;
+  @Mock
+  private JobExecutionLogRepository executionLogRepository;
+  @Mock
+  private JobExecutorRegistry executorRegistry;
+  @Mock
+  private JobProperties properties;
+  @Mock
+  private MapOutputStore mapOutputStore;
+
+  private ThreadPoolTaskExecutor jobExecutorPool;
+  private ShardWorkerService worker;
+
+  @BeforeEach
+  void setUp() {
+    jobExecutorPool = new ThreadPoolTaskExecutor();
+    jobExecutorPool.setCorePoolSize(2);
+    jobExecutorPool.setMaxPoolSize(4);
+    jobExecutorPool.setQueueCapacity(100);
+    jobExecutorPool.setThreadNamePrefix("test-shard-exec-");
+    jobExecutorPool.initialize();
+    lenient().when(properties.getMaxConcurrentShards()).thenReturn(5);
+    lenient().when(properties.getShardLeaseSeconds()).thenReturn(30);
+    lenient().when(properties.getShardPollIntervalMs()).thenReturn(10L);
+    worker = new ShardWorkerService(jobRepository, shardRepository, executionLogRepository,
+        executorRegistry, properties, jobExecutorPool, new NoOpTransactionManager(),
+        mapOutputStore);
+    lenient().when(executionLogRepository.save(any(JobExecutionLog.class)))
+        .thenAnswer(inv -> inv.getArgument(0));
+  }
+
+  @AfterEach
+  void tearDown() {
+    jobExecutorPool.shutdown();
+  }
+
+  @Test
+  @DisplayName("pollShards claims a shard and records its outcome")
+  void poll_runsClaimedShard() {
+    ScheduledJob job = runningJob(1L, JobType.SHARDING);
+    JobShard shard = pendingShard(10L, 1L, 0);
+    stubClaimable(job, shard);
+    ShardingJobExecutor se = mock(ShardingJobExecutor.class);
+    when(se.executeSharding(any(), eq(0), eq("p0"))).thenReturn(
+        JobExecutionResult.builder().success(true).result("ok").build());
+    when(executorRegistry.getExecutor("exec")).thenReturn(se);
+
+    worker.pollShards();
+
+    verify(shardRepository, timeout(5_000)).completeShard(eq(10L), anyString(),
+        eq(ShardStatus.COMPLETED), isNull(), any(LocalDateTime.class));
+    ArgumentCaptor<JobExecutionLog> logCap = ArgumentCaptor.forClass(JobExecutionLog.class);
+    verify(executionLogRepository, timeout(5_000)).save(logCap.capture());
+    assertThat(logCap.getValue().getStatus()).isEqualTo(ExecutionStatus.SUCCESS);
+    assertThat(logCap.getValue().getShardingItem()).isZero();
+  }
+
+  @Test
+  @DisplayName("pollShards stores the map result of a MAP_REDUCE shard")
+  void poll_storesMapResult() {
+    ScheduledJob job = runningJob(2L, JobType.MAP_REDUCE);
+    JobShard shard = pendingShard(20L, 2L, 1);
+    stubClaimable(job, shard);
+    MapReduceJobExecutor mr = mock(MapReduceJobExecutor.class);
+    when(mr.map(any(), eq(1), eq("p1"))).thenReturn(List.of("a", "b"));
+    when(executorRegistry.getExecutor("exec")).thenReturn(mr);
+
+    worker.pollShards();
+
+    verify(shardRepository, timeout(5_000)).completeShard(eq(20L), anyString(),
+        eq(ShardStatus.COMPLETED), eq("a,b"), any(LocalDateTime.class));
+    verify(executionLogRepository, never()).save(any(JobExecutionLog.class));
+  }
+
+  @Test
+  @DisplayName("pollShards spills streaming map output and stores the attempt as map result")
+  void poll_spillsStreamingMapOutput() {
+    ScheduledJob job = runningJob(7L, JobType.MAP_REDUCE);
+    JobShard shard = pendingShard(70L, 7L, 1);
+    stubClaimable(job, shard);
+    when(properties.getMapOutput()).thenReturn(new JobProperties.MapOutput());
+    StreamingMapReduceJobExecutor smr = mock(StreamingMapReduceJobExecutor.class);
+    when(smr.reducePartitions(any())).thenReturn(1);
+    doAnswer(inv -> {
+      MapOutputCollector output = inv.getArgument(3);
+      output.emit("k", "v1");
+      output.emit("k", "v2");
+      return null;
+    }).when(smr).map(any(), eq(1), eq("p1"), any());
+    when(executorRegistry.getExecutor("exec")).thenReturn(smr);
+
+    worker.pollShards();
+
+    ArgumentCaptor<String> attempt = ArgumentCaptor.forClass(String.class);
+    verify(shardRepository, timeout(5_000)).completeShard(eq(70L), anyString(),
+        eq(ShardStatus.COMPLETED), attempt.capture(), any(LocalDateTime.class));
+    ArgumentCaptor<byte[]> data = ArgumentCaptor.forClass(byte[].class);
+    verify(mapOutputStore).writeChunk(eq(7L), eq(1), eq(attempt.getValue()), eq(0), eq(0),
+        eq(2), data.capture());
+    assertThat(MapChunkCodec.decode(data.getValue())).extracting(MapRecord::valueAsString)
+        .containsExactly("v1", "v2");
+  }
+
+  @Test
+  @DisplayName("pollShards marks a shard FAILED when its executor throws")
+  void poll_failsShardOnException() {
+    ScheduledJob job = runningJob(3L, JobType.SHARDING);
+    JobShard shard = pendingShard(30L, 3L, 0);
+    stubClaimable(job, shard);
+    ShardingJobExecutor se = mock(ShardingJobExecutor.class);
+    when(se.executeSharding(any(), anyInt(), anyString()))
+        .thenThrow(new RuntimeException("shard down"));
+    when(executorRegistry.getExecutor("exec")).thenReturn(se);
+
+    worker.pollShards();
+
+    verify(shardRepository, timeout(5_000)).completeShard(eq(30L), anyString(),
+        eq(ShardStatus.FAILED), isNull(), any(LocalDateTime.class));
+  }
+
+  @Test
+  @DisplayName("pollShards leaves shards whose executor is not deployed on this node")
+  void poll_skipsUnknownExecutor() {
+    ScheduledJob job = runningJob(4L, JobType.SHARDING);
+    when(shardRepository.findClaimableShards(any(LocalDateTime.class), any()))
+        .thenReturn(List.of(pendingShard(40L, 4L, 0)));
+    when(jobRepository.findAllById(any())).thenReturn(List.of(job));
+    when(executorRegistry.getExecutor("exec"))
+        .thenThrow(new IllegalArgumentException("unknown"));
+
+    worker.pollShards();
+
+    verify(shardRepository, never()).claimShards(anyCollection(), anyString(), any(), any());
+  }
+
+  @Test
+  @DisplayName("pollShards does not query when no shard slot is free")
+  void poll_respectsMaxConcurrentShards() {
+    when(properties.getMaxConcurrentShards()).thenReturn(0);
+
+    worker.pollShards();
+
+    verify(shardRepository, never()).findClaimableShards(any(), any());
+  }
+
+  @Test
+  @DisplayName("awaitShards returns the shards once all of them reported")
+  void await_returnsFinishedShards() {
+    ScheduledJob job = runningJob(5L, JobType.SHARDING);
+    JobShard first = pendingShard(51L, 5L, 1);
+    first.setStatus(ShardStatus.COMPLETED);
+    JobShard second = pendingShard(50L, 5L, 0);
+    second.setStatus(ShardStatus.FAILED);
+    when(properties.getLockTimeoutSeconds()).thenReturn(60);
+    when(shardRepository.findClaimableShards(any(LocalDateTime.class), any()))
+        .thenReturn(List.of());
+    when(shardRepository.findByJobId(5L)).thenReturn(List.of(first, second));
+
+    assertThat(worker.awaitShards(job)).containsExactly(second, first);
+  }
+
+  @Test
+  @DisplayName("awaitShards fails unfinished shards after lockTimeoutSeconds")
+  void await_timesOut() {
+    ScheduledJob job = runningJob(6L, JobType.SHARDING);
+    when(properties.getLockTimeoutSeconds()).thenReturn(0);
+    when(shardRepository.findClaimableShards(any(LocalDateTime.class), any()))
+        .thenReturn(List.of());
+    when(shardRepository.findByJobId(6L)).thenReturn(List.of(pendingShard(60L, 6L, 0)));
+
+    assertThatThrownBy(() -> worker.awaitShards(job))
+        .isInstanceOf(RuntimeException.class)
+        .hasMessageContaining("Timed out");
+    verify(shardRepository).failUnfinishedShards(eq(6L), any(LocalDateTime.class));
+  }
+
+  @Test
+  @DisplayName("heartbeat does nothing while no shard runs here")
+  void heartbeat_idle() {
+    worker.heartbeat();
+
+    verify(shardRepository, never()).renewLeases(anyCollection(), anyString(), any());
+  }
+
+  private void stubClaimable(ScheduledJob job, JobShard shard) {
+    when(shardRepository.findClaimableShards(any(LocalDateTime.class), any()))
+        .thenReturn(List.of(shard));
+    when(jobRepository.findAllById(any())).thenReturn(List.of(job));
+    when(shardRepository.claimShards(anyCollection(), anyString(), any(LocalDateTime.class),
+        any(LocalDateTime.class))).thenAnswer(inv -> ((Collection<?>) inv.getArgument(0)).size());
+    when(shardRepository.findByIdInAndStatusAndExecutorNode(anyCollection(),
+        eq(ShardStatus.RUNNING), anyString())).thenAnswer(inv -> {
+      Collection<?> ids = inv.getArgument(0);
+      List<JobShard> claimed = new ArrayList<>();
+      if (ids.contains(shard.getId())) {
+        shard.setStatus(ShardStatus.RUNNING);
+        claimed.add(shard);
+      }
+      return claimed;
+    });
+    // Completion runs on the worker pool and may not have happened when a test ends
+    lenient().when(shardRepository.completeShard(any(), anyString(), any(), any(), any()))
+        .thenReturn(1);
+  }
+
+  private static JobShard pendingShard(Long id, Long jobId, int item) {
+    JobShard shard = new JobShard();
+    shard.setId(id);
+    shard.setJobId(jobId);
+    shard.setShardingItem(item);
+    shard.setShardingParameter("p" + item);
+    shard.setStatus(ShardStatus.PENDING);
+    return shard;
+  }
+
+  private static ScheduledJob runningJob(Long id, JobType type) {
+    ScheduledJob job = new ScheduledJob();
+    job.setId(id);
+    job.setJobName("job-" + id);
+    job.setJobGroup("g");
+    job.setStatus(JobStatus.RUNNING);
+    job.setBeanName("exec");
+    job.setJobType(type);
+    job.setShardingCount(2);
+    return job;
+  }
+
+  private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition)
+        throws TransactionException {
+      return new SimpleTransactionStatus();
+    }
+
+    @Override
+    public void commit(TransactionStatus status) throws TransactionException {
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) throws TransactionException {
+    }
+  }
+}
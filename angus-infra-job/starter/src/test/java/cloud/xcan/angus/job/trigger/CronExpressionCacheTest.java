@@ -0,0 +1,41 @@
+package cloud.xcan.angus.job.trigger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.support.CronExpression;
+
+class CronExpressionCacheTest {
+
+  @Test
+  void reusesParsedExpressionPerJob() {
+    CronExpressionCache cache = new CronExpressionCache();
+
+    CronExpression first = cache.get(1L, "0 * * * * *");
+
+    assertThat(cache.get(1L, "0 * * * * *")).isSameAs(first);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  void parsesAgainWhenExpressionChanges() {
+    CronExpressionCache cache = new CronExpressionCache();
+    CronExpression first = cache.get(1L, "0 * * * * *");
+
+    CronExpression changed = cache.get(1L, "0 0 * * * *");
+
+    assertThat(changed).isNotSameAs(first);
+    assertThat(changed.toString()).isEqualTo("0 0 * * * *");
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  void invalidExpressionIsNotCached() {
+    CronExpressionCache cache = new CronExpressionCache();
+
+    assertThatThrownBy(() -> cache.get(1L, "not a cron"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(cache.size()).isZero();
+  }
+}
@@ -0,0 +1,123 @@
+package cloud.xcan.angus.job.trigger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cloud.xcan.angus.job.entity.ScheduledJob;
+import cloud.xcan.angus.job.enums.JobStatus;
+import cloud.xcan.angus.job.jpa.ScheduledJobRepository;
+import cloud.xcan.angus.job.properties.JobProperties;
+import cloud.xcan.angus.job.service.JobSchedulerService;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TimeWheelTriggerEngineTest {
+
+  @Mock
+  private ScheduledJobRepository jobRepository;
+  @Mock
+  private JobSchedulerService scheduler;
+
+  private TimeWheelTriggerEngine engine;
+
+  @BeforeEach
+  void setUp() {
+    JobProperties.TimeWheel config = new JobProperties.TimeWheel();
+    config.setTickMs(100);
+    config.setWheelSize(16);
+    config.setPrefetchIntervalMs(5_000);
+    config.setPrefetchWindowMs(10_000);
+    engine = new TimeWheelTriggerEngine(jobRepository, scheduler, config);
+  }
+
+  @Test
+  void firesPrefetchedJobAtItsFireTime() {
+    long now = System.currentTimeMillis();
+    ScheduledJob job = job(1L, now + 500);
+    when(jobRepository.findByStatusAndNextExecuteTimeBefore(eq(JobStatus.READY),
+        any(LocalDateTime.class), any())).thenReturn(List.of(job));
+
+    engine.prefetch(now);
+    engine.fire(now + 300);
+    verify(scheduler, never()).triggerJobs(anyList());
+
+    engine.fire(now + 700);
+    verify(scheduler).triggerJobs(List.of(job));
+    assertThat(engine.getScheduledCount()).isZero();
+  }
+
+  @Test
+  void overdueJobFiresOnNextTick() {
+    long now = System.currentTimeMillis();
+    ScheduledJob job = job(2L, now - 60_000);
+
+    assertThat(engine.schedule(job)).isTrue();
+    engine.fire(now);
+
+    verify(scheduler).triggerJobs(List.of(job));
+  }
+
+  @Test
+  void repeatedPrefetchDoesNotScheduleTwice() {
+    long now = System.currentTimeMillis();
+    ScheduledJob job = job(3L, now + 200);
+    when(jobRepository.findByStatusAndNextExecuteTimeBefore(eq(JobStatus.READY),
+        any(LocalDateTime.class), any())).thenReturn(List.of(job));
+
+    engine.prefetch(now);
+    engine.prefetch(now + 50);
+    engine.fire(now + 1_000);
+
+    assertThat(engine.getScheduledCount()).isZero();
+    verify(scheduler).triggerJobs(List.of(job));
+  }
+
+  @Test
+  void skipsJobsOutsideWindowOrNotReady() {
+    long now = System.currentTimeMillis();
+    ScheduledJob far = job(4L, now + 60_000);
+    ScheduledJob paused = job(5L, now + 100);
+    paused.setStatus(JobStatus.PAUSED);
+
+    assertThat(engine.schedule(far)).isFalse();
+    assertThat(engine.schedule(paused)).isFalse();
+    assertThat(engine.getScheduledCount()).isZero();
+  }
+
+  @Test
+  void startRegistersCompletionListener() {
+    engine.start();
+    try {
+      assertThat(engine.isRunning()).isTrue();
+      verify(scheduler).setCompletionListener(any());
+    } finally {
+      engine.stop();
+    }
+    assertThat(engine.isRunning()).isFalse();
+    verify(scheduler).setCompletionListener(null);
+  }
+
+  private static ScheduledJob job(Long id, long fireAtMs) {
+    ScheduledJob job = new ScheduledJob();
+    job.setId(id);
+    job.setJobName("job-" + id);
+    job.setJobGroup("g");
+    job.setStatus(JobStatus.READY);
+    job.setNextExecuteTime(
+        LocalDateTime.ofInstant(Instant.ofEpochMilli(fireAtMs), ZoneId.systemDefault()));
+    return job;
+  }
+}
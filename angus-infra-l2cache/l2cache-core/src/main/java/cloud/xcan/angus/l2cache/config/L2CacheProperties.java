@@ -33,6 +33,8 @@ public class L2CacheProperties {
   private final Composite composite = new Composite();
   private final Caffeine caffeine = new Caffeine();
   private final Redis redis = new Redis();
+  private final Loading loading = new Loading();
+  private final RefreshAhead refreshAhead = new RefreshAhead();
 
   public interface Config {
 
@@ -137,5 +139,108 @@ public class L2CacheProperties {
      */
     private String topic = "l2cache:topic";
 
+    /**
+     * Identifier of this node in cache messages, used to ignore self-originated messages. Defaults
+     * to a random id per cache manager.
+     */
+    private String nodeId;
+
+    /**
+     * Window in milliseconds in which local cache invalidations are coalesced into one message per
+     * cacheName, 0 sends every invalidation immediately.
+     */
+    private long messageBatchIntervalMillis = 0;
+
+    /**
+     * Wire format of published cache messages. Receivers accept both formats, so BINARY can be
+     * enabled node by node once every node runs a version that understands it.
+     */
+    private MessageCodec messageCodec = MessageCodec.JSON;
+
+  }
+
+  /**
+   * Value loading properties for {@code Cache.get(key, valueLoader)}.
+   */
+  @Getter
+  @Setter
+  @Accessors(chain = true)
+  public static class Loading implements Config {
+
+    /**
+     * Stampede protection strategy, Default is SINGLE_FLIGHT.
+     */
+    private LoadingMode mode = LoadingMode.SINGLE_FLIGHT;
+
+    /**
+     * Number of locks used by STRIPED_LOCK, rounded up to a power of two.
+     */
+    private int lockStripes = 64;
+  }
+
+  /**
+   * Refresh-ahead properties. Applies to {@code Cache.get(key, valueLoader)} on caches with a Redis
+   * expiration: a hit on an entry close to expiry may reload it in the background while the caller
+   * gets the current value.
+   */
+  @Getter
+  @Setter
+  @Accessors(chain = true)
+  public static class RefreshAhead implements Config {
+
+    /**
+     * Whether to refresh entries ahead of expiry, Default is false.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Scale of the early refresh window. A hit refreshes with probability exp(-remaining / (loadTime
+     * * beta)), so larger values refresh earlier and with more spread across nodes.
+     */
+    private double beta = 1.0;
+
+    /**
+     * Load time assumed for keys whose load was not observed by this node, In milliseconds.
+     */
+    private long defaultLoadMillis = 100;
+
+    /**
+     * Maximum number of keys whose expiry is tracked per cache.
+     */
+    private long maxTrackedKeys = 10_000;
+
+    /**
+     * Threads running background refreshes.
+     */
+    private int threads = 4;
+
+    /**
+     * Maximum number of queued refreshes, further refreshes are skipped until the queue drains.
+     */
+    private int queueCapacity = 1000;
+  }
+
+  public enum LoadingMode {
+    /**
+     * Concurrent loads of one key share a single in-flight CompletableFuture, which is dropped as
+     * soon as it completes.
+     */
+    SINGLE_FLIGHT,
+    /**
+     * Loads are serialized on a fixed set of locks selected by key hash; unrelated keys may share a
+     * lock.
+     */
+    STRIPED_LOCK
+  }
+
+  public enum MessageCodec {
+    /**
+     * Jackson JSON through the l2cache RedisTemplate value serializer, the original format.
+     */
+    JSON,
+    /**
+     * Compact length-prefixed binary format, see CacheMessage#encode().
+     */
+    BINARY
   }
 }
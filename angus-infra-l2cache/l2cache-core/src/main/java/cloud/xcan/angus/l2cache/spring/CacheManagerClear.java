@@ -13,7 +13,11 @@ public interface CacheManagerClear {
   default void clearLocal(String name, Object key) {
   }
 
-  //default void clearLocal(String name, Collection<Object> keys) {};
+  default void clearLocalKeys(String name, Collection<?> keys) {
+    for (Object key : keys) {
+      clearLocal(name, key);
+    }
+  }
 
   default void evict(String name, Collection<Object> keys) {
   }
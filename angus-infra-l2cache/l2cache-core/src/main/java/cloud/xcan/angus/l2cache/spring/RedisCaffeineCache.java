@@ -2,25 +2,43 @@ package cloud.xcan.angus.l2cache.spring;
 
 import static cloud.xcan.angus.core.utils.PrincipalContextUtils.getOptTenantId;
 import static cloud.xcan.angus.spec.utils.ObjectUtils.isEmpty;
-import static cloud.xcan.angus.spec.utils.ObjectUtils.isNotEmpty;
 import static java.util.Collections.EMPTY_LIST;
 import static java.util.Collections.EMPTY_MAP;
 
 import cloud.xcan.angus.l2cache.config.L2CacheProperties;
 import cloud.xcan.angus.l2cache.synchronous.CacheMessage;
+import cloud.xcan.angus.l2cache.synchronous.CacheMessagePublisher;
 import cloud.xcan.angus.lettucex.util.RedisService;
+import cloud.xcan.angus.spec.principal.Principal;
+import cloud.xcan.angus.spec.principal.PrincipalContext;
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.support.AbstractValueAdaptingCache;
 import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.lang.Nullable;
 import org.springframework.util.CollectionUtils;
 
@@ -75,6 +93,12 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
    */
   private static final String CACHE_PREFIX = "j2cache:";
 
+  /**
+   * Maximum number of keys per UNLINK command and SCAN COUNT hint used by batch eviction and
+   * {@link #clear()}.
+   */
+  private static final int BATCH_SIZE = 1000;
+
   /**
    * Cache-specific expiration configurations mapped by cache name.
    */
@@ -95,6 +119,28 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
    */
   private final L2CacheProperties.Redis redis;
 
+  /**
+   * Publisher of invalidation messages to other instances, usually shared by all caches of a
+   * {@link RedisCaffeineCacheManager}.
+   */
+  private final CacheMessagePublisher messagePublisher;
+
+  /**
+   * Refresh-ahead configuration.
+   */
+  private final L2CacheProperties.RefreshAhead refreshAhead;
+
+  /**
+   * Locally known Redis expiry and load time per tenant-aware key, used to decide on refresh-ahead.
+   * Null when refresh-ahead is disabled or the cache has no expiration.
+   */
+  private final Cache<String, RefreshState> refreshStates;
+
+  /**
+   * Executor running background refreshes.
+   */
+  private final Executor refreshExecutor;
+
   /**
    * <p>
    * Tracks whether Level 1 cache has been enabled to handle configuration inconsistencies. Once
@@ -110,10 +156,18 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
   private final AtomicBoolean openedL1Cache = new AtomicBoolean(false);
 
   /**
-   * Per-key lock map to prevent cache stampede and ensure thread safety for cache loading. Uses
-   * ConcurrentHashMap for thread-safe access to individual key locks.
+   * In-flight loads by tenant-aware Redis key, used by
+   * {@link L2CacheProperties.LoadingMode#SINGLE_FLIGHT} to prevent cache stampede. An entry only
+   * lives while its load runs, so the map is bounded by the number of concurrent loads rather than
+   * by key cardinality.
+   */
+  private final Map<String, CompletableFuture<Object>> loadingFutures = new ConcurrentHashMap<>();
+
+  /**
+   * Fixed lock stripes used by {@link L2CacheProperties.LoadingMode#STRIPED_LOCK}, null in
+   * single-flight mode.
    */
-  private final Map<String, ReentrantLock> keyLockMap = new ConcurrentHashMap<>();
+  private final ReentrantLock[] loadingLocks;
 
   /**
    * Protected constructor for inheritance multitenancy.
@@ -132,6 +186,11 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
     this.penetrationExpires = null;
     this.composite = null;
     this.redis = null;
+    this.messagePublisher = null;
+    this.loadingLocks = null;
+    this.refreshAhead = null;
+    this.refreshStates = null;
+    this.refreshExecutor = null;
   }
 
   /**
@@ -146,6 +205,46 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
    */
   public RedisCaffeineCache(String cacheName, RedisService<Object> redisService,
       Cache<Object, Object> level1Cache, L2CacheProperties l2CacheProperties) {
+    this(cacheName, redisService, level1Cache, l2CacheProperties,
+        new CacheMessagePublisher(redisService, l2CacheProperties.getRedis().getTopic(),
+            l2CacheProperties.getRedis().getMessageCodec(),
+            l2CacheProperties.getRedis().getNodeId(), 0));
+  }
+
+  /**
+   * <p>
+   * Constructor for creating a two-level cache instance that publishes invalidations through a
+   * shared publisher.
+   * </p>
+   *
+   * @param cacheName         the name of the cache
+   * @param redisService      Redis service for L2 cache operations
+   * @param level1Cache       Caffeine cache instance for L1 cache
+   * @param l2CacheProperties cache configuration properties
+   * @param messagePublisher  publisher of invalidation messages to other instances
+   */
+  public RedisCaffeineCache(String cacheName, RedisService<Object> redisService,
+      Cache<Object, Object> level1Cache, L2CacheProperties l2CacheProperties,
+      CacheMessagePublisher messagePublisher) {
+    this(cacheName, redisService, level1Cache, l2CacheProperties, messagePublisher, null);
+  }
+
+  /**
+   * <p>
+   * Constructor for creating a two-level cache instance with a shared publisher and refresh-ahead
+   * executor.
+   * </p>
+   *
+   * @param cacheName         the name of the cache
+   * @param redisService      Redis service for L2 cache operations
+   * @param level1Cache       Caffeine cache instance for L1 cache
+   * @param l2CacheProperties cache configuration properties
+   * @param messagePublisher  publisher of invalidation messages to other instances
+   * @param refreshExecutor   executor for background refreshes, the common pool when null
+   */
+  public RedisCaffeineCache(String cacheName, RedisService<Object> redisService,
+      Cache<Object, Object> level1Cache, L2CacheProperties l2CacheProperties,
+      CacheMessagePublisher messagePublisher, @Nullable Executor refreshExecutor) {
     super(l2CacheProperties.isAllowNullValues());
     this.cacheName = cacheName;
     this.redisService = redisService;
@@ -157,6 +256,26 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
     this.penetrationExpires = l2CacheProperties.getRedis().getPenetrationExpires();
     this.composite = l2CacheProperties.getComposite();
     this.redis = l2CacheProperties.getRedis();
+    this.messagePublisher = messagePublisher;
+    this.loadingLocks = createLoadingLocks(l2CacheProperties.getLoading());
+    this.refreshAhead = l2CacheProperties.getRefreshAhead();
+    this.refreshStates = refreshAhead.isEnabled() && getExpire() > 0
+        ? Caffeine.newBuilder().maximumSize(refreshAhead.getMaxTrackedKeys())
+        .expireAfterWrite(getExpire(), TimeUnit.MILLISECONDS).build()
+        : null;
+    this.refreshExecutor = refreshExecutor != null ? refreshExecutor : ForkJoinPool.commonPool();
+  }
+
+  private static ReentrantLock[] createLoadingLocks(L2CacheProperties.Loading loading) {
+    if (loading.getMode() != L2CacheProperties.LoadingMode.STRIPED_LOCK) {
+      return null;
+    }
+    int stripes = Integer.highestOneBit(Math.max(1, loading.getLockStripes()) * 2 - 1);
+    ReentrantLock[] locks = new ReentrantLock[stripes];
+    for (int i = 0; i < stripes; i++) {
+      locks[i] = new ReentrantLock();
+    }
+    return locks;
   }
 
   @Override
@@ -171,8 +290,10 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
 
   /**
    * <p>
-   * Retrieves a cache value, loading it if necessary using the provided callable. Implements
-   * cache-aside pattern with double-checked locking to prevent cache stampede.
+   * Retrieves a cache value, loading it if necessary using the provided callable. Concurrent
+   * misses on the same key run the loader once: in single-flight mode the first caller loads and
+   * the others wait on its future, in striped-lock mode callers are serialized on the key's lock
+   * stripe and re-check the cache before loading.
    * </p>
    *
    * @param key0 the cache key
@@ -181,47 +302,289 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
    * @return the cached or loaded value
    */
   @Override
+  @SuppressWarnings("unchecked")
   public <T> T get(Object key0, Callable<T> call) {
     String key = key0.toString();
 
-    // First attempt: Check cache without locking
+    // First attempt: Check cache without any coordination
     Object value = lookup(key);
     if (value != null) {
-      return (T) value;
+      if (refreshStates != null) {
+        refreshAheadIfNeeded(key, getKey(key), () -> {
+          try {
+            return CompletableFuture.completedFuture(call.call());
+          } catch (Throwable e) {
+            return CompletableFuture.failedFuture(e);
+          }
+        });
+      }
+      return (T) fromStoreValue(value);
+    }
+
+    if (loadingLocks != null) {
+      return getWithStripedLock(key, call);
     }
 
-    // Second attempt: Use per-key locking to prevent cache stampede
-    ReentrantLock lock = keyLockMap.computeIfAbsent(key, k -> {
-      log.debug("Creating lock for cache key: {}", k);
-      return new ReentrantLock();
+    CompletableFuture<Object> flight = loadOnce(key, getKey(key), () -> {
+      try {
+        return CompletableFuture.completedFuture(call.call());
+      } catch (Throwable e) {
+        return CompletableFuture.failedFuture(e);
+      }
     });
+    try {
+      return (T) flight.join();
+    } catch (CompletionException | CancellationException e) {
+      throw new ValueRetrievalException(key, call, unwrap(e));
+    }
+  }
 
+  /**
+   * <p>
+   * Retrieves a cache value asynchronously, loading it with the given asynchronous loader if
+   * necessary. Concurrent misses on the same key share one load and no thread is held while the
+   * loader runs. The cache lookup itself is performed on the calling thread.
+   * </p>
+   *
+   * @param key0   the cache key
+   * @param loader supplies a future of the value if not present in cache
+   * @param <T>    the type of the cached value
+   * @return a future of the cached or loaded value
+   */
+  @SuppressWarnings("unchecked")
+  public <T> CompletableFuture<T> getAsync(Object key0,
+      Supplier<CompletableFuture<T>> loader) {
+    String key = key0.toString();
+    Object value = lookup(key);
+    if (value != null) {
+      if (refreshStates != null) {
+        refreshAheadIfNeeded(key, getKey(key), () -> loader.get().thenApply(v -> (Object) v));
+      }
+      return CompletableFuture.completedFuture((T) fromStoreValue(value));
+    }
+    // Callers get a dependent stage so they cannot complete or cancel the shared flight
+    return loadOnce(key, getKey(key), () -> loader.get().thenApply(v -> (Object) v))
+        .thenApply(v -> (T) v);
+  }
+
+  @Override
+  @Nullable
+  public CompletableFuture<?> retrieve(Object key) {
+    Object value = lookup(key);
+    if (value == null) {
+      return null;
+    }
+    return CompletableFuture.completedFuture(
+        isAllowNullValues() ? toValueWrapper(value) : fromStoreValue(value));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+    return getAsync(key, valueLoader);
+  }
+
+  /**
+   * <p>
+   * Starts a load for the key unless one is already in flight, in which case the in-flight future
+   * is returned. The leader re-checks the cache before loading, stores the loaded value and removes
+   * the flight once it completes.
+   * </p>
+   */
+  private CompletableFuture<Object> loadOnce(String key, String cacheKey,
+      Supplier<CompletableFuture<Object>> loader) {
+    CompletableFuture<Object> flight = new CompletableFuture<>();
+    CompletableFuture<Object> existing = loadingFutures.putIfAbsent(cacheKey, flight);
+    if (existing != null) {
+      return existing;
+    }
+    flight.whenComplete((v, e) -> loadingFutures.remove(cacheKey, flight));
     try {
-      lock.lock();
-      // Double-check pattern: verify cache is still empty after acquiring lock
-      value = lookup(key);
+      // Double-check: a previous flight may have filled the cache meanwhile
+      Object value = lookup(key);
       if (value != null) {
-        return (T) value;
+        flight.complete(fromStoreValue(value));
+        return flight;
       }
+      long start = System.nanoTime();
+      loader.get().whenComplete((loaded, e) -> {
+        if (e != null) {
+          flight.completeExceptionally(unwrap(e));
+          return;
+        }
+        try {
+          put(key, cacheKey, loaded);
+          rememberLoadTime(cacheKey, start);
+          flight.complete(loaded);
+        } catch (Throwable putError) {
+          flight.completeExceptionally(putError);
+        }
+      });
+    } catch (Throwable e) {
+      flight.completeExceptionally(e);
+    }
+    return flight;
+  }
 
-      // Load value and store in cache
-      value = call.call();
-      Object storeValue = toStoreValue(value);
-      put(key, storeValue);
-      return (T) value;
+  @SuppressWarnings("unchecked")
+  private <T> T getWithStripedLock(String key, Callable<T> call) {
+    ReentrantLock lock = loadingLocks[stripe(key)];
+    lock.lock();
+    try {
+      // Double-check pattern: verify cache is still empty after acquiring lock
+      Object value = lookup(key);
+      if (value != null) {
+        return (T) fromStoreValue(value);
+      }
+      long start = System.nanoTime();
+      T loaded = call.call();
+      String cacheKey = getKey(key);
+      put(key, cacheKey, loaded);
+      rememberLoadTime(cacheKey, start);
+      return loaded;
     } catch (Exception e) {
-      throw new ValueRetrievalException(key, call, e.getCause());
+      throw new ValueRetrievalException(key, call, e);
     } finally {
       lock.unlock();
-      // Clean up lock if no longer needed to prevent memory leaks
-      // Note: This is a simple cleanup strategy, more sophisticated approaches
-      // could use weak references or periodic cleanup
-      if (!lock.hasQueuedThreads()) {
-        keyLockMap.remove(key, lock);
+    }
+  }
+
+  /**
+   * <p>
+   * Starts a background refresh of a hit entry when it is close enough to its Redis expiry. The
+   * decision is probabilistic (XFetch): a hit refreshes with probability exp(-remaining / (loadTime
+   * * beta)), so reloads of a hot key happen shortly before expiry and are spread across nodes
+   * instead of every node reloading at the same instant.
+   * </p>
+   */
+  private void refreshAheadIfNeeded(String key, String cacheKey,
+      Supplier<CompletableFuture<Object>> loader) {
+    try {
+      long now = System.currentTimeMillis();
+      RefreshState state = refreshStates.getIfPresent(cacheKey);
+      if (state == null) {
+        // Written by another node or before this node started tracking it
+        Long ttl = redisService.getExpire(cacheKey, TimeUnit.MILLISECONDS);
+        if (ttl == null || ttl <= 0) {
+          return; // Missing or without expiration
+        }
+        state = new RefreshState(now + ttl, refreshAhead.getDefaultLoadMillis());
+        refreshStates.put(cacheKey, state);
+      }
+      double window = Math.max(1, state.loadMillis()) * refreshAhead.getBeta();
+      double draw = -Math.log(1 - ThreadLocalRandom.current().nextDouble());
+      if (state.expireAtMillis() - now > window * draw) {
+        return;
       }
+      triggerRefresh(key, cacheKey, loader);
+    } catch (Exception e) {
+      log.warn("Refresh-ahead check failed for cache: {}, key: {}", this.cacheName, key, e);
     }
   }
 
+  /**
+   * <p>
+   * Runs a refresh on the refresh executor unless a load of the key is already in flight. The
+   * refresh is registered as the key's flight, so callers missing the key meanwhile wait for it
+   * rather than loading again. If the entry turns out to have been rewritten recently (e.g.
+   * refreshed by another node) the current value is kept.
+   * </p>
+   */
+  private void triggerRefresh(String key, String cacheKey,
+      Supplier<CompletableFuture<Object>> loader) {
+    CompletableFuture<Object> flight = new CompletableFuture<>();
+    if (loadingFutures.putIfAbsent(cacheKey, flight) != null) {
+      return;
+    }
+    flight.whenComplete((v, e) -> loadingFutures.remove(cacheKey, flight));
+    Principal principal = PrincipalContext.get();
+    try {
+      refreshExecutor.execute(() -> {
+        // The loader may rely on the caller's principal; restore whatever the thread had after
+        Principal previous = PrincipalContext.threadLocal.get();
+        PrincipalContext.set(principal);
+        try {
+          refresh(key, cacheKey, loader, flight);
+        } catch (Throwable e) {
+          flight.completeExceptionally(e);
+        } finally {
+          if (previous != null) {
+            PrincipalContext.set(previous);
+          } else {
+            PrincipalContext.remove();
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      log.debug("Refresh-ahead queue full, skipped refresh for cache: {}, key: {}",
+          this.cacheName, key);
+      flight.cancel(false);
+    }
+  }
+
+  private void refresh(String key, String cacheKey, Supplier<CompletableFuture<Object>> loader,
+      CompletableFuture<Object> flight) {
+    Long ttl = redisService.getExpire(cacheKey, TimeUnit.MILLISECONDS);
+    if (ttl != null && ttl > getExpire() / 2) {
+      Object current = redisService.get(cacheKey);
+      if (current != null) {
+        RefreshState state = refreshStates.getIfPresent(cacheKey);
+        refreshStates.put(cacheKey, new RefreshState(System.currentTimeMillis() + ttl,
+            state != null ? state.loadMillis() : refreshAhead.getDefaultLoadMillis()));
+        flight.complete(fromStoreValue(current));
+        return;
+      }
+    }
+    long start = System.nanoTime();
+    loader.get().whenComplete((loaded, e) -> {
+      if (e != null) {
+        log.warn("Refresh-ahead load failed for cache: {}, key: {}, error: {}", this.cacheName,
+            key, unwrap(e).getMessage());
+        flight.completeExceptionally(unwrap(e));
+        return;
+      }
+      try {
+        put(key, cacheKey, loaded);
+        rememberLoadTime(cacheKey, start);
+        flight.complete(loaded);
+        if (log.isDebugEnabled()) {
+          log.debug("Refreshed ahead cache: {}, key: {}", this.cacheName, key);
+        }
+      } catch (Throwable putError) {
+        flight.completeExceptionally(putError);
+      }
+    });
+  }
+
+  /**
+   * <p>
+   * Records the expiry of a freshly stored key and how long its load took.
+   * </p>
+   */
+  private void rememberLoadTime(String cacheKey, long startNanos) {
+    if (refreshStates != null) {
+      long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+      refreshStates.put(cacheKey,
+          new RefreshState(System.currentTimeMillis() + getExpire(), loadMillis));
+    }
+  }
+
+  /**
+   * Locally known Redis expiry of a key and the duration of its last observed load.
+   */
+  private record RefreshState(long expireAtMillis, long loadMillis) {
+
+  }
+
+  private int stripe(String key) {
+    int h = key.hashCode();
+    return (h ^ (h >>> 16)) & (loadingLocks.length - 1);
+  }
+
+  private static Throwable unwrap(Throwable e) {
+    return (e instanceof CompletionException || e instanceof ExecutionException)
+        && e.getCause() != null ? e.getCause() : e;
+  }
+
   /**
    * <p>
    * Stores a value in both L1 and L2 caches with appropriate expiration and synchronization.
@@ -234,16 +597,24 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
   @Override
   public void put(Object key0, Object value) {
     String key = key0.toString();
+    put(key, getKey(key), value);
+  }
+
+  /**
+   * <p>
+   * Stores a value under a precomputed Redis key, so it can run on threads without the caller's
+   * tenant context (e.g. completion of an asynchronous load).
+   * </p>
+   */
+  private void put(String key, String cacheKey, Object value) {
     Object storeValue = toStoreValue(value);
 
     // Handle cache penetration protection for empty values
     if (isEmptyValue(storeValue)) {
-      emptyPenetrationSafe(key, storeValue);
+      emptyPenetrationSafe(key, cacheKey, storeValue);
       return;
     }
 
-    String cacheKey = getKey(key);
-
     // Skip storing if the processed value is empty (after null handling)
     if (isEmptyValue(value)) {
       return;
@@ -277,6 +648,10 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
    * @param storeValue the empty value to store (must be empty)
    */
   public void emptyPenetrationSafe(String key, Object storeValue) {
+    emptyPenetrationSafe(key, getKey(key), storeValue);
+  }
+
+  private void emptyPenetrationSafe(String key, String cacheKey, Object storeValue) {
     // Validate preconditions
     if (!isEmptyValue(storeValue)) {
       log.warn("emptyPenetrationSafe called with non-empty value for key: {}", key);
@@ -285,12 +660,10 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
 
     // If null values are not allowed, evict the key instead of storing empty value
     if (!super.isAllowNullValues()) {
-      this.evict(key);
+      evict(key, cacheKey);
       return;
     }
 
-    String cacheKey = getKey(key);
-
     // Only apply penetration protection if configured for this cache
     if (penetrationExpires.containsKey(cacheKey)) {
       Long configured = penetrationExpires.get(cacheKey);
@@ -372,9 +745,15 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
   @Override
   public void evict(Object key0) {
     String key = key0.toString();
+    evict(key, getKey(key));
+  }
 
+  private void evict(String key, String cacheKey) {
     // Clear Redis cache first to prevent other instances from reloading stale data
-    redisService.delete(getKey(key));
+    redisService.delete(cacheKey);
+    if (refreshStates != null) {
+      refreshStates.invalidate(cacheKey);
+    }
 
     // Notify all instances to clear their local caches
     clearAllLocalCache(CacheMessage.of(this.cacheName, key));
@@ -389,33 +768,80 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
 
   /**
    * <p>
-   * Batch eviction of multiple cache entries for improved performance.
+   * Batch eviction of multiple cache entries. Redis keys are removed with multi-key UNLINK commands
+   * of at most {@link #BATCH_SIZE} keys each, and other instances are notified with one aggregated
+   * message instead of one message per key.
    * </p>
    *
    * @param keys collection of keys to evict
    */
   public void evict(Collection<Object> keys) {
-    if (isNotEmpty(keys)) {
-      for (Object key : keys) {
-        evict(key);
-      }
+    if (isEmpty(keys)) {
+      return;
+    }
+    Set<String> localKeys = new LinkedHashSet<>();
+    for (Object key : keys) {
+      localKeys.add(key.toString());
+    }
+    List<String> cacheKeys = new ArrayList<>(localKeys.size());
+    for (String key : localKeys) {
+      cacheKeys.add(getKey(key));
+    }
+
+    // Clear Redis cache first to prevent other instances from reloading stale data
+    RedisTemplate<String, Object> redisTemplate = redisService.getRedisTemplate();
+    for (int from = 0; from < cacheKeys.size(); from += BATCH_SIZE) {
+      redisTemplate.unlink(cacheKeys.subList(from, Math.min(from + BATCH_SIZE, cacheKeys.size())));
+    }
+    if (refreshStates != null) {
+      refreshStates.invalidateAll(cacheKeys);
+    }
+
+    // Notify all instances to clear their local caches with a single message
+    clearAllLocalCache(CacheMessage.ofKeys(this.cacheName, localKeys));
+
+    // Clear local L1 cache
+    level1Cache.invalidateAll(localKeys);
+
+    if (log.isDebugEnabled()) {
+      log.debug("Evicted {} cache entries for cache: {}", localKeys.size(), this.cacheName);
     }
   }
 
   /**
    * <p>
-   * Clears all cache entries for this cache instance. Uses pattern matching to find all keys
-   * belonging to this cache.
+   * Clears all cache entries for this cache instance across all tenants. Keys are discovered with
+   * an incremental SCAN and removed with batched UNLINK commands, so neither step blocks the Redis
+   * server the way KEYS and large synchronous DELs do.
    * </p>
    */
   @Override
   public void clear() {
     try {
       // Clear all Redis keys matching this cache's pattern
-      Set<String> keys = redisService.keys(this.cacheName.concat(":*"));
-      if (!keys.isEmpty()) {
-        redisService.delete(keys);
-        log.info("Cleared {} Redis cache entries for cache: {}", keys.size(), this.cacheName);
+      RedisTemplate<String, Object> redisTemplate = redisService.getRedisTemplate();
+      ScanOptions options = ScanOptions.scanOptions()
+          .match(CACHE_PREFIX.concat(this.cacheName).concat(":*"))
+          .count(BATCH_SIZE)
+          .build();
+      long deleted = 0;
+      List<String> batch = new ArrayList<>(BATCH_SIZE);
+      try (Cursor<String> cursor = redisTemplate.scan(options)) {
+        while (cursor.hasNext()) {
+          batch.add(cursor.next());
+          if (batch.size() >= BATCH_SIZE) {
+            redisTemplate.unlink(batch);
+            deleted += batch.size();
+            batch = new ArrayList<>(BATCH_SIZE);
+          }
+        }
+      }
+      if (!batch.isEmpty()) {
+        redisTemplate.unlink(batch);
+        deleted += batch.size();
+      }
+      if (deleted > 0) {
+        log.info("Cleared {} Redis cache entries for cache: {}", deleted, this.cacheName);
       }
 
       // Notify all instances to clear their local caches
@@ -423,6 +849,9 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
 
       // Clear local L1 cache
       level1Cache.invalidateAll();
+      if (refreshStates != null) {
+        refreshStates.invalidateAll();
+      }
 
     } catch (Exception e) {
       log.error("Error clearing cache: {}", this.cacheName, e);
@@ -523,22 +952,14 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
   /**
    * <p>
    * Notifies all application instances to clear their local caches via Redis pub/sub. This ensures
-   * cache consistency across distributed deployments.
+   * cache consistency across distributed deployments. Delivery may be deferred by the publisher's
+   * coalescing window; failures are logged, never thrown.
    * </p>
    *
    * @param message the cache invalidation message
    */
   private void clearAllLocalCache(CacheMessage message) {
-    try {
-      redisService.getRedisTemplate().convertAndSend(redis.getTopic(), message);
-      if (log.isDebugEnabled()) {
-        log.debug("Sent cache invalidation message: {}", message);
-      }
-    } catch (Exception e) {
-      log.error("Failed to send cache invalidation message: {}", message, e);
-      // Don't throw exception as this would break the cache operation
-      // Local cache inconsistency is better than complete failure
-    }
+    messagePublisher.publish(message);
   }
 
   /**
@@ -560,6 +981,26 @@ public class RedisCaffeineCache extends AbstractValueAdaptingCache {
     }
   }
 
+  /**
+   * <p>
+   * Clears multiple keys from the local L1 cache. This method is typically called in response to an
+   * aggregated cache invalidation message.
+   * </p>
+   *
+   * @param keys the keys to clear
+   */
+  public void clearLocalKeys(Collection<?> keys) {
+    if (isEmpty(keys)) {
+      return;
+    }
+    List<String> localKeys = new ArrayList<>(keys.size());
+    for (Object key : keys) {
+      localKeys.add(key.toString());
+    }
+    level1Cache.invalidateAll(localKeys);
+    log.debug("Cleared {} local cache entries for cache: {}", localKeys.size(), this.cacheName);
+  }
+
   /**
    * <p>
    * Determines if L1 cache is enabled for a specific cache key. Checks both global and key-specific
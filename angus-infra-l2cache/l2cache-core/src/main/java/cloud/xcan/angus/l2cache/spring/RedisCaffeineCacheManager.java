@@ -1,13 +1,17 @@
 package cloud.xcan.angus.l2cache.spring;
 
 import cloud.xcan.angus.l2cache.config.L2CacheProperties;
+import cloud.xcan.angus.l2cache.synchronous.CacheMessagePublisher;
 import cloud.xcan.angus.lettucex.util.RedisService;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
@@ -31,7 +35,7 @@ import org.springframework.cache.CacheManager;
  * </p>
  */
 @Slf4j
-public class RedisCaffeineCacheManager implements CacheManager, CacheManagerClear {
+public class RedisCaffeineCacheManager implements CacheManager, CacheManagerClear, AutoCloseable {
 
   /**
    * Thread-safe map storing cache instances by name. Uses ConcurrentHashMap to ensure thread safety
@@ -62,6 +66,18 @@ public class RedisCaffeineCacheManager implements CacheManager, CacheManagerClea
    */
   private final boolean dynamic;
 
+  /**
+   * Publisher of invalidation messages shared by all managed caches, so invalidations of one
+   * coalescing window leave this node as one message per cache.
+   */
+  private final CacheMessagePublisher messagePublisher;
+
+  /**
+   * Bounded executor for refresh-ahead reloads shared by all managed caches, null when
+   * refresh-ahead is disabled.
+   */
+  private final ThreadPoolExecutor refreshExecutor;
+
   /**
    * <p>
    * Constructor for creating a cache manager with the specified configuration.
@@ -79,6 +95,12 @@ public class RedisCaffeineCacheManager implements CacheManager, CacheManagerClea
         "RedisService cannot be null");
     this.dynamic = l2CacheProperties.isDynamic();
     this.cacheNames = l2CacheProperties.getCacheNames();
+    L2CacheProperties.Redis redis = l2CacheProperties.getRedis();
+    String nodeId = redis.getNodeId() != null && !redis.getNodeId().isBlank()
+        ? redis.getNodeId() : UUID.randomUUID().toString();
+    this.messagePublisher = new CacheMessagePublisher(l2cacheRedisService, redis.getTopic(),
+        redis.getMessageCodec(), nodeId, redis.getMessageBatchIntervalMillis());
+    this.refreshExecutor = createRefreshExecutor(l2CacheProperties.getRefreshAhead());
 
     log.info("Initialized RedisCaffeineCacheManager with dynamic={}, predefined caches={}",
         dynamic, cacheNames != null ? cacheNames.size() : 0);
@@ -143,7 +165,32 @@ public class RedisCaffeineCacheManager implements CacheManager, CacheManagerClea
    */
   private Cache createCache(String name) {
     return new RedisCaffeineCache(name, l2cacheRedisService, createCaffeineCache(),
-        l2CacheProperties);
+        l2CacheProperties, messagePublisher, refreshExecutor);
+  }
+
+  /**
+   * <p>
+   * Creates the executor for refresh-ahead reloads. Refreshes are best effort, so when the queue is
+   * full new refreshes are rejected and the entry is loaded on expiry as usual.
+   * </p>
+   *
+   * @param refreshAhead refresh-ahead configuration
+   * @return the executor, or null if refresh-ahead is disabled
+   */
+  private static ThreadPoolExecutor createRefreshExecutor(
+      L2CacheProperties.RefreshAhead refreshAhead) {
+    if (!refreshAhead.isEnabled()) {
+      return null;
+    }
+    int threads = Math.max(1, refreshAhead.getThreads());
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(Math.max(1, refreshAhead.getQueueCapacity())), r -> {
+      Thread t = new Thread(r, "angus-l2cache-refresh");
+      t.setDaemon(true);
+      return t;
+    });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
   }
 
   /**
@@ -239,6 +286,37 @@ public class RedisCaffeineCacheManager implements CacheManager, CacheManagerClea
     }
   }
 
+  /**
+   * <p>
+   * Clears multiple keys from the local L1 cache, typically in response to an aggregated
+   * invalidation message produced by a batch eviction on another instance.
+   * </p>
+   *
+   * @param name the name of the cache
+   * @param keys collection of keys to clear
+   */
+  @Override
+  public void clearLocalKeys(String name, Collection<?> keys) {
+    if (name == null || name.trim().isEmpty()) {
+      log.warn("Attempted to clear local cache with null or empty name");
+      return;
+    }
+
+    Cache cache = cacheMap.get(name);
+    if (cache instanceof RedisCaffeineCache redisCaffeineCache) {
+      try {
+        redisCaffeineCache.clearLocalKeys(keys);
+        log.debug("Cleared {} local cache entries for name: {}", keys.size(), name);
+      } catch (Exception e) {
+        log.error("Error clearing local cache for name: {}, keys: {}", name, keys.size(), e);
+      }
+    } else if (cache != null) {
+      log.warn("Cache '{}' is not a RedisCaffeineCache instance, cannot clear local cache", name);
+    } else {
+      log.debug("Cache '{}' not found, cannot clear local cache", name);
+    }
+  }
+
   /**
    * <p>
    * Evicts multiple keys from both L1 and L2 caches for the specified cache name. Provides batch
@@ -276,6 +354,31 @@ public class RedisCaffeineCacheManager implements CacheManager, CacheManagerClea
     }
   }
 
+  /**
+   * <p>
+   * Returns the id this node stamps on its cache messages. Listeners use it to skip messages sent by
+   * this node.
+   * </p>
+   *
+   * @return the node id
+   */
+  public String getNodeId() {
+    return messagePublisher.getNodeId();
+  }
+
+  /**
+   * <p>
+   * Sends pending coalesced invalidations, stops the publisher and abandons pending refreshes.
+   * </p>
+   */
+  @Override
+  public void close() {
+    messagePublisher.close();
+    if (refreshExecutor != null) {
+      refreshExecutor.shutdownNow();
+    }
+  }
+
   /**
    * <p>
    * Returns the number of currently managed cache instances. Useful for monitoring and debugging
@@ -1,6 +1,16 @@
 package cloud.xcan.angus.l2cache.synchronous;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -12,11 +22,122 @@ import lombok.experimental.Accessors;
 @NoArgsConstructor
 public class CacheMessage implements Serializable {
 
+  /**
+   * First byte of the binary encoding. JSON documents never start with a NUL byte, which lets
+   * receivers accept both formats on the same topic.
+   */
+  private static final byte BINARY_MAGIC = 0;
+  private static final byte BINARY_VERSION = 1;
+
+  private static final int FLAG_NODE_ID = 1;
+  private static final int FLAG_KEY = 1 << 1;
+  private static final int FLAG_KEYS = 1 << 2;
+
+  /**
+   * Id of the node that sent the message, used by receivers to skip their own messages.
+   */
+  private String nodeId;
+
   private String cacheName;
 
   private String key;
 
+  /**
+   * Keys of a batch eviction, sent as one message instead of one message per key. Nodes that do not
+   * know this field see a message without key and clear the whole local cache, which is safe.
+   */
+  private List<String> keys;
+
   public static CacheMessage of(String cacheName, String key) {
     return new CacheMessage().setCacheName(cacheName).setKey(key);
   }
+
+  public static CacheMessage ofKeys(String cacheName, Collection<String> keys) {
+    return new CacheMessage().setCacheName(cacheName).setKeys(new ArrayList<>(keys));
+  }
+
+  /**
+   * Encode to the compact binary format: magic, version, presence flags, then length-prefixed UTF-8
+   * strings.
+   */
+  public byte[] encode() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(BINARY_MAGIC);
+      out.writeByte(BINARY_VERSION);
+      int flags = (nodeId != null ? FLAG_NODE_ID : 0)
+          | (key != null ? FLAG_KEY : 0)
+          | (keys != null ? FLAG_KEYS : 0);
+      out.writeByte(flags);
+      writeString(out, cacheName == null ? "" : cacheName);
+      if (nodeId != null) {
+        writeString(out, nodeId);
+      }
+      if (key != null) {
+        writeString(out, key);
+      }
+      if (keys != null) {
+        out.writeInt(keys.size());
+        for (String k : keys) {
+          writeString(out, k);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Whether the payload uses the binary format produced by {@link #encode()}.
+   */
+  public static boolean isBinary(byte[] body) {
+    return body != null && body.length > 1 && body[0] == BINARY_MAGIC;
+  }
+
+  /**
+   * Decode a payload produced by {@link #encode()}.
+   */
+  public static CacheMessage decode(byte[] body) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+      if (in.readByte() != BINARY_MAGIC) {
+        throw new IllegalArgumentException("Not a binary cache message");
+      }
+      byte version = in.readByte();
+      if (version != BINARY_VERSION) {
+        throw new IllegalArgumentException("Unsupported cache message version: " + version);
+      }
+      int flags = in.readByte();
+      CacheMessage message = new CacheMessage().setCacheName(readString(in));
+      if ((flags & FLAG_NODE_ID) != 0) {
+        message.setNodeId(readString(in));
+      }
+      if ((flags & FLAG_KEY) != 0) {
+        message.setKey(readString(in));
+      }
+      if ((flags & FLAG_KEYS) != 0) {
+        int size = in.readInt();
+        List<String> keys = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          keys.add(readString(in));
+        }
+        message.setKeys(keys);
+      }
+      return message;
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Malformed binary cache message", e);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
 }
@@ -3,12 +3,18 @@ package cloud.xcan.angus.l2cache.synchronous;
 
 import cloud.xcan.angus.l2cache.spring.CacheManagerClear;
 import cloud.xcan.angus.spec.experimental.Assert;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
 
+/**
+ * Applies cache messages from other nodes to the local L1 caches. Both the binary and the JSON
+ * format are accepted regardless of the configured publishing codec, and messages carrying the
+ * local node id are ignored.
+ */
 @Slf4j
 public class CacheMessageListener implements MessageListener {
 
@@ -16,25 +22,49 @@ public class CacheMessageListener implements MessageListener {
 
   private final ObjectMapper objectMapper;
 
+  private final String nodeId;
+
   public CacheMessageListener(CacheManagerClear cacheManagerClear, ObjectMapper objectMapper) {
+    this(cacheManagerClear, objectMapper, null);
+  }
+
+  public CacheMessageListener(CacheManagerClear cacheManagerClear, ObjectMapper objectMapper,
+      String nodeId) {
     super();
     this.cacheManagerClear = cacheManagerClear;
     this.objectMapper = objectMapper;
+    this.nodeId = nodeId;
   }
 
   @Override
   public void onMessage(Message message, byte[] pattern) {
-    log.debug("The l2cache[{}] topic message: {}",
-        cacheManagerClear.getClass().getSimpleName(), new String(message.getBody()));
-    // CacheMessage cacheMessage = JsonUtils.fromJson(message.getBody(), CacheMessage.class);
+    byte[] body = message.getBody();
     CacheMessage cacheMessage;
     try {
-      cacheMessage = objectMapper.readValue(new String(message.getBody()), CacheMessage.class);
-    } catch (JsonProcessingException e) {
+      if (CacheMessage.isBinary(body)) {
+        cacheMessage = CacheMessage.decode(body);
+      } else {
+        if (log.isDebugEnabled()) {
+          log.debug("The l2cache[{}] topic message: {}",
+              cacheManagerClear.getClass().getSimpleName(),
+              new String(body, StandardCharsets.UTF_8));
+        }
+        cacheMessage = objectMapper.readValue(body, CacheMessage.class);
+      }
+    } catch (IOException | IllegalArgumentException e) {
       throw new RuntimeException("Read cache message exception", e);
     }
     Assert.assertNotNull(cacheMessage,
         "The l2cache topic deserialized message is null, src message: {}", message.toString());
+    if (nodeId != null && nodeId.equals(cacheMessage.getNodeId())) {
+      return; // Self-originated, the local cache is already up to date
+    }
+    if (cacheMessage.getKeys() != null && !cacheMessage.getKeys().isEmpty()) {
+      log.debug("Received l2cache clear local cache message, cacheName: {}, keys: {}",
+          cacheMessage.getCacheName(), cacheMessage.getKeys().size());
+      cacheManagerClear.clearLocalKeys(cacheMessage.getCacheName(), cacheMessage.getKeys());
+      return;
+    }
     log.debug("Received l2cache clear local cache message, cacheName: {}, key: {}",
         cacheMessage.getCacheName(), cacheMessage.getKey());
     cacheManagerClear.clearLocal(cacheMessage.getCacheName(), cacheMessage.getKey());
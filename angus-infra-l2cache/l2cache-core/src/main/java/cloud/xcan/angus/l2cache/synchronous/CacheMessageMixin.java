@@ -2,15 +2,22 @@ package cloud.xcan.angus.l2cache.synchronous;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.io.Serializable;
+import java.util.List;
 import lombok.Getter;
 
 @Getter
 public class CacheMessageMixin implements Serializable {
 
+  @JsonProperty("nodeId")
+  private String nodeId;
+
   @JsonProperty("cacheName")
   private String cacheName;
 
   @JsonProperty("key")
   private Object key;
 
+  @JsonProperty("keys")
+  private List<String> keys;
+
 }
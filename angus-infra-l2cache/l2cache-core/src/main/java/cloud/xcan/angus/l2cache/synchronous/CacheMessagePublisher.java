@@ -0,0 +1,171 @@
+package cloud.xcan.angus.l2cache.synchronous;
+
+import cloud.xcan.angus.l2cache.config.L2CacheProperties.MessageCodec;
+import cloud.xcan.angus.lettucex.util.RedisService;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+
+/**
+ * <p>
+ * Publishes {@link CacheMessage} invalidations to the other application instances.
+ * </p>
+ *
+ * <p>
+ * With a positive {@code batchIntervalMillis}, invalidations are coalesced per cache name and sent
+ * once per interval as a single multi-key message; a pending clear of a cache supersedes its pending
+ * keys. With an interval of 0 every invalidation is sent immediately.
+ * </p>
+ *
+ * <p>
+ * Every message is stamped with the node id of this instance so that receivers can ignore their own
+ * messages.
+ * </p>
+ */
+@Slf4j
+public class CacheMessagePublisher implements AutoCloseable {
+
+  private final RedisService<Object> redisService;
+  private final String topic;
+  private final MessageCodec codec;
+  private final String nodeId;
+  private final long batchIntervalMillis;
+
+  /**
+   * Pending keys per cache name. Sets are only mutated inside {@code compute}, so removing an entry
+   * hands the flusher a set that no other thread touches anymore.
+   */
+  private final Map<String, Set<String>> pendingKeys = new ConcurrentHashMap<>();
+  private final Set<String> pendingClears = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+  private final ScheduledExecutorService scheduler;
+
+  public CacheMessagePublisher(RedisService<Object> redisService, String topic,
+      MessageCodec codec, String nodeId, long batchIntervalMillis) {
+    this.redisService = redisService;
+    this.topic = topic;
+    this.codec = codec == null ? MessageCodec.JSON : codec;
+    this.nodeId = nodeId;
+    this.batchIntervalMillis = Math.max(0, batchIntervalMillis);
+    if (this.batchIntervalMillis > 0) {
+      this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "angus-l2cache-publisher");
+        t.setDaemon(true);
+        return t;
+      });
+      this.scheduler.scheduleWithFixedDelay(this::flush, this.batchIntervalMillis,
+          this.batchIntervalMillis, TimeUnit.MILLISECONDS);
+    } else {
+      this.scheduler = null;
+    }
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * Publish an invalidation, either immediately or as part of the next batch. A message without key
+   * and keys clears the whole cache.
+   *
+   * @param message the cache invalidation message
+   */
+  public void publish(CacheMessage message) {
+    if (scheduler == null || closed.get()) {
+      send(message.setNodeId(nodeId));
+      return;
+    }
+    String cacheName = message.getCacheName();
+    if (message.getKeys() == null && message.getKey() == null) {
+      pendingClears.add(cacheName);
+      pendingKeys.remove(cacheName);
+      return;
+    }
+    if (pendingClears.contains(cacheName)) {
+      return; // Covered by the pending clear
+    }
+    pendingKeys.compute(cacheName, (name, keys) -> {
+      Set<String> result = keys == null ? new HashSet<>() : keys;
+      if (message.getKeys() != null) {
+        result.addAll(message.getKeys());
+      } else {
+        result.add(message.getKey());
+      }
+      return result;
+    });
+  }
+
+  /**
+   * Send all pending invalidations, one message per cache name.
+   */
+  public void flush() {
+    for (String cacheName : pendingClears) {
+      if (pendingClears.remove(cacheName)) {
+        pendingKeys.remove(cacheName);
+        send(CacheMessage.of(cacheName, null).setNodeId(nodeId));
+      }
+    }
+    for (String cacheName : pendingKeys.keySet()) {
+      Set<String> keys = pendingKeys.remove(cacheName);
+      if (keys == null || keys.isEmpty()) {
+        continue;
+      }
+      // Single keys keep the original message shape understood by every node version
+      CacheMessage message = keys.size() == 1
+          ? CacheMessage.of(cacheName, keys.iterator().next())
+          : CacheMessage.ofKeys(cacheName, keys);
+      send(message.setNodeId(nodeId));
+    }
+  }
+
+  /**
+   * Stop the background flusher and send every pending invalidation.
+   */
+  @Override
+  public void close() {
+    if (!closed.compareAndSet(false, true) || scheduler == null) {
+      return;
+    }
+    scheduler.shutdown();
+    try {
+      if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+        scheduler.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      scheduler.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  private void send(CacheMessage message) {
+    try {
+      if (codec == MessageCodec.BINARY) {
+        byte[] channel = topic.getBytes(StandardCharsets.UTF_8);
+        byte[] body = message.encode();
+        redisService.getRedisTemplate().execute(
+            (RedisCallback<Long>) connection -> connection.publish(channel, body));
+      } else {
+        redisService.getRedisTemplate().convertAndSend(topic, message);
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Sent cache invalidation message, cacheName: {}, key: {}, keys: {}",
+            message.getCacheName(), message.getKey(),
+            message.getKeys() == null ? 0 : message.getKeys().size());
+      }
+    } catch (Exception e) {
+      log.error("Failed to send cache invalidation message, cacheName: {}",
+          message.getCacheName(), e);
+      // Don't throw exception as this would break the cache operation
+      // Local cache inconsistency is better than complete failure
+    }
+  }
+}
@@ -19,6 +19,14 @@ class L2CachePropertiesTest {
     assertThat(p.getCaffeine().getExpireAfterAccess()).isZero();
     assertThat(p.getRedis().getDefaultExpiration()).isZero();
     assertThat(p.getRedis().getTopic()).isEqualTo("l2cache:topic");
+    assertThat(p.getRedis().getNodeId()).isNull();
+    assertThat(p.getLoading().getMode()).isEqualTo(L2CacheProperties.LoadingMode.SINGLE_FLIGHT);
+    assertThat(p.getLoading().getLockStripes()).isEqualTo(64);
+    assertThat(p.getRefreshAhead().isEnabled()).isFalse();
+    assertThat(p.getRefreshAhead().getBeta()).isEqualTo(1.0);
+    assertThat(p.getRefreshAhead().getDefaultLoadMillis()).isEqualTo(100);
+    assertThat(p.getRedis().getMessageBatchIntervalMillis()).isZero();
+    assertThat(p.getRedis().getMessageCodec()).isEqualTo(L2CacheProperties.MessageCodec.JSON);
 
     p.setEnabled(true).setDynamic(false);
     p.getCacheNames().add("a");
@@ -92,6 +92,34 @@ class RedisCaffeineCacheManagerTest {
     assertThat(mgr.getCacheCount()).isEqualTo(1);
   }
 
+  @Test
+  void nodeIdFromPropertiesOrGenerated() {
+    L2CacheProperties p = new L2CacheProperties();
+    p.getRedis().setNodeId("node-a");
+    assertThat(newManager(p).getNodeId()).isEqualTo("node-a");
+    assertThat(newManager(new L2CacheProperties()).getNodeId()).isNotBlank()
+        .isNotEqualTo(newManager(new L2CacheProperties()).getNodeId());
+  }
+
+  @Test
+  void closeStopsPublisher() {
+    L2CacheProperties p = new L2CacheProperties();
+    p.getRedis().setMessageBatchIntervalMillis(60_000);
+    RedisCaffeineCacheManager mgr = newManager(p);
+    mgr.close();
+    mgr.close();
+  }
+
+  @Test
+  void refreshAheadCacheCreatedAndManagerClosed() {
+    L2CacheProperties p = new L2CacheProperties();
+    p.getRefreshAhead().setEnabled(true);
+    p.getRedis().setDefaultExpiration(60_000);
+    RedisCaffeineCacheManager mgr = newManager(p);
+    assertThat(mgr.getCache("refreshing")).isInstanceOf(RedisCaffeineCache.class);
+    mgr.close();
+  }
+
   @Test
   void getCacheNamesFallsBackToEmptyWhenNullSet() {
     L2CacheProperties p = new L2CacheProperties();
@@ -116,6 +144,15 @@ class RedisCaffeineCacheManagerTest {
     mgr.clearLocal("c1", "kk");
   }
 
+  @Test
+  void clearLocalKeysOnExistingCache() {
+    RedisCaffeineCacheManager mgr = newManager(new L2CacheProperties());
+    mgr.getCache("c1");
+    mgr.clearLocalKeys("c1", List.of("k1", "k2"));
+    mgr.clearLocalKeys("", List.of("k1"));
+    mgr.clearLocalKeys("missing", List.of("k1"));
+  }
+
   @Test
   void evictNoOpForBlankNameOrEmptyKeys() {
     RedisCaffeineCacheManager mgr = newManager(new L2CacheProperties());
@@ -3,36 +3,54 @@ package cloud.xcan.angus.l2cache.spring;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import cloud.xcan.angus.l2cache.config.L2CacheProperties;
+import cloud.xcan.angus.l2cache.synchronous.CacheMessage;
+import cloud.xcan.angus.l2cache.synchronous.CacheMessagePublisher;
 import cloud.xcan.angus.lettucex.util.RedisService;
 import cloud.xcan.angus.spec.principal.Principal;
 import cloud.xcan.angus.spec.principal.PrincipalContext;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache.ValueWrapper;
 import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 
 @ExtendWith(MockitoExtension.class)
 class RedisCaffeineCacheTest {
@@ -182,6 +200,215 @@ class RedisCaffeineCacheTest {
             ex -> assertThat(ex.getClass().getSimpleName()).isEqualTo("ValueRetrievalException"));
   }
 
+  @Test
+  void getCallableSharesOneLoadAcrossConcurrentCallers() throws Exception {
+    String k = "sf";
+    // Late callers must see the stored value rather than start a second load
+    AtomicReference<Object> stored = new AtomicReference<>();
+    when(redisService.get(redisKey(k))).thenAnswer(inv -> stored.get());
+    doAnswer(inv -> {
+      stored.set(inv.getArgument(1));
+      return null;
+    }).when(redisService).set(eq(redisKey(k)), any());
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    Callable<String> loader = () -> {
+      calls.incrementAndGet();
+      loading.countDown();
+      release.await();
+      return "v";
+    };
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      Future<String> leader = pool.submit(() -> cache.get(k, loader));
+      assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+      List<Future<String>> waiters = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        waiters.add(pool.submit(() -> cache.get(k, loader)));
+      }
+      Thread.sleep(50);
+      release.countDown();
+      assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("v");
+      for (Future<String> waiter : waiters) {
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isEqualTo("v");
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    assertThat(calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  void getCallableFailureIsNotCachedAsInFlight() {
+    String k = "retry";
+    AtomicInteger calls = new AtomicInteger();
+    Callable<String> loader = () -> {
+      if (calls.incrementAndGet() == 1) {
+        throw new IllegalStateException("first");
+      }
+      return "second";
+    };
+    assertThatThrownBy(() -> cache.get(k, loader))
+        .hasCauseInstanceOf(IllegalStateException.class);
+    assertThat(cache.get(k, loader)).isEqualTo("second");
+  }
+
+  @Test
+  void getCallableWithStripedLocks() throws Exception {
+    properties.getLoading().setMode(L2CacheProperties.LoadingMode.STRIPED_LOCK)
+        .setLockStripes(3);
+    cache = new RedisCaffeineCache(CACHE_NAME, redisService, level1, properties);
+    when(redisService.get(redisKey("s"))).thenReturn(null, null, "loaded");
+    AtomicInteger calls = new AtomicInteger();
+    Callable<String> loader = () -> {
+      calls.incrementAndGet();
+      return "loaded";
+    };
+    assertThat(cache.get("s", loader)).isEqualTo("loaded");
+    assertThat(cache.get("s", loader)).isEqualTo("loaded");
+    assertThat(calls.get()).isEqualTo(1);
+    assertThatThrownBy(() -> cache.get("t", () -> {
+      throw new IllegalStateException("boom");
+    })).hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void getAsyncLoadsOnceWithoutBlocking() throws Exception {
+    CompletableFuture<String> pending = new CompletableFuture<>();
+    AtomicInteger calls = new AtomicInteger();
+    Supplier<CompletableFuture<String>> loader = () -> {
+      calls.incrementAndGet();
+      return pending;
+    };
+    CompletableFuture<String> first = cache.getAsync("async", loader);
+    CompletableFuture<String> second = cache.getAsync("async", loader);
+    assertThat(first).isNotDone();
+    assertThat(second).isNotDone();
+
+    pending.complete("v");
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("v");
+    assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("v");
+    assertThat(calls.get()).isEqualTo(1);
+    verify(redisService).set(redisKey("async"), "v");
+  }
+
+  @Test
+  void getAsyncStoresUnderCallerTenantWhenCompletedElsewhere() throws Exception {
+    CompletableFuture<String> pending = new CompletableFuture<>();
+    CompletableFuture<String> result = cache.getAsync("tenant", () -> pending);
+    Thread completer = new Thread(() -> pending.complete("v"));
+    completer.start();
+    completer.join();
+    assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("v");
+    verify(redisService).set(redisKey("tenant"), "v");
+  }
+
+  @Test
+  void inFlightLoadsAreNotSharedAcrossTenants() {
+    CompletableFuture<String> pending = new CompletableFuture<>();
+    AtomicInteger calls = new AtomicInteger();
+    cache.getAsync("shared", () -> {
+      calls.incrementAndGet();
+      return pending;
+    });
+    PrincipalContext.set(new Principal().setTenantId(2L).setOptTenantId(2L));
+    cache.getAsync("shared", () -> {
+      calls.incrementAndGet();
+      return new CompletableFuture<>();
+    });
+    assertThat(calls.get()).isEqualTo(2);
+  }
+
+  @Test
+  void getAsyncReturnsCachedValue() throws Exception {
+    when(redisService.get(redisKey("hit"))).thenReturn("cached");
+    assertThat(cache.getAsync("hit", () -> CompletableFuture.completedFuture("other"))
+        .get()).isEqualTo("cached");
+    assertThat(cache.retrieve("hit", () -> CompletableFuture.completedFuture("other"))
+        .get()).isEqualTo("cached");
+  }
+
+  @Test
+  void retrieveWrapsValueOrReturnsNull() throws Exception {
+    when(redisService.get(redisKey("r"))).thenReturn("v");
+    assertThat(cache.retrieve("r").get()).isInstanceOfSatisfying(ValueWrapper.class,
+        w -> assertThat(w.get()).isEqualTo("v"));
+    assertThat(cache.retrieve("missing")).isNull();
+  }
+
+  private RedisCaffeineCache refreshAheadCache(double beta) {
+    properties.getRedis().getExpires().put(CACHE_NAME, 60_000L);
+    properties.getRefreshAhead().setEnabled(true).setBeta(beta);
+    return new RedisCaffeineCache(CACHE_NAME, redisService, level1, properties,
+        new CacheMessagePublisher(redisService, "test-topic", null, null, 0), Runnable::run);
+  }
+
+  @Test
+  void refreshAheadReloadsEntryNearExpiryInBackground() {
+    cache = refreshAheadCache(1e9);
+    when(redisService.get(redisKey("hot"))).thenReturn("old");
+    when(redisService.getExpire(redisKey("hot"), TimeUnit.MILLISECONDS)).thenReturn(100L);
+    AtomicInteger calls = new AtomicInteger();
+    Callable<String> loader = () -> {
+      calls.incrementAndGet();
+      return "new";
+    };
+    assertThat(cache.get("hot", loader)).isEqualTo("old");
+    assertThat(calls.get()).isEqualTo(1);
+    verify(redisService).set(redisKey("hot"), "new", 60_000L, TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  void refreshAheadSkipsEntryFarFromExpiry() {
+    cache = refreshAheadCache(1.0);
+    when(redisService.get(redisKey("cold"))).thenReturn("v");
+    when(redisService.getExpire(redisKey("cold"), TimeUnit.MILLISECONDS)).thenReturn(59_000L);
+    AtomicInteger calls = new AtomicInteger();
+    Callable<String> loader = () -> {
+      calls.incrementAndGet();
+      return "new";
+    };
+    assertThat(cache.get("cold", loader)).isEqualTo("v");
+    assertThat(cache.get("cold", loader)).isEqualTo("v");
+    assertThat(calls.get()).isZero();
+    // Expiry is fetched once and then tracked locally
+    verify(redisService, times(1)).getExpire(redisKey("cold"), TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  void refreshAheadKeepsEntryRefreshedByAnotherNode() {
+    cache = refreshAheadCache(1e9);
+    when(redisService.get(redisKey("peer"))).thenReturn("v");
+    when(redisService.getExpire(redisKey("peer"), TimeUnit.MILLISECONDS))
+        .thenReturn(100L, 50_000L);
+    AtomicInteger calls = new AtomicInteger();
+    assertThat(cache.get("peer", () -> {
+      calls.incrementAndGet();
+      return "new";
+    })).isEqualTo("v");
+    assertThat(calls.get()).isZero();
+    verify(redisService, never()).set(eq(redisKey("peer")), any(), anyLong(), any());
+  }
+
+  @Test
+  void refreshAheadFailureKeepsCurrentValue() {
+    cache = refreshAheadCache(1e9);
+    when(redisService.get(redisKey("f"))).thenReturn("v");
+    when(redisService.getExpire(redisKey("f"), TimeUnit.MILLISECONDS)).thenReturn(100L);
+    Callable<String> failing = () -> {
+      throw new IllegalStateException("down");
+    };
+    assertThat(cache.get("f", failing)).isEqualTo("v");
+  }
+
+  @Test
+  void refreshAheadDisabledByDefault() {
+    when(redisService.get(redisKey("d"))).thenReturn("v");
+    assertThat(cache.get("d", () -> "new")).isEqualTo("v");
+    verify(redisService, never()).getExpire(anyString(), any());
+  }
+
   @Test
   void putDisallowsNullWhenConfigured() {
     properties.setAllowNullValues(false);
@@ -215,37 +442,105 @@ class RedisCaffeineCacheTest {
   }
 
   @Test
-  void evictCollection() {
-    cache.evict(List.of("x", "y"));
-    verify(redisService).delete(redisKey("x"));
-    verify(redisService).delete(redisKey("y"));
+  void evictCollectionUnlinksOnceAndPublishesOneMessage() {
+    level1.put("x", 1);
+    level1.put("y", 2);
+    level1.put("z", 3);
+    cache.evict(List.of("x", "y", "x"));
+    verify(redisTemplate).unlink(List.of(redisKey("x"), redisKey("y")));
+    verify(redisService, never()).delete(anyString());
+    ArgumentCaptor<CacheMessage> message = ArgumentCaptor.forClass(CacheMessage.class);
+    verify(redisTemplate, times(1)).convertAndSend(eq("test-topic"), message.capture());
+    assertThat(message.getValue().getKeys()).containsExactly("x", "y");
+    assertThat(level1.asMap()).containsOnlyKeys("z");
+  }
+
+  @Test
+  void evictCollectionSplitsLargeBatches() {
+    List<Object> keys = new ArrayList<>();
+    for (int i = 0; i < 2500; i++) {
+      keys.add("k" + i);
+    }
+    cache.evict(keys);
+    verify(redisTemplate, times(3)).unlink(anyCollection());
+    verify(redisTemplate, times(1)).convertAndSend(eq("test-topic"), any());
   }
 
   @Test
-  void clearDeletesKeysAndLocal() {
-    when(redisService.keys(CACHE_NAME + ":*")).thenReturn(Set.of(redisKey("1"), redisKey("2")));
+  void evictEmptyCollectionIsNoOp() {
+    cache.evict(Collections.emptyList());
+    verify(redisTemplate, never()).unlink(anyCollection());
+    verify(redisTemplate, never()).convertAndSend(anyString(), any());
+  }
+
+  @SuppressWarnings("unchecked")
+  private Cursor<String> cursorOf(String... keys) {
+    Cursor<String> cursor = mock(Cursor.class);
+    Iterator<String> it = List.of(keys).iterator();
+    when(cursor.hasNext()).thenAnswer(inv -> it.hasNext());
+    lenient().when(cursor.next()).thenAnswer(inv -> it.next());
+    return cursor;
+  }
+
+  @Test
+  void clearScansPrefixedKeysAndUnlinks() {
+    Cursor<String> cursor = cursorOf(redisKey("1"), redisKey("2"));
+    ArgumentCaptor<ScanOptions> options = ArgumentCaptor.forClass(ScanOptions.class);
+    when(redisTemplate.scan(options.capture())).thenReturn(cursor);
+    level1.put("1", 1);
     cache.clear();
-    verify(redisService).delete(Set.of(redisKey("1"), redisKey("2")));
+    assertThat(options.getValue().getPattern()).isEqualTo("j2cache:" + CACHE_NAME + ":*");
+    verify(redisTemplate).unlink(List.of(redisKey("1"), redisKey("2")));
+    verify(redisService, never()).keys(anyString());
+    verify(cursor).close();
     assertThat(level1.estimatedSize()).isZero();
   }
 
+  @Test
+  void clearUnlinksInBatches() {
+    String[] keys = new String[2001];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = redisKey("k" + i);
+    }
+    Cursor<String> cursor = cursorOf(keys);
+    when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+    cache.clear();
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Collection<String>> batches = ArgumentCaptor.forClass(Collection.class);
+    verify(redisTemplate, times(3)).unlink(batches.capture());
+    assertThat(batches.getAllValues()).extracting(Collection::size)
+        .containsExactly(1000, 1000, 1);
+    verify(cursor).close();
+  }
+
   @Test
   void clearWhenNoKeysStillInvalidatesLocalAndPublishes() {
-    when(redisService.keys(CACHE_NAME + ":*")).thenReturn(Collections.emptySet());
+    Cursor<String> cursor = cursorOf();
+    when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
     level1.put("z", "z");
     cache.clear();
+    verify(redisTemplate, never()).unlink(anyCollection());
     verify(redisTemplate).convertAndSend(eq("test-topic"), any());
     assertThat(level1.getIfPresent("z")).isNull();
   }
 
   @Test
   void clearPropagatesRedisFailure() {
-    when(redisService.keys(CACHE_NAME + ":*")).thenThrow(new RuntimeException("keys"));
+    when(redisTemplate.scan(any(ScanOptions.class))).thenThrow(new RuntimeException("scan"));
     assertThatThrownBy(() -> cache.clear())
         .isInstanceOf(RuntimeException.class)
         .hasMessageContaining("Failed to clear cache");
   }
 
+  @Test
+  void clearLocalKeys() {
+    level1.put("a", 1);
+    level1.put("b", 2);
+    level1.put("c", 3);
+    cache.clearLocalKeys(List.of("a", "b"));
+    assertThat(level1.asMap()).containsOnlyKeys("c");
+  }
+
   @Test
   void clearLocalAllAndSingleKey() {
     level1.put("a", 1);
@@ -1,13 +1,18 @@
 package cloud.xcan.angus.l2cache.synchronous;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import cloud.xcan.angus.l2cache.spring.CacheManagerClear;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.redis.connection.Message;
 
@@ -29,6 +34,54 @@ class CacheMessageListenerTest {
     verify(mgr).clearLocal("cacheA", "key1");
   }
 
+  @Test
+  void onMessageWithKeysClearsLocalKeys() throws Exception {
+    CacheManagerClear mgr = mock(CacheManagerClear.class);
+    ObjectMapper om = new ObjectMapper();
+    CacheMessageListener listener = new CacheMessageListener(mgr, om);
+
+    Message message = mock(Message.class);
+    String json = om.writeValueAsString(CacheMessage.ofKeys("cacheA", List.of("k1", "k2")));
+    when(message.getBody()).thenReturn(json.getBytes(StandardCharsets.UTF_8));
+
+    listener.onMessage(message, null);
+
+    verify(mgr).clearLocalKeys("cacheA", List.of("k1", "k2"));
+    verify(mgr, never()).clearLocal(eq("cacheA"), any());
+  }
+
+  @Test
+  void onMessageDecodesBinaryPayload() {
+    CacheManagerClear mgr = mock(CacheManagerClear.class);
+    CacheMessageListener listener = new CacheMessageListener(mgr, new ObjectMapper(), "self");
+
+    Message message = mock(Message.class);
+    when(message.getBody()).thenReturn(
+        CacheMessage.ofKeys("cacheA", List.of("k1", "k2")).setNodeId("other").encode());
+
+    listener.onMessage(message, null);
+
+    verify(mgr).clearLocalKeys("cacheA", List.of("k1", "k2"));
+  }
+
+  @Test
+  void onMessageSkipsSelfOriginatedMessages() throws Exception {
+    CacheManagerClear mgr = mock(CacheManagerClear.class);
+    ObjectMapper om = new ObjectMapper();
+    CacheMessageListener listener = new CacheMessageListener(mgr, om, "self");
+
+    Message json = mock(Message.class);
+    when(json.getBody()).thenReturn(om.writeValueAsBytes(
+        CacheMessage.of("cacheA", "k1").setNodeId("self")));
+    Message binary = mock(Message.class);
+    when(binary.getBody()).thenReturn(CacheMessage.of("cacheA", "k1").setNodeId("self").encode());
+
+    listener.onMessage(json, null);
+    listener.onMessage(binary, null);
+
+    verifyNoInteractions(mgr);
+  }
+
   @Test
   void onMessageInvalidJsonThrows() {
     CacheManagerClear mgr = mock(CacheManagerClear.class);
@@ -0,0 +1,139 @@
+package cloud.xcan.angus.l2cache.synchronous;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cloud.xcan.angus.l2cache.config.L2CacheProperties.MessageCodec;
+import cloud.xcan.angus.lettucex.util.RedisService;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+class CacheMessagePublisherTest {
+
+  private RedisService<Object> redisService;
+  private RedisTemplate<String, Object> redisTemplate;
+  private CacheMessagePublisher publisher;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    redisService = mock(RedisService.class);
+    redisTemplate = mock(RedisTemplate.class);
+    when(redisService.getRedisTemplate()).thenReturn(redisTemplate);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (publisher != null) {
+      publisher.close();
+    }
+  }
+
+  private CacheMessagePublisher batching(MessageCodec codec) {
+    // Long interval keeps the background flusher out of the way, tests flush explicitly
+    return new CacheMessagePublisher(redisService, "topic", codec, "node-1", 60_000);
+  }
+
+  private List<CacheMessage> sentMessages(int times) {
+    ArgumentCaptor<CacheMessage> captor = ArgumentCaptor.forClass(CacheMessage.class);
+    verify(redisTemplate, times(times)).convertAndSend(eq("topic"), captor.capture());
+    return captor.getAllValues();
+  }
+
+  @Test
+  void immediateModeSendsEachMessageWithNodeId() {
+    publisher = new CacheMessagePublisher(redisService, "topic", MessageCodec.JSON, "node-1", 0);
+    publisher.publish(CacheMessage.of("c", "k1"));
+    publisher.publish(CacheMessage.of("c", "k2"));
+    List<CacheMessage> sent = sentMessages(2);
+    assertThat(sent).extracting(CacheMessage::getNodeId).containsOnly("node-1");
+  }
+
+  @Test
+  void batchingCoalescesKeysPerCacheName() {
+    publisher = batching(MessageCodec.JSON);
+    publisher.publish(CacheMessage.of("a", "k1"));
+    publisher.publish(CacheMessage.of("a", "k2"));
+    publisher.publish(CacheMessage.of("a", "k1"));
+    publisher.publish(CacheMessage.ofKeys("a", List.of("k3")));
+    publisher.publish(CacheMessage.of("b", "k1"));
+    verify(redisTemplate, never()).convertAndSend(anyString(), any());
+
+    publisher.flush();
+    List<CacheMessage> sent = sentMessages(2);
+    CacheMessage a = sent.stream().filter(m -> "a".equals(m.getCacheName())).findFirst()
+        .orElseThrow();
+    CacheMessage b = sent.stream().filter(m -> "b".equals(m.getCacheName())).findFirst()
+        .orElseThrow();
+    assertThat(a.getKeys()).containsExactlyInAnyOrder("k1", "k2", "k3");
+    assertThat(b.getKey()).isEqualTo("k1");
+    assertThat(b.getKeys()).isNull();
+    assertThat(a.getNodeId()).isEqualTo("node-1");
+  }
+
+  @Test
+  void pendingClearSupersedesKeys() {
+    publisher = batching(MessageCodec.JSON);
+    publisher.publish(CacheMessage.of("a", "k1"));
+    publisher.publish(CacheMessage.of("a", null));
+    publisher.publish(CacheMessage.of("a", "k2"));
+    publisher.flush();
+    CacheMessage sent = sentMessages(1).get(0);
+    assertThat(sent.getKey()).isNull();
+    assertThat(sent.getKeys()).isNull();
+  }
+
+  @Test
+  void closeFlushesPendingMessages() {
+    publisher = batching(MessageCodec.JSON);
+    publisher.publish(CacheMessage.of("a", "k1"));
+    publisher.close();
+    sentMessages(1);
+
+    // After close messages are sent immediately
+    publisher.publish(CacheMessage.of("a", "k2"));
+    sentMessages(2);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void binaryCodecPublishesEncodedBytes() {
+    publisher = new CacheMessagePublisher(redisService, "topic", MessageCodec.BINARY, "node-1", 0);
+    publisher.publish(CacheMessage.of("c", "k"));
+
+    ArgumentCaptor<RedisCallback<Long>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+    verify(redisTemplate).execute(callback.capture());
+    verify(redisTemplate, never()).convertAndSend(anyString(), any());
+
+    RedisConnection connection = mock(RedisConnection.class);
+    callback.getValue().doInRedis(connection);
+    ArgumentCaptor<byte[]> body = ArgumentCaptor.forClass(byte[].class);
+    verify(connection).publish(eq("topic".getBytes(StandardCharsets.UTF_8)), body.capture());
+    CacheMessage decoded = CacheMessage.decode(body.getValue());
+    assertThat(decoded.getNodeId()).isEqualTo("node-1");
+    assertThat(decoded.getKey()).isEqualTo("k");
+  }
+
+  @Test
+  void sendFailureIsSwallowed() {
+    publisher = new CacheMessagePublisher(redisService, "topic", MessageCodec.JSON, "node-1", 0);
+    doThrow(new RuntimeException("down")).when(redisTemplate).convertAndSend(anyString(), any());
+    publisher.publish(CacheMessage.of("c", "k"));
+    sentMessages(1);
+  }
+}
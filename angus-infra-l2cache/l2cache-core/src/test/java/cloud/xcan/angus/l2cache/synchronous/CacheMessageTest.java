@@ -1,7 +1,11 @@
 package cloud.xcan.angus.l2cache.synchronous;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 class CacheMessageTest {
@@ -19,4 +23,39 @@ class CacheMessageTest {
     assertThat(m.getCacheName()).isEqualTo("c");
     assertThat(m.getKey()).isEqualTo("k");
   }
+
+  @Test
+  void ofKeysCopiesKeys() {
+    List<String> keys = new ArrayList<>(List.of("a", "b"));
+    CacheMessage m = CacheMessage.ofKeys("region", keys);
+    keys.add("c");
+    assertThat(m.getCacheName()).isEqualTo("region");
+    assertThat(m.getKey()).isNull();
+    assertThat(m.getKeys()).containsExactly("a", "b");
+  }
+
+  @Test
+  void binaryRoundTrip() {
+    CacheMessage m = CacheMessage.ofKeys("region", List.of("a", "键")).setNodeId("n1");
+    byte[] body = m.encode();
+    assertThat(CacheMessage.isBinary(body)).isTrue();
+    CacheMessage decoded = CacheMessage.decode(body);
+    assertThat(decoded.getNodeId()).isEqualTo("n1");
+    assertThat(decoded.getCacheName()).isEqualTo("region");
+    assertThat(decoded.getKey()).isNull();
+    assertThat(decoded.getKeys()).containsExactly("a", "键");
+
+    CacheMessage clear = CacheMessage.decode(CacheMessage.of("region", null).encode());
+    assertThat(clear.getNodeId()).isNull();
+    assertThat(clear.getKey()).isNull();
+    assertThat(clear.getKeys()).isNull();
+  }
+
+  @Test
+  void jsonIsNotBinary() {
+    assertThat(CacheMessage.isBinary("{\"key\":\"k\"}".getBytes(StandardCharsets.UTF_8)))
+        .isFalse();
+    assertThatThrownBy(() -> CacheMessage.decode(new byte[]{0, 9, 0}))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
 }
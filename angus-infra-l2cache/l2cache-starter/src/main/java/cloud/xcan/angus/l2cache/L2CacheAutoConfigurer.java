@@ -120,8 +120,10 @@ public class L2CacheAutoConfigurer {
     redisMessageListenerContainer
         .setConnectionFactory(
             Objects.requireNonNull(l2cacheRedisService.getRedisTemplate().getConnectionFactory()));
-    CacheMessageListener cacheMessageListener = new CacheMessageListener(
-        (RedisCaffeineCacheManager) l2cacheRedisCaffeineCacheManager, l2cacheRedisObjectMapper);
+    RedisCaffeineCacheManager cacheManager =
+        (RedisCaffeineCacheManager) l2cacheRedisCaffeineCacheManager;
+    CacheMessageListener cacheMessageListener = new CacheMessageListener(cacheManager,
+        l2cacheRedisObjectMapper, cacheManager.getNodeId());
     redisMessageListenerContainer.addMessageListener(cacheMessageListener,
         new ChannelTopic(l2CacheProperties.getRedis().getTopic()));
     return redisMessageListenerContainer;
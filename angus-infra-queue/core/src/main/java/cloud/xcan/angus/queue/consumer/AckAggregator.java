@@ -0,0 +1,101 @@
+package cloud.xcan.angus.queue.consumer;
+
+import cloud.xcan.angus.queue.service.QueueService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects acks and nacks of completed messages and writes them with {@link QueueService#ack} and
+ * {@link QueueService#nack} in batches of at most {@code batchSize} ids. Nacks are grouped by
+ * backoff. {@link #flush()} is expected to be called on a timer; a flush is also triggered inline
+ * once {@code batchSize} results are pending.
+ *
+ * <p>A failed write is logged and dropped: the affected messages stay leased and are redelivered
+ * when their lease expires.
+ */
+public class AckAggregator {
+
+  private static final Logger log = LoggerFactory.getLogger(AckAggregator.class);
+
+  private final QueueService queueService;
+  private final int batchSize;
+
+  private final Queue<Long> acks = new ConcurrentLinkedQueue<>();
+  private final Map<Integer, Queue<Long>> nacks = new ConcurrentHashMap<>();
+  private final AtomicInteger pending = new AtomicInteger();
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  public AckAggregator(QueueService queueService, int batchSize) {
+    this.queueService = queueService;
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  public void ack(long id) {
+    acks.add(id);
+    afterAdd();
+  }
+
+  public void nack(long id, int backoffSec) {
+    nacks.computeIfAbsent(Math.max(0, backoffSec), k -> new ConcurrentLinkedQueue<>()).add(id);
+    afterAdd();
+  }
+
+  public int getPending() {
+    return pending.get();
+  }
+
+  /**
+   * Write all pending results. Concurrent callers do not wait: the flush in progress picks up
+   * their results.
+   */
+  public void flush() {
+    if (!flushLock.tryLock()) {
+      return;
+    }
+    try {
+      List<Long> ids;
+      while (!(ids = drain(acks)).isEmpty()) {
+        try {
+          queueService.ack(ids);
+        } catch (Exception e) {
+          log.error("Failed to ack {} queue messages", ids.size(), e);
+        }
+      }
+      for (Map.Entry<Integer, Queue<Long>> entry : nacks.entrySet()) {
+        while (!(ids = drain(entry.getValue())).isEmpty()) {
+          try {
+            queueService.nack(ids, entry.getKey());
+          } catch (Exception e) {
+            log.error("Failed to nack {} queue messages", ids.size(), e);
+          }
+        }
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  private void afterAdd() {
+    if (pending.incrementAndGet() >= batchSize) {
+      flush();
+    }
+  }
+
+  private List<Long> drain(Queue<Long> queue) {
+    List<Long> ids = new ArrayList<>(Math.min(batchSize, 64));
+    Long id;
+    while (ids.size() < batchSize && (id = queue.poll()) != null) {
+      ids.add(id);
+    }
+    pending.addAndGet(-ids.size());
+    return ids;
+  }
+}
@@ -0,0 +1,63 @@
+package cloud.xcan.angus.queue.consumer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring of members, each placed at {@code virtualNodes} points. A key belongs to
+ * the first member point at or after its hash, so adding or removing a member only moves the keys
+ * of the points it gains or loses, about {@code 1/members} of all keys.
+ */
+public final class ConsistentHashRing {
+
+  private final NavigableMap<Long, String> ring = new TreeMap<>();
+  private final List<String> members;
+
+  public ConsistentHashRing(Collection<String> members, int virtualNodes) {
+    this.members = members.stream().distinct().sorted().toList();
+    int points = Math.max(1, virtualNodes);
+    for (String member : this.members) {
+      for (int i = 0; i < points; i++) {
+        // Collisions keep the smallest member id so that every node builds the same ring
+        ring.merge(hash(member + "#" + i), member, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+      }
+    }
+  }
+
+  public List<String> getMembers() {
+    return members;
+  }
+
+  /**
+   * @return the member owning the key, or null when the ring is empty
+   */
+  public String owner(String key) {
+    if (ring.isEmpty()) {
+      return null;
+    }
+    Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+    return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+  }
+
+  /**
+   * 64-bit FNV-1a followed by the MurmurHash3 finalizer, which spreads short similar keys such as
+   * {@code node-1#0} and {@code node-1#1} across the ring.
+   */
+  static long hash(String key) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      h ^= b & 0xff;
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,24 @@
+package cloud.xcan.angus.queue.consumer;
+
+import java.util.Collection;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * A handler bound to a topic. Unset fields fall back to the {@link ConsumerOptions} of the
+ * container.
+ */
+@Data
+@Builder
+public class ConsumerEndpoint {
+
+  private String topic;
+  /**
+   * Partitions to consume, all partitions when empty.
+   */
+  private Collection<Integer> partitions;
+  private MessageHandler handler;
+  private Integer concurrency;
+  private Boolean ordered;
+  private Integer nackBackoffSeconds;
+}
@@ -0,0 +1,49 @@
+package cloud.xcan.angus.queue.consumer;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ConsumerOptions {
+
+  /**
+   * Lease owner of this node.
+   */
+  private String owner;
+  @Builder.Default
+  private int partitions = 8;
+  /**
+   * Max messages leased but not yet completed per endpoint.
+   */
+  @Builder.Default
+  private int prefetch = 200;
+  @Builder.Default
+  private int pollBatch = 100;
+  /**
+   * Max handlers running at the same time per endpoint.
+   */
+  @Builder.Default
+  private int concurrency = 64;
+  /**
+   * Process messages of the same partition one at a time in lease order.
+   */
+  @Builder.Default
+  private boolean ordered = true;
+  @Builder.Default
+  private long minPollIntervalMs = 100;
+  @Builder.Default
+  private long maxPollIntervalMs = 5_000;
+  @Builder.Default
+  private int leaseSeconds = 30;
+  @Builder.Default
+  private boolean leaseRenewal = true;
+  @Builder.Default
+  private long ackIntervalMs = 200;
+  @Builder.Default
+  private int ackBatch = 200;
+  @Builder.Default
+  private int nackBackoffSeconds = 10;
+  @Builder.Default
+  private long shutdownTimeoutMs = 10_000;
+}
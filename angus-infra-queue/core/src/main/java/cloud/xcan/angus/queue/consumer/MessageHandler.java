@@ -0,0 +1,13 @@
+package cloud.xcan.angus.queue.consumer;
+
+import cloud.xcan.angus.queue.model.MessageData;
+
+/**
+ * Processes one leased message. Returning normally acknowledges the message, throwing nacks it so
+ * that it is redelivered after the configured backoff.
+ */
+@FunctionalInterface
+public interface MessageHandler {
+
+  void handle(MessageData message) throws Exception;
+}
@@ -0,0 +1,205 @@
+package cloud.xcan.angus.queue.consumer;
+
+import cloud.xcan.angus.queue.spi.MembershipSupport;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Assigns the partitions of each topic to its live consumer members. Members register and
+ * heartbeat through {@link MembershipSupport}, and a member missing heartbeats for
+ * {@code memberTimeoutMs} is left out. Every member computes the same assignment from the live
+ * members with a {@link ConsistentHashRing}, so a join or leave only moves the partitions gained
+ * or lost by that member.
+ * </p>
+ *
+ * <p>
+ * A lost partition is released at once. A gained partition is only taken on the next heartbeat
+ * that still assigns it, which gives its previous owner one heartbeat to notice the change and stop
+ * leasing from it. A member alone in its topic takes its partitions at once.
+ * </p>
+ *
+ * <p>
+ * {@link #heartbeat()} is expected to be called every {@code heartbeatIntervalMs}, well below
+ * {@code memberTimeoutMs}.
+ * </p>
+ */
+public class PartitionCoordinator {
+
+  private static final Logger log = LoggerFactory.getLogger(PartitionCoordinator.class);
+
+  /**
+   * Dead members are purged every this many heartbeats.
+   */
+  private static final int PURGE_EVERY_HEARTBEATS = 12;
+
+  private final MembershipSupport membership;
+  private final String memberId;
+  private final long heartbeatIntervalMs;
+  private final long memberTimeoutMs;
+  private final int virtualNodes;
+
+  private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+  private final Map<String, ConsistentHashRing> rings = new ConcurrentHashMap<>();
+  private int heartbeats;
+
+  public PartitionCoordinator(MembershipSupport membership, String memberId,
+      long heartbeatIntervalMs, long memberTimeoutMs, int virtualNodes) {
+    this.membership = membership;
+    this.memberId = memberId;
+    this.heartbeatIntervalMs = Math.max(100, heartbeatIntervalMs);
+    this.memberTimeoutMs = Math.max(this.heartbeatIntervalMs * 2, memberTimeoutMs);
+    this.virtualNodes = Math.max(1, virtualNodes);
+  }
+
+  public String getMemberId() {
+    return memberId;
+  }
+
+  public long getHeartbeatIntervalMs() {
+    return heartbeatIntervalMs;
+  }
+
+  /**
+   * Coordinate {@code partitions} of the topic. {@code listener} receives the partitions owned by
+   * this member whenever they change, first during this call unless the membership store fails.
+   */
+  public void register(String topic, List<Integer> partitions,
+      Consumer<List<Integer>> listener) {
+    Registration registration = new Registration(topic, partitions, listener);
+    registrations.add(registration);
+    try {
+      rebalance(topic, List.of(registration));
+    } catch (Exception e) {
+      log.warn("Failed to assign partitions of queue topic {}, retrying on next heartbeat", topic,
+          e);
+    }
+  }
+
+  /**
+   * Refresh the heartbeat of this member in every registered topic and apply assignment changes.
+   */
+  public void heartbeat() {
+    Map<String, List<Registration>> byTopic = new LinkedHashMap<>();
+    for (Registration registration : registrations) {
+      byTopic.computeIfAbsent(registration.topic, t -> new ArrayList<>()).add(registration);
+    }
+    for (Map.Entry<String, List<Registration>> entry : byTopic.entrySet()) {
+      try {
+        rebalance(entry.getKey(), entry.getValue());
+      } catch (Exception e) {
+        // Keep the current assignment, other members drop this one if it stays unreachable
+        log.warn("Failed to heartbeat queue topic {} as member {}", entry.getKey(), memberId, e);
+      }
+    }
+    if (++heartbeats % PURGE_EVERY_HEARTBEATS == 0) {
+      try {
+        membership.purgeDeadMembers(Instant.now().minusMillis(memberTimeoutMs * 10));
+      } catch (Exception e) {
+        log.warn("Failed to purge dead queue consumer members", e);
+      }
+    }
+  }
+
+  /**
+   * Remove this member from every registered topic so that the others take its partitions without
+   * waiting for the member timeout.
+   */
+  public void leave() {
+    Set<String> topics = new LinkedHashSet<>();
+    registrations.forEach(r -> topics.add(r.topic));
+    registrations.clear();
+    for (String topic : topics) {
+      try {
+        membership.removeMember(topic, memberId);
+      } catch (Exception e) {
+        log.warn("Failed to leave queue topic {} as member {}", topic, memberId, e);
+      }
+    }
+    rings.clear();
+  }
+
+  /**
+   * Partitions of the topic currently owned by this member.
+   */
+  public List<Integer> getOwnedPartitions(String topic) {
+    Set<Integer> owned = new TreeSet<>();
+    for (Registration registration : registrations) {
+      if (registration.topic.equals(topic)) {
+        owned.addAll(registration.active);
+      }
+    }
+    return List.copyOf(owned);
+  }
+
+  private void rebalance(String topic, List<Registration> topicRegistrations) {
+    membership.heartbeatMember(topic, memberId);
+    List<String> members = new ArrayList<>(membership.findLiveMembers(topic,
+        Instant.now().minusMillis(memberTimeoutMs)));
+    if (!members.contains(memberId)) {
+      members.add(memberId);
+    }
+    ConsistentHashRing ring = rings.get(topic);
+    if (ring == null || !ring.getMembers().equals(members.stream().sorted().toList())) {
+      ring = new ConsistentHashRing(members, virtualNodes);
+      rings.put(topic, ring);
+      log.info("Queue topic {} has consumer members {}", topic, ring.getMembers());
+    }
+    boolean alone = ring.getMembers().size() == 1;
+    for (Registration registration : topicRegistrations) {
+      registration.apply(ring, alone);
+    }
+  }
+
+  private final class Registration {
+
+    private final String topic;
+    private final List<Integer> partitions;
+    private final Consumer<List<Integer>> listener;
+    private volatile Set<Integer> active = Set.of();
+    private Set<Integer> pending = Set.of();
+    private boolean assigned;
+
+    private Registration(String topic, List<Integer> partitions,
+        Consumer<List<Integer>> listener) {
+      this.topic = topic;
+      this.partitions = List.copyOf(partitions);
+      this.listener = listener;
+    }
+
+    private synchronized void apply(ConsistentHashRing ring, boolean alone) {
+      Set<Integer> nextActive = new TreeSet<>();
+      Set<Integer> nextPending = new TreeSet<>();
+      for (Integer partition : partitions) {
+        if (!memberId.equals(ring.owner(topic + "#" + partition))) {
+          continue;
+        }
+        if (alone || active.contains(partition) || pending.contains(partition)) {
+          nextActive.add(partition);
+        } else {
+          nextPending.add(partition);
+        }
+      }
+      pending = nextPending;
+      if (assigned && nextActive.equals(active)) {
+        return;
+      }
+      assigned = true;
+      active = nextActive;
+      log.info("Queue topic {} member {} owns partitions {}, taking {} next", topic, memberId,
+          nextActive, nextPending);
+      listener.accept(List.copyOf(nextActive));
+    }
+  }
+}
@@ -0,0 +1,420 @@
+package cloud.xcan.angus.queue.consumer;
+
+import cloud.xcan.angus.queue.model.MessageData;
+import cloud.xcan.angus.queue.service.QueueService;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Consumes one {@link ConsumerEndpoint}: a poller leases messages with
+ * {@link QueueService#leaseAndFetch} into a prefetch buffer of at most {@code prefetch} messages,
+ * and handlers run on {@code handlerExecutor} with at most {@code concurrency} running at once.
+ * </p>
+ *
+ * <p>
+ * Polling is adaptive: a full batch is followed immediately by the next poll, an empty poll backs
+ * off exponentially from {@code minPollIntervalMs} to {@code maxPollIntervalMs}. {@link #wakeup()}
+ * cuts the current wait short.
+ * </p>
+ *
+ * <p>
+ * In ordered mode, messages of the same partition are handled one at a time in lease order. A
+ * failed message is nacked and redelivered after its backoff, so ordering holds for successful
+ * deliveries only.
+ * </p>
+ *
+ * <p>
+ * Leases of buffered and running messages are renewed before they expire, and results are written
+ * through the shared {@link AckAggregator}.
+ * </p>
+ */
+public class QueueConsumer implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(QueueConsumer.class);
+
+  private final QueueService queueService;
+  private final AckAggregator ackAggregator;
+  private final ScheduledExecutorService scheduler;
+  private final Executor handlerExecutor;
+
+  private final String topic;
+  private final List<Integer> assignablePartitions;
+  private volatile List<Integer> partitions;
+  private final MessageHandler handler;
+  private final String owner;
+  private final int prefetch;
+  private final int pollBatch;
+  private final boolean ordered;
+  private final int nackBackoffSeconds;
+  private final int leaseSeconds;
+  private final long minPollIntervalMs;
+  private final long maxPollIntervalMs;
+  private final boolean leaseRenewal;
+  private final int concurrency;
+
+  private final Semaphore permits;
+  private final AtomicInteger outstanding = new AtomicInteger();
+  /**
+   * Lease expiry of every buffered or running message, used for lease renewal.
+   */
+  private final Map<Long, Instant> leases = new ConcurrentHashMap<>();
+  private final Map<Integer, Lane> lanes = new ConcurrentHashMap<>();
+
+  private final ReentrantLock pollLock = new ReentrantLock();
+  private final Condition pollCondition = pollLock.newCondition();
+  private boolean signalled;
+
+  private volatile boolean running;
+  private Thread poller;
+  private ScheduledFuture<?> renewalTask;
+
+  public QueueConsumer(QueueService queueService, ConsumerEndpoint endpoint,
+      ConsumerOptions options, AckAggregator ackAggregator, ScheduledExecutorService scheduler,
+      Executor handlerExecutor) {
+    this.queueService = queueService;
+    this.ackAggregator = ackAggregator;
+    this.scheduler = scheduler;
+    this.handlerExecutor = handlerExecutor;
+    this.topic = endpoint.getTopic();
+    this.assignablePartitions =
+        endpoint.getPartitions() == null || endpoint.getPartitions().isEmpty()
+            ? IntStream.range(0, Math.max(1, options.getPartitions())).boxed().toList()
+            : List.copyOf(endpoint.getPartitions());
+    this.partitions = this.assignablePartitions;
+    this.handler = endpoint.getHandler();
+    this.owner = options.getOwner();
+    this.prefetch = Math.max(1, options.getPrefetch());
+    this.pollBatch = Math.max(1, options.getPollBatch());
+    this.ordered = endpoint.getOrdered() == null ? options.isOrdered() : endpoint.getOrdered();
+    this.nackBackoffSeconds = endpoint.getNackBackoffSeconds() == null
+        ? options.getNackBackoffSeconds() : endpoint.getNackBackoffSeconds();
+    this.leaseSeconds = Math.max(1, options.getLeaseSeconds());
+    this.minPollIntervalMs = Math.max(1, options.getMinPollIntervalMs());
+    this.maxPollIntervalMs = Math.max(this.minPollIntervalMs, options.getMaxPollIntervalMs());
+    this.leaseRenewal = options.isLeaseRenewal();
+    this.concurrency = Math.max(1, endpoint.getConcurrency() == null
+        || endpoint.getConcurrency() <= 0 ? options.getConcurrency() : endpoint.getConcurrency());
+    this.permits = new Semaphore(this.concurrency);
+  }
+
+  public String getTopic() {
+    return topic;
+  }
+
+  /**
+   * Partitions leased from, all assignable partitions unless {@link #setPartitions} narrowed them.
+   */
+  public List<Integer> getPartitions() {
+    return partitions;
+  }
+
+  /**
+   * Partitions of the endpoint, which a {@link PartitionCoordinator} assigns to members.
+   */
+  public List<Integer> getAssignablePartitions() {
+    return assignablePartitions;
+  }
+
+  /**
+   * Lease from the given partitions only from the next poll on. Messages already leased from other
+   * partitions are still handled.
+   */
+  public void setPartitions(List<Integer> partitions) {
+    this.partitions = List.copyOf(partitions);
+    wakeup();
+  }
+
+  /**
+   * Messages leased by this consumer and not completed yet.
+   */
+  public int getOutstanding() {
+    return outstanding.get();
+  }
+
+  public boolean isRunning() {
+    return running;
+  }
+
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    running = true;
+    poller = Thread.ofVirtual().name("angus-queue-poller-" + topic).start(this::pollLoop);
+    if (leaseRenewal) {
+      long period = Math.max(1000L, leaseSeconds * 1000L / 3);
+      renewalTask = scheduler.scheduleWithFixedDelay(this::renewLeases, period, period,
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Poll immediately instead of waiting for the current backoff, e.g. after new messages were sent
+   * to the topic.
+   */
+  public void wakeup() {
+    pollLock.lock();
+    try {
+      signalled = true;
+      pollCondition.signalAll();
+    } finally {
+      pollLock.unlock();
+    }
+  }
+
+  /**
+   * Stop polling and wait up to {@code timeoutMs} for running handlers. Buffered messages that have
+   * not started are released, so they no longer count against the prefetch buffer or get their
+   * leases renewed, and are redelivered once their leases expire.
+   */
+  public void stop(long timeoutMs) {
+    synchronized (this) {
+      if (!running) {
+        return;
+      }
+      running = false;
+    }
+    wakeup();
+    if (renewalTask != null) {
+      renewalTask.cancel(false);
+    }
+    long deadline = System.currentTimeMillis() + Math.max(0, timeoutMs);
+    try {
+      poller.join(Math.max(1, deadline - System.currentTimeMillis()));
+      while (permits.availablePermits() < concurrency && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void close() {
+    stop(0);
+  }
+
+  void pollLoop() {
+    long idleMs = 0;
+    while (running) {
+      int capacity = prefetch - outstanding.get();
+      List<Integer> owned = partitions;
+      if (owned.isEmpty()) {
+        await(maxPollIntervalMs); // Woken up when partitions are assigned
+        continue;
+      }
+      if (capacity <= 0) {
+        await(maxPollIntervalMs); // Woken up as soon as a message completes
+        continue;
+      }
+      int limit = Math.min(capacity, pollBatch);
+      List<MessageData> batch;
+      try {
+        batch = queueService.leaseAndFetch(topic, owned, owner, leaseSeconds, limit);
+      } catch (Exception e) {
+        log.warn("Failed to poll queue topic {}", topic, e);
+        batch = List.of();
+      }
+      if (!running) {
+        return; // Leased messages expire and are redelivered
+      }
+      if (batch.isEmpty()) {
+        idleMs = idleMs == 0 ? minPollIntervalMs : Math.min(idleMs * 2, maxPollIntervalMs);
+        await(idleMs);
+        continue;
+      }
+      idleMs = 0;
+      dispatch(batch);
+      if (batch.size() < limit) {
+        await(minPollIntervalMs); // Drained for now
+      }
+    }
+  }
+
+  private void await(long millis) {
+    pollLock.lock();
+    try {
+      long nanos = TimeUnit.MILLISECONDS.toNanos(millis);
+      while (!signalled && running && nanos > 0) {
+        nanos = pollCondition.awaitNanos(nanos);
+      }
+      signalled = false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    } finally {
+      pollLock.unlock();
+    }
+  }
+
+  private void dispatch(List<MessageData> batch) {
+    for (MessageData message : batch) {
+      outstanding.incrementAndGet();
+      leases.put(message.getId(), message.getLeaseUntil() == null
+          ? Instant.now().plusSeconds(leaseSeconds) : message.getLeaseUntil());
+      if (ordered) {
+        Integer partition = message.getPartitionId() == null ? 0 : message.getPartitionId();
+        Lane lane = lanes.computeIfAbsent(partition, p -> new Lane());
+        if (lane.offer(message) && !submit(() -> drain(lane))) {
+          lane.abandon().forEach(this::release);
+        }
+      } else if (!submit(() -> process(message))) {
+        release(message);
+      }
+    }
+  }
+
+  /**
+   * @return false if the executor rejected the task, whose messages must then be released
+   */
+  private boolean submit(Runnable task) {
+    try {
+      handlerExecutor.execute(task);
+      return true;
+    } catch (RejectedExecutionException e) {
+      log.warn("Queue handler executor rejected a task of topic {}, leaving it to lease expiry",
+          topic);
+      return false;
+    }
+  }
+
+  /**
+   * Stops tracking a message that was handled or will not be: its lease is no longer renewed and
+   * its prefetch slot is freed.
+   */
+  private void release(MessageData message) {
+    leases.remove(message.getId());
+    if (outstanding.getAndDecrement() >= prefetch) {
+      wakeup(); // The poller was waiting for capacity
+    }
+  }
+
+  private void drain(Lane lane) {
+    MessageData message;
+    while ((message = lane.next(running)) != null) {
+      process(message);
+    }
+    if (!running) {
+      lane.abandon().forEach(this::release); // Left behind by a stop
+    }
+  }
+
+  private void process(MessageData message) {
+    if (!running) {
+      release(message); // Lease expires and the message is redelivered
+      return;
+    }
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      release(message);
+      return;
+    }
+    if (!running) {
+      permits.release();
+      release(message); // Stopped while waiting for a permit
+      return;
+    }
+    try {
+      handler.handle(message);
+      ackAggregator.ack(message.getId());
+    } catch (Exception e) {
+      log.warn("Failed to handle queue message {} of topic {}, nack with backoff {}s",
+          message.getId(), topic, nackBackoffSeconds, e);
+      ackAggregator.nack(message.getId(), nackBackoffSeconds);
+    } finally {
+      permits.release();
+      release(message);
+    }
+  }
+
+  void renewLeases() {
+    if (leases.isEmpty()) {
+      return;
+    }
+    Instant threshold = Instant.now().plusMillis(leaseSeconds * 1000L / 2);
+    List<Long> expiring = new ArrayList<>();
+    for (Map.Entry<Long, Instant> entry : leases.entrySet()) {
+      if (entry.getValue().isBefore(threshold)) {
+        expiring.add(entry.getKey());
+      }
+    }
+    if (expiring.isEmpty()) {
+      return;
+    }
+    try {
+      Instant leaseUntil = Instant.now().plusSeconds(leaseSeconds);
+      int renewed = queueService.extendLease(expiring, owner, leaseSeconds);
+      for (Long id : expiring) {
+        leases.computeIfPresent(id, (k, v) -> leaseUntil);
+      }
+      if (renewed < expiring.size()) {
+        log.debug("Renewed {} of {} queue leases of topic {}, the rest were completed or reclaimed",
+            renewed, expiring.size(), topic);
+      }
+    } catch (Exception e) {
+      log.warn("Failed to renew {} queue leases of topic {}", expiring.size(), topic, e);
+    }
+  }
+
+  /**
+   * Buffered messages of one partition, drained by at most one task at a time.
+   */
+  private static final class Lane {
+
+    private final Queue<MessageData> messages = new ArrayDeque<>();
+    private boolean draining;
+
+    /**
+     * @return true if the caller must start a drain task
+     */
+    synchronized boolean offer(MessageData message) {
+      messages.add(message);
+      if (draining) {
+        return false;
+      }
+      draining = true;
+      return true;
+    }
+
+    /**
+     * Drops the buffered messages after the drain task was rejected, so the next offer starts a
+     * new one.
+     *
+     * @return the dropped messages
+     */
+    synchronized List<MessageData> abandon() {
+      List<MessageData> dropped = new ArrayList<>(messages);
+      messages.clear();
+      draining = false;
+      return dropped;
+    }
+
+    synchronized MessageData next(boolean running) {
+      MessageData message = running ? messages.poll() : null;
+      if (message == null) {
+        draining = false;
+      }
+      return message;
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package cloud.xcan.angus.queue.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Entity
+@Table(name = "angus_mq_consumer_member", indexes = {
+    // purgeDeadMembers: WHERE heartbeat_at < ?
+    @Index(name = "idx_mq_member_heartbeat_at", columnList = "heartbeat_at")
+}, uniqueConstraints = {
+    // heartbeatMember / findLiveMembers: WHERE topic=? AND member_id=? / WHERE topic=?
+    @UniqueConstraint(name = "uk_mq_member_topic_member", columnNames = {"topic", "member_id"})
+})
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class ConsumerMemberEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false, length = 128)
+  private String topic;
+
+  @Column(name = "member_id", nullable = false, length = 128)
+  private String memberId;
+
+  @Column(name = "heartbeat_at", nullable = false)
+  private Instant heartbeatAt;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+}
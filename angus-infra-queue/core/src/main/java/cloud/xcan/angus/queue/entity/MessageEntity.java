@@ -9,6 +9,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.persistence.Version;
 import java.time.Instant;
 import lombok.Getter;
@@ -18,14 +19,19 @@ import lombok.ToString;
 
 @Entity
 @Table(name = "angus_mq_message", indexes = {
-    // leaseBatch: WHERE topic=? AND partition_id IN (?) AND status=0 AND visible_at<=NOW()
-    @Index(name = "idx_mq_msg_topic_status_visible", columnList = "topic, status, visible_at"),
+    // leaseBatch/leaseAndFetch: WHERE topic=? AND partition_id IN (?) AND status=0
+    //   AND visible_at<=NOW() ORDER BY priority DESC, visible_at, id
+    @Index(name = "idx_mq_msg_lease_path",
+        columnList = "topic, partition_id, status, visible_at, priority"),
     // reclaimExpiredLeases: WHERE status=1 AND lease_until<NOW()
     @Index(name = "idx_mq_msg_status_lease_until", columnList = "status, lease_until"),
     // findLeasedByOwner: WHERE lease_owner=? AND status=1 AND lease_until>=NOW()
     @Index(name = "idx_mq_msg_lease_owner", columnList = "lease_owner"),
     // findExceededAttempts: WHERE attempts >= max_attempts
     @Index(name = "idx_mq_msg_attempts", columnList = "attempts")
+}, uniqueConstraints = {
+    // sendBatch: skips messages whose idempotency key is already used in the topic
+    @UniqueConstraint(name = "uk_mq_msg_topic_idem", columnNames = {"topic", "idempotency_key"})
 })
 @Getter
 @Setter
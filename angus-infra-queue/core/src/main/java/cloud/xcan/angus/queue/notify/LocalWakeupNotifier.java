@@ -0,0 +1,40 @@
+package cloud.xcan.angus.queue.notify;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers notifications to the subscribers of the same JVM only, on the publishing thread.
+ */
+public class LocalWakeupNotifier implements WakeupNotifier {
+
+  private static final Logger log = LoggerFactory.getLogger(LocalWakeupNotifier.class);
+
+  private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void publish(String topic) {
+    deliver(listeners, topic);
+  }
+
+  @Override
+  public void subscribe(Consumer<String> listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Call every listener, a failing listener does not prevent the others from being called.
+   */
+  public static void deliver(List<Consumer<String>> listeners, String topic) {
+    for (Consumer<String> listener : listeners) {
+      try {
+        listener.accept(topic);
+      } catch (Exception e) {
+        log.warn("Failed to deliver queue wakeup of topic {}", topic, e);
+      }
+    }
+  }
+}
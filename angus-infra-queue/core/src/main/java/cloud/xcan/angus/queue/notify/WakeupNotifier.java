@@ -0,0 +1,42 @@
+package cloud.xcan.angus.queue.notify;
+
+import java.util.function.Consumer;
+
+/**
+ * Signals consumers that new messages were committed to a topic, so that they poll right away
+ * instead of waiting for their poll backoff. Notifications carry no messages and may be lost or
+ * duplicated: consumers still poll, at a slow interval, as a safety net.
+ */
+public interface WakeupNotifier extends AutoCloseable {
+
+  /**
+   * Notify the subscribers of every node reached by this notifier that {@code topic} has new
+   * messages. Must be called after the messages are committed.
+   */
+  void publish(String topic);
+
+  /**
+   * Receive the topics of published notifications.
+   */
+  void subscribe(Consumer<String> listener);
+
+  /**
+   * Whether notifications reach the subscribers of other nodes, so that the poll interval of
+   * consumers can be raised to a safety net.
+   */
+  default boolean isDistributed() {
+    return false;
+  }
+
+  /**
+   * Whether {@link #publish} joins the caller's transaction and is delivered only once it commits,
+   * so that it need not be deferred until after the commit.
+   */
+  default boolean isTransactional() {
+    return false;
+  }
+
+  @Override
+  default void close() {
+  }
+}
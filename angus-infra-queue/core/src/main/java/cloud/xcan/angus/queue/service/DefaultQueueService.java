@@ -2,23 +2,37 @@ package cloud.xcan.angus.queue.service;
 
 import cloud.xcan.angus.queue.model.MessageData;
 import cloud.xcan.angus.queue.model.SendMessage;
+import cloud.xcan.angus.queue.notify.WakeupNotifier;
 import cloud.xcan.angus.queue.spi.RepositoryAdapter;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class DefaultQueueService implements QueueService {
 
+  private static final Logger log = LoggerFactory.getLogger(DefaultQueueService.class);
+
   private final RepositoryAdapter adapter;
+  private final WakeupNotifier notifier;
 
   public DefaultQueueService(RepositoryAdapter adapter) {
+    this(adapter, null);
+  }
+
+  /**
+   * @param notifier notified of the topics of sent messages, none when null
+   */
+  public DefaultQueueService(RepositoryAdapter adapter, WakeupNotifier notifier) {
     this.adapter = adapter;
+    this.notifier = notifier;
   }
 
   @Override
   public Long send(String topic, String partitionKey, String payload, String headers, int priority,
       Instant visibleAt, String idempotencyKey, int maxAttempts, int numPartitions) {
-    return adapter.saveMessage(SendMessage.builder()
+    Long id = adapter.saveMessage(SendMessage.builder()
         .topic(topic)
         .partitionKey(partitionKey)
         .payload(payload)
@@ -29,6 +43,20 @@ public class DefaultQueueService implements QueueService {
         .maxAttempts(maxAttempts)
         .numPartitions(numPartitions)
         .build());
+    publishWakeup(topic);
+    return id;
+  }
+
+  @Override
+  public int sendBatch(List<SendMessage> messages) {
+    if (messages == null || messages.isEmpty()) {
+      return 0;
+    }
+    int sent = adapter.saveMessages(messages);
+    if (sent > 0 && notifier != null) {
+      messages.stream().map(SendMessage::getTopic).distinct().forEach(this::publishWakeup);
+    }
+    return sent;
   }
 
   @Override
@@ -37,11 +65,28 @@ public class DefaultQueueService implements QueueService {
     return adapter.leaseBatch(topic, partitions, owner, leaseSec, limit);
   }
 
+  @Override
+  public List<MessageData> leaseAndFetch(String topic, Collection<Integer> partitions,
+      String owner, int leaseSec, int limit) {
+    if (partitions == null || partitions.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    return adapter.leaseAndFetch(topic, partitions, owner, leaseSec, limit);
+  }
+
   @Override
   public List<MessageData> listLeasedByOwner(String owner, int limit) {
     return adapter.findLeasedByOwner(owner, limit);
   }
 
+  @Override
+  public int extendLease(Collection<Long> ids, String owner, int leaseSec) {
+    if (ids == null || ids.isEmpty()) {
+      return 0;
+    }
+    return adapter.extendLeases(ids, owner, leaseSec);
+  }
+
   @Override
   public int ack(Collection<Long> ids) {
     if (ids == null || ids.isEmpty()) {
@@ -62,4 +107,16 @@ public class DefaultQueueService implements QueueService {
   public int moveExceededAttemptsToDeadLetter(int limit) {
     return adapter.moveExceededToDeadLetter(limit);
   }
+
+  private void publishWakeup(String topic) {
+    if (notifier == null) {
+      return;
+    }
+    try {
+      notifier.publish(topic);
+    } catch (Exception e) {
+      // The message is stored, consumers find it with their next poll
+      log.warn("Failed to publish queue wakeup of topic {}", topic, e);
+    }
+  }
 }
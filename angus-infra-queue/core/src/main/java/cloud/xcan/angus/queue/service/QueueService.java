@@ -9,6 +9,12 @@ import java.util.List;
 
 public interface QueueService {
 
+  /**
+   * Send a message. Sending again with an idempotency key already used in the topic sends
+   * nothing and returns the id of the message sent first.
+   *
+   * @return the id of the message
+   */
   Long send(String topic, String partitionKey, String payload, String headers, int priority,
       Instant visibleAt, String idempotencyKey, int maxAttempts, int numPartitions);
 
@@ -26,6 +32,14 @@ public interface QueueService {
     );
   }
 
+  /**
+   * Send messages in bulk. Messages whose idempotency key is already used in the same topic are
+   * skipped.
+   *
+   * @return the number of messages sent
+   */
+  int sendBatch(List<SendMessage> messages);
+
   int lease(String topic, Collection<Integer> partitions, String owner, int leaseSec, int limit);
 
   default int lease(LeaseMessages req) {
@@ -38,8 +52,29 @@ public interface QueueService {
     );
   }
 
+  /**
+   * Lease READY messages and return the claimed messages in one call.
+   */
+  List<MessageData> leaseAndFetch(String topic, Collection<Integer> partitions, String owner,
+      int leaseSec, int limit);
+
+  default List<MessageData> leaseAndFetch(LeaseMessages req) {
+    return leaseAndFetch(
+        req.getTopic(),
+        req.getPartitions(),
+        req.getOwner(),
+        req.getLeaseSeconds() == null ? 30 : req.getLeaseSeconds(),
+        req.getLimit() == null ? 100 : req.getLimit()
+    );
+  }
+
   List<MessageData> listLeasedByOwner(String owner, int limit);
 
+  /**
+   * Renew the leases of messages still held by {@code owner} for another {@code leaseSec} seconds.
+   */
+  int extendLease(Collection<Long> ids, String owner, int leaseSec);
+
   int ack(Collection<Long> ids);
 
   int nack(Collection<Long> ids, int backoffSec);
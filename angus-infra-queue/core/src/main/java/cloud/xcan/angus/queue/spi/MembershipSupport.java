@@ -0,0 +1,25 @@
+package cloud.xcan.angus.queue.spi;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Optional capability for storing the consumer members of each topic, used to assign partitions
+ * to live consumers.
+ */
+public interface MembershipSupport {
+
+  /**
+   * Register the member of the topic, or refresh its heartbeat.
+   */
+  void heartbeatMember(String topic, String memberId);
+
+  /**
+   * @return ids of the members of the topic with a heartbeat at or after {@code since}
+   */
+  List<String> findLiveMembers(String topic, Instant since);
+
+  void removeMember(String topic, String memberId);
+
+  int purgeDeadMembers(Instant before);
+}
@@ -7,17 +7,71 @@ import cloud.xcan.angus.queue.model.SendMessage;
 import cloud.xcan.angus.queue.model.StatusCount;
 import java.time.Instant;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public interface RepositoryAdapter {
 
+  /**
+   * Save a message. When its idempotency key is already used in the same topic nothing is saved
+   * and the id of the existing message is returned, as {@link #saveMessages} skips it.
+   *
+   * @return the id of the saved or existing message
+   */
   Long saveMessage(SendMessage msg);
 
+  /**
+   * Save messages in bulk, skipping messages whose idempotency key is already used in the same
+   * topic. This default saves messages one by one and only skips duplicates within the batch.
+   *
+   * @return the number of saved messages
+   */
+  default int saveMessages(List<SendMessage> messages) {
+    if (messages == null || messages.isEmpty()) {
+      return 0;
+    }
+    Set<String> keys = new HashSet<>();
+    int saved = 0;
+    for (SendMessage msg : messages) {
+      if (msg.getIdempotencyKey() == null
+          || keys.add(msg.getTopic() + '\n' + msg.getIdempotencyKey())) {
+        saveMessage(msg);
+        saved++;
+      }
+    }
+    return saved;
+  }
+
   int leaseBatch(String topic, Collection<Integer> partitions, String owner, int leaseSec,
       int limit);
 
   List<MessageData> findLeasedByOwner(String owner, int limit);
 
+  /**
+   * Lease up to {@code limit} READY messages and return exactly the messages claimed by this call.
+   * Implementations should claim and read in a single round trip and skip rows locked by competing
+   * consumers; this default falls back to {@link #leaseBatch} followed by
+   * {@link #findLeasedByOwner}, which may also return older leases held by the same owner.
+   */
+  default List<MessageData> leaseAndFetch(String topic, Collection<Integer> partitions,
+      String owner, int leaseSec, int limit) {
+    if (leaseBatch(topic, partitions, owner, leaseSec, limit) == 0) {
+      return List.of();
+    }
+    return findLeasedByOwner(owner, limit);
+  }
+
+  /**
+   * Push back the lease expiry of messages still leased by {@code owner}. Adapters that cannot
+   * renew leases return 0, in which case slow messages are reclaimed when their lease expires.
+   *
+   * @return the number of leases renewed
+   */
+  default int extendLeases(Collection<Long> ids, String owner, int leaseSec) {
+    return 0;
+  }
+
   int ackBatch(Collection<Long> ids);
 
   int nackBatch(Collection<Long> ids, int backoffSec);
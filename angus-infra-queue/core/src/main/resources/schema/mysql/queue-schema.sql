@@ -20,7 +20,8 @@ CREATE TABLE IF NOT EXISTS angus_mq_message (
     updated_at      DATETIME(6)   NOT NULL,
     version         BIGINT        NOT NULL DEFAULT 0,
     PRIMARY KEY (id),
-    INDEX idx_mq_msg_topic_status_visible (topic, status, visible_at),
+    UNIQUE KEY uk_mq_msg_topic_idem (topic, idempotency_key),
+    INDEX idx_mq_msg_lease_path (topic, partition_id, status, visible_at, priority),
     INDEX idx_mq_msg_status_lease_until (status, lease_until),
     INDEX idx_mq_msg_lease_owner (lease_owner),
     INDEX idx_mq_msg_attempts (attempts)
@@ -40,3 +41,26 @@ CREATE TABLE IF NOT EXISTS angus_mq_dead_letter (
     INDEX idx_mq_dlq_topic (topic),
     INDEX idx_mq_dlq_deleted_at (deleted_at)
 ) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- Consumer members of each topic (angus.queue.coordination.enabled=true)
+CREATE TABLE IF NOT EXISTS angus_mq_consumer_member (
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    topic        VARCHAR(128) NOT NULL,
+    member_id    VARCHAR(128) NOT NULL,
+    heartbeat_at DATETIME(6)  NOT NULL,
+    created_at   DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_mq_member_topic_member (topic, member_id),
+    INDEX idx_mq_member_heartbeat_at (heartbeat_at)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- Upgrading from idx_mq_msg_topic_status_visible (topic, status, visible_at):
+-- ALTER TABLE angus_mq_message
+--     DROP INDEX idx_mq_msg_topic_status_visible,
+--     ADD INDEX idx_mq_msg_lease_path (topic, partition_id, status, visible_at, priority);
+
+-- Upgrading to batched sends (sendBatch), remove duplicate idempotency keys first:
+-- ALTER TABLE angus_mq_message ADD UNIQUE KEY uk_mq_msg_topic_idem (topic, idempotency_key);
+
+-- Archive tables (angus.queue.archive.enabled=true) are created at runtime as
+-- <table-prefix><bucket>, e.g. angus_mq_message_archive_20240101, and dropped after retention.
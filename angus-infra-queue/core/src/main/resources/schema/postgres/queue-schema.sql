@@ -20,7 +20,10 @@ CREATE TABLE IF NOT EXISTS angus_mq_message (
     updated_at      TIMESTAMP(6)  NOT NULL,
     version         BIGINT        NOT NULL DEFAULT 0
 );
-CREATE INDEX IF NOT EXISTS idx_mq_msg_topic_status_visible ON angus_mq_message (topic, status, visible_at);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_mq_msg_topic_idem    ON angus_mq_message (topic, idempotency_key);
+CREATE INDEX IF NOT EXISTS idx_mq_msg_lease_path          ON angus_mq_message (topic, partition_id, status, visible_at, priority);
+-- Partial index holding READY rows only, in lease order; stays small however much history accumulates
+CREATE INDEX IF NOT EXISTS idx_mq_msg_ready                ON angus_mq_message (topic, partition_id, priority DESC, visible_at, id) WHERE status = 0;
 CREATE INDEX IF NOT EXISTS idx_mq_msg_status_lease_until   ON angus_mq_message (status, lease_until);
 CREATE INDEX IF NOT EXISTS idx_mq_msg_lease_owner          ON angus_mq_message (lease_owner);
 CREATE INDEX IF NOT EXISTS idx_mq_msg_attempts             ON angus_mq_message (attempts);
@@ -38,3 +41,23 @@ CREATE TABLE IF NOT EXISTS angus_mq_dead_letter (
 );
 CREATE INDEX IF NOT EXISTS idx_mq_dlq_topic      ON angus_mq_dead_letter (topic);
 CREATE INDEX IF NOT EXISTS idx_mq_dlq_deleted_at ON angus_mq_dead_letter (deleted_at);
+
+-- Consumer members of each topic (angus.queue.coordination.enabled=true)
+CREATE TABLE IF NOT EXISTS angus_mq_consumer_member (
+    id           BIGSERIAL    PRIMARY KEY,
+    topic        VARCHAR(128) NOT NULL,
+    member_id    VARCHAR(128) NOT NULL,
+    heartbeat_at TIMESTAMP(6) NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_mq_member_topic_member  ON angus_mq_consumer_member (topic, member_id);
+CREATE INDEX IF NOT EXISTS idx_mq_member_heartbeat_at        ON angus_mq_consumer_member (heartbeat_at);
+
+-- Upgrading from idx_mq_msg_topic_status_visible (topic, status, visible_at):
+-- DROP INDEX IF EXISTS idx_mq_msg_topic_status_visible;
+
+-- Upgrading to batched sends (sendBatch), remove duplicate idempotency keys first:
+-- CREATE UNIQUE INDEX IF NOT EXISTS uk_mq_msg_topic_idem ON angus_mq_message (topic, idempotency_key);
+
+-- Archive tables (angus.queue.archive.enabled=true) are created at runtime as
+-- <table-prefix><bucket>, e.g. angus_mq_message_archive_20240101, and dropped after retention.
@@ -0,0 +1,60 @@
+package cloud.xcan.angus.queue.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cloud.xcan.angus.queue.service.QueueService;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AckAggregatorTest {
+
+  QueueService queueService;
+
+  @BeforeEach
+  void setUp() {
+    queueService = mock(QueueService.class);
+  }
+
+  @Test
+  void flushWritesAcksAndNacksGroupedByBackoff() {
+    AckAggregator aggregator = new AckAggregator(queueService, 100);
+    aggregator.ack(1L);
+    aggregator.ack(2L);
+    aggregator.nack(3L, 5);
+    aggregator.nack(4L, 5);
+    aggregator.nack(5L, 30);
+    verify(queueService, never()).ack(any());
+
+    aggregator.flush();
+
+    verify(queueService).ack(List.of(1L, 2L));
+    verify(queueService).nack(List.of(3L, 4L), 5);
+    verify(queueService).nack(List.of(5L), 30);
+    assertEquals(0, aggregator.getPending());
+  }
+
+  @Test
+  void flushesInlineWhenBatchIsFullAndSplitsIntoBatches() {
+    AckAggregator aggregator = new AckAggregator(queueService, 2);
+    aggregator.ack(1L);
+    verify(queueService, never()).ack(any());
+    aggregator.ack(2L);
+    verify(queueService).ack(List.of(1L, 2L));
+  }
+
+  @Test
+  void failedWriteIsDropped() {
+    when(queueService.nack(any(), anyInt())).thenThrow(new IllegalStateException("db down"));
+    AckAggregator aggregator = new AckAggregator(queueService, 10);
+    aggregator.nack(1L, 0);
+    aggregator.flush();
+    assertEquals(0, aggregator.getPending());
+  }
+}
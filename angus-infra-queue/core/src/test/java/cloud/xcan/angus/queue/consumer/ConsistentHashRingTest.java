@@ -0,0 +1,45 @@
+package cloud.xcan.angus.queue.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ConsistentHashRingTest {
+
+  @Test
+  void sameMembersGiveSameOwnersWhateverTheOrder() {
+    ConsistentHashRing a = new ConsistentHashRing(List.of("n1", "n2", "n3"), 64);
+    ConsistentHashRing b = new ConsistentHashRing(List.of("n3", "n1", "n2", "n1"), 64);
+    for (int p = 0; p < 256; p++) {
+      assertEquals(a.owner("t#" + p), b.owner("t#" + p));
+    }
+    assertEquals(List.of("n1", "n2", "n3"), b.getMembers());
+    assertNull(new ConsistentHashRing(List.of(), 64).owner("t#0"));
+  }
+
+  @Test
+  void joiningMemberOnlyTakesPartitionsFromOthers() {
+    ConsistentHashRing before = new ConsistentHashRing(List.of("n1", "n2", "n3"), 128);
+    ConsistentHashRing after = new ConsistentHashRing(List.of("n1", "n2", "n3", "n4"), 128);
+    int partitions = 1024;
+    int moved = 0;
+    Map<String, Integer> load = new HashMap<>();
+    for (int p = 0; p < partitions; p++) {
+      String owner = after.owner("t#" + p);
+      load.merge(owner, 1, Integer::sum);
+      if (!owner.equals(before.owner("t#" + p))) {
+        // Partitions only move to the new member
+        assertEquals("n4", owner);
+        moved++;
+      }
+    }
+    // About a quarter of the partitions move, and load stays roughly even
+    assertTrue(moved > partitions / 8 && moved < partitions / 2, "moved " + moved);
+    load.values().forEach(n -> assertTrue(n > partitions / 8, "load " + load));
+  }
+}
@@ -0,0 +1,107 @@
+package cloud.xcan.angus.queue.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cloud.xcan.angus.queue.spi.MembershipSupport;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PartitionCoordinatorTest {
+
+  static final List<Integer> PARTITIONS = IntStream.range(0, 32).boxed().toList();
+
+  MembershipSupport membership;
+
+  @BeforeEach
+  void setUp() {
+    membership = mock(MembershipSupport.class);
+  }
+
+  @Test
+  void aloneMemberOwnsAllPartitionsAtOnce() {
+    when(membership.findLiveMembers(eq("t"), any())).thenReturn(List.of());
+    List<List<Integer>> assigned = new CopyOnWriteArrayList<>();
+    PartitionCoordinator coordinator = coordinator("n1");
+
+    coordinator.register("t", PARTITIONS, assigned::add);
+
+    verify(membership).heartbeatMember("t", "n1");
+    assertEquals(List.of(PARTITIONS), assigned);
+    assertEquals(PARTITIONS, coordinator.getOwnedPartitions("t"));
+  }
+
+  @Test
+  void membersSplitPartitionsAndTakeGainedOnesOnNextHeartbeat() {
+    when(membership.findLiveMembers(eq("t"), any())).thenReturn(List.of("n1", "n2"));
+    List<List<Integer>> n1 = new CopyOnWriteArrayList<>();
+    List<List<Integer>> n2 = new CopyOnWriteArrayList<>();
+    PartitionCoordinator c1 = coordinator("n1");
+    PartitionCoordinator c2 = coordinator("n2");
+    c1.register("t", PARTITIONS, n1::add);
+    c2.register("t", PARTITIONS, n2::add);
+    // Gained partitions wait one heartbeat for the previous owner to let go
+    assertEquals(List.of(List.of()), n1);
+    assertEquals(List.of(List.of()), n2);
+
+    c1.heartbeat();
+    c2.heartbeat();
+    Set<Integer> all = new HashSet<>(c1.getOwnedPartitions("t"));
+    all.addAll(c2.getOwnedPartitions("t"));
+    assertEquals(new HashSet<>(PARTITIONS), all);
+    assertEquals(PARTITIONS.size(),
+        c1.getOwnedPartitions("t").size() + c2.getOwnedPartitions("t").size());
+    assertEquals(c1.getOwnedPartitions("t"), n1.get(n1.size() - 1));
+
+    // n2 leaves: n1 is alone and takes all partitions at once
+    List<Integer> owned = c1.getOwnedPartitions("t");
+    when(membership.findLiveMembers(eq("t"), any())).thenReturn(List.of("n1"));
+    c1.heartbeat();
+    assertEquals(PARTITIONS, c1.getOwnedPartitions("t"));
+    assertTrue(c1.getOwnedPartitions("t").containsAll(owned));
+  }
+
+  @Test
+  void lostPartitionsAreReleasedAtOnce() {
+    when(membership.findLiveMembers(eq("t"), any())).thenReturn(List.of("n1"));
+    PartitionCoordinator coordinator = coordinator("n1");
+    List<List<Integer>> assigned = new ArrayList<>();
+    coordinator.register("t", PARTITIONS, assigned::add);
+    assertEquals(PARTITIONS, coordinator.getOwnedPartitions("t"));
+
+    when(membership.findLiveMembers(eq("t"), any())).thenReturn(List.of("n1", "n2"));
+    coordinator.heartbeat();
+    List<Integer> owned = coordinator.getOwnedPartitions("t");
+    assertTrue(owned.size() < PARTITIONS.size());
+    assertEquals(owned, assigned.get(assigned.size() - 1));
+
+    coordinator.leave();
+    verify(membership).removeMember("t", "n1");
+  }
+
+  @Test
+  void failingStoreKeepsCurrentAssignment() {
+    when(membership.findLiveMembers(eq("t"), any())).thenReturn(List.of());
+    PartitionCoordinator coordinator = coordinator("n1");
+    coordinator.register("t", PARTITIONS, p -> {});
+
+    when(membership.findLiveMembers(eq("t"), any())).thenThrow(new IllegalStateException("down"));
+    coordinator.heartbeat();
+    assertEquals(PARTITIONS, coordinator.getOwnedPartitions("t"));
+  }
+
+  private PartitionCoordinator coordinator(String memberId) {
+    return new PartitionCoordinator(membership, memberId, 1000, 5000, 64);
+  }
+}
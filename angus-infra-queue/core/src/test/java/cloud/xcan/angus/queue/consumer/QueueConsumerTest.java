@@ -0,0 +1,258 @@
+package cloud.xcan.angus.queue.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cloud.xcan.angus.queue.model.MessageData;
+import cloud.xcan.angus.queue.service.QueueService;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class QueueConsumerTest {
+
+  QueueService queueService;
+  AckAggregator aggregator;
+  ScheduledExecutorService scheduler;
+  ExecutorService handlers;
+  QueueConsumer consumer;
+
+  @BeforeEach
+  void setUp() {
+    queueService = mock(QueueService.class);
+    aggregator = new AckAggregator(queueService, 1000);
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    handlers = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (consumer != null) {
+      consumer.stop(1000);
+    }
+    scheduler.shutdownNow();
+    handlers.shutdownNow();
+  }
+
+  @Test
+  void handledMessagesAreAckedAndFailedOnesNacked() throws Exception {
+    when(queueService.leaseAndFetch(eq("t"), any(), eq("node-1"), anyInt(), anyInt()))
+        .thenReturn(List.of(message(1L, 0), message(2L, 1)))
+        .thenReturn(List.of());
+    CountDownLatch handled = new CountDownLatch(2);
+    consumer = consumer(ConsumerEndpoint.builder().topic("t").nackBackoffSeconds(7)
+        .handler(m -> {
+          handled.countDown();
+          if (m.getId() == 2L) {
+            throw new IllegalStateException("boom");
+          }
+        }).build(), options().build());
+    consumer.start();
+
+    assertTrue(handled.await(5, TimeUnit.SECONDS));
+    awaitOutstanding(0);
+    aggregator.flush();
+    verify(queueService).ack(List.of(1L));
+    verify(queueService).nack(List.of(2L), 7);
+  }
+
+  @Test
+  void pollsAllPartitionsWhenNoneConfiguredAndBacksOffWhenEmpty() throws Exception {
+    when(queueService.leaseAndFetch(anyString(), any(), anyString(), anyInt(), anyInt()))
+        .thenReturn(List.of());
+    consumer = consumer(ConsumerEndpoint.builder().topic("t").handler(m -> {}).build(),
+        options().partitions(3).minPollIntervalMs(50).maxPollIntervalMs(200).build());
+    consumer.start();
+
+    verify(queueService, timeout(2000)).leaseAndFetch("t", List.of(0, 1, 2), "node-1", 30, 10);
+    Thread.sleep(500);
+    // 50 + 100 + 200 + 200ms backoff: a handful of polls, not a busy loop
+    verify(queueService, org.mockito.Mockito.atMost(8))
+        .leaseAndFetch(anyString(), any(), anyString(), anyInt(), anyInt());
+  }
+
+  @Test
+  void messagesOfOnePartitionAreHandledInOrderOneAtATime() throws Exception {
+    when(queueService.leaseAndFetch(anyString(), any(), anyString(), anyInt(), anyInt()))
+        .thenReturn(List.of(message(1L, 0), message(2L, 0), message(3L, 0), message(4L, 0)))
+        .thenReturn(List.of());
+    List<Long> order = new CopyOnWriteArrayList<>();
+    AtomicInteger active = new AtomicInteger();
+    AtomicInteger maxActive = new AtomicInteger();
+    CountDownLatch done = new CountDownLatch(4);
+    consumer = consumer(ConsumerEndpoint.builder().topic("t").concurrency(8).handler(m -> {
+      maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+      Thread.sleep(20);
+      order.add(m.getId());
+      active.decrementAndGet();
+      done.countDown();
+    }).build(), options().build());
+    consumer.start();
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(List.of(1L, 2L, 3L, 4L), order);
+    assertEquals(1, maxActive.get());
+  }
+
+  @Test
+  void concurrencyLimitsRunningHandlers() throws Exception {
+    when(queueService.leaseAndFetch(anyString(), any(), anyString(), anyInt(), anyInt()))
+        .thenReturn(List.of(message(1L, 0), message(2L, 1), message(3L, 2), message(4L, 3)))
+        .thenReturn(List.of());
+    AtomicInteger active = new AtomicInteger();
+    AtomicInteger maxActive = new AtomicInteger();
+    CountDownLatch done = new CountDownLatch(4);
+    consumer = consumer(ConsumerEndpoint.builder().topic("t").concurrency(2).ordered(false)
+        .handler(m -> {
+          maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+          Thread.sleep(50);
+          active.decrementAndGet();
+          done.countDown();
+        }).build(), options().build());
+    consumer.start();
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertTrue(maxActive.get() <= 2);
+  }
+
+  @Test
+  void rejectedDrainTaskReleasesItsMessagesAndLane() throws Exception {
+    when(queueService.leaseAndFetch(anyString(), any(), anyString(), anyInt(), anyInt()))
+        .thenReturn(List.of(message(1L, 0)))
+        .thenReturn(List.of(message(1L, 0)))
+        .thenReturn(List.of());
+    AtomicInteger submitted = new AtomicInteger();
+    Executor rejectingFirst = task -> {
+      if (submitted.getAndIncrement() == 0) {
+        throw new RejectedExecutionException("saturated");
+      }
+      handlers.execute(task);
+    };
+    CountDownLatch handled = new CountDownLatch(1);
+    consumer = new QueueConsumer(queueService,
+        ConsumerEndpoint.builder().topic("t").handler(m -> handled.countDown()).build(),
+        options().build(), aggregator, scheduler, rejectingFirst);
+    consumer.start();
+
+    // The redelivered message gets a new drain task on the same lane
+    assertTrue(handled.await(5, TimeUnit.SECONDS));
+    awaitOutstanding(0);
+    assertEquals(2, submitted.get());
+  }
+
+  @Test
+  void renewsLeasesOfSlowMessages() throws Exception {
+    when(queueService.leaseAndFetch(anyString(), any(), anyString(), anyInt(), anyInt()))
+        .thenReturn(List.of(message(1L, 0)))
+        .thenReturn(List.of());
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    consumer = consumer(ConsumerEndpoint.builder().topic("t").handler(m -> {
+      started.countDown();
+      release.await();
+    }).build(), options().leaseRenewal(false).build());
+    consumer.start();
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    consumer.renewLeases();
+    verify(queueService).extendLease(List.of(1L), "node-1", 30);
+    release.countDown();
+  }
+
+  @Test
+  void stopReleasesBufferedMessagesAndRestartStartsWithFullCapacity() throws Exception {
+    when(queueService.leaseAndFetch(anyString(), any(), anyString(), anyInt(), anyInt()))
+        .thenReturn(List.of(message(1L, 0), message(2L, 0), message(3L, 1)))
+        .thenReturn(List.of());
+    List<Long> handled = new CopyOnWriteArrayList<>();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    consumer = consumer(ConsumerEndpoint.builder().topic("t").concurrency(1).handler(m -> {
+      handled.add(m.getId());
+      started.countDown();
+      release.await();
+    }).build(), options().leaseRenewal(false).build());
+    consumer.start();
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    // Message 2 waits in its lane and message 3 for a permit when the consumer stops
+    consumer.stop(50);
+    release.countDown();
+    awaitOutstanding(0);
+    assertEquals(List.of(1L), handled);
+    consumer.renewLeases();
+    verify(queueService, org.mockito.Mockito.never()).extendLease(any(), anyString(), anyInt());
+
+    // Polls with the whole prefetch buffer again (limit 10) after the restart
+    org.mockito.Mockito.clearInvocations(queueService);
+    consumer.start();
+    verify(queueService, timeout(2000).atLeastOnce())
+        .leaseAndFetch("t", List.of(0, 1), "node-1", 30, 10);
+  }
+
+  @Test
+  void leasesFromAssignedPartitionsOnly() throws Exception {
+    when(queueService.leaseAndFetch(anyString(), any(), anyString(), anyInt(), anyInt()))
+        .thenReturn(List.of());
+    consumer = consumer(ConsumerEndpoint.builder().topic("t").handler(m -> {}).build(),
+        options().partitions(4).build());
+    consumer.setPartitions(List.of());
+    consumer.start();
+    Thread.sleep(100);
+    verify(queueService, org.mockito.Mockito.never())
+        .leaseAndFetch(anyString(), any(), anyString(), anyInt(), anyInt());
+
+    consumer.setPartitions(List.of(1, 3));
+    // the poller keeps polling the empty partitions, so only require the first poll
+    verify(queueService, timeout(2000).atLeastOnce())
+        .leaseAndFetch("t", List.of(1, 3), "node-1", 30, 10);
+    assertEquals(List.of(0, 1, 2, 3), consumer.getAssignablePartitions());
+  }
+
+  private QueueConsumer consumer(ConsumerEndpoint endpoint, ConsumerOptions options) {
+    return new QueueConsumer(queueService, endpoint, options, aggregator, scheduler, handlers);
+  }
+
+  private static ConsumerOptions.ConsumerOptionsBuilder options() {
+    return ConsumerOptions.builder().owner("node-1").partitions(2).prefetch(10).pollBatch(10)
+        .minPollIntervalMs(20).maxPollIntervalMs(100);
+  }
+
+  private void awaitOutstanding(int expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (consumer.getOutstanding() != expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(expected, consumer.getOutstanding());
+  }
+
+  private static MessageData message(long id, int partition) {
+    MessageData m = new MessageData();
+    m.setId(id);
+    m.setTopic("t");
+    m.setPartitionId(partition);
+    m.setPayload("{}");
+    // Leased just now and close to expiry so that renewal picks it up
+    m.setLeaseUntil(Instant.now().plusSeconds(1));
+    return m;
+  }
+}
@@ -0,0 +1,27 @@
+package cloud.xcan.angus.queue.notify;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+
+class LocalWakeupNotifierTest {
+
+  @Test
+  void deliversToEverySubscriberDespiteFailures() {
+    LocalWakeupNotifier notifier = new LocalWakeupNotifier();
+    List<String> received = new CopyOnWriteArrayList<>();
+    notifier.subscribe(topic -> {
+      throw new IllegalStateException("boom");
+    });
+    notifier.subscribe(received::add);
+
+    notifier.publish("orders");
+    notifier.publish("payments");
+
+    assertEquals(List.of("orders", "payments"), received);
+    assertFalse(notifier.isDistributed());
+  }
+}
@@ -13,6 +13,7 @@ import static org.mockito.Mockito.when;
 import cloud.xcan.angus.queue.model.LeaseMessages;
 import cloud.xcan.angus.queue.model.MessageData;
 import cloud.xcan.angus.queue.model.SendMessage;
+import cloud.xcan.angus.queue.notify.WakeupNotifier;
 import cloud.xcan.angus.queue.spi.RepositoryAdapter;
 import java.time.Instant;
 import java.util.List;
@@ -134,5 +135,97 @@ class DefaultQueueServiceTest {
     assertEquals(1, service.lease(lm));
     verify(adapter).leaseBatch(eq("t"), eq(List.of(0, 1)), eq("o"), eq(30), eq(100));
   }
-}
 
+  @Test
+  void leaseAndFetchDelegatesToAdapter() {
+    when(adapter.leaseAndFetch(any(), any(), any(), anyInt(), anyInt()))
+        .thenReturn(List.of(new MessageData()));
+    LeaseMessages lm = LeaseMessages.builder()
+        .topic("t")
+        .partitions(List.of(0, 1))
+        .owner("o")
+        .build();
+    assertEquals(1, service.leaseAndFetch(lm).size());
+    verify(adapter).leaseAndFetch(eq("t"), eq(List.of(0, 1)), eq("o"), eq(30), eq(100));
+  }
+
+  @Test
+  void leaseAndFetchSkipsWhenNoPartitions() {
+    assertEquals(0, service.leaseAndFetch("t", List.of(), "o", 30, 10).size());
+    verify(adapter, never()).leaseAndFetch(any(), any(), any(), anyInt(), anyInt());
+  }
+
+  @Test
+  void adapterLeaseAndFetchDefaultFallsBackToLeaseThenFind() {
+    RepositoryAdapter fallback = mock(RepositoryAdapter.class,
+        org.mockito.Mockito.CALLS_REAL_METHODS);
+    when(fallback.leaseBatch(any(), any(), any(), anyInt(), anyInt())).thenReturn(0, 1);
+    when(fallback.findLeasedByOwner(any(), anyInt())).thenReturn(List.of(new MessageData()));
+
+    assertEquals(0, fallback.leaseAndFetch("t", List.of(0), "o", 30, 5).size());
+    verify(fallback, never()).findLeasedByOwner(any(), anyInt());
+    assertEquals(1, fallback.leaseAndFetch("t", List.of(0), "o", 30, 5).size());
+    verify(fallback).findLeasedByOwner(eq("o"), eq(5));
+  }
+
+  @Test
+  void extendLeaseDelegatesAndSkipsEmpty() {
+    when(adapter.extendLeases(any(), any(), anyInt())).thenReturn(2);
+    assertEquals(2, service.extendLease(List.of(1L, 2L), "o", 30));
+    verify(adapter).extendLeases(eq(List.of(1L, 2L)), eq("o"), eq(30));
+    assertEquals(0, service.extendLease(List.of(), "o", 30));
+  }
+
+  @Test
+  void sendBatchDelegatesAndSkipsEmpty() {
+    List<SendMessage> messages = List.of(
+        SendMessage.builder().topic("t").payload("{}").build(),
+        SendMessage.builder().topic("t").payload("{}").build());
+    when(adapter.saveMessages(messages)).thenReturn(2);
+    assertEquals(2, service.sendBatch(messages));
+    assertEquals(0, service.sendBatch(List.of()));
+    assertEquals(0, service.sendBatch(null));
+    verify(adapter).saveMessages(any());
+  }
+
+  @Test
+  void adapterSaveMessagesDefaultSavesOneByOneAndSkipsBatchDuplicates() {
+    RepositoryAdapter fallback = mock(RepositoryAdapter.class,
+        org.mockito.Mockito.CALLS_REAL_METHODS);
+    org.mockito.Mockito.doReturn(1L).when(fallback).saveMessage(any());
+
+    assertEquals(3, fallback.saveMessages(List.of(
+        SendMessage.builder().topic("t").idempotencyKey("a").build(),
+        SendMessage.builder().topic("t").idempotencyKey("a").build(),
+        SendMessage.builder().topic("u").idempotencyKey("a").build(),
+        SendMessage.builder().topic("t").build())));
+    verify(fallback, org.mockito.Mockito.times(3)).saveMessage(any());
+  }
+
+  @Test
+  void sendsPublishWakeupsOfTheirTopics() {
+    WakeupNotifier notifier = mock(WakeupNotifier.class);
+    DefaultQueueService notifying = new DefaultQueueService(adapter, notifier);
+    when(adapter.saveMessage(any(SendMessage.class))).thenReturn(1L);
+    notifying.send("a", null, "{}", null, 0, null, null, 16, 1);
+    verify(notifier).publish("a");
+
+    List<SendMessage> messages = List.of(
+        SendMessage.builder().topic("b").build(),
+        SendMessage.builder().topic("b").build(),
+        SendMessage.builder().topic("c").build());
+    when(adapter.saveMessages(messages)).thenReturn(3);
+    notifying.sendBatch(messages);
+    verify(notifier).publish("b");
+    verify(notifier).publish("c");
+  }
+
+  @Test
+  void failedWakeupDoesNotFailTheSend() {
+    WakeupNotifier notifier = mock(WakeupNotifier.class);
+    org.mockito.Mockito.doThrow(new IllegalStateException("down")).when(notifier).publish("a");
+    when(adapter.saveMessage(any(SendMessage.class))).thenReturn(9L);
+    assertEquals(9L, new DefaultQueueService(adapter, notifier)
+        .send("a", null, "{}", null, 0, null, null, 16, 1));
+  }
+}
@@ -0,0 +1,157 @@
+package cloud.xcan.angus.queue.adapter;
+
+import cloud.xcan.angus.queue.model.SendMessage;
+import cloud.xcan.angus.queue.util.Partitioner;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * <p>
+ * Inserts messages with multi-row {@code INSERT ... VALUES (...), (...)} statements of at most
+ * {@link #CHUNK_SIZE} rows. {@code angus_mq_message} uses IDENTITY ids, so Hibernate cannot batch
+ * its inserts.
+ * </p>
+ *
+ * <p>
+ * Messages with an idempotency key already used in the same topic are skipped. The unique index
+ * {@code uk_mq_msg_topic_idem} enforces this within the same statement:
+ * </p>
+ * <ul>
+ *   <li>POSTGRES: {@code ON CONFLICT DO NOTHING}.</li>
+ *   <li>MYSQL: {@code ON DUPLICATE KEY UPDATE id = id}.</li>
+ *   <li>GENERIC: existing keys are filtered with one lookup before the insert. This is not atomic,
+ *   so a concurrent duplicate fails on the unique index instead of being skipped.</li>
+ * </ul>
+ * <p>
+ * Duplicates inside the batch are dropped before the statement is built for every dialect.
+ * </p>
+ */
+public class JdbcMessageBatchInserter {
+
+  static final int CHUNK_SIZE = 500;
+
+  private static final String COLUMNS = "topic, partition_id, priority, payload, headers, status,"
+      + " visible_at, attempts, max_attempts, idempotency_key, created_at, updated_at, version";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final LeaseDialect dialect;
+
+  public JdbcMessageBatchInserter(JdbcTemplate jdbcTemplate, LeaseDialect dialect) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.dialect = dialect == null || dialect == LeaseDialect.AUTO
+        ? LeaseDialect.GENERIC : dialect;
+  }
+
+  /**
+   * @return the number of inserted messages; on MySQL skipped duplicates may be counted unless the
+   *     connection uses {@code useAffectedRows=true}
+   */
+  public int insert(List<SendMessage> messages) {
+    if (messages == null || messages.isEmpty()) {
+      return 0;
+    }
+    List<SendMessage> rows = dedupWithinBatch(messages);
+    if (dialect == LeaseDialect.GENERIC) {
+      rows = excludeExistingKeys(rows);
+    }
+    int inserted = 0;
+    for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+      List<SendMessage> chunk = rows.subList(from, Math.min(rows.size(), from + CHUNK_SIZE));
+      inserted += insertChunk(chunk);
+    }
+    return inserted;
+  }
+
+  String insertSql(int rows) {
+    String json = dialect == LeaseDialect.POSTGRES ? "CAST(? AS JSONB)" : "?";
+    String row = "(?, ?, ?, " + json + ", " + json + ", 0, ?, 0, ?, ?, ?, ?, 0)";
+    StringBuilder sql = new StringBuilder(64 + rows * (row.length() + 2))
+        .append("INSERT INTO angus_mq_message (").append(COLUMNS).append(") VALUES ");
+    for (int i = 0; i < rows; i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(row);
+    }
+    switch (dialect) {
+      case POSTGRES -> sql.append(" ON CONFLICT DO NOTHING");
+      case MYSQL -> sql.append(" ON DUPLICATE KEY UPDATE id = id");
+      default -> {
+      }
+    }
+    return sql.toString();
+  }
+
+  private int insertChunk(List<SendMessage> chunk) {
+    Timestamp now = Timestamp.from(Instant.now());
+    List<Object> args = new ArrayList<>(chunk.size() * 10);
+    for (SendMessage msg : chunk) {
+      int numPartitions = msg.getNumPartitions() == null ? 1 : msg.getNumPartitions();
+      args.add(msg.getTopic());
+      args.add(Partitioner.partition(msg.getTopic(), msg.getPartitionKey(),
+          Math.max(1, numPartitions)));
+      args.add(msg.getPriority() == null ? 0 : msg.getPriority());
+      args.add(msg.getPayload());
+      args.add(msg.getHeaders());
+      args.add(msg.getVisibleAt() == null ? now : Timestamp.from(msg.getVisibleAt()));
+      args.add(msg.getMaxAttempts() == null || msg.getMaxAttempts() <= 0
+          ? 16 : msg.getMaxAttempts());
+      args.add(msg.getIdempotencyKey());
+      args.add(now);
+      args.add(now);
+    }
+    // With the default useAffectedRows=false, MySQL Connector/J also counts skipped duplicates
+    return Math.min(jdbcTemplate.update(insertSql(chunk.size()), args.toArray()), chunk.size());
+  }
+
+  private static List<SendMessage> dedupWithinBatch(List<SendMessage> messages) {
+    Map<String, SendMessage> keyed = new LinkedHashMap<>();
+    List<SendMessage> rows = new ArrayList<>(messages.size());
+    for (SendMessage msg : messages) {
+      if (msg.getIdempotencyKey() == null) {
+        rows.add(msg);
+      } else if (keyed.putIfAbsent(msg.getTopic() + '\n' + msg.getIdempotencyKey(), msg) == null) {
+        rows.add(msg);
+      }
+    }
+    return rows;
+  }
+
+  private List<SendMessage> excludeExistingKeys(List<SendMessage> rows) {
+    Set<String> keys = new HashSet<>();
+    for (SendMessage msg : rows) {
+      if (msg.getIdempotencyKey() != null) {
+        keys.add(msg.getIdempotencyKey());
+      }
+    }
+    if (keys.isEmpty()) {
+      return rows;
+    }
+    Set<String> existing = new HashSet<>();
+    List<String> keyList = new ArrayList<>(keys);
+    for (int from = 0; from < keyList.size(); from += CHUNK_SIZE) {
+      Collection<String> chunk = keyList.subList(from,
+          Math.min(keyList.size(), from + CHUNK_SIZE));
+      String in = String.join(",", Collections.nCopies(chunk.size(), "?"));
+      jdbcTemplate.query("SELECT topic, idempotency_key FROM angus_mq_message"
+              + " WHERE idempotency_key IN (" + in + ")",
+          rs -> {
+            existing.add(rs.getString(1) + '\n' + rs.getString(2));
+          }, chunk.toArray());
+    }
+    if (existing.isEmpty()) {
+      return rows;
+    }
+    return rows.stream().filter(msg -> msg.getIdempotencyKey() == null
+        || !existing.contains(msg.getTopic() + '\n' + msg.getIdempotencyKey())).toList();
+  }
+}
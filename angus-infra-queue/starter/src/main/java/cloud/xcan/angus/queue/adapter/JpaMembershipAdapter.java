@@ -0,0 +1,53 @@
+package cloud.xcan.angus.queue.adapter;
+
+import cloud.xcan.angus.queue.entity.ConsumerMemberEntity;
+import cloud.xcan.angus.queue.jpa.ConsumerMemberRepository;
+import cloud.xcan.angus.queue.spi.MembershipSupport;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Stores consumer members in {@code angus_mq_consumer_member}, one row per topic and member.
+ */
+public class JpaMembershipAdapter implements MembershipSupport {
+
+  private final ConsumerMemberRepository memberRepository;
+
+  public JpaMembershipAdapter(ConsumerMemberRepository memberRepository) {
+    this.memberRepository = memberRepository;
+  }
+
+  @Override
+  @Transactional
+  public void heartbeatMember(String topic, String memberId) {
+    Instant now = Instant.now();
+    // A member id is only used by one node, so the row cannot be inserted concurrently
+    if (memberRepository.touch(topic, memberId, now) == 0) {
+      ConsumerMemberEntity member = new ConsumerMemberEntity();
+      member.setTopic(topic);
+      member.setMemberId(memberId);
+      member.setHeartbeatAt(now);
+      member.setCreatedAt(now);
+      memberRepository.save(member);
+    }
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<String> findLiveMembers(String topic, Instant since) {
+    return memberRepository.findLiveMemberIds(topic, since);
+  }
+
+  @Override
+  @Transactional
+  public void removeMember(String topic, String memberId) {
+    memberRepository.deleteMember(topic, memberId);
+  }
+
+  @Override
+  @Transactional
+  public int purgeDeadMembers(Instant before) {
+    return memberRepository.deleteHeartbeatBefore(before);
+  }
+}
@@ -14,19 +14,55 @@ import cloud.xcan.angus.queue.util.Partitioner;
 import cloud.xcan.angus.queue.jpa.DeadLetterRepository;
 import cloud.xcan.angus.queue.jpa.MessageRepository;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.springframework.transaction.annotation.Transactional;
 
 public class JpaRepositoryAdapter implements RepositoryAdapter, SoftDeleteDlqSupport {
 
+  /**
+   * Lease order of the queue: higher priority first, then oldest visible, then oldest id.
+   */
+  private static final Comparator<MessageEntity> LEASE_ORDER = Comparator
+      .comparing(MessageEntity::getPriority, Comparator.reverseOrder())
+      .thenComparing(MessageEntity::getVisibleAt)
+      .thenComparing(MessageEntity::getId);
+
   private final MessageRepository messageRepository;
   private final DeadLetterRepository deadLetterRepository;
+  private final LeaseDialect leaseDialect;
+  private final JdbcMessageBatchInserter batchInserter;
 
   public JpaRepositoryAdapter(MessageRepository messageRepository,
       DeadLetterRepository deadLetterRepository) {
+    this(messageRepository, deadLetterRepository, LeaseDialect.GENERIC);
+  }
+
+  public JpaRepositoryAdapter(MessageRepository messageRepository,
+      DeadLetterRepository deadLetterRepository, LeaseDialect leaseDialect) {
+    this(messageRepository, deadLetterRepository, leaseDialect, null);
+  }
+
+  /**
+   * @param batchInserter multi-row inserter of {@link #saveMessages}, messages are saved one by one
+   *                      through JPA when null
+   */
+  public JpaRepositoryAdapter(MessageRepository messageRepository,
+      DeadLetterRepository deadLetterRepository, LeaseDialect leaseDialect,
+      JdbcMessageBatchInserter batchInserter) {
     this.messageRepository = messageRepository;
     this.deadLetterRepository = deadLetterRepository;
+    this.leaseDialect = leaseDialect == null || leaseDialect == LeaseDialect.AUTO
+        ? LeaseDialect.GENERIC : leaseDialect;
+    this.batchInserter = batchInserter;
+  }
+
+  public LeaseDialect getLeaseDialect() {
+    return leaseDialect;
   }
 
   private static MessageData toMessageData(MessageEntity e) {
@@ -53,6 +89,19 @@ public class JpaRepositoryAdapter implements RepositoryAdapter, SoftDeleteDlqSup
   @Override
   @Transactional
   public Long saveMessage(SendMessage msg) {
+    if (msg.getIdempotencyKey() != null) {
+      Long existing = messageRepository.findIdByTopicAndIdempotencyKey(msg.getTopic(),
+          msg.getIdempotencyKey());
+      if (existing != null) {
+        return existing;
+      }
+      if (batchInserter != null) {
+        // A duplicate sent concurrently is skipped in the INSERT itself on POSTGRES and MYSQL
+        batchInserter.insert(List.of(msg));
+        return messageRepository.findIdByTopicAndIdempotencyKey(msg.getTopic(),
+            msg.getIdempotencyKey());
+      }
+    }
     MessageEntity entity = new MessageEntity();
     entity.setTopic(msg.getTopic());
     int numPartitions = msg.getNumPartitions() == null ? 1 : msg.getNumPartitions();
@@ -76,6 +125,18 @@ public class JpaRepositoryAdapter implements RepositoryAdapter, SoftDeleteDlqSup
     return messageRepository.save(entity).getId();
   }
 
+  @Override
+  @Transactional
+  public int saveMessages(List<SendMessage> messages) {
+    if (messages == null || messages.isEmpty()) {
+      return 0;
+    }
+    if (batchInserter != null) {
+      return batchInserter.insert(messages);
+    }
+    return RepositoryAdapter.super.saveMessages(messages);
+  }
+
   @Override
   @Transactional
   public int leaseBatch(String topic, Collection<Integer> partitions, String owner, int leaseSec,
@@ -84,6 +145,69 @@ public class JpaRepositoryAdapter implements RepositoryAdapter, SoftDeleteDlqSup
     return messageRepository.leaseBatch(topic, partitions, owner, leaseUntil, limit);
   }
 
+  @Override
+  @Transactional
+  public List<MessageData> leaseAndFetch(String topic, Collection<Integer> partitions,
+      String owner, int leaseSec, int limit) {
+    if (partitions == null || partitions.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    // Truncate to the column precision so that in-memory results match the stored rows
+    Instant leaseUntil = Instant.now().plusSeconds(Math.max(0, leaseSec))
+        .truncatedTo(ChronoUnit.MICROS);
+    return switch (leaseDialect) {
+      case POSTGRES -> messageRepository.leaseAndFetchReturning(topic, partitions, owner,
+              leaseUntil, limit).stream()
+          .sorted(LEASE_ORDER)
+          .map(JpaRepositoryAdapter::toMessageData)
+          .toList();
+      case MYSQL -> {
+        List<MessageEntity> locked = messageRepository.findLeaseCandidatesSkipLocked(topic,
+            partitions, limit);
+        if (locked.isEmpty()) {
+          yield List.of();
+        }
+        // Rows are locked by this transaction, the update claims all of them
+        messageRepository.leaseByIds(ids(locked), owner, leaseUntil);
+        yield locked.stream().map(e -> toLeasedData(e, owner, leaseUntil)).toList();
+      }
+      default -> {
+        List<MessageEntity> candidates = messageRepository.findLeaseCandidates(topic, partitions,
+            limit);
+        if (candidates.isEmpty()) {
+          yield List.of();
+        }
+        List<Long> ids = ids(candidates);
+        int claimed = messageRepository.leaseByIds(ids, owner, leaseUntil);
+        if (claimed == 0) {
+          yield List.of();
+        }
+        if (claimed < candidates.size()) {
+          // Lost some rows to a competing consumer, keep only the ones claimed by this owner
+          Set<Long> won = new HashSet<>(messageRepository.findLeasedIdsByOwner(ids, owner));
+          candidates = candidates.stream().filter(e -> won.contains(e.getId())).toList();
+        }
+        yield candidates.stream().map(e -> toLeasedData(e, owner, leaseUntil)).toList();
+      }
+    };
+  }
+
+  private static List<Long> ids(List<MessageEntity> entities) {
+    return entities.stream().map(MessageEntity::getId).toList();
+  }
+
+  /**
+   * Map a READY row that has just been claimed without mutating the managed entity, which would
+   * otherwise be flushed again with a version bump.
+   */
+  private static MessageData toLeasedData(MessageEntity e, String owner, Instant leaseUntil) {
+    MessageData d = toMessageData(e);
+    d.setStatus(MessageStatus.LEASED);
+    d.setLeaseOwner(owner);
+    d.setLeaseUntil(leaseUntil);
+    return d;
+  }
+
   // P1-6: removed 'now' parameter — adapter calls NOW() in SQL directly
   @Override
   @Transactional(readOnly = true)
@@ -92,6 +216,16 @@ public class JpaRepositoryAdapter implements RepositoryAdapter, SoftDeleteDlqSup
         .map(JpaRepositoryAdapter::toMessageData).toList();
   }
 
+  @Override
+  @Transactional
+  public int extendLeases(Collection<Long> ids, String owner, int leaseSec) {
+    if (ids == null || ids.isEmpty()) {
+      return 0;
+    }
+    Instant leaseUntil = Instant.now().plusSeconds(Math.max(0, leaseSec));
+    return messageRepository.extendLeases(ids, owner, leaseUntil);
+  }
+
   @Override
   @Transactional
   public int ackBatch(Collection<Long> ids) {
@@ -0,0 +1,65 @@
+package cloud.xcan.angus.queue.adapter;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SQL strategy used by {@link JpaRepositoryAdapter#leaseAndFetch} to claim messages.
+ */
+public enum LeaseDialect {
+
+  /**
+   * Detect the dialect from the JDBC metadata of the data source.
+   */
+  AUTO,
+
+  /**
+   * PostgreSQL: one {@code UPDATE ... WHERE id IN (SELECT ... FOR UPDATE SKIP LOCKED) RETURNING *}.
+   */
+  POSTGRES,
+
+  /**
+   * MySQL 8+: {@code SELECT ... FOR UPDATE SKIP LOCKED} followed by an UPDATE of the locked ids in
+   * the same transaction. MySQL has no {@code UPDATE ... RETURNING}.
+   */
+  MYSQL,
+
+  /**
+   * Any other database: select candidates, claim them with a conditional UPDATE and keep the rows
+   * that were actually claimed. Safe without row locks, but competing consumers may lose rows.
+   */
+  GENERIC;
+
+  private static final Logger log = LoggerFactory.getLogger(LeaseDialect.class);
+
+  public static LeaseDialect detect(DataSource dataSource) {
+    if (dataSource == null) {
+      return GENERIC;
+    }
+    try (Connection connection = dataSource.getConnection()) {
+      DatabaseMetaData metaData = connection.getMetaData();
+      return of(metaData.getDatabaseProductName(), metaData.getDatabaseMajorVersion());
+    } catch (SQLException e) {
+      log.warn("Failed to detect the queue lease dialect, falling back to GENERIC", e);
+      return GENERIC;
+    }
+  }
+
+  static LeaseDialect of(String productName, int majorVersion) {
+    if (productName == null) {
+      return GENERIC;
+    }
+    String name = productName.toLowerCase();
+    if (name.contains("postgresql") && majorVersion >= 10) {
+      return POSTGRES;
+    }
+    if (name.contains("mysql") && majorVersion >= 8) {
+      return MYSQL;
+    }
+    return GENERIC;
+  }
+}
@@ -0,0 +1,32 @@
+package cloud.xcan.angus.queue.archive;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Time span of one archive table. The table suffix is the UTC start of the bucket, so suffixes of
+ * the same bucket type sort chronologically.
+ */
+public enum ArchiveBucket {
+
+  HOUR("yyyyMMddHH"),
+  DAY("yyyyMMdd"),
+  MONTH("yyyyMM");
+
+  private final DateTimeFormatter formatter;
+  private final int suffixLength;
+
+  ArchiveBucket(String pattern) {
+    this.formatter = DateTimeFormatter.ofPattern(pattern).withZone(ZoneOffset.UTC);
+    this.suffixLength = pattern.length();
+  }
+
+  public String suffix(Instant time) {
+    return formatter.format(time);
+  }
+
+  public int getSuffixLength() {
+    return suffixLength;
+  }
+}
@@ -0,0 +1,192 @@
+package cloud.xcan.angus.queue.archive;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * <p>
+ * Keeps {@code angus_mq_message} limited to live messages by moving DONE rows in bulk into
+ * time-bucketed archive tables named {@code <tablePrefix><bucket>}, e.g.
+ * {@code angus_mq_message_archive_20240101}. A row goes to the bucket of its {@code updated_at},
+ * i.e. of its ack time.
+ * </p>
+ *
+ * <p>
+ * Archive tables are created on first use with {@code CREATE TABLE ... AS SELECT}, keyed by
+ * {@code id} and indexed on {@code (topic, idempotency_key)}. Whole tables are dropped once their
+ * bucket is older than the retention, which is far cheaper than deleting rows.
+ * </p>
+ *
+ * <p>
+ * Idempotency keys are only deduplicated against {@code angus_mq_message}, so DONE rows with a key
+ * stay there until {@code idempotencyRetention} has passed since their ack. That is the dedup
+ * window: a key sent again after it is accepted as a new message.
+ * </p>
+ */
+public class MessageArchiver {
+
+  private static final Logger log = LoggerFactory.getLogger(MessageArchiver.class);
+
+  static final String COLUMNS = "id, topic, partition_id, priority, payload, headers, status, "
+      + "visible_at, lease_until, lease_owner, attempts, max_attempts, idempotency_key, "
+      + "created_at, updated_at";
+
+  private static final Pattern TABLE_PREFIX = Pattern.compile("[A-Za-z][A-Za-z0-9_]*");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final String tablePrefix;
+  private final ArchiveBucket bucket;
+  private final int retentionDays;
+  private final Duration idempotencyRetention;
+  private final Set<String> createdTables = ConcurrentHashMap.newKeySet();
+
+  public MessageArchiver(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+      String tablePrefix, ArchiveBucket bucket, int retentionDays,
+      Duration idempotencyRetention) {
+    if (tablePrefix == null || !TABLE_PREFIX.matcher(tablePrefix).matches()) {
+      throw new IllegalArgumentException("Invalid archive table prefix: " + tablePrefix);
+    }
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.tablePrefix = tablePrefix;
+    this.bucket = bucket == null ? ArchiveBucket.DAY : bucket;
+    this.retentionDays = Math.max(1, retentionDays);
+    this.idempotencyRetention = idempotencyRetention == null || idempotencyRetention.isNegative()
+        ? Duration.ZERO : idempotencyRetention;
+  }
+
+  public String tableName(Instant time) {
+    return tablePrefix + bucket.suffix(time);
+  }
+
+  /**
+   * Move up to {@code limit} DONE messages to their archive tables. Messages with an idempotency
+   * key are moved once {@code idempotencyRetention} has passed since their ack.
+   *
+   * @return the number of messages moved
+   */
+  public int archiveDone(int limit) {
+    Map<String, List<Long>> idsByTable = new TreeMap<>();
+    Timestamp keyedBefore = Timestamp.from(Instant.now().minus(idempotencyRetention));
+    jdbcTemplate.query("SELECT id, updated_at FROM angus_mq_message WHERE status=2"
+            + " AND (idempotency_key IS NULL OR updated_at < ?) ORDER BY id LIMIT ?",
+        rs -> {
+          String table = tableName(rs.getTimestamp(2).toInstant());
+          idsByTable.computeIfAbsent(table, t -> new ArrayList<>()).add(rs.getLong(1));
+        }, keyedBefore, Math.max(1, limit));
+    int moved = 0;
+    for (Map.Entry<String, List<Long>> entry : idsByTable.entrySet()) {
+      ensureTable(entry.getKey());
+      Integer n = transactionTemplate.execute(status -> move(entry.getKey(), entry.getValue()));
+      moved += n == null ? 0 : n;
+    }
+    return moved;
+  }
+
+  /**
+   * Drop archive tables whose bucket is older than the retention.
+   *
+   * @return the number of tables dropped
+   */
+  public int dropExpiredArchives() {
+    String cutoff = bucket.suffix(Instant.now().minus(retentionDays, ChronoUnit.DAYS));
+    int dropped = 0;
+    for (String table : listArchiveTables()) {
+      String suffix = table.substring(tablePrefix.length());
+      // Suffixes of another bucket type have a different length and are left alone
+      if (suffix.length() == bucket.getSuffixLength() && suffix.chars().allMatch(Character::isDigit)
+          && suffix.compareTo(cutoff) < 0) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        createdTables.remove(table.toLowerCase());
+        log.info("Dropped expired queue archive table {}", table);
+        dropped++;
+      }
+    }
+    return dropped;
+  }
+
+  public List<String> listArchiveTables() {
+    List<String> tables = jdbcTemplate.execute((ConnectionCallback<List<String>>) con -> {
+      DatabaseMetaData metaData = con.getMetaData();
+      String pattern = metaData.storesUpperCaseIdentifiers() ? tablePrefix.toUpperCase()
+          : metaData.storesLowerCaseIdentifiers() ? tablePrefix.toLowerCase() : tablePrefix;
+      List<String> result = new ArrayList<>();
+      try (ResultSet rs = metaData.getTables(con.getCatalog(), con.getSchema(), pattern + "%",
+          new String[]{"TABLE"})) {
+        while (rs.next()) {
+          String name = rs.getString("TABLE_NAME");
+          // '_' is a single-character wildcard in metadata patterns
+          if (name.regionMatches(true, 0, tablePrefix, 0, tablePrefix.length())) {
+            result.add(name);
+          }
+        }
+      }
+      return result;
+    });
+    return tables == null ? Collections.emptyList() : tables;
+  }
+
+  private void ensureTable(String table) {
+    if (createdTables.contains(table.toLowerCase())) {
+      return;
+    }
+    boolean exists = listArchiveTables().stream().anyMatch(table::equalsIgnoreCase);
+    if (!exists) {
+      jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table
+          + " AS SELECT " + COLUMNS + " FROM angus_mq_message WHERE 1=0");
+      // CTAS copies neither keys nor indexes; another node may have added them concurrently.
+      // MySQL makes primary key columns NOT NULL itself and rejects this syntax.
+      executeIgnoringFailure("ALTER TABLE " + table + " ALTER COLUMN id SET NOT NULL");
+      executeIgnoringFailure("ALTER TABLE " + table + " ADD PRIMARY KEY (id)");
+      executeIgnoringFailure("CREATE INDEX idx_" + table + "_topic_idem ON " + table
+          + " (topic, idempotency_key)");
+    }
+    createdTables.add(table.toLowerCase());
+  }
+
+  private void executeIgnoringFailure(String sql) {
+    try {
+      jdbcTemplate.execute(sql);
+    } catch (DataAccessException e) {
+      log.debug("Skipped queue archive DDL [{}]: {}", sql, e.getMessage());
+    }
+  }
+
+  private int move(String table, List<Long> candidates) {
+    // Lock the rows first so that concurrent archivers on other nodes cannot copy them twice
+    List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM angus_mq_message WHERE status=2"
+        + " AND id IN (" + placeholders(candidates.size()) + ") FOR UPDATE", Long.class,
+        candidates.toArray());
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    String in = placeholders(ids.size());
+    jdbcTemplate.update("INSERT INTO " + table + " (" + COLUMNS + ") SELECT " + COLUMNS
+        + " FROM angus_mq_message WHERE id IN (" + in + ")", ids.toArray());
+    return jdbcTemplate.update("DELETE FROM angus_mq_message WHERE id IN (" + in + ")",
+        ids.toArray());
+  }
+
+  private static String placeholders(int n) {
+    return String.join(",", Collections.nCopies(n, "?"));
+  }
+}
@@ -1,21 +1,44 @@
 package cloud.xcan.angus.queue.autoconfigure;
 
+import cloud.xcan.angus.queue.adapter.JdbcMessageBatchInserter;
+import cloud.xcan.angus.queue.adapter.JpaMembershipAdapter;
 import cloud.xcan.angus.queue.adapter.JpaRepositoryAdapter;
+import cloud.xcan.angus.queue.adapter.LeaseDialect;
+import cloud.xcan.angus.queue.archive.MessageArchiver;
+import cloud.xcan.angus.queue.consumer.ConsumerEndpoint;
+import cloud.xcan.angus.queue.consumer.ConsumerOptions;
+import cloud.xcan.angus.queue.consumer.PartitionCoordinator;
+import cloud.xcan.angus.queue.consumer.QueueConsumerContainer;
+import cloud.xcan.angus.queue.consumer.QueueListenerAnnotationBeanPostProcessor;
+import cloud.xcan.angus.queue.entity.ConsumerMemberEntity;
 import cloud.xcan.angus.queue.entity.DeadLetterEntity;
 import cloud.xcan.angus.queue.entity.MessageEntity;
+import cloud.xcan.angus.queue.jpa.ConsumerMemberRepository;
 import cloud.xcan.angus.queue.jpa.DeadLetterRepository;
 import cloud.xcan.angus.queue.jpa.MessageRepository;
+import cloud.xcan.angus.queue.notify.LocalWakeupNotifier;
+import cloud.xcan.angus.queue.notify.PostgresWakeupNotifier;
+import cloud.xcan.angus.queue.notify.RedisWakeupNotifier;
+import cloud.xcan.angus.queue.notify.TransactionAwareWakeupNotifier;
+import cloud.xcan.angus.queue.notify.WakeupNotifier;
+import cloud.xcan.angus.queue.outbox.TransactionalOutbox;
 import cloud.xcan.angus.queue.scheduler.DeadLetterMoverScheduler;
+import cloud.xcan.angus.queue.scheduler.MessageArchiveScheduler;
 import cloud.xcan.angus.queue.service.AuditLogger;
 import cloud.xcan.angus.queue.service.DefaultQueueAdminService;
 import cloud.xcan.angus.queue.service.DefaultQueueService;
 import cloud.xcan.angus.queue.service.QueueAdminService;
 import cloud.xcan.angus.queue.service.QueueService;
 import cloud.xcan.angus.queue.service.Slf4jAuditLogger;
+import cloud.xcan.angus.queue.spi.MembershipSupport;
 import cloud.xcan.angus.queue.spi.RepositoryAdapter;
 import cloud.xcan.angus.queue.scheduler.DlqSoftDeletePurgerScheduler;
 import cloud.xcan.angus.queue.scheduler.LeaseReaperScheduler;
 import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -27,12 +50,17 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-@AutoConfiguration(after = HibernateJpaAutoConfiguration.class)
+@AutoConfiguration(after = HibernateJpaAutoConfiguration.class,
+    afterName = "org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration")
 @EnableScheduling
 @EnableConfigurationProperties(QueueProperties.class)
 @ConditionalOnClass(JpaRepository.class)
@@ -40,23 +68,135 @@ public class QueueAutoConfiguration {
 
   @Configuration(proxyBeanMethods = false)
   @ConditionalOnBean(EntityManagerFactory.class)
-  @EntityScan(basePackageClasses = {MessageEntity.class, DeadLetterEntity.class})
-  @EnableJpaRepositories(basePackageClasses = {MessageRepository.class, DeadLetterRepository.class})
+  @EntityScan(basePackageClasses = {MessageEntity.class, DeadLetterEntity.class,
+      ConsumerMemberEntity.class})
+  @EnableJpaRepositories(basePackageClasses = {MessageRepository.class, DeadLetterRepository.class,
+      ConsumerMemberRepository.class})
   static class QueueJpaRepositoryConfiguration {
 
   }
 
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(RedisConnectionFactory.class)
+  @ConditionalOnProperty(prefix = "angus.queue.notify", name = "type", havingValue = "REDIS")
+  static class RedisWakeupNotifierConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(WakeupNotifier.class)
+    public WakeupNotifier redisWakeupNotifier(RedisConnectionFactory connectionFactory,
+        QueueProperties properties) {
+      return new RedisWakeupNotifier(connectionFactory, properties.getNotify().getChannel());
+    }
+  }
+
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(PGConnection.class)
+  @ConditionalOnProperty(prefix = "angus.queue.notify", name = "type", havingValue = "POSTGRES")
+  static class PostgresWakeupNotifierConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(WakeupNotifier.class)
+    public WakeupNotifier postgresWakeupNotifier(DataSource dataSource,
+        QueueProperties properties) {
+      return new PostgresWakeupNotifier(dataSource, properties.getNotify().getChannel());
+    }
+  }
+
+  @Bean
+  @ConditionalOnMissingBean(WakeupNotifier.class)
+  @ConditionalOnProperty(prefix = "angus.queue.notify", name = "type", havingValue = "LOCAL",
+      matchIfMissing = true)
+  public WakeupNotifier localWakeupNotifier() {
+    return new LocalWakeupNotifier();
+  }
+
   @Bean
   @ConditionalOnMissingBean(RepositoryAdapter.class)
   public RepositoryAdapter jpaRepositoryAdapter(MessageRepository messageRepository,
-      DeadLetterRepository deadLetterRepository) {
-    return new JpaRepositoryAdapter(messageRepository, deadLetterRepository);
+      DeadLetterRepository deadLetterRepository, ObjectProvider<DataSource> dataSource,
+      QueueProperties properties) {
+    DataSource ds = dataSource.getIfAvailable();
+    LeaseDialect dialect = properties.getLeaseDialect();
+    if (dialect == null || dialect == LeaseDialect.AUTO) {
+      dialect = LeaseDialect.detect(ds);
+    }
+    // Joins the JPA transaction: JpaTransactionManager exposes its connection to JDBC access
+    JdbcMessageBatchInserter batchInserter = ds == null ? null
+        : new JdbcMessageBatchInserter(new JdbcTemplate(ds), dialect);
+    return new JpaRepositoryAdapter(messageRepository, deadLetterRepository, dialect,
+        batchInserter);
   }
 
   @Bean
   @ConditionalOnMissingBean(QueueService.class)
-  public QueueService queueService(RepositoryAdapter adapter) {
-    return new DefaultQueueService(adapter);
+  public QueueService queueService(RepositoryAdapter adapter,
+      ObjectProvider<WakeupNotifier> notifier) {
+    WakeupNotifier wakeupNotifier = notifier.getIfAvailable();
+    return new DefaultQueueService(adapter, wakeupNotifier == null ? null
+        : new TransactionAwareWakeupNotifier(wakeupNotifier));
+  }
+
+  @Bean
+  @ConditionalOnMissingBean(TransactionalOutbox.class)
+  public TransactionalOutbox transactionalOutbox(QueueService queueService) {
+    return new TransactionalOutbox(queueService);
+  }
+
+  @Bean
+  @ConditionalOnMissingBean(MembershipSupport.class)
+  @ConditionalOnProperty(prefix = "angus.queue.coordination", name = "enabled",
+      havingValue = "true")
+  public MembershipSupport jpaMembershipAdapter(ConsumerMemberRepository memberRepository) {
+    return new JpaMembershipAdapter(memberRepository);
+  }
+
+  @Bean
+  @ConditionalOnMissingBean(QueueConsumerContainer.class)
+  @ConditionalOnProperty(prefix = "angus.queue.consumer", name = "enabled", havingValue = "true",
+      matchIfMissing = true)
+  public QueueConsumerContainer queueConsumerContainer(QueueService queueService,
+      QueueProperties properties, ObjectProvider<ConsumerEndpoint> endpoints,
+      ObjectProvider<WakeupNotifier> notifier, ObjectProvider<MembershipSupport> membership) {
+    QueueProperties.Consumer consumer = properties.getConsumer();
+    WakeupNotifier wakeupNotifier = notifier.getIfAvailable();
+    // Notifications reach every node, polling is only a safety net for lost ones
+    long maxPollIntervalMs = wakeupNotifier != null && wakeupNotifier.isDistributed()
+        ? Math.max(consumer.getMaxPollIntervalMs(),
+        properties.getNotify().getSafetyPollIntervalMs())
+        : consumer.getMaxPollIntervalMs();
+    QueueConsumerContainer container = new QueueConsumerContainer(queueService,
+        ConsumerOptions.builder()
+            .owner(consumer.getOwner())
+            .partitions(properties.getPartitions())
+            .prefetch(consumer.getPrefetch())
+            .pollBatch(properties.getPollBatch())
+            .concurrency(consumer.getConcurrency())
+            .ordered(consumer.isOrdered())
+            .minPollIntervalMs(consumer.getMinPollIntervalMs())
+            .maxPollIntervalMs(maxPollIntervalMs)
+            .leaseSeconds(properties.getLeaseSeconds())
+            .leaseRenewal(consumer.isLeaseRenewal())
+            .ackIntervalMs(consumer.getAckIntervalMs())
+            .ackBatch(properties.getAckBatch())
+            .nackBackoffSeconds(consumer.getNackBackoffSeconds())
+            .shutdownTimeoutMs(consumer.getShutdownTimeoutMs())
+            .build(), wakeupNotifier);
+    membership.ifAvailable(m -> {
+      QueueProperties.Coordination coordination = properties.getCoordination();
+      container.setCoordinator(new PartitionCoordinator(m, container.getOptions().getOwner(),
+          coordination.getHeartbeatIntervalMs(), coordination.getMemberTimeoutMs(),
+          coordination.getVirtualNodes()));
+    });
+    endpoints.orderedStream().forEach(container::register);
+    return container;
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "angus.queue.consumer", name = "enabled", havingValue = "true",
+      matchIfMissing = true)
+  public static QueueListenerAnnotationBeanPostProcessor queueListenerAnnotationBeanPostProcessor(
+      ObjectProvider<QueueConsumerContainer> container) {
+    return new QueueListenerAnnotationBeanPostProcessor(container);
   }
 
   @Bean
@@ -83,6 +223,25 @@ public class QueueAutoConfiguration {
     return new DeadLetterMoverScheduler(queueService, properties);
   }
 
+  @Bean
+  @ConditionalOnMissingBean(MessageArchiver.class)
+  @ConditionalOnProperty(prefix = "angus.queue.archive", name = "enabled", havingValue = "true")
+  public MessageArchiver messageArchiver(DataSource dataSource,
+      PlatformTransactionManager transactionManager, QueueProperties properties) {
+    QueueProperties.Archive archive = properties.getArchive();
+    return new MessageArchiver(new JdbcTemplate(dataSource),
+        new TransactionTemplate(transactionManager), archive.getTablePrefix(),
+        archive.getBucket(), archive.getRetentionDays(),
+        Duration.ofHours(archive.getIdempotencyRetentionHours()));
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "angus.queue.archive", name = "enabled", havingValue = "true")
+  public MessageArchiveScheduler messageArchiveScheduler(MessageArchiver archiver,
+      QueueProperties properties) {
+    return new MessageArchiveScheduler(archiver, properties);
+  }
+
   @Bean
   @ConditionalOnMissingBean(AuditLogger.class)
   public AuditLogger auditLogger() {
@@ -1,5 +1,8 @@
 package cloud.xcan.angus.queue.autoconfigure;
 
+import cloud.xcan.angus.queue.adapter.LeaseDialect;
+import cloud.xcan.angus.queue.archive.ArchiveBucket;
+import cloud.xcan.angus.queue.notify.WakeupNotifierType;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "angus.queue")
@@ -11,9 +14,17 @@ public class QueueProperties {
   private int leaseSeconds = 30;
   private int reclaimBatch = 500;
   private int deadLetterMoveBatch = 200;
+  /**
+   * SQL strategy of lease-and-fetch, detected from the data source by default.
+   */
+  private LeaseDialect leaseDialect = LeaseDialect.AUTO;
 
   private final Scheduling scheduling = new Scheduling();
   private Admin admin = new Admin();
+  private final Consumer consumer = new Consumer();
+  private final Archive archive = new Archive();
+  private final Notify notify = new Notify();
+  private final Coordination coordination = new Coordination();
 
   public int getPartitions() {
     return partitions;
@@ -63,6 +74,14 @@ public class QueueProperties {
     this.deadLetterMoveBatch = deadLetterMoveBatch;
   }
 
+  public LeaseDialect getLeaseDialect() {
+    return leaseDialect;
+  }
+
+  public void setLeaseDialect(LeaseDialect leaseDialect) {
+    this.leaseDialect = leaseDialect;
+  }
+
   public Scheduling getScheduling() {
     return scheduling;
   }
@@ -75,6 +94,22 @@ public class QueueProperties {
     this.admin = admin;
   }
 
+  public Consumer getConsumer() {
+    return consumer;
+  }
+
+  public Archive getArchive() {
+    return archive;
+  }
+
+  public Notify getNotify() {
+    return notify;
+  }
+
+  public Coordination getCoordination() {
+    return coordination;
+  }
+
   public static class Scheduling {
 
     private int poolSize = 4;
@@ -118,4 +153,270 @@ public class QueueProperties {
       this.purgeIntervalMs = purgeIntervalMs;
     }
   }
+
+  /**
+   * Managed consumers of {@code @QueueListener} methods and {@code ConsumerEndpoint} beans. Poll
+   * batch, lease seconds, ack batch and partitions are taken from the top-level settings.
+   */
+  public static class Consumer {
+
+    private boolean enabled = true;
+    private String owner; // defaults to host name plus a random suffix
+    private int prefetch = 200; // max leased but uncompleted messages per endpoint
+    private int concurrency = 64; // max running handlers per endpoint
+    private boolean ordered = true; // one message at a time per partition
+    private long minPollIntervalMs = 100;
+    private long maxPollIntervalMs = 5_000;
+    private boolean leaseRenewal = true;
+    private long ackIntervalMs = 200;
+    private int nackBackoffSeconds = 10;
+    private long shutdownTimeoutMs = 10_000;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public String getOwner() {
+      return owner;
+    }
+
+    public void setOwner(String owner) {
+      this.owner = owner;
+    }
+
+    public int getPrefetch() {
+      return prefetch;
+    }
+
+    public void setPrefetch(int prefetch) {
+      this.prefetch = prefetch;
+    }
+
+    public int getConcurrency() {
+      return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+      this.concurrency = concurrency;
+    }
+
+    public boolean isOrdered() {
+      return ordered;
+    }
+
+    public void setOrdered(boolean ordered) {
+      this.ordered = ordered;
+    }
+
+    public long getMinPollIntervalMs() {
+      return minPollIntervalMs;
+    }
+
+    public void setMinPollIntervalMs(long minPollIntervalMs) {
+      this.minPollIntervalMs = minPollIntervalMs;
+    }
+
+    public long getMaxPollIntervalMs() {
+      return maxPollIntervalMs;
+    }
+
+    public void setMaxPollIntervalMs(long maxPollIntervalMs) {
+      this.maxPollIntervalMs = maxPollIntervalMs;
+    }
+
+    public boolean isLeaseRenewal() {
+      return leaseRenewal;
+    }
+
+    public void setLeaseRenewal(boolean leaseRenewal) {
+      this.leaseRenewal = leaseRenewal;
+    }
+
+    public long getAckIntervalMs() {
+      return ackIntervalMs;
+    }
+
+    public void setAckIntervalMs(long ackIntervalMs) {
+      this.ackIntervalMs = ackIntervalMs;
+    }
+
+    public int getNackBackoffSeconds() {
+      return nackBackoffSeconds;
+    }
+
+    public void setNackBackoffSeconds(int nackBackoffSeconds) {
+      this.nackBackoffSeconds = nackBackoffSeconds;
+    }
+
+    public long getShutdownTimeoutMs() {
+      return shutdownTimeoutMs;
+    }
+
+    public void setShutdownTimeoutMs(long shutdownTimeoutMs) {
+      this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+  }
+
+  /**
+   * Moves DONE messages out of the hot table into time-bucketed archive tables.
+   */
+  public static class Archive {
+
+    private boolean enabled = false;
+    private String tablePrefix = "angus_mq_message_archive_";
+    private ArchiveBucket bucket = ArchiveBucket.DAY;
+    private int retentionDays = 30; // archive tables older than this are dropped
+    private int idempotencyRetentionHours = 24; // dedup window of idempotency keys
+    private int batchSize = 1000;
+    private long intervalMs = 5_000;
+    private long rotateIntervalMs = 3_600_000;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public String getTablePrefix() {
+      return tablePrefix;
+    }
+
+    public void setTablePrefix(String tablePrefix) {
+      this.tablePrefix = tablePrefix;
+    }
+
+    public ArchiveBucket getBucket() {
+      return bucket;
+    }
+
+    public void setBucket(ArchiveBucket bucket) {
+      this.bucket = bucket;
+    }
+
+    public int getRetentionDays() {
+      return retentionDays;
+    }
+
+    public void setRetentionDays(int retentionDays) {
+      this.retentionDays = retentionDays;
+    }
+
+    public int getIdempotencyRetentionHours() {
+      return idempotencyRetentionHours;
+    }
+
+    public void setIdempotencyRetentionHours(int idempotencyRetentionHours) {
+      this.idempotencyRetentionHours = idempotencyRetentionHours;
+    }
+
+    public int getBatchSize() {
+      return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+      this.batchSize = batchSize;
+    }
+
+    public long getIntervalMs() {
+      return intervalMs;
+    }
+
+    public void setIntervalMs(long intervalMs) {
+      this.intervalMs = intervalMs;
+    }
+
+    public long getRotateIntervalMs() {
+      return rotateIntervalMs;
+    }
+
+    public void setRotateIntervalMs(long rotateIntervalMs) {
+      this.rotateIntervalMs = rotateIntervalMs;
+    }
+  }
+
+  /**
+   * Wakeup notifications from producers to consumers of a topic. With a distributed type, consumers
+   * poll empty topics at {@code safetyPollIntervalMs} only, to catch lost notifications.
+   */
+  public static class Notify {
+
+    private WakeupNotifierType type = WakeupNotifierType.LOCAL;
+    private String channel = "angus_queue_wakeup"; // Redis channel or PostgreSQL LISTEN channel
+    private long safetyPollIntervalMs = 30_000; // replaces consumer.max-poll-interval-ms
+
+    public WakeupNotifierType getType() {
+      return type;
+    }
+
+    public void setType(WakeupNotifierType type) {
+      this.type = type;
+    }
+
+    public String getChannel() {
+      return channel;
+    }
+
+    public void setChannel(String channel) {
+      this.channel = channel;
+    }
+
+    public long getSafetyPollIntervalMs() {
+      return safetyPollIntervalMs;
+    }
+
+    public void setSafetyPollIntervalMs(long safetyPollIntervalMs) {
+      this.safetyPollIntervalMs = safetyPollIntervalMs;
+    }
+  }
+
+  /**
+   * Assignment of partitions to the live consumer nodes of each topic, with membership and
+   * heartbeats stored in {@code angus_mq_consumer_member}. Without it every node leases from all
+   * partitions.
+   */
+  public static class Coordination {
+
+    private boolean enabled = false;
+    private long heartbeatIntervalMs = 5_000;
+    private long memberTimeoutMs = 20_000; // members without heartbeat for this long are left out
+    private int virtualNodes = 128; // consistent-hash ring points per member
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public long getHeartbeatIntervalMs() {
+      return heartbeatIntervalMs;
+    }
+
+    public void setHeartbeatIntervalMs(long heartbeatIntervalMs) {
+      this.heartbeatIntervalMs = heartbeatIntervalMs;
+    }
+
+    public long getMemberTimeoutMs() {
+      return memberTimeoutMs;
+    }
+
+    public void setMemberTimeoutMs(long memberTimeoutMs) {
+      this.memberTimeoutMs = memberTimeoutMs;
+    }
+
+    public int getVirtualNodes() {
+      return virtualNodes;
+    }
+
+    public void setVirtualNodes(int virtualNodes) {
+      this.virtualNodes = virtualNodes;
+    }
+  }
 }
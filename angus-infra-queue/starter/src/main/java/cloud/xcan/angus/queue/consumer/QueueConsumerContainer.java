@@ -0,0 +1,186 @@
+package cloud.xcan.angus.queue.consumer;
+
+import cloud.xcan.angus.queue.notify.WakeupNotifier;
+import cloud.xcan.angus.queue.service.QueueService;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Runs a {@link QueueConsumer} per registered {@link ConsumerEndpoint}. Handlers run on virtual
+ * threads, and the acks and nacks of all consumers are written by one shared {@link AckAggregator}
+ * every {@code ackIntervalMs}. Consumers of a topic poll right away when a {@link WakeupNotifier}
+ * reports new messages.
+ */
+public class QueueConsumerContainer implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(QueueConsumerContainer.class);
+
+  private final QueueService queueService;
+  private final ConsumerOptions options;
+  private final List<ConsumerEndpoint> endpoints = new CopyOnWriteArrayList<>();
+  private final List<QueueConsumer> consumers = new CopyOnWriteArrayList<>();
+  private PartitionCoordinator coordinator;
+
+  private ScheduledExecutorService scheduler;
+  private ExecutorService handlerExecutor;
+  private AckAggregator ackAggregator;
+  private volatile boolean running;
+
+  public QueueConsumerContainer(QueueService queueService, ConsumerOptions options) {
+    this(queueService, options, null);
+  }
+
+  /**
+   * @param notifier consumers of a topic are woken up by its notifications, none when null
+   */
+  public QueueConsumerContainer(QueueService queueService, ConsumerOptions options,
+      WakeupNotifier notifier) {
+    this.queueService = queueService;
+    this.options = options;
+    if (options.getOwner() == null || options.getOwner().isBlank()) {
+      options.setOwner(defaultOwner());
+    }
+    if (notifier != null) {
+      notifier.subscribe(this::wakeup);
+    }
+  }
+
+  public ConsumerOptions getOptions() {
+    return options;
+  }
+
+  public List<QueueConsumer> getConsumers() {
+    return List.copyOf(consumers);
+  }
+
+  public PartitionCoordinator getCoordinator() {
+    return coordinator;
+  }
+
+  /**
+   * Lease from the partitions assigned to this node by the coordinator instead of from all
+   * partitions. Must be set before the container starts.
+   */
+  public void setCoordinator(PartitionCoordinator coordinator) {
+    this.coordinator = coordinator;
+  }
+
+  /**
+   * Register an endpoint, started immediately when the container is already running.
+   */
+  public synchronized void register(ConsumerEndpoint endpoint) {
+    endpoints.add(endpoint);
+    if (running) {
+      startConsumer(endpoint);
+    }
+  }
+
+  /**
+   * Cut the poll backoff of every consumer of the topic short.
+   */
+  public void wakeup(String topic) {
+    for (QueueConsumer consumer : consumers) {
+      if (consumer.getTopic().equals(topic)) {
+        consumer.wakeup();
+      }
+    }
+  }
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    running = true;
+    for (ConsumerEndpoint endpoint : endpoints) {
+      startConsumer(endpoint);
+    }
+  }
+
+  @Override
+  public void stop() {
+    List<QueueConsumer> stopping;
+    synchronized (this) {
+      if (!running) {
+        return;
+      }
+      running = false;
+      stopping = new ArrayList<>(consumers);
+      consumers.clear();
+    }
+    long deadline = System.currentTimeMillis() + options.getShutdownTimeoutMs();
+    for (QueueConsumer consumer : stopping) {
+      consumer.stop(Math.max(0, deadline - System.currentTimeMillis()));
+    }
+    if (ackAggregator != null) {
+      ackAggregator.flush();
+    }
+    if (coordinator != null) {
+      coordinator.leave();
+    }
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+    if (handlerExecutor != null) {
+      handlerExecutor.shutdownNow();
+      handlerExecutor = null;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void startConsumer(ConsumerEndpoint endpoint) {
+    if (scheduler == null) {
+      scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "angus-queue-consumer");
+        t.setDaemon(true);
+        return t;
+      });
+      handlerExecutor = Executors.newThreadPerTaskExecutor(
+          Thread.ofVirtual().name("angus-queue-handler-", 0).factory());
+      ackAggregator = new AckAggregator(queueService, options.getAckBatch());
+      long interval = Math.max(10, options.getAckIntervalMs());
+      scheduler.scheduleWithFixedDelay(ackAggregator::flush, interval, interval,
+          TimeUnit.MILLISECONDS);
+      if (coordinator != null) {
+        long heartbeat = coordinator.getHeartbeatIntervalMs();
+        scheduler.scheduleWithFixedDelay(coordinator::heartbeat, heartbeat, heartbeat,
+            TimeUnit.MILLISECONDS);
+      }
+    }
+    QueueConsumer consumer = new QueueConsumer(queueService, endpoint, options, ackAggregator,
+        scheduler, handlerExecutor);
+    if (coordinator != null) {
+      coordinator.register(consumer.getTopic(), consumer.getAssignablePartitions(),
+          consumer::setPartitions);
+    }
+    consumers.add(consumer);
+    consumer.start();
+    log.info("Started queue consumer of topic {}, partitions: {}, owner: {}",
+        consumer.getTopic(), consumer.getPartitions(), options.getOwner());
+  }
+
+  static String defaultOwner() {
+    String host;
+    try {
+      host = InetAddress.getLocalHost().getHostName();
+    } catch (Exception e) {
+      host = "unknown";
+    }
+    return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+  }
+}
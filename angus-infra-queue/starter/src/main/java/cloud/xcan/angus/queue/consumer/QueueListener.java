@@ -0,0 +1,49 @@
+package cloud.xcan.angus.queue.consumer;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a bean method as the handler of a queue topic. The method takes a single
+ * {@link cloud.xcan.angus.queue.model.MessageData} or {@code String} payload parameter; returning
+ * normally acks the message and throwing nacks it.
+ *
+ * <pre>
+ * &#64;QueueListener(topic = "order-events", concurrency = 16)
+ * public void onOrderEvent(MessageData message) { ... }
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QueueListener {
+
+  /**
+   * Topic to consume, supports {@code ${...}} placeholders.
+   */
+  String topic();
+
+  /**
+   * Partitions to consume, all partitions when empty.
+   */
+  int[] partitions() default {};
+
+  /**
+   * Max running handlers, {@code angus.queue.consumer.concurrency} when not positive.
+   */
+  int concurrency() default 0;
+
+  /**
+   * "true" or "false" to override {@code angus.queue.consumer.ordered}.
+   */
+  String ordered() default "";
+
+  /**
+   * Redelivery backoff of failed messages, {@code angus.queue.consumer.nack-backoff-seconds} when
+   * negative.
+   */
+  int nackBackoffSeconds() default -1;
+}
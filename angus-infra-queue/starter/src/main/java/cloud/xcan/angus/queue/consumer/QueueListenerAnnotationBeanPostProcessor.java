@@ -0,0 +1,118 @@
+package cloud.xcan.angus.queue.consumer;
+
+import cloud.xcan.angus.queue.model.MessageData;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EmbeddedValueResolverAware;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringValueResolver;
+
+/**
+ * Registers {@link QueueListener} methods with the {@link QueueConsumerContainer}. Endpoints found
+ * while the context starts are registered once all singletons are created, so that the container
+ * and the queue service are not created early by the post processor.
+ */
+public class QueueListenerAnnotationBeanPostProcessor implements BeanPostProcessor,
+    SmartInitializingSingleton, EmbeddedValueResolverAware {
+
+  private final ObjectProvider<QueueConsumerContainer> container;
+  private final List<ConsumerEndpoint> pending = new ArrayList<>();
+  private StringValueResolver resolver;
+  private boolean singletonsInstantiated;
+
+  public QueueListenerAnnotationBeanPostProcessor(
+      ObjectProvider<QueueConsumerContainer> container) {
+    this.container = container;
+  }
+
+  @Override
+  public void setEmbeddedValueResolver(StringValueResolver resolver) {
+    this.resolver = resolver;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    Class<?> targetClass = AopUtils.getTargetClass(bean);
+    Map<Method, QueueListener> methods = MethodIntrospector.selectMethods(targetClass,
+        (MethodIntrospector.MetadataLookup<QueueListener>) method ->
+            AnnotatedElementUtils.findMergedAnnotation(method, QueueListener.class));
+    for (Map.Entry<Method, QueueListener> entry : methods.entrySet()) {
+      register(toEndpoint(bean, beanName, entry.getKey(), entry.getValue()));
+    }
+    return bean;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    List<ConsumerEndpoint> endpoints;
+    synchronized (this) {
+      singletonsInstantiated = true;
+      endpoints = new ArrayList<>(pending);
+      pending.clear();
+    }
+    QueueConsumerContainer target = container.getIfAvailable();
+    if (target != null) {
+      endpoints.forEach(target::register);
+    }
+  }
+
+  private void register(ConsumerEndpoint endpoint) {
+    synchronized (this) {
+      if (!singletonsInstantiated) {
+        pending.add(endpoint);
+        return;
+      }
+    }
+    // Lazy bean created after startup
+    container.ifAvailable(target -> target.register(endpoint));
+  }
+
+  private ConsumerEndpoint toEndpoint(Object bean, String beanName, Method method,
+      QueueListener listener) {
+    Class<?>[] types = method.getParameterTypes();
+    if (types.length != 1 || !(types[0] == MessageData.class || types[0] == String.class)) {
+      throw new IllegalStateException("@QueueListener method " + beanName + "#" + method.getName()
+          + " must have a single MessageData or String parameter");
+    }
+    Method invocable = AopUtils.selectInvocableMethod(method, bean.getClass());
+    ReflectionUtils.makeAccessible(invocable);
+    boolean payloadOnly = types[0] == String.class;
+    String ordered = resolve(listener.ordered());
+    return ConsumerEndpoint.builder()
+        .topic(resolve(listener.topic()))
+        .partitions(Arrays.stream(listener.partitions()).boxed().toList())
+        .concurrency(listener.concurrency() > 0 ? listener.concurrency() : null)
+        .ordered(ordered == null || ordered.isEmpty() ? null : Boolean.valueOf(ordered))
+        .nackBackoffSeconds(listener.nackBackoffSeconds() >= 0
+            ? listener.nackBackoffSeconds() : null)
+        .handler(message -> invoke(bean, invocable,
+            payloadOnly ? message.getPayload() : message))
+        .build();
+  }
+
+  private String resolve(String value) {
+    return resolver == null ? value : resolver.resolveStringValue(value);
+  }
+
+  private static void invoke(Object bean, Method method, Object arg) throws Exception {
+    try {
+      method.invoke(bean, arg);
+    } catch (InvocationTargetException e) {
+      Throwable cause = e.getTargetException();
+      if (cause instanceof Exception ex) {
+        throw ex;
+      }
+      throw (Error) cause;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package cloud.xcan.angus.queue.jpa;
+
+import cloud.xcan.angus.queue.entity.ConsumerMemberEntity;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ConsumerMemberRepository extends JpaRepository<ConsumerMemberEntity, Long> {
+
+  @Modifying
+  @Query(value = "UPDATE angus_mq_consumer_member SET heartbeat_at=:now "
+      + "WHERE topic=:topic AND member_id=:memberId", nativeQuery = true)
+  int touch(@Param("topic") String topic, @Param("memberId") String memberId,
+      @Param("now") Instant now);
+
+  @Query(value = "SELECT member_id FROM angus_mq_consumer_member "
+      + "WHERE topic=:topic AND heartbeat_at >= :since ORDER BY member_id", nativeQuery = true)
+  List<String> findLiveMemberIds(@Param("topic") String topic, @Param("since") Instant since);
+
+  @Modifying
+  @Query(value = "DELETE FROM angus_mq_consumer_member WHERE topic=:topic AND member_id=:memberId",
+      nativeQuery = true)
+  int deleteMember(@Param("topic") String topic, @Param("memberId") String memberId);
+
+  @Modifying
+  @Query(value = "DELETE FROM angus_mq_consumer_member WHERE heartbeat_at < :before",
+      nativeQuery = true)
+  int deleteHeartbeatBefore(@Param("before") Instant before);
+}
@@ -11,6 +11,12 @@ import org.springframework.data.repository.query.Param;
 
 public interface MessageRepository extends JpaRepository<MessageEntity, Long> {
 
+  /**
+   * Id of the message of {@code topic} with the given idempotency key, or {@code null}.
+   */
+  @Query("SELECT m.id FROM MessageEntity m WHERE m.topic = :topic AND m.idempotencyKey = :key")
+  Long findIdByTopicAndIdempotencyKey(@Param("topic") String topic, @Param("key") String key);
+
   @Modifying
   @Query(value = """
       UPDATE angus_mq_message
@@ -34,6 +40,94 @@ public interface MessageRepository extends JpaRepository<MessageEntity, Long> {
       @Param("leaseUntil") Instant leaseUntil,
       @Param("limit") int limit);
 
+  /**
+   * PostgreSQL: claim and return READY messages in one statement. Rows locked by other consumers
+   * are skipped instead of waited on. Not annotated with {@code @Modifying} so that the RETURNING
+   * rows are read as a result set.
+   */
+  @Query(value = """
+      UPDATE angus_mq_message
+      SET status=1,
+          lease_until = :leaseUntil,
+          lease_owner=:owner,
+          updated_at=NOW()
+      WHERE id IN (
+        SELECT id FROM angus_mq_message
+        WHERE topic=:topic AND partition_id IN (:partitions)
+          AND status=0 AND visible_at <= NOW()
+        ORDER BY priority DESC, visible_at ASC, id ASC
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+      )
+      RETURNING *
+      """, nativeQuery = true)
+  List<MessageEntity> leaseAndFetchReturning(@Param("topic") String topic,
+      @Param("partitions") Collection<Integer> partitions,
+      @Param("owner") String owner,
+      @Param("leaseUntil") Instant leaseUntil,
+      @Param("limit") int limit);
+
+  /**
+   * MySQL 8+: lock READY candidates, skipping rows already locked by other consumers. Must run in
+   * the same transaction as the following {@link #leaseByIds}.
+   */
+  @Query(value = """
+      SELECT * FROM angus_mq_message
+      WHERE topic=:topic AND partition_id IN (:partitions)
+        AND status=0 AND visible_at <= NOW()
+      ORDER BY priority DESC, visible_at ASC, id ASC
+      LIMIT :limit
+      FOR UPDATE SKIP LOCKED
+      """, nativeQuery = true)
+  List<MessageEntity> findLeaseCandidatesSkipLocked(@Param("topic") String topic,
+      @Param("partitions") Collection<Integer> partitions,
+      @Param("limit") int limit);
+
+  @Query(value = """
+      SELECT * FROM angus_mq_message
+      WHERE topic=:topic AND partition_id IN (:partitions)
+        AND status=0 AND visible_at <= NOW()
+      ORDER BY priority DESC, visible_at ASC, id ASC
+      LIMIT :limit
+      """, nativeQuery = true)
+  List<MessageEntity> findLeaseCandidates(@Param("topic") String topic,
+      @Param("partitions") Collection<Integer> partitions,
+      @Param("limit") int limit);
+
+  /**
+   * Claim the given messages if they are still READY.
+   */
+  @Modifying
+  @Query(value = """
+      UPDATE angus_mq_message
+      SET status=1,
+          lease_until = :leaseUntil,
+          lease_owner=:owner,
+          updated_at=NOW()
+      WHERE id IN (:ids) AND status=0
+      """, nativeQuery = true)
+  int leaseByIds(@Param("ids") Collection<Long> ids,
+      @Param("owner") String owner,
+      @Param("leaseUntil") Instant leaseUntil);
+
+  @Query(value = """
+      SELECT id FROM angus_mq_message
+      WHERE id IN (:ids) AND lease_owner=:owner AND status=1
+      """, nativeQuery = true)
+  List<Long> findLeasedIdsByOwner(@Param("ids") Collection<Long> ids,
+      @Param("owner") String owner);
+
+  @Modifying
+  @Query(value = """
+      UPDATE angus_mq_message
+      SET lease_until = :leaseUntil,
+          updated_at=NOW()
+      WHERE id IN (:ids) AND lease_owner=:owner AND status=1
+      """, nativeQuery = true)
+  int extendLeases(@Param("ids") Collection<Long> ids,
+      @Param("owner") String owner,
+      @Param("leaseUntil") Instant leaseUntil);
+
   @Modifying
   @Query(value = "UPDATE angus_mq_message SET status=2, updated_at=NOW() WHERE id IN (:ids)", nativeQuery = true)
   int ackBatch(@Param("ids") Collection<Long> ids);
@@ -0,0 +1,124 @@
+package cloud.xcan.angus.queue.notify;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * <p>
+ * Publishes wakeup notifications with PostgreSQL {@code NOTIFY}, the payload being the topic name.
+ * {@code NOTIFY} is transactional: notifications of a transaction are delivered when it commits,
+ * dropped when it rolls back, and identical ones are delivered once.
+ * </p>
+ *
+ * <p>
+ * Notifications are received by a daemon thread that holds one connection of the data source with
+ * {@code LISTEN} and reconnects with backoff when the connection fails.
+ * </p>
+ */
+public class PostgresWakeupNotifier implements WakeupNotifier {
+
+  private static final Logger log = LoggerFactory.getLogger(PostgresWakeupNotifier.class);
+
+  // LISTEN folds unquoted identifiers to lower case while pg_notify() takes the channel verbatim
+  private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+  private static final int RECEIVE_TIMEOUT_MS = 1000;
+  private static final long MAX_RECONNECT_BACKOFF_MS = 30_000;
+
+  private final DataSource dataSource;
+  private final JdbcTemplate jdbcTemplate;
+  private final String channel;
+  private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+  private volatile boolean running;
+  private Thread listenerThread;
+
+  public PostgresWakeupNotifier(DataSource dataSource, String channel) {
+    if (channel == null || !CHANNEL.matcher(channel).matches()) {
+      throw new IllegalArgumentException("Invalid queue wakeup channel: " + channel);
+    }
+    this.dataSource = dataSource;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.channel = channel;
+  }
+
+  @Override
+  public void publish(String topic) {
+    jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, topic);
+  }
+
+  @Override
+  public synchronized void subscribe(Consumer<String> listener) {
+    listeners.add(listener);
+    if (!running) {
+      running = true;
+      listenerThread = new Thread(this::listen, "angus-queue-wakeup-listener");
+      listenerThread.setDaemon(true);
+      listenerThread.start();
+    }
+  }
+
+  @Override
+  public boolean isDistributed() {
+    return true;
+  }
+
+  @Override
+  public boolean isTransactional() {
+    return true;
+  }
+
+  @Override
+  public synchronized void close() {
+    running = false;
+    if (listenerThread != null) {
+      listenerThread.interrupt();
+      listenerThread = null;
+    }
+  }
+
+  private void listen() {
+    long backoffMs = RECEIVE_TIMEOUT_MS;
+    while (running) {
+      try (Connection connection = dataSource.getConnection()) {
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + channel);
+        }
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        backoffMs = RECEIVE_TIMEOUT_MS;
+        while (running) {
+          PGNotification[] notifications = pgConnection.getNotifications(RECEIVE_TIMEOUT_MS);
+          if (notifications != null) {
+            for (PGNotification notification : notifications) {
+              LocalWakeupNotifier.deliver(listeners, notification.getParameter());
+            }
+          }
+        }
+      } catch (Exception e) {
+        if (!running) {
+          return;
+        }
+        // Notifications sent meanwhile are lost, consumers find the messages with their next poll
+        log.warn("Queue wakeup listener of channel {} failed, reconnecting in {}ms", channel,
+            backoffMs, e);
+        try {
+          Thread.sleep(backoffMs);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        backoffMs = Math.min(backoffMs * 2, MAX_RECONNECT_BACKOFF_MS);
+      }
+    }
+  }
+}
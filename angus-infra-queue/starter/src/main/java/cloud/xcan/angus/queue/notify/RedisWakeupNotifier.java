@@ -0,0 +1,66 @@
+package cloud.xcan.angus.queue.notify;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Publishes wakeup notifications to every node over a Redis pub/sub channel, the message being
+ * the topic name.
+ */
+public class RedisWakeupNotifier implements WakeupNotifier {
+
+  private static final Logger log = LoggerFactory.getLogger(RedisWakeupNotifier.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final RedisMessageListenerContainer listenerContainer;
+  private final String channel;
+  private boolean started;
+
+  public RedisWakeupNotifier(RedisConnectionFactory connectionFactory, String channel) {
+    this.redisTemplate = new StringRedisTemplate(connectionFactory);
+    this.listenerContainer = new RedisMessageListenerContainer();
+    this.listenerContainer.setConnectionFactory(connectionFactory);
+    this.channel = channel;
+  }
+
+  @Override
+  public void publish(String topic) {
+    redisTemplate.convertAndSend(channel, topic);
+  }
+
+  @Override
+  public synchronized void subscribe(Consumer<String> listener) {
+    listenerContainer.addMessageListener((message, pattern) ->
+        listener.accept(new String(message.getBody(), StandardCharsets.UTF_8)),
+        new ChannelTopic(channel));
+    if (!started) {
+      listenerContainer.afterPropertiesSet();
+      listenerContainer.start();
+      started = true;
+    }
+  }
+
+  @Override
+  public boolean isDistributed() {
+    return true;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (!started) {
+      return;
+    }
+    try {
+      listenerContainer.destroy();
+    } catch (Exception e) {
+      log.warn("Failed to stop queue wakeup listener of channel {}", channel, e);
+    }
+    started = false;
+  }
+}
@@ -0,0 +1,78 @@
+package cloud.xcan.angus.queue.notify;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers notifications published inside a transaction until it commits, so that consumers never
+ * poll before the messages are visible. Topics are notified once per transaction, and nothing is
+ * published on rollback. Transactional notifiers are called right away.
+ */
+public class TransactionAwareWakeupNotifier implements WakeupNotifier {
+
+  private static final Logger log = LoggerFactory.getLogger(TransactionAwareWakeupNotifier.class);
+
+  private final WakeupNotifier delegate;
+
+  public TransactionAwareWakeupNotifier(WakeupNotifier delegate) {
+    this.delegate = delegate;
+  }
+
+  public WakeupNotifier getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public void publish(String topic) {
+    if (delegate.isTransactional()
+        || !TransactionSynchronizationManager.isSynchronizationActive()) {
+      delegate.publish(topic);
+      return;
+    }
+    PendingTopics pending = (PendingTopics) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      pending = new PendingTopics();
+      TransactionSynchronizationManager.bindResource(this, pending);
+      TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+    pending.topics.add(topic);
+  }
+
+  @Override
+  public void subscribe(Consumer<String> listener) {
+    delegate.subscribe(listener);
+  }
+
+  @Override
+  public boolean isDistributed() {
+    return delegate.isDistributed();
+  }
+
+  private final class PendingTopics implements TransactionSynchronization {
+
+    private final Set<String> topics = new LinkedHashSet<>();
+
+    @Override
+    public void afterCommit() {
+      for (String topic : topics) {
+        try {
+          delegate.publish(topic);
+        } catch (Exception e) {
+          log.warn("Failed to publish queue wakeup of topic {}", topic, e);
+        }
+      }
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      topics.clear();
+      TransactionSynchronizationManager.unbindResourceIfPossible(
+          TransactionAwareWakeupNotifier.this);
+    }
+  }
+}
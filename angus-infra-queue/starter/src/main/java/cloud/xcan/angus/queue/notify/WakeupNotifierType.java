@@ -0,0 +1,23 @@
+package cloud.xcan.angus.queue.notify;
+
+/**
+ * Transport of wakeup notifications from producers to consumers.
+ */
+public enum WakeupNotifierType {
+  /**
+   * No notifications, consumers rely on polling only.
+   */
+  NONE,
+  /**
+   * Consumers in the producer's JVM only.
+   */
+  LOCAL,
+  /**
+   * Redis pub/sub, requires a {@code RedisConnectionFactory}.
+   */
+  REDIS,
+  /**
+   * PostgreSQL {@code LISTEN/NOTIFY} on the queue's data source.
+   */
+  POSTGRES
+}
@@ -0,0 +1,79 @@
+package cloud.xcan.angus.queue.outbox;
+
+import cloud.xcan.angus.queue.model.SendMessage;
+import cloud.xcan.angus.queue.service.QueueService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * <p>
+ * Enlists message sends in the caller's transaction. Messages sent inside a transaction are
+ * buffered and written with one {@link QueueService#sendBatch} right before the commit, still
+ * inside the transaction, so they are committed or rolled back together with the business data.
+ * </p>
+ *
+ * <p>
+ * Outside a transaction messages are sent immediately.
+ * </p>
+ */
+public class TransactionalOutbox {
+
+  private final QueueService queueService;
+
+  public TransactionalOutbox(QueueService queueService) {
+    this.queueService = queueService;
+  }
+
+  public void send(SendMessage message) {
+    sendAll(List.of(message));
+  }
+
+  public void sendAll(Collection<SendMessage> messages) {
+    if (messages == null || messages.isEmpty()) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      queueService.sendBatch(new ArrayList<>(messages));
+      return;
+    }
+    OutboxBuffer buffer = (OutboxBuffer) TransactionSynchronizationManager.getResource(this);
+    if (buffer == null) {
+      buffer = new OutboxBuffer();
+      TransactionSynchronizationManager.bindResource(this, buffer);
+      TransactionSynchronizationManager.registerSynchronization(buffer);
+    }
+    buffer.messages.addAll(messages);
+  }
+
+  /**
+   * Messages buffered in the current transaction, or 0 outside a transaction.
+   */
+  public int getPending() {
+    OutboxBuffer buffer = TransactionSynchronizationManager.isSynchronizationActive()
+        ? (OutboxBuffer) TransactionSynchronizationManager.getResource(this) : null;
+    return buffer == null ? 0 : buffer.messages.size();
+  }
+
+  private final class OutboxBuffer implements TransactionSynchronization {
+
+    private final List<SendMessage> messages = new ArrayList<>();
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      if (!messages.isEmpty()) {
+        List<SendMessage> batch = new ArrayList<>(messages);
+        messages.clear();
+        queueService.sendBatch(batch);
+      }
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      messages.clear();
+      TransactionSynchronizationManager.unbindResourceIfPossible(TransactionalOutbox.this);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package cloud.xcan.angus.queue.scheduler;
+
+import cloud.xcan.angus.queue.archive.MessageArchiver;
+import cloud.xcan.angus.queue.autoconfigure.QueueProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+public class MessageArchiveScheduler {
+
+  private static final Logger log = LoggerFactory.getLogger(MessageArchiveScheduler.class);
+
+  /**
+   * Max batches per tick, so that a large backlog does not hold the scheduler thread.
+   */
+  private static final int MAX_BATCHES_PER_TICK = 20;
+
+  private final MessageArchiver archiver;
+  private final QueueProperties properties;
+
+  public MessageArchiveScheduler(MessageArchiver archiver, QueueProperties properties) {
+    this.archiver = archiver;
+    this.properties = properties;
+  }
+
+  @Scheduled(fixedDelayString = "${angus.queue.archive.interval-ms:5000}")
+  public void archive() {
+    int batchSize = properties.getArchive().getBatchSize();
+    int total = 0;
+    for (int i = 0; i < MAX_BATCHES_PER_TICK; i++) {
+      int moved = archiver.archiveDone(batchSize);
+      total += moved;
+      if (moved < batchSize) {
+        break;
+      }
+    }
+    if (total > 0) {
+      log.debug("Archived {} done queue messages", total);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${angus.queue.archive.rotate-interval-ms:3600000}")
+  public void rotate() {
+    int dropped = archiver.dropExpiredArchives();
+    if (dropped > 0) {
+      log.info("Dropped {} queue archive tables older than {} days", dropped,
+          properties.getArchive().getRetentionDays());
+    }
+  }
+}
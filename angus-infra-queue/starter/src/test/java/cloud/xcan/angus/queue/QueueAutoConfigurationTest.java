@@ -3,9 +3,20 @@ package cloud.xcan.angus.queue;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import cloud.xcan.angus.queue.adapter.JpaRepositoryAdapter;
+import cloud.xcan.angus.queue.archive.MessageArchiver;
+import cloud.xcan.angus.queue.scheduler.MessageArchiveScheduler;
+import cloud.xcan.angus.queue.consumer.PartitionCoordinator;
+import cloud.xcan.angus.queue.consumer.QueueConsumer;
+import cloud.xcan.angus.queue.consumer.QueueConsumerContainer;
+import cloud.xcan.angus.queue.consumer.QueueListener;
+import cloud.xcan.angus.queue.model.MessageData;
+import cloud.xcan.angus.queue.notify.LocalWakeupNotifier;
+import cloud.xcan.angus.queue.notify.WakeupNotifier;
+import cloud.xcan.angus.queue.outbox.TransactionalOutbox;
 import cloud.xcan.angus.queue.service.AuditLogger;
 import cloud.xcan.angus.queue.service.QueueAdminService;
 import cloud.xcan.angus.queue.service.QueueService;
+import cloud.xcan.angus.queue.spi.MembershipSupport;
 import cloud.xcan.angus.queue.spi.RepositoryAdapter;
 import cloud.xcan.angus.queue.autoconfigure.QueueAutoConfiguration;
 import cloud.xcan.angus.queue.scheduler.DeadLetterMoverScheduler;
@@ -16,6 +27,7 @@ import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
@@ -33,6 +45,26 @@ public class QueueAutoConfigurationTest {
 
   }
 
+  static class OrderListener {
+
+    @QueueListener(topic = "${test.topic:orders}", partitions = {0, 1}, concurrency = 4)
+    public void onOrder(MessageData message) {
+    }
+
+    @QueueListener(topic = "payloads")
+    public void onPayload(String payload) {
+    }
+  }
+
+  @Configuration
+  static class ListenerConfiguration {
+
+    @Bean
+    OrderListener orderListener() {
+      return new OrderListener();
+    }
+  }
+
   private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
       .withUserConfiguration(TestTransactionConfiguration.class)
       .withConfiguration(AutoConfigurations.of(
@@ -65,7 +97,9 @@ public class QueueAutoConfigurationTest {
       assertThat(ctx).hasSingleBean(AuditLogger.class);
       assertThat(ctx).hasSingleBean(LeaseReaperScheduler.class);
       assertThat(ctx).hasSingleBean(DeadLetterMoverScheduler.class);
+      assertThat(ctx).hasSingleBean(TransactionalOutbox.class);
       assertThat(ctx).doesNotHaveBean(DlqSoftDeletePurgerScheduler.class);
+      assertThat(ctx).doesNotHaveBean(MessageArchiveScheduler.class);
     });
   }
 
@@ -79,4 +113,89 @@ public class QueueAutoConfigurationTest {
           assertThat(ctx).hasSingleBean(DlqSoftDeletePurgerScheduler.class);
         });
   }
+
+  @Test
+  void queueListenerMethodsAreRegisteredWithTheConsumerContainer() {
+    contextRunner
+        .withUserConfiguration(ListenerConfiguration.class)
+        .withPropertyValues("test.topic=order-events")
+        .run(ctx -> {
+          QueueConsumerContainer container = ctx.getBean(QueueConsumerContainer.class);
+          assertThat(container.isRunning()).isTrue();
+          assertThat(container.getConsumers()).extracting(QueueConsumer::getTopic)
+              .containsExactlyInAnyOrder("order-events", "payloads");
+          assertThat(container.getConsumers())
+              .filteredOn(c -> c.getTopic().equals("order-events"))
+              .extracting(QueueConsumer::getPartitions)
+              .containsExactly(java.util.List.of(0, 1));
+        });
+  }
+
+  @Test
+  void consumerContainerCanBeDisabled() {
+    contextRunner
+        .withPropertyValues("angus.queue.consumer.enabled=false")
+        .run(ctx -> assertThat(ctx).doesNotHaveBean(QueueConsumerContainer.class));
+  }
+
+  @Test
+  void archiveBeansPresentWhenEnabled() {
+    contextRunner
+        .withPropertyValues("angus.queue.archive.enabled=true",
+            "angus.queue.archive.bucket=HOUR")
+        .run(ctx -> {
+          assertThat(ctx).hasSingleBean(MessageArchiver.class);
+          assertThat(ctx).hasSingleBean(MessageArchiveScheduler.class);
+          assertThat(ctx.getBean(MessageArchiver.class).tableName(java.time.Instant.EPOCH))
+              .isEqualTo("angus_mq_message_archive_1970010100");
+        });
+  }
+
+  @Test
+  void localWakeupNotifierWakesConsumersByDefault() {
+    contextRunner
+        .withUserConfiguration(ListenerConfiguration.class)
+        .withPropertyValues("test.topic=order-events")
+        .run(ctx -> {
+          assertThat(ctx.getBean(WakeupNotifier.class)).isInstanceOf(LocalWakeupNotifier.class);
+          assertThat(ctx.getBean(QueueConsumerContainer.class).getOptions().getMaxPollIntervalMs())
+              .isEqualTo(5_000L);
+        });
+  }
+
+  @Test
+  void wakeupNotifierCanBeDisabled() {
+    contextRunner
+        .withPropertyValues("angus.queue.notify.type=NONE")
+        .run(ctx -> {
+          assertThat(ctx).doesNotHaveBean(WakeupNotifier.class);
+          assertThat(ctx).hasSingleBean(QueueService.class);
+        });
+  }
+
+  @Test
+  void coordinationAssignsPartitionsToLiveMembers() {
+    contextRunner
+        .withUserConfiguration(ListenerConfiguration.class)
+        .withPropertyValues("test.topic=order-events", "angus.queue.coordination.enabled=true")
+        .run(ctx -> {
+          assertThat(ctx).hasSingleBean(MembershipSupport.class);
+          QueueConsumerContainer container = ctx.getBean(QueueConsumerContainer.class);
+          PartitionCoordinator coordinator = container.getCoordinator();
+          assertThat(coordinator).isNotNull();
+          // Only member of the topic: owns every partition
+          assertThat(coordinator.getOwnedPartitions("order-events")).containsExactly(0, 1);
+          assertThat(ctx.getBean(MembershipSupport.class)
+              .findLiveMembers("order-events", java.time.Instant.EPOCH))
+              .containsExactly(coordinator.getMemberId());
+        });
+  }
+
+  @Test
+  void coordinationDisabledByDefault() {
+    contextRunner.run(ctx -> {
+      assertThat(ctx).doesNotHaveBean(MembershipSupport.class);
+      assertThat(ctx.getBean(QueueConsumerContainer.class).getCoordinator()).isNull();
+    });
+  }
 }
@@ -0,0 +1,65 @@
+package cloud.xcan.angus.queue.adapter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cloud.xcan.angus.queue.model.SendMessage;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+class JdbcMessageBatchInserterTest {
+
+  @Test
+  void insertSqlUsesDialectConflictClause() {
+    JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    String postgres = new JdbcMessageBatchInserter(jdbcTemplate, LeaseDialect.POSTGRES)
+        .insertSql(2);
+    assertTrue(postgres.contains("CAST(? AS JSONB)"));
+    assertTrue(postgres.endsWith(") ON CONFLICT DO NOTHING"));
+
+    String mysql = new JdbcMessageBatchInserter(jdbcTemplate, LeaseDialect.MYSQL).insertSql(2);
+    assertTrue(mysql.endsWith(") ON DUPLICATE KEY UPDATE id = id"));
+
+    String generic = new JdbcMessageBatchInserter(jdbcTemplate, LeaseDialect.AUTO).insertSql(3);
+    assertTrue(generic.startsWith("INSERT INTO angus_mq_message ("));
+    assertTrue(generic.endsWith("0)"));
+    assertEquals(3, generic.split("\\), \\(").length);
+  }
+
+  @Test
+  void insertSplitsIntoChunksAndDedupsWithinBatch() {
+    JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    // (Object[]) any() matches the whole varargs array, any(Object[].class) only one element
+    when(jdbcTemplate.update(anyString(), (Object[]) any()))
+        .thenReturn(JdbcMessageBatchInserter.CHUNK_SIZE, 1);
+    List<SendMessage> messages = new ArrayList<>();
+    for (int i = 0; i <= JdbcMessageBatchInserter.CHUNK_SIZE; i++) {
+      messages.add(SendMessage.builder().topic("t").payload("{}").idempotencyKey("k" + i).build());
+    }
+    messages.add(SendMessage.builder().topic("t").payload("{}").idempotencyKey("k0").build());
+
+    JdbcMessageBatchInserter inserter =
+        new JdbcMessageBatchInserter(jdbcTemplate, LeaseDialect.POSTGRES);
+    int inserted = inserter.insert(messages);
+
+    assertEquals(JdbcMessageBatchInserter.CHUNK_SIZE + 1, inserted);
+    verify(jdbcTemplate, times(2)).update(anyString(), (Object[]) any());
+    verify(jdbcTemplate).update(eq(inserter.insertSql(JdbcMessageBatchInserter.CHUNK_SIZE)),
+        (Object[]) any());
+    verify(jdbcTemplate).update(eq(inserter.insertSql(1)), (Object[]) any());
+    // Existing keys are left to ON CONFLICT, no lookup
+    verify(jdbcTemplate, never()).query(anyString(), any(RowCallbackHandler.class),
+        (Object[]) any());
+  }
+}
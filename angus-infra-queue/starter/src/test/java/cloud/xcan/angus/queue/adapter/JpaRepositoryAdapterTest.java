@@ -2,6 +2,7 @@ package cloud.xcan.angus.queue.adapter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -18,14 +19,18 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import java.time.Instant;
 import java.util.List;
+import javax.sql.DataSource;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
 @DataJpaTest(
@@ -38,10 +43,22 @@ import org.springframework.transaction.annotation.Transactional;
 @AutoConfigureTestDatabase(replace = Replace.NONE)
 @EntityScan(basePackageClasses = {MessageEntity.class, DeadLetterEntity.class})
 @EnableJpaRepositories(basePackageClasses = {MessageRepository.class, DeadLetterRepository.class})
-@Import(JpaRepositoryAdapter.class)
+@Import(JpaRepositoryAdapterTest.AdapterConfig.class)
 @Transactional
 class JpaRepositoryAdapterTest {
 
+  @TestConfiguration
+  static class AdapterConfig {
+
+    @Bean
+    JpaRepositoryAdapter jpaRepositoryAdapter(MessageRepository messageRepository,
+        DeadLetterRepository deadLetterRepository, DataSource dataSource) {
+      return new JpaRepositoryAdapter(messageRepository, deadLetterRepository,
+          LeaseDialect.GENERIC,
+          new JdbcMessageBatchInserter(new JdbcTemplate(dataSource), LeaseDialect.GENERIC));
+    }
+  }
+
   @Autowired
   JpaRepositoryAdapter adapter;
 
@@ -212,4 +229,91 @@ class JpaRepositoryAdapterTest {
     assertFalse(held.isEmpty());
     assertEquals(1, adapter.ackBatch(List.of(id)));
   }
+
+  @Test
+  void leaseAndFetchClaimsAndReturnsMessagesInLeaseOrder() {
+    Long low = saveReady("fetch-t", 0);
+    Long high = saveReady("fetch-t", 5);
+    saveReady("other-t", 9);
+
+    List<MessageData> fetched = adapter.leaseAndFetch("fetch-t", List.of(0), "owner2", 60, 10);
+    assertEquals(List.of(high, low), fetched.stream().map(MessageData::getId).toList());
+    assertTrue(fetched.stream().allMatch(m -> m.getStatus() == MessageStatus.LEASED
+        && "owner2".equals(m.getLeaseOwner()) && m.getLeaseUntil() != null));
+
+    entityManager.flush();
+    entityManager.clear();
+    MessageEntity stored = messageRepository.findById(high).orElseThrow();
+    assertEquals(MessageStatus.LEASED, stored.getStatus());
+    assertEquals("owner2", stored.getLeaseOwner());
+    // Already leased messages are not returned again
+    assertTrue(adapter.leaseAndFetch("fetch-t", List.of(0), "owner2", 60, 10).isEmpty());
+  }
+
+  @Test
+  void leaseAndFetchReturnsEmptyForNoPartitionsOrLimit() {
+    saveReady("fetch-empty", 0);
+    assertTrue(adapter.leaseAndFetch("fetch-empty", List.of(), "o", 60, 10).isEmpty());
+    assertTrue(adapter.leaseAndFetch("fetch-empty", List.of(0), "o", 60, 0).isEmpty());
+  }
+
+  @Test
+  void saveMessagesInsertsBatchAndSkipsDuplicateIdempotencyKeys() {
+    adapter.saveMessage(SendMessage.builder()
+        .topic("batch-t").payload("{}").idempotencyKey("k0").numPartitions(1).build());
+
+    int saved = adapter.saveMessages(List.of(
+        batchMessage("batch-t", "k0"), // Already stored
+        batchMessage("batch-t", "k1"),
+        batchMessage("batch-t", "k1"), // Duplicate within the batch
+        batchMessage("batch-t", null),
+        batchMessage("batch-t", null),
+        batchMessage("batch-other", "k1"))); // Same key in another topic
+
+    assertEquals(4, saved);
+    entityManager.clear();
+    List<MessageData> fetched = adapter.leaseAndFetch("batch-t", List.of(0, 1, 2, 3), "owner3",
+        60, 10);
+    assertEquals(4, fetched.size());
+    assertTrue(fetched.stream().allMatch(m -> m.getMaxAttempts() == 16 && m.getPriority() == 0));
+    assertEquals(1, adapter.leaseAndFetch("batch-other", List.of(0, 1, 2, 3), "owner3", 60, 10)
+        .size());
+  }
+
+  @Test
+  void saveMessageReturnsExistingIdForDuplicateIdempotencyKey() {
+    Long first = adapter.saveMessage(batchMessage("dup-t", "k0"));
+    Long second = adapter.saveMessage(batchMessage("dup-t", "k0"));
+    Long other = adapter.saveMessage(batchMessage("dup-other", "k0"));
+
+    assertNotNull(first);
+    assertEquals(first, second);
+    assertNotEquals(first, other);
+    entityManager.clear();
+    assertEquals(1, adapter.leaseAndFetch("dup-t", List.of(0, 1, 2, 3), "owner4", 60, 10).size());
+  }
+
+  @Test
+  void saveMessagesReturnsZeroForEmptyBatch() {
+    assertEquals(0, adapter.saveMessages(List.of()));
+  }
+
+  private static SendMessage batchMessage(String topic, String idempotencyKey) {
+    return SendMessage.builder()
+        .topic(topic)
+        .partitionKey(idempotencyKey)
+        .payload("{}")
+        .idempotencyKey(idempotencyKey)
+        .numPartitions(4)
+        .build();
+  }
+
+  private Long saveReady(String topic, int priority) {
+    return adapter.saveMessage(SendMessage.builder()
+        .topic(topic)
+        .payload("{}")
+        .priority(priority)
+        .numPartitions(1)
+        .build());
+  }
 }
@@ -0,0 +1,52 @@
+package cloud.xcan.angus.queue.adapter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class LeaseDialectTest {
+
+  @Test
+  void resolvesFromProductNameAndVersion() {
+    assertEquals(LeaseDialect.POSTGRES, LeaseDialect.of("PostgreSQL", 15));
+    assertEquals(LeaseDialect.GENERIC, LeaseDialect.of("PostgreSQL", 9));
+    assertEquals(LeaseDialect.MYSQL, LeaseDialect.of("MySQL", 8));
+    assertEquals(LeaseDialect.GENERIC, LeaseDialect.of("MySQL", 5));
+    assertEquals(LeaseDialect.GENERIC, LeaseDialect.of("H2", 2));
+    assertEquals(LeaseDialect.GENERIC, LeaseDialect.of(null, 0));
+  }
+
+  @Test
+  void detectReadsJdbcMetadata() throws SQLException {
+    DataSource dataSource = mock(DataSource.class);
+    Connection connection = mock(Connection.class);
+    DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+    when(dataSource.getConnection()).thenReturn(connection);
+    when(connection.getMetaData()).thenReturn(metaData);
+    when(metaData.getDatabaseProductName()).thenReturn("MySQL");
+    when(metaData.getDatabaseMajorVersion()).thenReturn(8);
+
+    assertEquals(LeaseDialect.MYSQL, LeaseDialect.detect(dataSource));
+  }
+
+  @Test
+  void detectFallsBackToGeneric() throws SQLException {
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getConnection()).thenThrow(new SQLException("down"));
+
+    assertEquals(LeaseDialect.GENERIC, LeaseDialect.detect(dataSource));
+    assertEquals(LeaseDialect.GENERIC, LeaseDialect.detect(null));
+  }
+
+  @Test
+  void adapterTreatsAutoAsGeneric() {
+    JpaRepositoryAdapter adapter = new JpaRepositoryAdapter(null, null, LeaseDialect.AUTO);
+    assertEquals(LeaseDialect.GENERIC, adapter.getLeaseDialect());
+  }
+}
@@ -0,0 +1,171 @@
+package cloud.xcan.angus.queue.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class MessageArchiverTest {
+
+  JdbcTemplate jdbc;
+  MessageArchiver archiver;
+
+  @BeforeEach
+  void setUp() {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(
+        "jdbc:h2:mem:queue-archive;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+    jdbc = new JdbcTemplate(dataSource);
+    jdbc.execute("""
+        CREATE TABLE angus_mq_message (
+          id BIGINT AUTO_INCREMENT PRIMARY KEY,
+          topic VARCHAR(128) NOT NULL,
+          partition_id INT NOT NULL,
+          priority INT NOT NULL DEFAULT 0,
+          payload VARCHAR(1024) NOT NULL,
+          headers VARCHAR(1024),
+          status TINYINT NOT NULL DEFAULT 0,
+          visible_at TIMESTAMP(6) NOT NULL,
+          lease_until TIMESTAMP(6),
+          lease_owner VARCHAR(128),
+          attempts INT NOT NULL DEFAULT 0,
+          max_attempts INT NOT NULL DEFAULT 16,
+          idempotency_key VARCHAR(256),
+          created_at TIMESTAMP(6) NOT NULL,
+          updated_at TIMESTAMP(6) NOT NULL,
+          version BIGINT NOT NULL DEFAULT 0
+        )""");
+    archiver = new MessageArchiver(jdbc,
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+        "angus_mq_message_archive_", ArchiveBucket.DAY, 7, Duration.ofHours(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbc.execute("DROP ALL OBJECTS");
+  }
+
+  @Test
+  void movesDoneMessagesIntoTheBucketOfTheirAckTime() {
+    Instant today = Instant.now();
+    Instant yesterday = today.minus(1, ChronoUnit.DAYS);
+    insert(0, today);
+    insert(1, today);
+    insert(2, today);
+    insert(2, yesterday);
+
+    assertThat(archiver.archiveDone(100)).isEqualTo(2);
+
+    assertThat(count("angus_mq_message")).isEqualTo(2);
+    assertThat(jdbc.queryForList("SELECT status FROM angus_mq_message", Integer.class))
+        .containsExactlyInAnyOrder(0, 1);
+    assertThat(count(archiver.tableName(today))).isEqualTo(1);
+    assertThat(count(archiver.tableName(yesterday))).isEqualTo(1);
+    assertThat(archiver.archiveDone(100)).isZero();
+  }
+
+  @Test
+  void archiveTablesAreKeyedByIdAndIndexedByIdempotencyKey() {
+    Instant now = Instant.now();
+    insert(2, now);
+    archiver.archiveDone(100);
+
+    String table = archiver.tableName(now);
+    assertThat(jdbc.queryForList("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS"
+            + " WHERE LOWER(TABLE_NAME) = ? ORDER BY INDEX_NAME, ORDINAL_POSITION", String.class,
+        table)).extracting(String::toLowerCase)
+        .containsExactlyInAnyOrder("id", "topic", "idempotency_key");
+    Long id = jdbc.queryForObject("SELECT id FROM " + table, Long.class);
+    assertThatThrownBy(() -> jdbc.update("INSERT INTO " + table + " (" + MessageArchiver.COLUMNS
+        + ") SELECT " + MessageArchiver.COLUMNS + " FROM " + table + " WHERE id = ?", id))
+        .isInstanceOf(DuplicateKeyException.class);
+  }
+
+  @Test
+  void archivesOldestMessagesFirst() {
+    for (int i = 0; i < 5; i++) {
+      insert(2, Instant.now());
+    }
+    List<Long> ids = jdbc.queryForList("SELECT id FROM angus_mq_message ORDER BY id", Long.class);
+
+    assertThat(archiver.archiveDone(3)).isEqualTo(3);
+
+    assertThat(jdbc.queryForList("SELECT id FROM angus_mq_message", Long.class))
+        .containsExactlyInAnyOrderElementsOf(ids.subList(3, 5));
+  }
+
+  @Test
+  void archiveRespectsLimit() {
+    for (int i = 0; i < 5; i++) {
+      insert(2, Instant.now());
+    }
+    assertThat(archiver.archiveDone(3)).isEqualTo(3);
+    assertThat(archiver.archiveDone(3)).isEqualTo(2);
+  }
+
+  @Test
+  void keepsKeyedMessagesForTheIdempotencyRetention() {
+    Instant now = Instant.now();
+    Instant earlier = now.minus(2, ChronoUnit.HOURS);
+    insert(2, now, "k1");
+    insert(2, earlier, "k2");
+    insert(2, now);
+
+    assertThat(archiver.archiveDone(100)).isEqualTo(2);
+
+    // k1 still deduplicates in the hot table, k2 is past the window
+    assertThat(jdbc.queryForList("SELECT idempotency_key FROM angus_mq_message", String.class))
+        .containsExactly("k1");
+    assertThat(jdbc.queryForList("SELECT idempotency_key FROM " + archiver.tableName(earlier)
+        + " WHERE idempotency_key IS NOT NULL", String.class)).containsExactly("k2");
+  }
+
+  @Test
+  void dropsArchiveTablesOlderThanRetention() {
+    Instant old = Instant.now().minus(30, ChronoUnit.DAYS);
+    insert(2, old);
+    insert(2, Instant.now());
+    archiver.archiveDone(100);
+    jdbc.execute("CREATE TABLE angus_mq_message_archive_other (id BIGINT)");
+    assertThat(archiver.listArchiveTables()).hasSize(3);
+
+    assertThat(archiver.dropExpiredArchives()).isEqualTo(1);
+
+    assertThat(archiver.listArchiveTables()).extracting(String::toLowerCase)
+        .containsExactlyInAnyOrder(archiver.tableName(Instant.now()),
+            "angus_mq_message_archive_other");
+  }
+
+  @Test
+  void rejectsUnsafeTablePrefix() {
+    assertThatThrownBy(() -> new MessageArchiver(jdbc, null, "x; DROP TABLE y", null, 1, null))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private void insert(int status, Instant updatedAt) {
+    insert(status, updatedAt, null);
+  }
+
+  private void insert(int status, Instant updatedAt, String idempotencyKey) {
+    Timestamp ts = Timestamp.from(updatedAt);
+    jdbc.update("INSERT INTO angus_mq_message (topic, partition_id, payload, status, visible_at,"
+            + " idempotency_key, created_at, updated_at) VALUES ('t', 0, '{}', ?, ?, ?, ?, ?)",
+        status, ts, idempotencyKey, ts, ts);
+  }
+
+  private int count(String table) {
+    Integer n = jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    return n == null ? 0 : n;
+  }
+}
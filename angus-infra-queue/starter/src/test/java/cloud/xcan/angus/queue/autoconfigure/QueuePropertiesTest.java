@@ -2,6 +2,9 @@ package cloud.xcan.angus.queue.autoconfigure;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import cloud.xcan.angus.queue.adapter.LeaseDialect;
+import cloud.xcan.angus.queue.archive.ArchiveBucket;
+import cloud.xcan.angus.queue.notify.WakeupNotifierType;
 import org.junit.jupiter.api.Test;
 
 class QueuePropertiesTest {
@@ -29,4 +32,42 @@ class QueuePropertiesTest {
     assertEquals(14, p.getAdmin().getRetentionDays());
     assertEquals(120_000L, p.getAdmin().getPurgeIntervalMs());
   }
+
+  @Test
+  void leaseDialectDefaultsToAuto() {
+    QueueProperties p = new QueueProperties();
+    assertEquals(LeaseDialect.AUTO, p.getLeaseDialect());
+    p.setLeaseDialect(LeaseDialect.MYSQL);
+    assertEquals(LeaseDialect.MYSQL, p.getLeaseDialect());
+  }
+
+  @Test
+  void consumerDefaults() {
+    QueueProperties.Consumer c = new QueueProperties().getConsumer();
+    assertEquals(true, c.isEnabled());
+    assertEquals(200, c.getPrefetch());
+    assertEquals(64, c.getConcurrency());
+    assertEquals(true, c.isOrdered());
+    assertEquals(200L, c.getAckIntervalMs());
+    assertEquals(10, c.getNackBackoffSeconds());
+  }
+
+  @Test
+  void archiveDefaults() {
+    QueueProperties.Archive a = new QueueProperties().getArchive();
+    assertEquals(false, a.isEnabled());
+    assertEquals("angus_mq_message_archive_", a.getTablePrefix());
+    assertEquals(ArchiveBucket.DAY, a.getBucket());
+    assertEquals(24, a.getIdempotencyRetentionHours());
+    assertEquals(30, a.getRetentionDays());
+    assertEquals(1000, a.getBatchSize());
+  }
+
+  @Test
+  void notifyDefaults() {
+    QueueProperties.Notify n = new QueueProperties().getNotify();
+    assertEquals(WakeupNotifierType.LOCAL, n.getType());
+    assertEquals("angus_queue_wakeup", n.getChannel());
+    assertEquals(30_000L, n.getSafetyPollIntervalMs());
+  }
 }
@@ -0,0 +1,22 @@
+package cloud.xcan.angus.queue.notify;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class PostgresWakeupNotifierTest {
+
+  @Test
+  void rejectsChannelsThatAreNotPlainLowerCaseIdentifiers() {
+    DataSource dataSource = mock(DataSource.class);
+    assertThrows(IllegalArgumentException.class,
+        () -> new PostgresWakeupNotifier(dataSource, "wake; DROP TABLE x"));
+    assertThrows(IllegalArgumentException.class,
+        () -> new PostgresWakeupNotifier(dataSource, "Wakeup"));
+    PostgresWakeupNotifier notifier = new PostgresWakeupNotifier(dataSource, "angus_queue_wakeup");
+    assertTrue(notifier.isDistributed() && notifier.isTransactional());
+  }
+}
@@ -0,0 +1,76 @@
+package cloud.xcan.angus.queue.notify;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class TransactionAwareWakeupNotifierTest {
+
+  WakeupNotifier delegate;
+  TransactionAwareWakeupNotifier notifier;
+
+  @BeforeEach
+  void setUp() {
+    delegate = mock(WakeupNotifier.class);
+    notifier = new TransactionAwareWakeupNotifier(delegate);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    TransactionSynchronizationManager.unbindResourceIfPossible(notifier);
+  }
+
+  @Test
+  void publishesImmediatelyWithoutTransaction() {
+    notifier.publish("orders");
+    verify(delegate).publish("orders");
+  }
+
+  @Test
+  void defersToAfterCommitOncePerTopic() {
+    TransactionSynchronizationManager.initSynchronization();
+    notifier.publish("orders");
+    notifier.publish("orders");
+    notifier.publish("payments");
+    verify(delegate, never()).publish(any());
+
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+    verify(delegate, times(1)).publish("orders");
+    verify(delegate, times(1)).publish("payments");
+    assertNull(TransactionSynchronizationManager.getResource(notifier));
+  }
+
+  @Test
+  void dropsNotificationsOnRollback() {
+    TransactionSynchronizationManager.initSynchronization();
+    notifier.publish("orders");
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    verify(delegate, never()).publish(any());
+  }
+
+  @Test
+  void transactionalDelegatePublishesInsideTheTransaction() {
+    when(delegate.isTransactional()).thenReturn(true);
+    TransactionSynchronizationManager.initSynchronization();
+    notifier.publish("orders");
+    verify(delegate).publish("orders");
+  }
+}
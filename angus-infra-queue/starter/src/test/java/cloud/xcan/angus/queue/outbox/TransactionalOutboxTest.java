@@ -0,0 +1,83 @@
+package cloud.xcan.angus.queue.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import cloud.xcan.angus.queue.model.SendMessage;
+import cloud.xcan.angus.queue.service.QueueService;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class TransactionalOutboxTest {
+
+  QueueService queueService;
+  TransactionalOutbox outbox;
+
+  @BeforeEach
+  void setUp() {
+    queueService = mock(QueueService.class);
+    outbox = new TransactionalOutbox(queueService);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    TransactionSynchronizationManager.unbindResourceIfPossible(outbox);
+  }
+
+  @Test
+  void sendsImmediatelyWithoutTransaction() {
+    SendMessage message = message("a");
+    outbox.send(message);
+    verify(queueService).sendBatch(List.of(message));
+    assertEquals(0, outbox.getPending());
+  }
+
+  @Test
+  void buffersUntilBeforeCommitAndSendsOneBatch() {
+    TransactionSynchronizationManager.initSynchronization();
+    SendMessage a = message("a");
+    SendMessage b = message("b");
+    SendMessage c = message("c");
+    outbox.send(a);
+    outbox.sendAll(List.of(b, c));
+
+    assertEquals(3, outbox.getPending());
+    verify(queueService, never()).sendBatch(any());
+
+    List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+    assertEquals(1, synchronizations.size());
+    synchronizations.forEach(s -> s.beforeCommit(false));
+    verify(queueService).sendBatch(List.of(a, b, c));
+
+    synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    assertNull(TransactionSynchronizationManager.getResource(outbox));
+  }
+
+  @Test
+  void rollbackDropsBufferedMessages() {
+    TransactionSynchronizationManager.initSynchronization();
+    outbox.send(message("a"));
+
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+    verify(queueService, never()).sendBatch(any());
+    assertEquals(0, outbox.getPending());
+  }
+
+  private static SendMessage message(String key) {
+    return SendMessage.builder().topic("t").payload("{}").idempotencyKey(key).build();
+  }
+}
@@ -72,7 +72,7 @@ public class QueueController {
     List<Integer> partitions = (req.getPartitions() == null || req.getPartitions().isEmpty())
         ? java.util.stream.IntStream.range(0, properties.getPartitions()).boxed().toList()
         : req.getPartitions();
-    int leased = queueService.lease(
+    List<MessageData> leased = queueService.leaseAndFetch(
         LeaseMessages.builder()
             .topic(req.getTopic())
             .partitions(partitions)
@@ -82,13 +82,7 @@ public class QueueController {
             .limit(Optional.ofNullable(req.getLimit()).orElse(properties.getPollBatch()))
             .build()
     );
-    if (leased == 0) {
-      return ApiLocaleResult.success(List.of());
-    }
-    // Use pollBatch as the upper bound: the just-leased count may under-count if the owner had
-    // pre-existing leases, causing listLeasedByOwner to return old messages instead of new ones.
-    int listLimit = Optional.ofNullable(req.getLimit()).orElse(properties.getPollBatch());
-    return ApiLocaleResult.success(queueService.listLeasedByOwner(req.getOwner(), listLimit));
+    return ApiLocaleResult.success(leased);
   }
 
   @Operation(operationId = "ackMessages", summary = "Acknowledge messages", description = "Mark messages as DONE.",
@@ -70,8 +70,8 @@ class QueueControllerTest {
 
   @Test
   void pollReturnsEmptyWhenNoMessagesLeased() throws Exception {
-    when(queueService.lease(anyString(), anyList(), anyString(), anyInt(), anyInt()))
-        .thenReturn(0);
+    when(queueService.leaseAndFetch(anyString(), anyList(), anyString(), anyInt(), anyInt()))
+        .thenReturn(List.of());
     mvc.perform(post("/api/v1/queue/poll")
             .contentType(MediaType.APPLICATION_JSON)
             .content("{\"topic\":\"t1\",\"owner\":\"o\"}"))
@@ -82,15 +82,14 @@ class QueueControllerTest {
 
   @Test
   void pollOk() throws Exception {
-    when(queueService.lease(anyString(), anyList(), anyString(), anyInt(), anyInt()))
-        .thenReturn(1);
-    when(queueService.listLeasedByOwner(anyString(), anyInt())).thenReturn(
-        List.of(new MessageData()));
+    when(queueService.leaseAndFetch(anyString(), anyList(), anyString(), anyInt(), anyInt()))
+        .thenReturn(List.of(new MessageData()));
     mvc.perform(post("/api/v1/queue/poll")
             .contentType(MediaType.APPLICATION_JSON)
             .content("{\"topic\":\"t1\",\"owner\":\"o\"}"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.data", hasSize(1)));
+    verify(queueService, never()).listLeasedByOwner(anyString(), anyInt());
   }
 
   @Test
@@ -83,6 +83,17 @@ public class ShardingProperties {
    */
   private String tableRegistryTable = "angus_shard_table";
 
+  /**
+   * Maximum number of distinct SQL statements whose parsed table positions are cached by the
+   * table name rewriting. The cache is cleared when full.
+   */
+  private int sqlTemplateCacheSize = 2048;
+
+  /**
+   * Maximum number of shards a scatter-gather query runs on concurrently.
+   */
+  private int scatterMaxConcurrency = 16;
+
   private Mysql mysql = new Mysql();
   private Postgresql postgresql = new Postgresql();
 
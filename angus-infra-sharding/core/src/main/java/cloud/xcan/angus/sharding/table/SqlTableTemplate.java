@@ -0,0 +1,328 @@
+package cloud.xcan.angus.sharding.table;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Parsed form of a SQL statement that records where its sharded table references are.
+ * <p>
+ * The statement is lexed once: string literals and comments are skipped, and every identifier in a
+ * table position (after {@code FROM}, {@code JOIN}, {@code INTO} or {@code UPDATE}, and in a
+ * comma-separated {@code FROM} / {@code UPDATE} list) whose name is one of the sharded tables is
+ * recorded with its position. This covers joins, subqueries and multi-table DML. Rewriting then
+ * splices the sharded table names into the statement in a single {@link StringBuilder} pass, so a
+ * template can be cached per SQL text and reused for every shard.
+ */
+public final class SqlTableTemplate {
+
+  /**
+   * Template of a statement without sharded table references.
+   */
+  public static final SqlTableTemplate NONE = new SqlTableTemplate("", new int[0], new int[0],
+      new char[0], new int[0], new String[0]);
+
+  private final String sql;
+  /**
+   * Start (inclusive, at the opening quote if any) and end (exclusive) of each table token.
+   */
+  private final int[] starts;
+  private final int[] ends;
+  /**
+   * Quote character of each table token, or {@code 0} when it is unquoted.
+   */
+  private final char[] quotes;
+  /**
+   * Index into {@link #tables} of each table token.
+   */
+  private final int[] tableRefs;
+  /**
+   * Distinct sharded tables referenced by the statement.
+   */
+  private final String[] tables;
+
+  private SqlTableTemplate(String sql, int[] starts, int[] ends, char[] quotes, int[] tableRefs,
+      String[] tables) {
+    this.sql = sql;
+    this.starts = starts;
+    this.ends = ends;
+    this.quotes = quotes;
+    this.tableRefs = tableRefs;
+    this.tables = tables;
+  }
+
+  /**
+   * Parse {@code sql} and record its references to {@code shardedTables}.
+   *
+   * @param sql              the SQL statement
+   * @param shardedTables    names of the sharded tables, without quotes
+   * @param backslashEscapes whether a backslash escapes the next character in string literals
+   *                         (MySQL) or is an ordinary character (standard SQL, PostgreSQL)
+   * @return the template, or {@link #NONE} if the statement references no sharded table
+   */
+  public static SqlTableTemplate parse(String sql, Set<String> shardedTables,
+      boolean backslashEscapes) {
+    if (sql == null || sql.isBlank() || shardedTables.isEmpty()) {
+      return NONE;
+    }
+    Lexer lexer = new Lexer(sql, shardedTables, backslashEscapes);
+    lexer.run();
+    return lexer.build();
+  }
+
+  public boolean isEmpty() {
+    return starts.length == 0;
+  }
+
+  /**
+   * Distinct sharded tables referenced by the statement.
+   */
+  public List<String> getTables() {
+    return List.of(tables);
+  }
+
+  /**
+   * Replace every recorded table reference with {@code shardedName} applied to its table name,
+   * keeping the original quote character, or a backtick when the reference was unquoted.
+   *
+   * @param shardedName maps a table name to its sharded name; called once per distinct table
+   * @return the rewritten statement
+   */
+  public String rewrite(UnaryOperator<String> shardedName) {
+    if (isEmpty()) {
+      return sql;
+    }
+    String[] names = new String[tables.length];
+    for (int i = 0; i < tables.length; i++) {
+      names[i] = shardedName.apply(tables[i]);
+    }
+    int capacity = sql.length();
+    for (int i = 0; i < starts.length; i++) {
+      capacity += names[tableRefs[i]].length() + 2 - (ends[i] - starts[i]);
+    }
+    StringBuilder builder = new StringBuilder(capacity);
+    int last = 0;
+    for (int i = 0; i < starts.length; i++) {
+      char quote = quotes[i] == 0 ? '`' : quotes[i];
+      builder.append(sql, last, starts[i])
+          .append(quote).append(names[tableRefs[i]]).append(quote);
+      last = ends[i];
+    }
+    return builder.append(sql, last, sql.length()).toString();
+  }
+
+  private static final class Lexer {
+
+    private final String sql;
+    private final Set<String> shardedTables;
+    private final boolean backslashEscapes;
+    private final int length;
+
+    private final List<int[]> tokens = new ArrayList<>(4);
+    private final List<String> tables = new ArrayList<>(2);
+    private final StringBuilder quotes = new StringBuilder(4);
+
+    private int depth;
+    /**
+     * Bit {@code d} is set while the clause at parenthesis depth {@code d} is a table list, in
+     * which a comma is followed by another table.
+     */
+    private long tableLists;
+    private boolean expectTable;
+    private String previousWord;
+
+    Lexer(String sql, Set<String> shardedTables, boolean backslashEscapes) {
+      this.sql = sql;
+      this.shardedTables = shardedTables;
+      this.backslashEscapes = backslashEscapes;
+      this.length = sql.length();
+    }
+
+    void run() {
+      int i = 0;
+      while (i < length) {
+        char c = sql.charAt(i);
+        if (Character.isWhitespace(c)) {
+          i++;
+        } else if (c == '\'') {
+          i = skipLiteral(i);
+          expectTable = false;
+        } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+          int newline = sql.indexOf('\n', i);
+          i = newline < 0 ? length : newline + 1;
+        } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+          int close = sql.indexOf("*/", i + 2);
+          i = close < 0 ? length : close + 2;
+        } else if (c == '(') {
+          depth++;
+          setTableList(false);
+          expectTable = false;
+          i++;
+        } else if (c == ')') {
+          setTableList(false);
+          depth = Math.max(depth - 1, 0);
+          expectTable = false;
+          i++;
+        } else if (c == ',') {
+          expectTable = isTableList();
+          i++;
+        } else if (isNameStart(c)) {
+          i = name(i);
+        } else {
+          if (isNamePart(c)) {
+            // Numbers such as 10 or 1e5
+            while (i < length && isNamePart(sql.charAt(i))) {
+              i++;
+            }
+          } else {
+            // Operators and parameter markers
+            i++;
+          }
+          expectTable = false;
+          previousWord = null;
+        }
+      }
+    }
+
+    /**
+     * Consume a possibly qualified and quoted name such as {@code schema.`table`}, recording it if
+     * it is a sharded table in a table position.
+     *
+     * @return the index after the name
+     */
+    private int name(int start) {
+      int partStart;
+      int end;
+      char quote;
+      boolean qualified = false;
+      int i = start;
+      for (; ; ) {
+        char c = sql.charAt(i);
+        partStart = i;
+        if (c == '`' || c == '"') {
+          quote = c;
+          int close = sql.indexOf(c, i + 1);
+          end = close < 0 ? length : close + 1;
+        } else {
+          quote = 0;
+          end = i;
+          while (end < length && isNamePart(sql.charAt(end))) {
+            end++;
+          }
+        }
+        if (end + 1 < length && sql.charAt(end) == '.' && isNameStart(sql.charAt(end + 1))) {
+          qualified = true;
+          i = end + 1;
+          continue;
+        }
+        break;
+      }
+
+      String name = quote == 0 ? sql.substring(partStart, end)
+          : sql.substring(partStart + 1, Math.max(partStart + 1, end - 1));
+      if (expectTable && shardedTables.contains(name)) {
+        tokens.add(new int[]{partStart, end, tableRef(name)});
+        quotes.append(quote);
+      }
+      expectTable = false;
+      if (quote == 0 && !qualified) {
+        keyword(name.toUpperCase(Locale.ROOT));
+      } else {
+        previousWord = null;
+      }
+      return end;
+    }
+
+    private void keyword(String word) {
+      switch (word) {
+        case "FROM" -> {
+          expectTable = true;
+          setTableList(true);
+        }
+        case "JOIN", "INTO" -> expectTable = true;
+        case "UPDATE" -> {
+          // SELECT ... FOR UPDATE locks rows, it names no table
+          if (!"FOR".equals(previousWord)) {
+            expectTable = true;
+            setTableList(true);
+          }
+        }
+        case "WHERE", "SET", "GROUP", "ORDER", "HAVING", "LIMIT", "OFFSET", "FETCH", "UNION",
+             "INTERSECT", "EXCEPT", "VALUES", "SELECT", "RETURNING", "WINDOW", "FOR" ->
+            setTableList(false);
+        default -> {
+        }
+      }
+      previousWord = word;
+    }
+
+    private int tableRef(String name) {
+      int index = tables.indexOf(name);
+      if (index < 0) {
+        tables.add(name);
+        index = tables.size() - 1;
+      }
+      return index;
+    }
+
+    /**
+     * @return the index after the string literal starting at {@code start}
+     */
+    private int skipLiteral(int start) {
+      int i = start + 1;
+      while (i < length) {
+        char c = sql.charAt(i);
+        if (c == '\\' && backslashEscapes) {
+          i += 2;
+        } else if (c == '\'') {
+          if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+            i += 2;
+          } else {
+            return i + 1;
+          }
+        } else {
+          i++;
+        }
+      }
+      return length;
+    }
+
+    private boolean isTableList() {
+      return depth < Long.SIZE && (tableLists & (1L << depth)) != 0;
+    }
+
+    private void setTableList(boolean tableList) {
+      if (depth < Long.SIZE) {
+        tableLists = tableList ? tableLists | (1L << depth) : tableLists & ~(1L << depth);
+      }
+    }
+
+    SqlTableTemplate build() {
+      if (tokens.isEmpty()) {
+        return NONE;
+      }
+      int size = tokens.size();
+      int[] starts = new int[size];
+      int[] ends = new int[size];
+      int[] refs = new int[size];
+      for (int i = 0; i < size; i++) {
+        int[] token = tokens.get(i);
+        starts[i] = token[0];
+        ends[i] = token[1];
+        refs[i] = token[2];
+      }
+      return new SqlTableTemplate(sql, starts, ends, quotes.toString().toCharArray(), refs,
+          tables.toArray(new String[0]));
+    }
+
+    private static boolean isNameStart(char c) {
+      return Character.isLetter(c) || c == '_' || c == '`' || c == '"';
+    }
+
+    private static boolean isNamePart(char c) {
+      return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+  }
+}
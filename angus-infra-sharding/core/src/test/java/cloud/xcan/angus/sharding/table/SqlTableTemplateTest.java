@@ -0,0 +1,112 @@
+package cloud.xcan.angus.sharding.table;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class SqlTableTemplateTest {
+
+  private static final Set<String> TABLES = Set.of("exec_sample", "node_usage");
+
+  private static String rewrite(String sql) {
+    return SqlTableTemplate.parse(sql, TABLES, true).rewrite(table -> table + "-7");
+  }
+
+  // ── single table statements ──────────────────────────────────────────────
+
+  @Test
+  void rewrite_selectWithAlias() {
+    assertThat(rewrite("select es1_0.id from exec_sample es1_0 where es1_0.id=?"))
+        .isEqualTo("select es1_0.id from `exec_sample-7` es1_0 where es1_0.id=?");
+  }
+
+  @Test
+  void rewrite_keepsQuoteCharacter() {
+    assertThat(rewrite("select * from \"exec_sample\" where id = 1"))
+        .isEqualTo("select * from \"exec_sample-7\" where id = 1");
+    assertThat(rewrite("select * from `exec_sample`"))
+        .isEqualTo("select * from `exec_sample-7`");
+  }
+
+  @Test
+  void rewrite_insertUpdateDelete() {
+    assertThat(rewrite("insert into exec_sample (id,name) values (?,?)"))
+        .isEqualTo("insert into `exec_sample-7` (id,name) values (?,?)");
+    assertThat(rewrite("UPDATE exec_sample SET name=? WHERE id=?"))
+        .isEqualTo("UPDATE `exec_sample-7` SET name=? WHERE id=?");
+    assertThat(rewrite("delete from exec_sample where id=?"))
+        .isEqualTo("delete from `exec_sample-7` where id=?");
+  }
+
+  @Test
+  void rewrite_schemaQualifiedTable() {
+    assertThat(rewrite("select * from metrics.exec_sample"))
+        .isEqualTo("select * from metrics.`exec_sample-7`");
+  }
+
+  // ── multiple table references ────────────────────────────────────────────
+
+  @Test
+  void rewrite_joinsAndSubqueries() {
+    assertThat(rewrite("select e.id from exec_sample e join node_usage n on e.id=n.id "
+        + "where e.id in (select s.id from exec_sample s where s.id > 10)"))
+        .isEqualTo("select e.id from `exec_sample-7` e join `node_usage-7` n on e.id=n.id "
+            + "where e.id in (select s.id from `exec_sample-7` s where s.id > 10)");
+  }
+
+  @Test
+  void rewrite_commaSeparatedTableList() {
+    assertThat(rewrite("select a.id, b.id from exec_sample a, node_usage b where a.id=b.id"))
+        .isEqualTo("select a.id, b.id from `exec_sample-7` a, `node_usage-7` b where a.id=b.id");
+  }
+
+  @Test
+  void rewrite_multiTableDml() {
+    assertThat(rewrite("insert into node_usage (id) select id from exec_sample"))
+        .isEqualTo("insert into `node_usage-7` (id) select id from `exec_sample-7`");
+    assertThat(rewrite("update exec_sample e, node_usage n set e.v=n.v where e.id=n.id"))
+        .isEqualTo("update `exec_sample-7` e, `node_usage-7` n set e.v=n.v where e.id=n.id");
+  }
+
+  // ── references that must stay untouched ──────────────────────────────────
+
+  @Test
+  void rewrite_ignoresColumnsLiteralsAndComments() {
+    String sql = "select exec_sample.id, 'from exec_sample' from other_table "
+        + "/* from exec_sample */ where name = 'it''s' -- join exec_sample\n"
+        + "order by exec_sample, node_usage";
+    assertThat(SqlTableTemplate.parse(sql, TABLES, true)).isSameAs(SqlTableTemplate.NONE);
+  }
+
+  @Test
+  void rewrite_ignoresForUpdateAndSelectList() {
+    String sql = "select exec_sample, node_usage from other_table for update";
+    assertThat(SqlTableTemplate.parse(sql, TABLES, true).isEmpty()).isTrue();
+  }
+
+  @Test
+  void parse_backslashEscapesOnlyWhenEnabled() {
+    String sql = "select * from other_table where a = 'C:\\' or b = ' from exec_sample'";
+    // A backslash is an ordinary character: the literal ends after it
+    assertThat(SqlTableTemplate.parse(sql, TABLES, false).isEmpty()).isTrue();
+    String mysql = "select * from exec_sample where a = 'it\\'s'";
+    assertThat(SqlTableTemplate.parse(mysql, TABLES, true).getTables())
+        .containsExactly("exec_sample");
+  }
+
+  @Test
+  void getTables_listsDistinctTables() {
+    SqlTableTemplate template = SqlTableTemplate.parse(
+        "select * from exec_sample a join exec_sample b on a.id=b.pid join node_usage n on 1=1",
+        TABLES, true);
+    assertThat(template.getTables()).containsExactly("exec_sample", "node_usage");
+  }
+
+  @Test
+  void parse_nullOrBlankReturnsNone() {
+    assertThat(SqlTableTemplate.parse(null, TABLES, true)).isSameAs(SqlTableTemplate.NONE);
+    assertThat(SqlTableTemplate.parse("  ", TABLES, true)).isSameAs(SqlTableTemplate.NONE);
+    assertThat(SqlTableTemplate.parse("select 1", Set.of(), true)).isSameAs(SqlTableTemplate.NONE);
+  }
+}
@@ -0,0 +1,233 @@
+package cloud.xcan.angus.sharding;
+
+import cloud.xcan.angus.sharding.annotation.ShardedRepository;
+import cloud.xcan.angus.sharding.annotation.ShardedTable;
+import cloud.xcan.angus.sharding.context.ShardContext;
+import cloud.xcan.angus.sharding.context.ShardInfo;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Runs a query against every table shard of a {@link ShardedRepository} and merges the results,
+ * for cross-shard listings and reports that have no shard key.
+ *
+ * <p>The query is fanned out on virtual threads, at most {@code maxConcurrency} shards at a time
+ * so a single listing cannot drain the connection pool. Each shard runs with its own
+ * {@link ShardContext}, which {@link ShardedRepositoryAspect} honours and
+ * {@link ShardingTableInterceptor} uses to rewrite the table names. Since the shards run on other
+ * threads, they do not join a transaction of the caller.
+ *
+ * <p>The shards of a repository are the table indexes {@code 0..tableCount-1} on its
+ * {@link ShardedRepository#dataSourceKey()}, as computed by {@link ShardedRepositoryAspect}; other
+ * layouts can pass their own {@link ShardInfo} list to {@link #scatter(List, Supplier)}.
+ *
+ * <pre>{@code
+ * // Page 3 of the newest samples over all shards: each shard returns at most 60 rows
+ * List<ExecSample> page = executor.findAll(ExecSampleRepo.class,
+ *     Comparator.comparing(ExecSample::getCreatedDate).reversed(), 40, 20,
+ *     limit -> repo.findAllByOrderByCreatedDateDesc(Limit.of(limit)));
+ * long total = executor.aggregate(ExecSampleRepo.class, ShardAggregate.COUNT, repo::count);
+ * }</pre>
+ */
+public class ScatterGatherExecutor implements AutoCloseable {
+
+  public static final int DEFAULT_MAX_CONCURRENCY = 16;
+
+  private final int defaultTableCount;
+  private final Semaphore permits;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  public ScatterGatherExecutor(int defaultTableCount) {
+    this(defaultTableCount, DEFAULT_MAX_CONCURRENCY);
+  }
+
+  public ScatterGatherExecutor(int defaultTableCount, int maxConcurrency) {
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("maxConcurrency must be > 0, got: " + maxConcurrency);
+    }
+    this.defaultTableCount = defaultTableCount;
+    this.permits = new Semaphore(maxConcurrency);
+  }
+
+  /**
+   * The table shards of a {@link ShardedRepository}-annotated repository interface (or a proxy
+   * class implementing one).
+   */
+  public List<ShardInfo> shardsOf(Class<?> repository) {
+    Class<?> repoIface = ShardedRepositoryAspect.findShardedRepoInterface(repository);
+    if (repoIface == null) {
+      throw new IllegalArgumentException(
+          repository.getName() + " is not annotated with @ShardedRepository");
+    }
+    Class<?> entity = ShardedRepositoryAspect.findEntityClass(repoIface);
+    int entityTableCount = entity == null
+        ? 0 : entity.getAnnotation(ShardedTable.class).tableCount();
+    int tableCount = entityTableCount > 0 ? entityTableCount : defaultTableCount;
+    String dataSourceKey = repoIface.getAnnotation(ShardedRepository.class).dataSourceKey();
+    List<ShardInfo> shards = new ArrayList<>(tableCount);
+    for (int i = 0; i < tableCount; i++) {
+      shards.add(new ShardInfo(i, dataSourceKey, -1));
+    }
+    return shards;
+  }
+
+  /**
+   * Run {@code query} on every shard of {@code repository}.
+   *
+   * @return the result of each shard, in shard order
+   */
+  public <R> List<R> scatter(Class<?> repository, Supplier<R> query) {
+    return scatter(shardsOf(repository), query);
+  }
+
+  /**
+   * Run {@code query} once per shard, with {@link ShardContext} set to that shard. Results are
+   * collected as the shards complete, so the first failing shard cancels the others right away
+   * and its exception is rethrown.
+   *
+   * @return the result of each shard, in the order of {@code shards}
+   */
+  @SuppressWarnings("unchecked")
+  public <R> List<R> scatter(List<ShardInfo> shards, Supplier<R> query) {
+    CompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+    Object[] results = new Object[shards.size()];
+    List<Future<Integer>> futures = new ArrayList<>(shards.size());
+    for (int i = 0; i < shards.size(); i++) {
+      int index = i;
+      futures.add(completion.submit(() -> {
+        results[index] = runOnShard(shards.get(index), query);
+        return index;
+      }));
+    }
+    int completed = 0;
+    try {
+      for (; completed < futures.size(); completed++) {
+        Future<Integer> done = completion.take();
+        try {
+          done.get();
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof RuntimeException re) {
+            throw re;
+          }
+          if (cause instanceof Error error) {
+            throw error;
+          }
+          throw new IllegalStateException(
+              "Scatter query failed on shard " + shards.get(futures.indexOf(done)), cause);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for shard results", e);
+    } finally {
+      if (completed < futures.size()) {
+        futures.forEach(future -> future.cancel(true));
+      }
+    }
+    // Future.get() of every shard makes its write to results visible here
+    return new ArrayList<>((List<R>) Arrays.asList(results));
+  }
+
+  /**
+   * Cross-shard listing: merge the per-shard results, each already sorted by {@code order}, and
+   * return the rows {@code [offset, offset + limit)} of the merged order.
+   *
+   * @param query called on every shard with the number of rows that shard must return at most
+   *              ({@code offset + limit}), to be pushed down as the query limit
+   * @throws IllegalArgumentException if {@code offset} or {@code limit} is negative
+   */
+  public <T> List<T> findAll(Class<?> repository, Comparator<? super T> order, int offset,
+      int limit, IntFunction<? extends List<T>> query) {
+    if (offset < 0) {
+      throw new IllegalArgumentException("offset must be >= 0, got: " + offset);
+    }
+    if (limit < 0) {
+      throw new IllegalArgumentException("limit must be >= 0, got: " + limit);
+    }
+    int shardLimit = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+    List<List<T>> shardResults = scatter(repository, () -> query.apply(shardLimit));
+    Iterator<T> merged = mergeSorted(shardResults, order);
+    for (int i = 0; i < offset && merged.hasNext(); i++) {
+      merged.next();
+    }
+    List<T> page = new ArrayList<>(Math.min(limit, 256));
+    while (page.size() < limit && merged.hasNext()) {
+      page.add(merged.next());
+    }
+    return page;
+  }
+
+  /**
+   * Lazily merge per-shard results that are each sorted by {@code order} (k-way merge).
+   */
+  public static <T> Iterator<T> mergeSorted(List<? extends Iterable<? extends T>> shardResults,
+      Comparator<? super T> order) {
+    return new ShardMergeIterator<>(shardResults, order);
+  }
+
+  /**
+   * Run an aggregate query such as {@code COUNT}, {@code SUM}, {@code MIN} or {@code MAX} on every
+   * shard and combine the per-shard values.
+   *
+   * @return the combined value, or {@code null} if every shard returned {@code null}
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T aggregate(Class<?> repository, ShardAggregate function, Supplier<T> query) {
+    Object combined = null;
+    for (T value : scatter(repository, query)) {
+      combined = function.combine(combined, value);
+    }
+    return (T) combined;
+  }
+
+  /**
+   * Run a query returning one row of aggregates, e.g. {@code select count(*), max(x) ...}, on
+   * every shard and combine each column with its function.
+   */
+  public Object[] aggregateRow(Class<?> repository, Supplier<Object[]> query,
+      ShardAggregate... functions) {
+    Object[] combined = new Object[functions.length];
+    for (Object[] row : scatter(repository, query)) {
+      if (row == null) {
+        continue;
+      }
+      if (row.length != functions.length) {
+        throw new IllegalArgumentException("Aggregate row has " + row.length
+            + " columns but " + functions.length + " functions were given");
+      }
+      for (int i = 0; i < functions.length; i++) {
+        combined[i] = functions[i].combine(combined[i], row[i]);
+      }
+    }
+    return combined;
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private <R> R runOnShard(ShardInfo shard, Supplier<R> query) throws InterruptedException {
+    permits.acquire();
+    try {
+      ShardContext.set(shard);
+      return query.get();
+    } finally {
+      ShardContext.clear();
+      permits.release();
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package cloud.xcan.angus.sharding;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Combines the per-shard results of an aggregate query into the result over all shards, for
+ * {@link ScatterGatherExecutor#aggregate}.
+ *
+ * <p>{@code null} shard results (e.g. {@code MAX} over an empty shard) are skipped, matching SQL
+ * semantics. {@code AVG} cannot be combined from per-shard averages: query {@code SUM} and
+ * {@code COUNT} instead and divide the combined values.
+ */
+public enum ShardAggregate {
+
+  /**
+   * Sum of the per-shard counts.
+   */
+  COUNT,
+
+  /**
+   * Sum of the per-shard sums; the numeric type of the shard results is preserved.
+   */
+  SUM,
+
+  /**
+   * Smallest per-shard minimum; shard results must be {@link Comparable}.
+   */
+  MIN,
+
+  /**
+   * Largest per-shard maximum; shard results must be {@link Comparable}.
+   */
+  MAX;
+
+  /**
+   * Combine two shard results.
+   *
+   * @return the combined value, or {@code null} if both are {@code null}
+   */
+  public Object combine(Object left, Object right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+    return switch (this) {
+      case COUNT, SUM -> add((Number) left, (Number) right);
+      case MIN -> compare(left, right) <= 0 ? left : right;
+      case MAX -> compare(left, right) >= 0 ? left : right;
+    };
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static int compare(Object left, Object right) {
+    return ((Comparable) left).compareTo(right);
+  }
+
+  private static Number add(Number left, Number right) {
+    if (left instanceof Long) {
+      return Math.addExact(left.longValue(), right.longValue());
+    }
+    if (left instanceof Integer) {
+      return Math.addExact(left.intValue(), right.intValue());
+    }
+    if (left instanceof Double) {
+      return left.doubleValue() + right.doubleValue();
+    }
+    if (left instanceof BigDecimal decimal) {
+      return decimal.add(right instanceof BigDecimal r ? r : new BigDecimal(right.toString()));
+    }
+    if (left instanceof BigInteger integer) {
+      return integer.add(right instanceof BigInteger r ? r : BigInteger.valueOf(right.longValue()));
+    }
+    if (left instanceof Float) {
+      return left.floatValue() + right.floatValue();
+    }
+    throw new IllegalArgumentException(
+        "Unsupported aggregate result type: " + left.getClass().getName());
+  }
+}
@@ -0,0 +1,54 @@
+package cloud.xcan.angus.sharding;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Streaming k-way merge of per-shard results that are each sorted by the same order. Only the head
+ * of every shard is held in the heap, so the merged sequence is produced lazily in
+ * {@code O(log k)} per element; equal elements keep their shard order.
+ */
+final class ShardMergeIterator<T> implements Iterator<T> {
+
+  private final PriorityQueue<Head<T>> heap;
+
+  ShardMergeIterator(List<? extends Iterable<? extends T>> shards, Comparator<? super T> order) {
+    Comparator<Head<T>> byValue = (a, b) -> order.compare(a.value(), b.value());
+    this.heap = new PriorityQueue<>(Math.max(shards.size(), 1),
+        byValue.thenComparingInt(Head::shard));
+    for (int i = 0; i < shards.size(); i++) {
+      Iterable<? extends T> shard = shards.get(i);
+      if (shard != null) {
+        advance(shard.iterator(), i);
+      }
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !heap.isEmpty();
+  }
+
+  @Override
+  public T next() {
+    Head<T> head = heap.poll();
+    if (head == null) {
+      throw new NoSuchElementException();
+    }
+    advance(head.rest(), head.shard());
+    return head.value();
+  }
+
+  private void advance(Iterator<? extends T> rest, int shard) {
+    if (rest.hasNext()) {
+      heap.add(new Head<>(rest.next(), rest, shard));
+    }
+  }
+
+  private record Head<T>(T value, Iterator<? extends T> rest, int shard) {
+
+  }
+}
@@ -139,6 +139,12 @@ public class ShardingAutoConfiguration {
     return interceptor;
   }
 
+  @Bean
+  @ConditionalOnMissingBean(ScatterGatherExecutor.class)
+  public ScatterGatherExecutor scatterGatherExecutor(ShardingProperties props) {
+    return new ScatterGatherExecutor(props.getShardTableCount(), props.getScatterMaxConcurrency());
+  }
+
   // ── ShardKeyResolver chain ───────────────────────────────────────────────
 
   @Bean
@@ -6,8 +6,10 @@ import cloud.xcan.angus.sharding.context.ShardContext;
 import cloud.xcan.angus.sharding.context.ShardInfo;
 import cloud.xcan.angus.sharding.table.ShardTableManager;
 import cloud.xcan.angus.sharding.table.ShardTableNameUtils;
-import cloud.xcan.angus.sharding.table.SqlTableMatcher;
+import cloud.xcan.angus.sharding.table.SqlTableTemplate;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.resource.jdbc.spi.StatementInspector;
@@ -19,17 +21,28 @@ import org.springframework.core.type.filter.AnnotationTypeFilter;
  * Hibernate {@link StatementInspector} that rewrites table names in SQL statements for sharded
  * tables. Detects entities annotated with {@link ShardedTable} and replaces their table names with
  * the tenant-specific sharded table name.
+ * <p>
+ * Each distinct SQL text is parsed once into a {@link SqlTableTemplate} that records the positions
+ * of all sharded table references, including those in joins, subqueries and multi-table DML;
+ * later executions only splice the shard suffixes in. Templates depend on the registered tables,
+ * so registering a table drops the cached templates.
  */
 @Slf4j
 public class ShardingTableInterceptor implements StatementInspector {
 
   private final Set<String> shardedTables;
   private final ShardingProperties properties;
+  private final Map<String, SqlTableTemplate> templates;
+  private final boolean backslashEscapes;
   private ShardTableManager tableManager;
 
   public ShardingTableInterceptor(ShardingProperties properties) {
     this.properties = properties;
     this.shardedTables = new CopyOnWriteArraySet<>();
+    this.templates = new ConcurrentHashMap<>();
+    // PostgreSQL treats a backslash in a string literal as an ordinary character
+    this.backslashEscapes = !"postgres".equalsIgnoreCase(properties.getDbType())
+        && !"postgresql".equalsIgnoreCase(properties.getDbType());
   }
 
   /**
@@ -56,6 +69,7 @@ public class ShardingTableInterceptor implements StatementInspector {
         }
       }
     }
+    templates.clear();
     log.info("Registered {} sharded table names: {}", shardedTables.size(), shardedTables);
   }
 
@@ -63,7 +77,9 @@ public class ShardingTableInterceptor implements StatementInspector {
    * Register a table name as sharded (for programmatic registration).
    */
   public void registerTable(String tableName) {
-    shardedTables.add(tableName);
+    if (shardedTables.add(tableName)) {
+      templates.clear();
+    }
   }
 
   public Set<String> getShardedTables() {
@@ -76,36 +92,46 @@ public class ShardingTableInterceptor implements StatementInspector {
       return sql;
     }
 
-    String rawToken = SqlTableMatcher.matchTableToken(sql);
-    if (rawToken == null) {
+    SqlTableTemplate template = getTemplate(sql);
+    if (template.isEmpty()) {
       return sql;
     }
 
-    String tableName = SqlTableMatcher.stripQuotes(rawToken);
-    if (!shardedTables.contains(tableName)) {
-      return sql;
+    ShardInfo shard = ShardContext.get();
+    // Trigger table creation if needed
+    if (tableManager != null && shard != null) {
+      for (String tableName : template.getTables()) {
+        if (!tableManager.isCreated(buildShardedTableName(tableName, shard))) {
+          tableManager.ensureTablesExist(
+              shard.getShardKey(),
+              properties.getShardTableCount(),
+              properties.isEnableTableSecondaryIndex());
+          break;
+        }
+      }
     }
 
-    String realTableName = buildShardedTableName(tableName);
+    return template.rewrite(tableName -> buildShardedTableName(tableName, shard));
+  }
 
-    // Trigger table creation if needed
-    if (tableManager != null && !tableManager.isCreated(realTableName)) {
-      ShardInfo info = ShardContext.get();
-      if (info != null) {
-        tableManager.ensureTablesExist(
-            info.getShardKey(),
-            properties.getShardTableCount(),
-            properties.isEnableTableSecondaryIndex());
+  SqlTableTemplate getTemplate(String sql) {
+    SqlTableTemplate template = templates.get(sql);
+    if (template == null) {
+      template = SqlTableTemplate.parse(sql, shardedTables, backslashEscapes);
+      // Statements with inlined literals never repeat, start over rather than grow unbounded
+      if (templates.size() >= properties.getSqlTemplateCacheSize()) {
+        templates.clear();
       }
+      templates.put(sql, template);
     }
-
-    String quoteChar = SqlTableMatcher.detectQuoteChar(rawToken);
-    String quoted = quoteChar + realTableName + quoteChar;
-    return sql.replaceFirst(java.util.regex.Pattern.quote(rawToken), quoted);
+    return template;
   }
 
   String buildShardedTableName(String tableName) {
-    ShardInfo shard = ShardContext.get();
+    return buildShardedTableName(tableName, ShardContext.get());
+  }
+
+  private static String buildShardedTableName(String tableName, ShardInfo shard) {
     if (shard == null) {
       return tableName;
     }
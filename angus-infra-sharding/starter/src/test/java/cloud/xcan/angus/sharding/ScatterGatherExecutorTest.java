@@ -0,0 +1,225 @@
+package cloud.xcan.angus.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import cloud.xcan.angus.sharding.annotation.ShardedRepository;
+import cloud.xcan.angus.sharding.annotation.ShardedTable;
+import cloud.xcan.angus.sharding.context.ShardContext;
+import cloud.xcan.angus.sharding.context.ShardInfo;
+import jakarta.persistence.Entity;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+class ScatterGatherExecutorTest {
+
+  private final ScatterGatherExecutor executor = new ScatterGatherExecutor(8, 2);
+
+  @AfterEach
+  void close() {
+    executor.close();
+  }
+
+  // ── shard enumeration ───────────────────────────────────────────────────────
+
+  @Test
+  void shardsOf_usesEntityTableCountAndDataSourceKey() {
+    assertThat(executor.shardsOf(SampleRepo.class)).containsExactly(
+        new ShardInfo(0, "meterShard", -1), new ShardInfo(1, "meterShard", -1),
+        new ShardInfo(2, "meterShard", -1), new ShardInfo(3, "meterShard", -1));
+  }
+
+  @Test
+  void shardsOf_fallsBackToDefaultTableCount() {
+    assertThat(executor.shardsOf(DefaultCountRepo.class)).hasSize(8);
+  }
+
+  @Test
+  void shardsOf_rejectsPlainRepository() {
+    assertThatThrownBy(() -> executor.shardsOf(PlainRepo.class))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  // ── scatter ─────────────────────────────────────────────────────────────────
+
+  @Test
+  void scatter_runsEachShardWithItsOwnContext() {
+    List<Long> shardKeys = executor.scatter(SampleRepo.class,
+        () -> ShardContext.get().getShardKey());
+
+    assertThat(shardKeys).containsExactly(0L, 1L, 2L, 3L);
+    assertThat(ShardContext.get()).isNull();
+  }
+
+  @Test
+  void scatter_boundsConcurrency() {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    executor.scatter(DefaultCountRepo.class, () -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return running.decrementAndGet();
+    });
+
+    assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  void scatter_rethrowsShardFailure() {
+    assertThatThrownBy(() -> executor.scatter(SampleRepo.class, () -> {
+      if (ShardContext.get().getShardKey() == 2) {
+        throw new IllegalArgumentException("shard 2 down");
+      }
+      return 1;
+    })).isInstanceOf(IllegalArgumentException.class).hasMessage("shard 2 down");
+  }
+
+  @Test
+  void scatter_keepsShardOrderWhenShardsCompleteOutOfOrder() {
+    List<Long> shardKeys = executor.scatter(SampleRepo.class, () -> {
+      long shard = ShardContext.get().getShardKey();
+      try {
+        Thread.sleep((4 - shard) * 20);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return shard;
+    });
+
+    assertThat(shardKeys).containsExactly(0L, 1L, 2L, 3L);
+  }
+
+  @Test
+  void scatter_failsFastAndCancelsSlowerShards() throws InterruptedException {
+    CountDownLatch interrupted = new CountDownLatch(1);
+    long start = System.nanoTime();
+
+    assertThatThrownBy(() -> executor.scatter(SampleRepo.class, () -> {
+      if (ShardContext.get().getShardKey() == 0) {
+        try {
+          Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+        }
+        return 0;
+      }
+      if (ShardContext.get().getShardKey() == 3) {
+        throw new IllegalArgumentException("shard 3 down");
+      }
+      return 1;
+    })).isInstanceOf(IllegalArgumentException.class).hasMessage("shard 3 down");
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+    assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  // ── merge ───────────────────────────────────────────────────────────────────
+
+  @Test
+  void findAll_mergesSortedShardsWithLimitPushdown() {
+    List<Integer> limits = Collections.synchronizedList(new ArrayList<>());
+
+    // Shard i holds 96 + i, 92 + i, ... down to i
+    List<Long> page = executor.findAll(SampleRepo.class, Comparator.<Long>reverseOrder(), 3, 5,
+        limit -> {
+          limits.add(limit);
+          long shard = ShardContext.get().getShardKey();
+          return LongStream.iterate(96 + shard, v -> v >= 0, v -> v - 4).limit(limit)
+              .boxed().toList();
+        });
+
+    assertThat(limits).containsOnly(8);
+    assertThat(page).containsExactly(96L, 95L, 94L, 93L, 92L);
+  }
+
+  @Test
+  void findAll_rejectsNegativeOffsetOrLimit() {
+    assertThatThrownBy(() -> executor.findAll(SampleRepo.class, Comparator.<Long>naturalOrder(),
+        -1, 5, limit -> List.of())).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> executor.findAll(SampleRepo.class, Comparator.<Long>naturalOrder(),
+        0, -5, limit -> List.of())).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void mergeSorted_keepsShardOrderForEqualElements() {
+    List<String> merged = new ArrayList<>();
+    ScatterGatherExecutor.mergeSorted(List.of(List.of("a1", "c1"), List.of(), List.of("a2", "b2")),
+        Comparator.comparing((String s) -> s.charAt(0))).forEachRemaining(merged::add);
+
+    assertThat(merged).containsExactly("a1", "a2", "b2", "c1");
+  }
+
+  // ── aggregates ──────────────────────────────────────────────────────────────
+
+  @Test
+  void aggregate_combinesCountSumMinMax() {
+    assertThat(executor.aggregate(SampleRepo.class, ShardAggregate.COUNT,
+        () -> 10L + ShardContext.get().getShardKey())).isEqualTo(46L);
+    assertThat(executor.aggregate(SampleRepo.class, ShardAggregate.SUM,
+        () -> BigDecimal.valueOf(ShardContext.get().getShardKey(), 1)))
+        .isEqualByComparingTo("0.6");
+    assertThat(executor.aggregate(SampleRepo.class, ShardAggregate.MIN,
+        () -> {
+          long shard = ShardContext.get().getShardKey();
+          return shard == 0 ? null : "v" + shard;
+        })).isEqualTo("v1");
+    assertThat(executor.aggregate(SampleRepo.class, ShardAggregate.MAX,
+        () -> (Long) null)).isNull();
+  }
+
+  @Test
+  void aggregateRow_combinesEachColumn() {
+    Object[] row = executor.aggregateRow(SampleRepo.class, () -> {
+      long shard = ShardContext.get().getShardKey();
+      return new Object[]{2L, shard * 1.5, shard};
+    }, ShardAggregate.COUNT, ShardAggregate.SUM, ShardAggregate.MAX);
+
+    assertThat(row).containsExactly(8L, 9.0, 3L);
+  }
+
+  // ── fixtures ────────────────────────────────────────────────────────────────
+
+  @Entity
+  @ShardedTable(shardKey = "taskId", tableCount = 4)
+  static class SampleEntity {
+
+    Long taskId;
+  }
+
+  @Entity
+  @ShardedTable(shardKey = "nodeId")
+  static class NodeEntity {
+
+    Long nodeId;
+  }
+
+  @ShardedRepository(dataSourceKey = "meterShard")
+  interface SampleRepo extends JpaRepository<SampleEntity, Long> {
+
+  }
+
+  @ShardedRepository
+  interface DefaultCountRepo extends JpaRepository<NodeEntity, Long> {
+
+  }
+
+  interface PlainRepo extends JpaRepository<SampleEntity, Long> {
+
+  }
+}
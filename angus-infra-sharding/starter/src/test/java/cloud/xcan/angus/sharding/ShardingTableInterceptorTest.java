@@ -105,6 +105,44 @@ class ShardingTableInterceptorTest {
         org.mockito.ArgumentMatchers.anyBoolean());
   }
 
+  @Test
+  void inspect_rewritesAllShardedTablesInJoinsAndSubqueries() {
+    interceptor.registerTable("exec_sample");
+    interceptor.registerTable("node_usage");
+    ShardContext.set(new ShardInfo(100L, "shard0DataSource", -1L));
+
+    String sql = "select e.id from exec_sample e join node_usage n on e.id=n.id "
+        + "where e.id in (select s.id from exec_sample s)";
+
+    assertThat(interceptor.inspect(sql)).isEqualTo(
+        "select e.id from `exec_sample-100` e join `node_usage-100` n on e.id=n.id "
+            + "where e.id in (select s.id from `exec_sample-100` s)");
+  }
+
+  @Test
+  void inspect_reusesTemplateAcrossShards() {
+    interceptor.registerTable("exec_sample");
+    String sql = "delete from exec_sample where id=?";
+
+    ShardContext.set(new ShardInfo(1L, "shard0DataSource", -1L));
+    assertThat(interceptor.inspect(sql)).isEqualTo("delete from `exec_sample-1` where id=?");
+    ShardContext.set(new ShardInfo(2L, "shard0DataSource", -1L));
+    assertThat(interceptor.inspect(sql)).isEqualTo("delete from `exec_sample-2` where id=?");
+
+    assertThat(interceptor.getTemplate(sql)).isSameAs(interceptor.getTemplate(sql));
+  }
+
+  @Test
+  void registerTable_dropsCachedTemplates() {
+    ShardContext.set(new ShardInfo(100L, "shard0DataSource", -1L));
+    String sql = "select * from node_usage";
+    assertThat(interceptor.inspect(sql)).isEqualTo(sql);
+
+    interceptor.registerTable("node_usage");
+
+    assertThat(interceptor.inspect(sql)).isEqualTo("select * from `node_usage-100`");
+  }
+
   // ── scanAndRegister ──────────────────────────────────────────────────────
 
   @Test